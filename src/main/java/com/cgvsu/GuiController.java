@@ -1,16 +1,23 @@
 package com.cgvsu;
 
 import com.cgvsu.io.*;
+import com.cgvsu.render_engine.AdaptiveRasterizer;
+import com.cgvsu.render_engine.OffscreenRenderer;
+import com.cgvsu.render_engine.ProgressiveRenderer;
 import com.cgvsu.render_engine.RenderEngine;
+import com.cgvsu.scene.ModelFileWatcher;
 import com.cgvsu.scene.Scene;
 import com.cgvsu.scene.SceneModel;
 import com.cgvsu.ui.ErrorDialogs;
+import javafx.application.Platform;
 import javafx.fxml.FXML;
 import javafx.animation.Animation;
 import javafx.animation.KeyFrame;
 import javafx.animation.Timeline;
 import javafx.event.ActionEvent;
 import javafx.scene.canvas.Canvas;
+import javafx.scene.canvas.GraphicsContext;
+import javafx.scene.control.CheckMenuItem;
 import javafx.scene.layout.AnchorPane;
 import javafx.stage.Stage;
 import javafx.stage.FileChooser;
@@ -19,7 +26,11 @@ import java.nio.file.Files;
 import java.nio.file.Path;
 import java.io.IOException;
 import java.io.File;
-import javax.vecmath.Vector3f;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import com.cgvsu.math.Vector3f;
 
 import com.cgvsu.model.Model;
 import com.cgvsu.render_engine.Camera;
@@ -43,11 +54,38 @@ public class GuiController {
 
     private Timeline timeline;
 
+    private boolean pointCloud = false;
+
+    private boolean shaded = false;
+
+    // Заливка с пониженным внутренним разрешением во время движения камеры
+    private final AdaptiveRasterizer rasterizer = new AdaptiveRasterizer(new OffscreenRenderer());
+
+    // При движении выводит уровни детализации или облако точек в бюджет кадра, затем уточняет изображение
+    private final ProgressiveRenderer progressiveRenderer = new ProgressiveRenderer();
+
+    private ModelFileWatcher modelFileWatcher;
+
+    // Уровни детализации строятся по одной модели за раз, не мешая отрисовке
+    private final ExecutorService lodBuilder = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "lod-builder");
+        thread.setDaemon(true);
+        thread.setPriority(Thread.MIN_PRIORITY);
+        return thread;
+    });
+
     @FXML
     private void initialize() {
         scene = new Scene("Main Scene");
         scene.addCamera(camera);
 
+        try {
+            modelFileWatcher = new ModelFileWatcher(scene, Platform::runLater);
+            modelFileWatcher.start();
+        } catch (IOException e) {
+            modelFileWatcher = null; // Автоматическая перезагрузка недоступна на этой файловой системе
+        }
+
         anchorPane.prefWidthProperty().addListener((ov, oldValue, newValue) -> canvas.setWidth(newValue.doubleValue()));
         anchorPane.prefHeightProperty().addListener((ov, oldValue, newValue) -> canvas.setHeight(newValue.doubleValue()));
 
@@ -58,14 +96,28 @@ public class GuiController {
             double width = canvas.getWidth();
             double height = canvas.getHeight();
 
-            canvas.getGraphicsContext2D().clearRect(0, 0, width, height);
             camera.setAspectRatio((float) (width / height));
 
+            List<Model> previews = new ArrayList<>();
+            List<Model> models = new ArrayList<>();
             for (var sceneModel : scene.getElementsOfType(SceneModel.class)) {
                 if (sceneModel.isVisible() && sceneModel.isValid()) {
-                    RenderEngine.render(canvas.getGraphicsContext2D(), camera,
-                                      sceneModel.getModel(), (int) width, (int) height);
+                    previews.add(sceneModel.getRenderModel(camera, (int) height));
+                    models.add(sceneModel.getModel());
+                }
+            }
+
+            GraphicsContext graphicsContext = canvas.getGraphicsContext2D();
+            if (shaded) {
+                rasterizer.renderFrame(graphicsContext, camera, models, (int) width, (int) height);
+            } else if (pointCloud) {
+                graphicsContext.clearRect(0, 0, width, height);
+                for (Model preview : previews) {
+                    RenderEngine.render(graphicsContext, camera, preview, (int) width, (int) height,
+                        RenderEngine.StrokeMode.POINTS);
                 }
+            } else {
+                progressiveRenderer.renderFrame(graphicsContext, camera, previews, models, (int) width, (int) height);
             }
         });
 
@@ -76,7 +128,8 @@ public class GuiController {
     @FXML
     private void onOpenModelMenuItemClick() {
         FileChooser fileChooser = new FileChooser();
-        fileChooser.getExtensionFilters().add(new FileChooser.ExtensionFilter("Model (*.obj)", "*.obj"));
+        fileChooser.getExtensionFilters().add(new FileChooser.ExtensionFilter("Model (*.obj, *.obj.gz, *.ply)",
+            "*.obj", "*.obj.gz", "*.ply", "*.ply.gz"));
         fileChooser.setTitle("Load Model");
 
         File file = fileChooser.showOpenDialog((Stage) canvas.getScene().getWindow());
@@ -87,21 +140,30 @@ public class GuiController {
         Path filePath = Path.of(file.getAbsolutePath());
 
         try {
-            ModelLoader loader = ModelIOFactory.createLoader(filePath);
-            Model model = loader.load(filePath);
+            Model model = ModelIOFactory.loadModel(filePath);
 
             String modelId = "model_" + System.currentTimeMillis();
             String modelName = file.getName();
 
             SceneModel sceneModel = new SceneModel(modelId, modelName, model);
+            sceneModel.setSourcePath(filePath);
+            sceneModel.enableLevelsOfDetail(lodBuilder, Platform::runLater);
             scene.addElement(sceneModel);
 
+            if (modelFileWatcher != null) {
+                try {
+                    modelFileWatcher.watch(filePath);
+                } catch (IOException ignored) {
+                    // Модель загружена, но изменения файла отслеживаться не будут
+                }
+            }
+
             scene.selectElement(sceneModel);
 
             ErrorDialogs.showInformation("Модель загружена",
                 "Модель успешно загружена",
                 String.format("Загружено: %s\nВершин: %d, Полигонов: %d",
-                    modelName, model.vertices.size(), model.polygons.size()),
+                    modelName, model.getVertexCount(), model.getPolygonCount()),
                 (Stage) canvas.getScene().getWindow());
 
         } catch (ModelIOFactoryException e) {
@@ -139,6 +201,9 @@ public class GuiController {
 
         FileChooser fileChooser = new FileChooser();
         fileChooser.getExtensionFilters().add(new FileChooser.ExtensionFilter("OBJ Model (*.obj)", "*.obj"));
+        fileChooser.getExtensionFilters().add(new FileChooser.ExtensionFilter("Compressed OBJ Model (*.obj.gz)", "*.obj.gz"));
+        fileChooser.getExtensionFilters().add(new FileChooser.ExtensionFilter("Binary PLY Model (*.ply)", "*.ply"));
+        fileChooser.getExtensionFilters().add(new FileChooser.ExtensionFilter("glTF Binary (*.glb)", "*.glb"));
         fileChooser.setTitle("Save Model");
         fileChooser.setInitialFileName(sceneModel.getName() + ".obj");
 
@@ -151,7 +216,9 @@ public class GuiController {
 
         try {
             ModelSaver saver = ModelIOFactory.createSaver(filePath);
-            saver.save(sceneModel.getModel(), filePath);
+            Model model = sceneModel.getModel();
+            // Сохранители работают со списками модели - отображенную сетку для этого переносим в кучу
+            saver.save(model.isPacked() ? model.copy() : model, filePath);
 
             ErrorDialogs.showInformation("Модель сохранена",
                 "Модель успешно сохранена",
@@ -169,6 +236,25 @@ public class GuiController {
         }
     }
 
+    @FXML
+    private void onMappedLoadingMenuItemClick(ActionEvent actionEvent) {
+        boolean mapped = ((CheckMenuItem) actionEvent.getSource()).isSelected();
+        ModelIOFactory.setLoadMode(mapped ? ModelIOFactory.LoadMode.MAPPED : ModelIOFactory.LoadMode.AUTO);
+    }
+
+    @FXML
+    private void onPointCloudMenuItemClick(ActionEvent actionEvent) {
+        pointCloud = ((CheckMenuItem) actionEvent.getSource()).isSelected();
+        progressiveRenderer.invalidate();
+    }
+
+    @FXML
+    private void onShadedMenuItemClick(ActionEvent actionEvent) {
+        shaded = ((CheckMenuItem) actionEvent.getSource()).isSelected();
+        rasterizer.invalidate();
+        progressiveRenderer.invalidate();
+    }
+
     @FXML
     public void handleCameraForward(ActionEvent actionEvent) {
         camera.movePosition(new Vector3f(0, 0, -TRANSLATION));
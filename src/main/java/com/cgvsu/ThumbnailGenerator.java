@@ -0,0 +1,163 @@
+package com.cgvsu;
+
+import com.cgvsu.io.ModelIOFactory;
+import com.cgvsu.math.Vector3f;
+import com.cgvsu.model.Model;
+import com.cgvsu.render_engine.Camera;
+import com.cgvsu.render_engine.Framebuffer;
+import com.cgvsu.render_engine.OffscreenRenderer;
+import com.cgvsu.scene.BoundingBox;
+import com.cgvsu.scene.SceneModel;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+// Миниатюры PNG для всех моделей в дереве каталогов без запуска JavaFX:
+// java -cp target/classes com.cgvsu.ThumbnailGenerator <каталог моделей> <каталог миниатюр> [размер]
+// Миниатюра model.obj из подкаталога a/b сохраняется как a/b/model.obj.png; неизмененные модели,
+// у которых миниатюра новее файла, пропускаются. Файлы обрабатываются параллельно, по одному на ядро.
+public class ThumbnailGenerator {
+
+    public static final int DEFAULT_SIZE = 256;
+
+    private static final float FOV = 1.0f;
+    private static final Vector3f VIEW_DIRECTION = new Vector3f(1.0f, 0.8f, 1.4f);
+
+    private final OffscreenRenderer renderer = new OffscreenRenderer();
+    private final int size;
+
+    public ThumbnailGenerator(int size) {
+        this.size = size;
+    }
+
+    public static void main(String[] args) {
+        System.setProperty("java.awt.headless", "true");
+        if (args.length < 2 || args.length > 3) {
+            System.err.println("Использование: ThumbnailGenerator <каталог моделей> <каталог миниатюр> [размер]");
+            System.exit(2);
+        }
+
+        int size = DEFAULT_SIZE;
+        if (args.length == 3) {
+            try {
+                size = Integer.parseInt(args[2]);
+            } catch (NumberFormatException e) {
+                size = -1;
+            }
+            if (size <= 0) {
+                System.err.println("Некорректный размер миниатюры: " + args[2]);
+                System.exit(2);
+            }
+        }
+
+        try {
+            Report report = new ThumbnailGenerator(size).generate(Path.of(args[0]), Path.of(args[1]),
+                Runtime.getRuntime().availableProcessors());
+            System.out.printf("Создано: %d, пропущено: %d, ошибок: %d%n",
+                report.getRendered(), report.getSkipped(), report.getFailed());
+            System.exit(report.getFailed() > 0 ? 1 : 0);
+        } catch (IOException e) {
+            System.err.println("Ошибка обхода каталога: " + e.getMessage());
+            System.exit(2);
+        }
+    }
+
+    public Report generate(Path inputRoot, Path outputRoot, int threads) throws IOException {
+        List<Path> sources;
+        try (Stream<Path> files = Files.walk(inputRoot)) {
+            sources = files.filter(Files::isRegularFile)
+                .filter(ModelIOFactory::supportsLoading)
+                .collect(Collectors.toList());
+        }
+
+        AtomicInteger rendered = new AtomicInteger();
+        AtomicInteger skipped = new AtomicInteger();
+        AtomicInteger failed = new AtomicInteger();
+        ExecutorService executor = Executors.newFixedThreadPool(Math.max(1, threads));
+        try {
+            List<Future<?>> tasks = new ArrayList<>(sources.size());
+            for (Path source : sources) {
+                Path relative = inputRoot.relativize(source);
+                Path target = outputRoot.resolve(relative).resolveSibling(source.getFileName() + ".png");
+                tasks.add(executor.submit(() -> {
+                    try {
+                        if (isUpToDate(source, target)) {
+                            skipped.incrementAndGet();
+                            return;
+                        }
+                        Files.createDirectories(target.getParent());
+                        render(source).writePng(target);
+                        rendered.incrementAndGet();
+                    } catch (Exception | OutOfMemoryError e) {
+                        failed.incrementAndGet();
+                        System.err.println("Не удалось создать миниатюру " + source + ": " + e.getMessage());
+                    }
+                }));
+            }
+            for (Future<?> task : tasks) {
+                try {
+                    task.get();
+                } catch (ExecutionException e) {
+                    failed.incrementAndGet();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    break;
+                }
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        return new Report(rendered.get(), skipped.get(), failed.get());
+    }
+
+    // Модель загружается мимо общего кэша: тысячи миниатюр не должны удерживать модели в памяти
+    public Framebuffer render(Path source) throws Exception {
+        Model model = ModelIOFactory.createLoader(source).load(source);
+        return render(model);
+    }
+
+    public Framebuffer render(Model model) {
+        BoundingBox bounds = new SceneModel("thumbnail", model).getBoundingBox();
+        Camera camera = Camera.framing(bounds.getCenter(), bounds.getDiagonal() * 0.5f, VIEW_DIRECTION, FOV, 1.0f);
+        return renderer.render(model, camera, size, size);
+    }
+
+    private static boolean isUpToDate(Path source, Path target) throws IOException {
+        return Files.exists(target)
+            && Files.getLastModifiedTime(target).compareTo(Files.getLastModifiedTime(source)) >= 0;
+    }
+
+    public static class Report {
+        private final int rendered;
+        private final int skipped;
+        private final int failed;
+
+        public Report(int rendered, int skipped, int failed) {
+            this.rendered = rendered;
+            this.skipped = skipped;
+            this.failed = failed;
+        }
+
+        public int getRendered() {
+            return rendered;
+        }
+
+        public int getSkipped() {
+            return skipped;
+        }
+
+        public int getFailed() {
+            return failed;
+        }
+    }
+}
@@ -0,0 +1,392 @@
+package com.cgvsu.io;
+
+import com.cgvsu.math.Vector2f;
+import com.cgvsu.math.Vector3f;
+import com.cgvsu.mesh.Triangulation;
+import com.cgvsu.model.Model;
+import com.cgvsu.model.Polygon;
+import com.cgvsu.scene.BoundingBox;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.Channels;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.Function;
+
+public class GlbSaver extends ModelSaver {
+
+    private static final String[] SUPPORTED_EXTENSIONS = {"glb"};
+
+    private static final int GLB_MAGIC = 0x46546C67; // "glTF"
+    private static final int GLB_VERSION = 2;
+    private static final int CHUNK_JSON = 0x4E4F534A;
+    private static final int CHUNK_BIN = 0x004E4942;
+
+    private static final int COMPONENT_UNSIGNED_SHORT = 5123;
+    private static final int COMPONENT_UNSIGNED_INT = 5125;
+    private static final int COMPONENT_FLOAT = 5126;
+    private static final int TARGET_ARRAY_BUFFER = 34962;
+    private static final int TARGET_ELEMENT_ARRAY_BUFFER = 34963;
+    private static final int MODE_TRIANGLES = 4;
+
+    // 0xFFFF зарезервировано в glTF под перезапуск примитива
+    private static final int MAX_SHORT_INDEX = 0xFFFE;
+
+    private static final int WRITE_BUFFER_SIZE = 256 * 1024;
+
+    @Override
+    protected boolean supportsExtension(Path path) {
+        if (path == null) return false;
+        String fileName = path.getFileName().toString().toLowerCase();
+        return fileName.endsWith(".glb");
+    }
+
+    @Override
+    protected String generateContent(Model model, SaveSettings settings) throws ModelSavingException {
+        throw new ModelSavingException("Формат GLB является бинарным и не имеет текстового представления");
+    }
+
+    @Override
+    protected void writeContent(Model model, SaveSettings settings, OutputStream out)
+            throws ModelSavingException, IOException {
+        GlbSaveSettings glbSettings = settings instanceof GlbSaveSettings custom ? custom : getDefaultSettings();
+
+        VertexLayout layout = VertexLayout.build(model,
+            settings.includeTextureCoords && hasCompleteAttribute(model, Polygon::getTextureVertexIndices,
+                model.textureVertices == null ? 0 : model.textureVertices.size()),
+            settings.includeNormals && hasCompleteAttribute(model, Polygon::getNormalIndices,
+                model.normals == null ? 0 : model.normals.size()));
+
+        if (layout.indexCount == 0) {
+            throw new ModelSavingException("Модель не содержит полигонов, пригодных для триангуляции");
+        }
+
+        BoundingBox bounds = new BoundingBox();
+        for (int i = 0; i < layout.vertexCount; i++) {
+            bounds.expandToInclude(model.vertices.get(layout.vertexSource(i)));
+        }
+
+        boolean shortIndices = glbSettings.allowShortIndices && layout.vertexCount - 1 <= MAX_SHORT_INDEX;
+        int indexSize = shortIndices ? Short.BYTES : Integer.BYTES;
+
+        long positionsLength = (long) layout.vertexCount * 3 * Float.BYTES;
+        long normalsLength = layout.hasNormals ? positionsLength : 0;
+        long texturesLength = layout.hasTextures ? (long) layout.vertexCount * 2 * Float.BYTES : 0;
+        long indicesLength = (long) layout.indexCount * indexSize;
+
+        long positionsOffset = 0;
+        long normalsOffset = positionsOffset + positionsLength;
+        long texturesOffset = normalsOffset + normalsLength;
+        long indicesOffset = texturesOffset + texturesLength;
+        long binLength = align4(indicesOffset + indicesLength);
+
+        StringBuilder json = new StringBuilder();
+        json.append("{\"asset\":{\"version\":\"2.0\",\"generator\":\"Simple3DViewer\"},");
+        json.append("\"scene\":0,\"scenes\":[{\"nodes\":[0]}],");
+        json.append("\"nodes\":[{\"mesh\":0,\"name\":\"").append(escapeJson(glbSettings.meshName)).append("\"}],");
+
+        int accessor = 0;
+        json.append("\"meshes\":[{\"primitives\":[{\"attributes\":{\"POSITION\":").append(accessor++);
+        if (layout.hasNormals) {
+            json.append(",\"NORMAL\":").append(accessor++);
+        }
+        if (layout.hasTextures) {
+            json.append(",\"TEXCOORD_0\":").append(accessor++);
+        }
+        json.append("},\"indices\":").append(accessor).append(",\"mode\":").append(MODE_TRIANGLES).append("}]}],");
+
+        json.append("\"buffers\":[{\"byteLength\":").append(binLength).append("}],");
+
+        json.append("\"bufferViews\":[");
+        appendBufferView(json, positionsOffset, positionsLength, TARGET_ARRAY_BUFFER);
+        if (layout.hasNormals) {
+            json.append(",");
+            appendBufferView(json, normalsOffset, normalsLength, TARGET_ARRAY_BUFFER);
+        }
+        if (layout.hasTextures) {
+            json.append(",");
+            appendBufferView(json, texturesOffset, texturesLength, TARGET_ARRAY_BUFFER);
+        }
+        json.append(",");
+        appendBufferView(json, indicesOffset, indicesLength, TARGET_ELEMENT_ARRAY_BUFFER);
+        json.append("],");
+
+        int bufferView = 0;
+        json.append("\"accessors\":[");
+        Vector3f min = bounds.getMin();
+        Vector3f max = bounds.getMax();
+        json.append("{\"bufferView\":").append(bufferView++)
+            .append(",\"componentType\":").append(COMPONENT_FLOAT)
+            .append(",\"count\":").append(layout.vertexCount)
+            .append(",\"type\":\"VEC3\",\"min\":[").append(min.x).append(",").append(min.y).append(",").append(min.z)
+            .append("],\"max\":[").append(max.x).append(",").append(max.y).append(",").append(max.z).append("]}");
+        if (layout.hasNormals) {
+            json.append(",{\"bufferView\":").append(bufferView++)
+                .append(",\"componentType\":").append(COMPONENT_FLOAT)
+                .append(",\"count\":").append(layout.vertexCount).append(",\"type\":\"VEC3\"}");
+        }
+        if (layout.hasTextures) {
+            json.append(",{\"bufferView\":").append(bufferView++)
+                .append(",\"componentType\":").append(COMPONENT_FLOAT)
+                .append(",\"count\":").append(layout.vertexCount).append(",\"type\":\"VEC2\"}");
+        }
+        json.append(",{\"bufferView\":").append(bufferView)
+            .append(",\"componentType\":").append(shortIndices ? COMPONENT_UNSIGNED_SHORT : COMPONENT_UNSIGNED_INT)
+            .append(",\"count\":").append(layout.indexCount).append(",\"type\":\"SCALAR\"}");
+        json.append("]}");
+
+        byte[] jsonBytes = json.toString().getBytes(StandardCharsets.UTF_8);
+        long jsonLength = align4(jsonBytes.length);
+        long totalLength = 12 + 8 + jsonLength + 8 + binLength;
+        if (totalLength > 0xFFFFFFFFL) {
+            throw new ModelSavingException("Размер GLB превышает 4 ГБ");
+        }
+
+        WritableByteChannel channel = Channels.newChannel(out);
+        ByteBuffer buffer = ByteBuffer.allocateDirect(WRITE_BUFFER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+
+        buffer.putInt(GLB_MAGIC).putInt(GLB_VERSION).putInt((int) totalLength);
+        buffer.putInt((int) jsonLength).putInt(CHUNK_JSON);
+        flush(channel, buffer);
+        ByteBuffer jsonBuffer = ByteBuffer.wrap(jsonBytes);
+        while (jsonBuffer.hasRemaining()) {
+            channel.write(jsonBuffer);
+        }
+        for (long i = jsonBytes.length; i < jsonLength; i++) {
+            buffer.put((byte) ' ');
+        }
+        buffer.putInt((int) binLength).putInt(CHUNK_BIN);
+
+        for (int i = 0; i < layout.vertexCount; i++) {
+            ensureSpace(channel, buffer, 3 * Float.BYTES);
+            Vector3f vertex = model.vertices.get(layout.vertexSource(i));
+            buffer.putFloat(vertex.x).putFloat(vertex.y).putFloat(vertex.z);
+        }
+
+        if (layout.hasNormals) {
+            for (int i = 0; i < layout.vertexCount; i++) {
+                ensureSpace(channel, buffer, 3 * Float.BYTES);
+                Vector3f normal = model.normals.get(layout.normalSource(i));
+                float length = (float) Math.sqrt(normal.x * normal.x + normal.y * normal.y + normal.z * normal.z);
+                if (length > 0) {
+                    buffer.putFloat(normal.x / length).putFloat(normal.y / length).putFloat(normal.z / length);
+                } else {
+                    buffer.putFloat(0).putFloat(0).putFloat(1);
+                }
+            }
+        }
+
+        if (layout.hasTextures) {
+            for (int i = 0; i < layout.vertexCount; i++) {
+                ensureSpace(channel, buffer, 2 * Float.BYTES);
+                Vector2f texture = model.textureVertices.get(layout.textureSource(i));
+                // В glTF начало текстурных координат в левом верхнем углу, в OBJ - в левом нижнем
+                buffer.putFloat(texture.x).putFloat(1.0f - texture.y);
+            }
+        }
+
+        // Вогнутые полигоны разбиваются отсечением ушей; разбиение кэшируется в модели
+        Triangulation triangulation = model.getDerived(Triangulation.DERIVED);
+        for (int t = 0; t < triangulation.getTriangleCount(); t++) {
+            ensureSpace(channel, buffer, 3 * indexSize);
+            putIndex(buffer, layout.cornerVertex[triangulation.getCorner(t, 0)], shortIndices);
+            putIndex(buffer, layout.cornerVertex[triangulation.getCorner(t, 1)], shortIndices);
+            putIndex(buffer, layout.cornerVertex[triangulation.getCorner(t, 2)], shortIndices);
+        }
+
+        ensureSpace(channel, buffer, Integer.BYTES);
+        for (long i = indicesOffset + indicesLength; i < binLength; i++) {
+            buffer.put((byte) 0);
+        }
+        flush(channel, buffer);
+    }
+
+    private static boolean hasCompleteAttribute(Model model, Function<Polygon, List<Integer>> indices,
+                                                int attributeCount) {
+        if (attributeCount == 0) {
+            return false;
+        }
+        for (Polygon polygon : model.polygons) {
+            List<Integer> attributeIndices = indices.apply(polygon);
+            if (attributeIndices == null || attributeIndices.size() != polygon.getVertexIndices().size()) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static void appendBufferView(StringBuilder json, long offset, long length, int target) {
+        json.append("{\"buffer\":0,\"byteOffset\":").append(offset)
+            .append(",\"byteLength\":").append(length)
+            .append(",\"target\":").append(target).append("}");
+    }
+
+    private static void putIndex(ByteBuffer buffer, int index, boolean shortIndices) {
+        if (shortIndices) {
+            buffer.putShort((short) index);
+        } else {
+            buffer.putInt(index);
+        }
+    }
+
+    private static long align4(long length) {
+        return (length + 3) & ~3L;
+    }
+
+    private static String escapeJson(String value) {
+        StringBuilder sb = new StringBuilder(value.length());
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '"' -> sb.append("\\\"");
+                case '\\' -> sb.append("\\\\");
+                default -> {
+                    if (c < 0x20) {
+                        sb.append(String.format("\\u%04x", (int) c));
+                    } else {
+                        sb.append(c);
+                    }
+                }
+            }
+        }
+        return sb.toString();
+    }
+
+    private static void ensureSpace(WritableByteChannel channel, ByteBuffer buffer, int bytes) throws IOException {
+        if (buffer.remaining() < bytes) {
+            flush(channel, buffer);
+        }
+    }
+
+    private static void flush(WritableByteChannel channel, ByteBuffer buffer) throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        buffer.clear();
+    }
+
+    @Override
+    protected GlbSaveSettings getDefaultSettings() {
+        return new GlbSaveSettings();
+    }
+
+    @Override
+    public String[] getSupportedExtensions() {
+        return SUPPORTED_EXTENSIONS.clone();
+    }
+
+    public static class GlbSaveSettings extends SaveSettings {
+        public String meshName = "model";
+
+        public boolean allowShortIndices = true;
+
+        public GlbSaveSettings() {
+            super();
+            this.includeNormals = true;
+            this.includeTextureCoords = true;
+            this.includeComments = false;
+        }
+    }
+
+    // Вершины glTF объединяют позицию, нормаль и текстурную координату, поэтому углы полигонов
+    // с разными комбинациями индексов превращаются в разные вершины. Если атрибутов нет,
+    // вершины модели используются как есть и таблица не строится.
+    private static final class VertexLayout {
+        final boolean hasTextures;
+        final boolean hasNormals;
+        final int[] cornerVertex;
+        int vertexCount;
+        int indexCount;
+        private int[] sources;
+
+        private VertexLayout(boolean hasTextures, boolean hasNormals, int cornerCount) {
+            this.hasTextures = hasTextures;
+            this.hasNormals = hasNormals;
+            this.cornerVertex = new int[cornerCount];
+        }
+
+        static VertexLayout build(Model model, boolean hasTextures, boolean hasNormals) {
+            int cornerCount = 0;
+            int indexCount = 0;
+            for (Polygon polygon : model.polygons) {
+                int size = polygon.getVertexIndices().size();
+                cornerCount += size;
+                indexCount += Math.max(0, size - 2) * 3;
+            }
+
+            VertexLayout layout = new VertexLayout(hasTextures, hasNormals, cornerCount);
+            layout.indexCount = indexCount;
+
+            if (!hasTextures && !hasNormals) {
+                int corner = 0;
+                for (Polygon polygon : model.polygons) {
+                    for (int vertexIndex : polygon.getVertexIndices()) {
+                        layout.cornerVertex[corner++] = vertexIndex;
+                    }
+                }
+                layout.vertexCount = model.vertices.size();
+                return layout;
+            }
+
+            int capacity = Integer.highestOneBit(Math.max(cornerCount, 1) * 2 - 1) << 1;
+            int[] slots = new int[capacity];
+            Arrays.fill(slots, -1);
+            int[] sources = new int[cornerCount * 3];
+            int mask = capacity - 1;
+
+            int corner = 0;
+            for (Polygon polygon : model.polygons) {
+                List<Integer> vertexIndices = polygon.getVertexIndices();
+                List<Integer> textureIndices = polygon.getTextureVertexIndices();
+                List<Integer> normalIndices = polygon.getNormalIndices();
+                for (int i = 0; i < vertexIndices.size(); i++) {
+                    int v = vertexIndices.get(i);
+                    int t = hasTextures ? textureIndices.get(i) : 0;
+                    int n = hasNormals ? normalIndices.get(i) : 0;
+
+                    int slot = ((v * 73856093) ^ (t * 19349663) ^ (n * 83492791)) & mask;
+                    while (true) {
+                        int existing = slots[slot];
+                        if (existing == -1) {
+                            existing = layout.vertexCount++;
+                            sources[existing * 3] = v;
+                            sources[existing * 3 + 1] = t;
+                            sources[existing * 3 + 2] = n;
+                            slots[slot] = existing;
+                            layout.cornerVertex[corner] = existing;
+                            break;
+                        }
+                        if (sources[existing * 3] == v && sources[existing * 3 + 1] == t && sources[existing * 3 + 2] == n) {
+                            layout.cornerVertex[corner] = existing;
+                            break;
+                        }
+                        slot = (slot + 1) & mask;
+                    }
+                    corner++;
+                }
+            }
+
+            layout.sources = sources;
+            return layout;
+        }
+
+        int vertexSource(int vertex) {
+            return sources == null ? vertex : sources[vertex * 3];
+        }
+
+        int textureSource(int vertex) {
+            return sources[vertex * 3 + 1];
+        }
+
+        int normalSource(int vertex) {
+            return sources[vertex * 3 + 2];
+        }
+    }
+}
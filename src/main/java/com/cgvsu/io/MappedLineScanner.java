@@ -0,0 +1,166 @@
+package com.cgvsu.io;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+
+// Построчный проход по файлу через окна FileChannel.map. В памяти отображено только текущее окно;
+// строка, пересекающая границу окна, заново отображается с ее начала. Границы строки
+// (без '\n' и '\r') доступны через lineStart()/lineEnd() внутри buffer().
+class MappedLineScanner {
+
+    static final int DEFAULT_WINDOW_SIZE = 64 * 1024 * 1024;
+
+    private final FileChannel channel;
+    private final long fileSize;
+    private final int windowSize;
+
+    private MappedByteBuffer window;
+    private long windowStart;
+    private int windowLength;
+    private int position;
+
+    private long lineOffset;
+    private int lineStart;
+    private int lineEnd;
+    private final LineChars lineChars = new LineChars();
+
+    MappedLineScanner(FileChannel channel, int windowSize) throws IOException {
+        this.channel = channel;
+        this.fileSize = channel.size();
+        this.windowSize = windowSize;
+        map(0);
+    }
+
+    long fileSize() {
+        return fileSize;
+    }
+
+    // Переход к строке, начинающейся с заданного смещения; следующий nextLine() вернет ее
+    void seek(long offset) throws IOException {
+        if (offset >= windowStart && offset < windowStart + windowLength) {
+            position = (int) (offset - windowStart);
+        } else {
+            map(offset);
+        }
+    }
+
+    boolean nextLine() throws IOException {
+        while (true) {
+            if (windowStart + position >= fileSize) {
+                return false;
+            }
+
+            int end = position;
+            while (end < windowLength && window.get(end) != '\n') {
+                end++;
+            }
+
+            if (end == windowLength && windowStart + windowLength < fileSize) {
+                if (position == 0) {
+                    throw new IOException("Строка длиннее окна отображения файла (" + windowSize + " байт)");
+                }
+                map(windowStart + position);
+                continue;
+            }
+
+            lineOffset = windowStart + position;
+            lineStart = position;
+            lineEnd = end;
+            if (lineEnd > lineStart && window.get(lineEnd - 1) == '\r') {
+                lineEnd--;
+            }
+            position = end + 1;
+            return true;
+        }
+    }
+
+    MappedByteBuffer buffer() {
+        return window;
+    }
+
+    long lineOffset() {
+        return lineOffset;
+    }
+
+    int lineStart() {
+        return lineStart;
+    }
+
+    int lineEnd() {
+        return lineEnd;
+    }
+
+    // Смещение в файле сразу за текущей строкой (с учетом перевода строки)
+    long nextLineOffset() {
+        return Math.min(windowStart + position, fileSize);
+    }
+
+    String lineString() {
+        byte[] bytes = new byte[lineEnd - lineStart];
+        window.get(lineStart, bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    // Текущая строка без копирования: байты читаются как символы ISO-8859-1, чего достаточно
+    // для чисел и индексов OBJ. Представление одно на сканер и меняется вместе с текущей строкой.
+    CharSequence lineChars() {
+        return lineChars;
+    }
+
+    // Первый символ записи строки ('v', 'f', 'g', 'o'), если он - целое слово; иначе 0
+    static char recordType(ByteBuffer buffer, int start, int end) {
+        if (start >= end) {
+            return 0;
+        }
+        byte first = buffer.get(start);
+        if (start + 1 < end && !isWhitespace(buffer.get(start + 1))) {
+            return 0;
+        }
+        return (char) first;
+    }
+
+    static int skipWhitespace(ByteBuffer buffer, int position, int end) {
+        while (position < end && isWhitespace(buffer.get(position))) {
+            position++;
+        }
+        return position;
+    }
+
+    static boolean isWhitespace(byte b) {
+        return b == ' ' || b == '\t' || b == '\r' || b == '\f';
+    }
+
+    private void map(long start) throws IOException {
+        windowStart = start;
+        windowLength = (int) Math.min(windowSize, fileSize - start);
+        window = channel.map(FileChannel.MapMode.READ_ONLY, start, windowLength);
+        position = 0;
+    }
+
+    private final class LineChars implements CharSequence {
+        @Override
+        public int length() {
+            return lineEnd - lineStart;
+        }
+
+        @Override
+        public char charAt(int index) {
+            return (char) (window.get(lineStart + index) & 0xFF);
+        }
+
+        @Override
+        public CharSequence subSequence(int start, int end) {
+            byte[] bytes = new byte[end - start];
+            window.get(lineStart + start, bytes);
+            return new String(bytes, StandardCharsets.ISO_8859_1);
+        }
+
+        @Override
+        public String toString() {
+            return lineString();
+        }
+    }
+}
@@ -0,0 +1,292 @@
+package com.cgvsu.io;
+
+import com.cgvsu.model.PackedMesh;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.FloatBuffer;
+import java.nio.IntBuffer;
+import java.nio.LongBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+// Загрузка OBJ, не помещающихся в кучу. Файл читается окнами FileChannel.map в три прохода:
+// 1) запоминаются смещения строк "v" и считаются полигоны и индексы - числа не разбираются;
+// 2) разбираются полигоны, вершинам в порядке первого использования назначаются новые номера;
+// 3) по смещениям разбираются только использованные вершины, в порядке возрастания смещений.
+// Результат и служебные таблицы хранятся в прямых буферах вне кучи. Текстурные координаты
+// и нормали в этом режиме не загружаются.
+public class MappedObjLoader {
+
+    private static final int MAX_BUFFER_ELEMENTS_FLOAT = Integer.MAX_VALUE / Float.BYTES;
+    private static final int MAX_BUFFER_ELEMENTS_LONG = Integer.MAX_VALUE / Long.BYTES;
+
+    private int windowSize = MappedLineScanner.DEFAULT_WINDOW_SIZE;
+
+    private final byte[] numberBytes = new byte[64];
+
+    public void setWindowSize(int windowSize) {
+        this.windowSize = windowSize;
+    }
+
+    public PackedMesh load(Path path) throws ModelLoadingException {
+        if (path == null) {
+            throw new ModelLoadingException("Путь к файлу не может быть null");
+        }
+        if (path.toString().toLowerCase().endsWith(".gz")) {
+            throw new ModelLoadingException("Сжатый файл нельзя отобразить в память: " + path);
+        }
+
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            MappedLineScanner scanner = new MappedLineScanner(channel, windowSize);
+
+            VertexIndex vertexIndex = indexVertices(scanner);
+            if (vertexIndex.vertexCount == 0) {
+                throw new ModelLoadingException("Модель не содержит вершин");
+            }
+            if (vertexIndex.polygonCount == 0) {
+                throw new ModelLoadingException("Модель не содержит полигонов");
+            }
+
+            IntBuffer remap = allocateInts(vertexIndex.vertexCount);
+            for (int i = 0; i < vertexIndex.vertexCount; i++) {
+                remap.put(i, -1);
+            }
+            IntBuffer polygonStarts = allocateInts(checkCapacity(vertexIndex.polygonCount + 1L, "полигонов"));
+            IntBuffer indices = allocateInts(checkCapacity(vertexIndex.indexCount, "индексов полигонов"));
+
+            int usedVertexCount = readPolygons(scanner, vertexIndex.vertexCount, remap, polygonStarts, indices);
+
+            FloatBuffer positions = allocateFloats(checkCapacity(3L * usedVertexCount, "вершин"));
+            readVertices(scanner, vertexIndex, remap, positions);
+
+            return new PackedMesh(positions, polygonStarts, indices);
+        } catch (IOException e) {
+            throw new ModelLoadingException("Ошибка чтения файла: " + path, e);
+        }
+    }
+
+    private VertexIndex indexVertices(MappedLineScanner scanner) throws IOException, ModelLoadingException {
+        VertexIndex result = new VertexIndex();
+        LongBuffer offsets = allocateLongs(1024);
+        int count = 0;
+
+        scanner.seek(0);
+        while (scanner.nextLine()) {
+            ByteBuffer buffer = scanner.buffer();
+            int start = skipWhitespace(buffer, scanner.lineStart(), scanner.lineEnd());
+            char type = recordType(buffer, start, scanner.lineEnd());
+
+            if (type == 'v') {
+                if (count == offsets.capacity()) {
+                    if (count == MAX_BUFFER_ELEMENTS_LONG) {
+                        throw new ModelLoadingException("Слишком много вершин для загрузки с отображением в память");
+                    }
+                    LongBuffer grown = allocateLongs((int) Math.min(2L * count, MAX_BUFFER_ELEMENTS_LONG));
+                    offsets.rewind();
+                    grown.put(offsets);
+                    offsets = grown;
+                }
+                offsets.put(count++, scanner.lineOffset());
+            } else if (type == 'f') {
+                result.polygonCount++;
+                result.indexCount += countWords(buffer, start + 1, scanner.lineEnd());
+            }
+        }
+
+        result.vertexOffsets = offsets;
+        result.vertexCount = count;
+        return result;
+    }
+
+    private int readPolygons(MappedLineScanner scanner, int vertexCount, IntBuffer remap,
+                             IntBuffer polygonStarts, IntBuffer indices) throws IOException, ModelLoadingException {
+        int usedVertexCount = 0;
+        int polygonIndex = 0;
+        int indexCount = 0;
+        int lineNumber = 0;
+
+        scanner.seek(0);
+        while (scanner.nextLine()) {
+            lineNumber++;
+            ByteBuffer buffer = scanner.buffer();
+            int end = scanner.lineEnd();
+            int position = skipWhitespace(buffer, scanner.lineStart(), end);
+            if (recordType(buffer, position, end) != 'f') {
+                continue;
+            }
+
+            polygonStarts.put(polygonIndex, indexCount);
+            int polygonVertexCount = 0;
+            position++;
+            while ((position = skipWhitespace(buffer, position, end)) < end) {
+                int index = parseVertexIndex(buffer, position, end, lineNumber) - 1; // OBJ использует 1-based индексы
+                if (index < 0 || index >= vertexCount) {
+                    throw new ModelLoadingException(String.format(
+                        "Полигон %d ссылается на несуществующую вершину %d", polygonIndex, index));
+                }
+
+                int packedIndex = remap.get(index);
+                if (packedIndex < 0) {
+                    packedIndex = usedVertexCount++;
+                    remap.put(index, packedIndex);
+                }
+                indices.put(indexCount++, packedIndex);
+                polygonVertexCount++;
+
+                while (position < end && !isWhitespace(buffer.get(position))) {
+                    position++;
+                }
+            }
+
+            if (polygonVertexCount < 3) {
+                throw new ModelLoadingException("Полигон должен содержать минимум 3 вершины", lineNumber);
+            }
+            polygonIndex++;
+        }
+
+        polygonStarts.put(polygonIndex, indexCount);
+        return usedVertexCount;
+    }
+
+    private void readVertices(MappedLineScanner scanner, VertexIndex vertexIndex, IntBuffer remap,
+                              FloatBuffer positions) throws IOException, ModelLoadingException {
+        for (int i = 0; i < vertexIndex.vertexCount; i++) {
+            int packedIndex = remap.get(i);
+            if (packedIndex < 0) {
+                continue; // На вершину не ссылается ни один полигон - ее страницы не затрагиваются
+            }
+
+            long offset = vertexIndex.vertexOffsets.get(i);
+            scanner.seek(offset);
+            scanner.nextLine();
+
+            MappedByteBuffer buffer = scanner.buffer();
+            int end = scanner.lineEnd();
+            int position = skipWhitespace(buffer, scanner.lineStart(), end) + 1;
+            for (int axis = 0; axis < 3; axis++) {
+                position = skipWhitespace(buffer, position, end);
+                if (position == end) {
+                    throw new ModelLoadingException(
+                        "Недостаточно координат для вершины (требуется минимум 3), смещение " + offset);
+                }
+                int wordEnd = position;
+                while (wordEnd < end && !isWhitespace(buffer.get(wordEnd))) {
+                    wordEnd++;
+                }
+                positions.put(packedIndex * 3 + axis, parseCoordinate(buffer, position, wordEnd, offset));
+                position = wordEnd;
+            }
+        }
+    }
+
+    private float parseCoordinate(ByteBuffer buffer, int start, int end, long lineOffset) throws ModelLoadingException {
+        int length = end - start;
+        if (length > numberBytes.length) {
+            throw new ModelLoadingException("Некорректный формат чисел в координатах вершины, смещение " + lineOffset);
+        }
+        buffer.get(start, numberBytes, 0, length);
+
+        try {
+            float value = Float.parseFloat(new String(numberBytes, 0, length, StandardCharsets.ISO_8859_1));
+            if (Float.isNaN(value) || Float.isInfinite(value)) {
+                throw new ModelLoadingException(
+                    "Координаты вершины содержат некорректные значения, смещение " + lineOffset);
+            }
+            return value;
+        } catch (NumberFormatException e) {
+            throw new ModelLoadingException("Некорректный формат чисел в координатах вершины, смещение " + lineOffset, e);
+        }
+    }
+
+    // Разбирает индекс вершины из слова вида v, v/vt, v//vn или v/vt/vn
+    private static int parseVertexIndex(ByteBuffer buffer, int start, int end, int lineNumber)
+            throws ModelLoadingException {
+        int i = start;
+        boolean negative = false;
+        byte first = buffer.get(i);
+        if (first == '-' || first == '+') {
+            negative = first == '-';
+            i++;
+        }
+
+        long value = 0;
+        int digits = 0;
+        for (; i < end; i++) {
+            byte b = buffer.get(i);
+            if (b == '/' || isWhitespace(b)) {
+                break;
+            }
+            int digit = b - '0';
+            if (digit < 0 || digit > 9) {
+                throw new ModelLoadingException("Некорректный формат индексов в определении полигона", lineNumber);
+            }
+            value = value * 10 + digit;
+            digits++;
+            if (value > Integer.MAX_VALUE) {
+                throw new ModelLoadingException("Некорректный формат индексов в определении полигона", lineNumber);
+            }
+        }
+
+        if (digits == 0) {
+            throw new ModelLoadingException("Отсутствует индекс вершины в определении полигона", lineNumber);
+        }
+        return negative ? (int) -value : (int) value;
+    }
+
+    private static char recordType(ByteBuffer buffer, int start, int end) {
+        char type = MappedLineScanner.recordType(buffer, start, end);
+        return type == 'v' || type == 'f' ? type : 0;
+    }
+
+    private static int countWords(ByteBuffer buffer, int start, int end) {
+        int count = 0;
+        boolean inWord = false;
+        for (int i = start; i < end; i++) {
+            boolean whitespace = isWhitespace(buffer.get(i));
+            if (!whitespace && !inWord) {
+                count++;
+            }
+            inWord = !whitespace;
+        }
+        return count;
+    }
+
+    private static int skipWhitespace(ByteBuffer buffer, int position, int end) {
+        return MappedLineScanner.skipWhitespace(buffer, position, end);
+    }
+
+    private static boolean isWhitespace(byte b) {
+        return MappedLineScanner.isWhitespace(b);
+    }
+
+    private static int checkCapacity(long elements, String what) throws ModelLoadingException {
+        if (elements > MAX_BUFFER_ELEMENTS_FLOAT) {
+            throw new ModelLoadingException("Слишком много " + what + " для упакованной модели: " + elements);
+        }
+        return (int) elements;
+    }
+
+    private static IntBuffer allocateInts(int count) {
+        return ByteBuffer.allocateDirect(count * Integer.BYTES).order(ByteOrder.nativeOrder()).asIntBuffer();
+    }
+
+    private static FloatBuffer allocateFloats(int count) {
+        return ByteBuffer.allocateDirect(count * Float.BYTES).order(ByteOrder.nativeOrder()).asFloatBuffer();
+    }
+
+    private static LongBuffer allocateLongs(int count) {
+        return ByteBuffer.allocateDirect(count * Long.BYTES).order(ByteOrder.nativeOrder()).asLongBuffer();
+    }
+
+    private static class VertexIndex {
+        private LongBuffer vertexOffsets;
+        private int vertexCount;
+        private int polygonCount;
+        private long indexCount;
+    }
+}
@@ -0,0 +1,158 @@
+package com.cgvsu.io;
+
+import com.cgvsu.model.Model;
+import com.cgvsu.model.PackedMesh;
+import com.cgvsu.model.Polygon;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+// Кэш загруженных моделей. Ключ - канонический путь, размер и время изменения файла,
+// поэтому измененный файл просто не находится в кэше. Вытеснение идет в порядке LRU,
+// пока оценочный объем моделей превышает бюджет. Закэшированные модели разделяются
+// между владельцами и помечаются только для чтения.
+public class ModelCache {
+
+    // Оценки для 64-битной JVM со сжатыми указателями
+    private static final long VECTOR_BYTES = 24 + 4;
+    private static final long POLYGON_BYTES = 24 + 4;
+    private static final long INDEX_LIST_BYTES = 24 + 16;
+    private static final long INDEX_BYTES = 4 + 16;
+
+    private final LinkedHashMap<Key, CachedModel> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private long budgetBytes;
+    private long usedBytes;
+    private long hitCount;
+    private long missCount;
+
+    public ModelCache(long budgetBytes) {
+        this.budgetBytes = budgetBytes;
+    }
+
+    public Model load(Path path) throws ModelIOFactoryException, ModelLoadingException {
+        Key key = keyOf(path);
+
+        synchronized (this) {
+            CachedModel cached = entries.get(key);
+            if (cached != null) {
+                hitCount++;
+                return cached.model;
+            }
+            missCount++;
+        }
+
+        Model model = ModelIOFactory.readModel(path, key.mapped);
+        long footprint = estimateFootprint(model);
+
+        synchronized (this) {
+            removePath(key.path);
+            if (footprint <= budgetBytes) {
+                model.setReadOnly();
+                entries.put(key, new CachedModel(model, footprint));
+                usedBytes += footprint;
+                evictOverBudget();
+            }
+        }
+
+        return model;
+    }
+
+    public synchronized void invalidate(Path path) {
+        try {
+            removePath(path.toRealPath());
+        } catch (IOException e) {
+            removePath(path.toAbsolutePath().normalize());
+        }
+    }
+
+    public synchronized void clear() {
+        entries.clear();
+        usedBytes = 0;
+    }
+
+    public synchronized void setBudgetBytes(long budgetBytes) {
+        this.budgetBytes = budgetBytes;
+        evictOverBudget();
+    }
+
+    public synchronized long getBudgetBytes() {
+        return budgetBytes;
+    }
+
+    public synchronized long getUsedBytes() {
+        return usedBytes;
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    public synchronized long getHitCount() {
+        return hitCount;
+    }
+
+    public synchronized long getMissCount() {
+        return missCount;
+    }
+
+    public static long estimateFootprint(Model model) {
+        if (model.isPacked()) {
+            // Буферы вне кучи учитываются в том же бюджете, чтобы кэш не удерживал их без предела
+            return model.getDerived(PackedMesh.DERIVED).getSizeInBytes();
+        }
+        long bytes = (long) (model.vertices.size() + model.textureVertices.size() + model.normals.size()) * VECTOR_BYTES;
+        for (Polygon polygon : model.polygons) {
+            int indexCount = polygon.getVertexIndices().size()
+                + polygon.getTextureVertexIndices().size()
+                + polygon.getNormalIndices().size();
+            bytes += POLYGON_BYTES + 3 * INDEX_LIST_BYTES + indexCount * INDEX_BYTES;
+        }
+        return bytes;
+    }
+
+    private void evictOverBudget() {
+        Iterator<CachedModel> iterator = entries.values().iterator();
+        while (usedBytes > budgetBytes && iterator.hasNext()) {
+            usedBytes -= iterator.next().footprint;
+            iterator.remove();
+        }
+    }
+
+    private void removePath(Path path) {
+        Iterator<Map.Entry<Key, CachedModel>> iterator = entries.entrySet().iterator();
+        while (iterator.hasNext()) {
+            Map.Entry<Key, CachedModel> entry = iterator.next();
+            if (entry.getKey().path.equals(path)) {
+                usedBytes -= entry.getValue().footprint;
+                iterator.remove();
+            }
+        }
+    }
+
+    private static Key keyOf(Path path) throws ModelLoadingException {
+        if (path == null) {
+            throw new ModelLoadingException("Путь к файлу не может быть null");
+        }
+
+        try {
+            Path canonicalPath = path.toRealPath();
+            BasicFileAttributes attributes = Files.readAttributes(canonicalPath, BasicFileAttributes.class);
+            return new Key(canonicalPath, attributes.size(), attributes.lastModifiedTime().toMillis(),
+                ModelIOFactory.usesMappedLoader(path, attributes.size()));
+        } catch (IOException e) {
+            throw new ModelLoadingException("Ошибка чтения файла: " + path.toString(), e);
+        }
+    }
+
+    // mapped входит в ключ: после смены режима загрузки файл читается заново другим загрузчиком
+    private record Key(Path path, long size, long lastModified, boolean mapped) {
+    }
+
+    private record CachedModel(Model model, long footprint) {
+    }
+}
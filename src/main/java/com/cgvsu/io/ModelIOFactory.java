@@ -1,5 +1,9 @@
 package com.cgvsu.io;
 
+import com.cgvsu.model.Model;
+
+import java.io.IOException;
+import java.nio.file.Files;
 import java.nio.file.Path;
 import java.util.HashMap;
 import java.util.Map;
@@ -9,9 +13,34 @@ public class ModelIOFactory {
     private static final Map<String, Class<? extends ModelLoader>> loaders = new HashMap<>();
     private static final Map<String, Class<? extends ModelSaver>> savers = new HashMap<>();
 
+    private static final String COMPRESSED_SUFFIX = ".gz";
+
+    // Выбор загрузчика OBJ: AUTO отображает в память файлы не меньше порога, MAPPED - все
+    // несжатые OBJ, HEAP - никакие. Отображенная модель хранит геометрию только в PackedMesh
+    // вне кучи (Model.fromPacked), без текстурных координат и нормалей.
+    public enum LoadMode {
+        AUTO,
+        HEAP,
+        MAPPED
+    }
+
+    private static final String MAPPED_EXTENSION = "obj";
+
+    private static volatile LoadMode loadMode = LoadMode.AUTO;
+    private static volatile long mappedThresholdBytes = Runtime.getRuntime().maxMemory() / 16;
+
+    private static final ModelCache modelCache = new ModelCache(Runtime.getRuntime().maxMemory() / 4);
+
     static {
         registerLoader("obj", ObjLoader.class);
         registerSaver("obj", ObjSaver.class);
+        registerLoader("obj" + COMPRESSED_SUFFIX, ObjLoader.class);
+        registerSaver("obj" + COMPRESSED_SUFFIX, ObjSaver.class);
+        registerLoader("ply", PlyLoader.class);
+        registerSaver("ply", PlySaver.class);
+        registerLoader("ply" + COMPRESSED_SUFFIX, PlyLoader.class);
+        registerSaver("ply" + COMPRESSED_SUFFIX, PlySaver.class);
+        registerSaver("glb", GlbSaver.class);
     }
 
     public static void registerLoader(String extension, Class<? extends ModelLoader> loaderClass) {
@@ -52,6 +81,58 @@ public class ModelIOFactory {
         }
     }
 
+    // Загрузка через кэш: повторное открытие неизмененного файла возвращает ту же модель,
+    // разделяемую между всеми SceneModel и доступную только для чтения
+    public static Model loadModel(Path path) throws ModelIOFactoryException, ModelLoadingException {
+        return modelCache.load(path);
+    }
+
+    public static LoadMode getLoadMode() {
+        return loadMode;
+    }
+
+    public static void setLoadMode(LoadMode mode) {
+        loadMode = mode;
+    }
+
+    public static long getMappedThresholdBytes() {
+        return mappedThresholdBytes;
+    }
+
+    public static void setMappedThresholdBytes(long thresholdBytes) {
+        mappedThresholdBytes = thresholdBytes;
+    }
+
+    public static boolean usesMappedLoader(Path path, long fileSize) {
+        if (!MAPPED_EXTENSION.equals(getExtension(path))) {
+            return false;
+        }
+        LoadMode mode = loadMode;
+        return mode == LoadMode.MAPPED || (mode == LoadMode.AUTO && fileSize >= mappedThresholdBytes);
+    }
+
+    // Загрузка без кэша загрузчиком, выбранным по режиму и размеру файла
+    public static Model readModel(Path path) throws ModelIOFactoryException, ModelLoadingException {
+        long fileSize;
+        try {
+            fileSize = path != null ? Files.size(path) : 0;
+        } catch (IOException e) {
+            throw new ModelLoadingException("Ошибка чтения файла: " + path, e);
+        }
+        return readModel(path, usesMappedLoader(path, fileSize));
+    }
+
+    static Model readModel(Path path, boolean mapped) throws ModelIOFactoryException, ModelLoadingException {
+        if (mapped) {
+            return Model.fromPacked(new MappedObjLoader().load(path));
+        }
+        return createLoader(path).load(path);
+    }
+
+    public static ModelCache getModelCache() {
+        return modelCache;
+    }
+
     public static boolean supportsLoading(Path path) {
         String extension = getExtension(path);
         return loaders.containsKey(extension);
@@ -75,12 +156,24 @@ public class ModelIOFactory {
             return "";
         }
 
-        String fileName = path.getFileName().toString();
+        String fileName = path.getFileName().toString().toLowerCase();
+        if (fileName.endsWith(COMPRESSED_SUFFIX)) {
+            // model.obj.gz -> obj.gz, чтобы сжатые файлы обрабатывались своим форматом
+            String innerExtension = getExtension(fileName.substring(0, fileName.length() - COMPRESSED_SUFFIX.length()));
+            if (!innerExtension.isEmpty()) {
+                return innerExtension + COMPRESSED_SUFFIX;
+            }
+        }
+
+        return getExtension(fileName);
+    }
+
+    private static String getExtension(String fileName) {
         int lastDotIndex = fileName.lastIndexOf('.');
         if (lastDotIndex == -1 || lastDotIndex == fileName.length() - 1) {
             return "";
         }
 
-        return fileName.substring(lastDotIndex + 1).toLowerCase();
+        return fileName.substring(lastDotIndex + 1);
     }
 }
@@ -1,27 +1,59 @@
 package com.cgvsu.io;
 
+import com.cgvsu.mesh.MeshOptimizer;
 import com.cgvsu.model.Model;
+import java.io.BufferedInputStream;
 import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
 import java.nio.file.Path;
+import java.util.OptionalInt;
+import java.util.stream.IntStream;
+import java.util.zip.GZIPInputStream;
 
 public abstract class ModelLoader {
 
+    protected static final String COMPRESSED_SUFFIX = ".gz";
+
+    private static final int STREAM_BUFFER_SIZE = 64 * 1024;
+
+    private static final int PARALLEL_VALIDATION_THRESHOLD = 50_000;
+
+    private boolean optimizeLayout;
+
     public final Model load(Path path) throws ModelLoadingException {
         validatePath(path);
-        String content = readFileContent(path);
-        Model model = parseContent(content);
-        validateModel(model);
+        Model model = parseFile(path);
+        validateParsedModel(model);
+        optimizeLayout(model);
         postProcessModel(model);
         return model;
     }
 
     public final Model loadFromContent(String content) throws ModelLoadingException {
         Model model = parseContent(content);
-        validateModel(model);
+        validateParsedModel(model);
+        optimizeLayout(model);
         postProcessModel(model);
         return model;
     }
 
+    // Переупорядочить полигоны и вершины после загрузки (см. MeshOptimizer)
+    public void setOptimizeLayout(boolean optimizeLayout) {
+        this.optimizeLayout = optimizeLayout;
+    }
+
+    public boolean isOptimizeLayout() {
+        return optimizeLayout;
+    }
+
+    protected void optimizeLayout(Model model) {
+        if (optimizeLayout) {
+            new MeshOptimizer().optimize(model);
+        }
+    }
+
     protected void validatePath(Path path) throws ModelLoadingException {
         if (path == null) {
             throw new ModelLoadingException("Путь к файлу не может быть null");
@@ -33,17 +65,74 @@ public abstract class ModelLoader {
 
     protected abstract boolean supportsExtension(Path path);
 
-    protected String readFileContent(Path path) throws ModelLoadingException {
-        try {
-            return java.nio.file.Files.readString(path);
+    protected Model parseFile(Path path) throws ModelLoadingException {
+        try (InputStream in = openInputStream(path)) {
+            return parseStream(in);
         } catch (IOException e) {
             throw new ModelLoadingException("Ошибка чтения файла: " + path.toString(), e);
         }
     }
 
+    protected InputStream openInputStream(Path path) throws IOException {
+        InputStream in = Files.newInputStream(path);
+        if (!isCompressed(path)) {
+            return new BufferedInputStream(in, STREAM_BUFFER_SIZE);
+        }
+
+        try {
+            return new GZIPInputStream(in, STREAM_BUFFER_SIZE);
+        } catch (IOException e) {
+            in.close();
+            throw e;
+        }
+    }
+
+    // Форматы, умеющие разбирать данные потоково, переопределяют этот метод,
+    // чтобы не держать в памяти весь (возможно, распакованный) текст файла
+    protected Model parseStream(InputStream in) throws ModelLoadingException, IOException {
+        return parseContent(new String(in.readAllBytes(), StandardCharsets.UTF_8));
+    }
+
     protected abstract Model parseContent(String content) throws ModelLoadingException;
 
+    // Загрузчики, проверяющие индексы прямо во время разбора, переопределяют этот метод
+    // и ограничиваются validateModelStructure, не обходя полигоны повторно
+    protected void validateParsedModel(Model model) throws ModelLoadingException {
+        validateModel(model);
+    }
+
     protected void validateModel(Model model) throws ModelLoadingException {
+        validateModelStructure(model);
+
+        int polygonCount = model.polygons.size();
+        if (polygonCount < PARALLEL_VALIDATION_THRESHOLD) {
+            for (int i = 0; i < polygonCount; i++) {
+                validatePolygon(model, i);
+            }
+            return;
+        }
+
+        // Ищем первый некорректный полигон параллельно, а сообщение получаем повторной проверкой,
+        // чтобы номер полигона в ошибке совпадал с последовательным обходом
+        OptionalInt firstInvalid = IntStream.range(0, polygonCount)
+            .parallel()
+            .filter(i -> !isPolygonValid(model, i))
+            .min();
+        if (firstInvalid.isPresent()) {
+            validatePolygon(model, firstInvalid.getAsInt());
+        }
+    }
+
+    private boolean isPolygonValid(Model model, int polygonIndex) {
+        try {
+            validatePolygon(model, polygonIndex);
+            return true;
+        } catch (ModelLoadingException e) {
+            return false;
+        }
+    }
+
+    protected void validateModelStructure(Model model) throws ModelLoadingException {
         if (model == null) {
             throw new ModelLoadingException("Модель не была создана");
         }
@@ -53,10 +142,6 @@ public abstract class ModelLoader {
         if (model.polygons == null) {
             throw new ModelLoadingException("Модель не содержит полигонов");
         }
-
-        for (int i = 0; i < model.polygons.size(); i++) {
-            validatePolygon(model, i);
-        }
     }
 
     protected void validatePolygon(Model model, int polygonIndex) throws ModelLoadingException {
@@ -101,5 +186,9 @@ public abstract class ModelLoader {
     protected void postProcessModel(Model model) {
     }
 
+    protected static boolean isCompressed(Path path) {
+        return path.getFileName().toString().toLowerCase().endsWith(COMPRESSED_SUFFIX);
+    }
+
     public abstract String[] getSupportedExtensions();
 }
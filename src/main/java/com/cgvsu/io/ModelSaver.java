@@ -1,23 +1,34 @@
 package com.cgvsu.io;
 
+import com.cgvsu.mesh.MeshOptimizer;
 import com.cgvsu.model.Model;
+import java.io.BufferedOutputStream;
 import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
 import java.nio.file.Path;
+import java.util.zip.GZIPOutputStream;
 
 public abstract class ModelSaver {
 
+    protected static final String COMPRESSED_SUFFIX = ".gz";
+
+    private static final int STREAM_BUFFER_SIZE = 64 * 1024;
+
     public final void save(Model model, Path path) throws ModelSavingException {
-        validateModel(model);
-        validatePath(path);
-        String content = generateContent(model);
-        writeFileContent(path, content);
+        save(model, path, getDefaultSettings());
     }
 
     public final void save(Model model, Path path, SaveSettings settings) throws ModelSavingException {
         validateModel(model);
         validatePath(path);
-        String content = generateContent(model, settings);
-        writeFileContent(path, content);
+        if (settings.optimizeLayout) {
+            // Оптимизируется копия: сохранение не должно менять модель в сцене
+            model = model.copy();
+            new MeshOptimizer().optimize(model);
+        }
+        writeFile(model, path, settings);
     }
 
     public final String generateContent(Model model) throws ModelSavingException {
@@ -49,14 +60,39 @@ public abstract class ModelSaver {
 
     protected abstract boolean supportsExtension(Path path);
 
-    protected void writeFileContent(Path path, String content) throws ModelSavingException {
-        try {
-            java.nio.file.Files.writeString(path, content);
+    protected void writeFile(Model model, Path path, SaveSettings settings) throws ModelSavingException {
+        try (OutputStream out = openOutputStream(path)) {
+            writeContent(model, settings, out);
         } catch (IOException e) {
             throw new ModelSavingException("Ошибка записи файла: " + path.toString(), e);
         }
     }
 
+    protected OutputStream openOutputStream(Path path) throws IOException {
+        OutputStream out = Files.newOutputStream(path);
+        if (!isCompressed(path)) {
+            return new BufferedOutputStream(out, STREAM_BUFFER_SIZE);
+        }
+
+        try {
+            return new GZIPOutputStream(out, STREAM_BUFFER_SIZE);
+        } catch (IOException e) {
+            out.close();
+            throw e;
+        }
+    }
+
+    // Форматы, умеющие писать потоково, переопределяют этот метод,
+    // чтобы не собирать весь файл в одну строку
+    protected void writeContent(Model model, SaveSettings settings, OutputStream out)
+            throws ModelSavingException, IOException {
+        out.write(generateContent(model, settings).getBytes(StandardCharsets.UTF_8));
+    }
+
+    protected static boolean isCompressed(Path path) {
+        return path.getFileName().toString().toLowerCase().endsWith(COMPRESSED_SUFFIX);
+    }
+
     protected abstract SaveSettings getDefaultSettings();
 
     public abstract String[] getSupportedExtensions();
@@ -69,5 +105,7 @@ public abstract class ModelSaver {
         public boolean includeNormals = true;
 
         public boolean includeTextureCoords = true;
+
+        public boolean optimizeLayout = false;
     }
 }
@@ -0,0 +1,394 @@
+package com.cgvsu.io;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+// Индекс OBJ-файла: байтовые диапазоны полигонов каждой группы ("g") и объекта ("o")
+// и блоки подряд идущих строк v/vt/vn с номером первой записи. Строится одним проходом,
+// в котором смотрится только первое слово строки, и по запросу хранится рядом с файлом
+// (<файл>.gidx); сохраненный индекс используется, пока у файла те же размер и время изменения.
+public class ObjGroupIndex {
+
+    public static final String INDEX_SUFFIX = ".gidx";
+    public static final String DEFAULT_GROUP = "default";
+
+    static final int VERTICES = 0;
+    static final int TEXTURE_VERTICES = 1;
+    static final int NORMALS = 2;
+
+    private static final int MAGIC = 0x4F474958;
+    private static final int VERSION = 1;
+
+    private final long sourceSize;
+    private final long sourceModified;
+    private final RecordBlocks[] blocks;
+    private final Map<String, Entry> groups;
+    private final Map<String, Entry> objects;
+
+    private ObjGroupIndex(long sourceSize, long sourceModified, RecordBlocks[] blocks,
+                          Map<String, Entry> groups, Map<String, Entry> objects) {
+        this.sourceSize = sourceSize;
+        this.sourceModified = sourceModified;
+        this.blocks = blocks;
+        this.groups = groups;
+        this.objects = objects;
+    }
+
+    // Индекс только в памяти, рядом с файлом ничего не пишется
+    public static ObjGroupIndex open(Path objPath) throws ModelLoadingException {
+        return open(objPath, false);
+    }
+
+    // С persist - сохраненный индекс, если он актуален; иначе строит новый и пытается сохранить
+    // его рядом с файлом
+    public static ObjGroupIndex open(Path objPath, boolean persist) throws ModelLoadingException {
+        if (!persist) {
+            return build(objPath);
+        }
+        Path indexPath = indexPathFor(objPath);
+        try {
+            if (Files.exists(indexPath)) {
+                ObjGroupIndex stored = read(indexPath);
+                if (stored.matches(objPath)) {
+                    return stored;
+                }
+            }
+        } catch (IOException e) {
+            // Поврежденный индекс просто строится заново
+        }
+
+        ObjGroupIndex index = build(objPath);
+        try {
+            index.write(indexPath);
+        } catch (IOException e) {
+            // Каталог может быть недоступен для записи - индекс останется только в памяти
+        }
+        return index;
+    }
+
+    public static Path indexPathFor(Path objPath) {
+        return objPath.resolveSibling(objPath.getFileName().toString() + INDEX_SUFFIX);
+    }
+
+    public static ObjGroupIndex build(Path objPath) throws ModelLoadingException {
+        try (FileChannel channel = FileChannel.open(objPath, StandardOpenOption.READ)) {
+            Builder builder = new Builder();
+            MappedLineScanner scanner = new MappedLineScanner(channel, MappedLineScanner.DEFAULT_WINDOW_SIZE);
+            while (scanner.nextLine()) {
+                builder.line(scanner);
+            }
+            builder.finish(scanner.fileSize());
+
+            return new ObjGroupIndex(Files.size(objPath), Files.getLastModifiedTime(objPath).toMillis(),
+                builder.blocks, builder.groups, builder.objects);
+        } catch (IOException e) {
+            throw new ModelLoadingException("Ошибка чтения файла: " + objPath, e);
+        }
+    }
+
+    public static ObjGroupIndex read(Path indexPath) throws IOException {
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(indexPath)))) {
+            if (in.readInt() != MAGIC || in.readInt() != VERSION) {
+                throw new IOException("Неизвестный формат индекса: " + indexPath);
+            }
+            long sourceSize = in.readLong();
+            long sourceModified = in.readLong();
+
+            RecordBlocks[] blocks = new RecordBlocks[3];
+            for (int kind = 0; kind < blocks.length; kind++) {
+                blocks[kind] = RecordBlocks.read(in);
+            }
+            Map<String, Entry> groups = readEntries(in);
+            Map<String, Entry> objects = readEntries(in);
+            return new ObjGroupIndex(sourceSize, sourceModified, blocks, groups, objects);
+        }
+    }
+
+    public void write(Path indexPath) throws IOException {
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(indexPath)))) {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeLong(sourceSize);
+            out.writeLong(sourceModified);
+            for (RecordBlocks recordBlocks : blocks) {
+                recordBlocks.write(out);
+            }
+            writeEntries(out, groups);
+            writeEntries(out, objects);
+        }
+    }
+
+    public boolean matches(Path objPath) throws IOException {
+        return Files.size(objPath) == sourceSize
+            && Files.getLastModifiedTime(objPath).toMillis() == sourceModified;
+    }
+
+    public Set<String> getGroupNames() {
+        return groups.keySet();
+    }
+
+    public Set<String> getObjectNames() {
+        return objects.keySet();
+    }
+
+    public int getFaceCount(String name) {
+        Entry group = groups.get(name);
+        if (group != null) {
+            return group.faceCount;
+        }
+        Entry object = objects.get(name);
+        return object != null ? object.faceCount : 0;
+    }
+
+    public int getVertexCount() {
+        return blocks[VERTICES].total;
+    }
+
+    public int getTextureVertexCount() {
+        return blocks[TEXTURE_VERTICES].total;
+    }
+
+    public int getNormalCount() {
+        return blocks[NORMALS].total;
+    }
+
+    RecordBlocks getBlocks(int kind) {
+        return blocks[kind];
+    }
+
+    // Объединение диапазонов выбранных групп и объектов: пары (начало, конец), упорядоченные и без пересечений
+    long[] collectRanges(Collection<String> names) throws ModelLoadingException {
+        List<long[]> ranges = new ArrayList<>();
+        for (String name : names) {
+            Entry group = groups.get(name);
+            Entry object = objects.get(name);
+            if (group == null && object == null) {
+                throw new ModelLoadingException("В файле нет группы или объекта: " + name);
+            }
+            for (Entry entry : new Entry[]{group, object}) {
+                if (entry != null) {
+                    for (int i = 0; i < entry.rangeCount; i++) {
+                        ranges.add(new long[]{entry.ranges[i * 2], entry.ranges[i * 2 + 1]});
+                    }
+                }
+            }
+        }
+
+        ranges.sort((a, b) -> Long.compare(a[0], b[0]));
+        long[] merged = new long[ranges.size() * 2];
+        int count = 0;
+        for (long[] range : ranges) {
+            if (count > 0 && range[0] <= merged[count - 1]) {
+                merged[count - 1] = Math.max(merged[count - 1], range[1]);
+            } else {
+                merged[count++] = range[0];
+                merged[count++] = range[1];
+            }
+        }
+        return Arrays.copyOf(merged, count);
+    }
+
+    private static Map<String, Entry> readEntries(DataInputStream in) throws IOException {
+        int count = in.readInt();
+        Map<String, Entry> entries = new LinkedHashMap<>();
+        for (int i = 0; i < count; i++) {
+            String name = in.readUTF();
+            Entry entry = new Entry();
+            entry.faceCount = in.readInt();
+            entry.rangeCount = in.readInt();
+            entry.ranges = new long[entry.rangeCount * 2];
+            for (int j = 0; j < entry.ranges.length; j++) {
+                entry.ranges[j] = in.readLong();
+            }
+            entries.put(name, entry);
+        }
+        return entries;
+    }
+
+    private static void writeEntries(DataOutputStream out, Map<String, Entry> entries) throws IOException {
+        out.writeInt(entries.size());
+        for (Map.Entry<String, Entry> named : entries.entrySet()) {
+            Entry entry = named.getValue();
+            out.writeUTF(named.getKey());
+            out.writeInt(entry.faceCount);
+            out.writeInt(entry.rangeCount);
+            for (int j = 0; j < entry.rangeCount * 2; j++) {
+                out.writeLong(entry.ranges[j]);
+            }
+        }
+    }
+
+    // Блоки подряд идущих строк одного вида: смещение первой строки, номер первой записи и число записей
+    static class RecordBlocks {
+        long[] offsets = new long[16];
+        int[] first = new int[16];
+        int[] counts = new int[16];
+        int blockCount;
+        int total;
+
+        int findBlock(int record) {
+            int low = 0;
+            int high = blockCount - 1;
+            while (low < high) {
+                int middle = (low + high + 1) >>> 1;
+                if (first[middle] <= record) {
+                    low = middle;
+                } else {
+                    high = middle - 1;
+                }
+            }
+            return low;
+        }
+
+        private void add(long offset, boolean continuesBlock) {
+            if (continuesBlock && blockCount > 0) {
+                counts[blockCount - 1]++;
+            } else {
+                if (blockCount == offsets.length) {
+                    offsets = Arrays.copyOf(offsets, blockCount * 2);
+                    first = Arrays.copyOf(first, blockCount * 2);
+                    counts = Arrays.copyOf(counts, blockCount * 2);
+                }
+                offsets[blockCount] = offset;
+                first[blockCount] = total;
+                counts[blockCount] = 1;
+                blockCount++;
+            }
+            total++;
+        }
+
+        private void write(DataOutputStream out) throws IOException {
+            out.writeInt(blockCount);
+            out.writeInt(total);
+            for (int i = 0; i < blockCount; i++) {
+                out.writeLong(offsets[i]);
+                out.writeInt(first[i]);
+                out.writeInt(counts[i]);
+            }
+        }
+
+        private static RecordBlocks read(DataInputStream in) throws IOException {
+            RecordBlocks blocks = new RecordBlocks();
+            blocks.blockCount = in.readInt();
+            blocks.total = in.readInt();
+            int capacity = Math.max(blocks.blockCount, 1);
+            blocks.offsets = new long[capacity];
+            blocks.first = new int[capacity];
+            blocks.counts = new int[capacity];
+            for (int i = 0; i < blocks.blockCount; i++) {
+                blocks.offsets[i] = in.readLong();
+                blocks.first[i] = in.readInt();
+                blocks.counts[i] = in.readInt();
+            }
+            return blocks;
+        }
+    }
+
+    private static class Entry {
+        private long[] ranges = new long[4];
+        private int rangeCount;
+        private int faceCount;
+
+        private void addRange(long start, long end, int faces) {
+            if (rangeCount * 2 == ranges.length) {
+                ranges = Arrays.copyOf(ranges, ranges.length * 2);
+            }
+            ranges[rangeCount * 2] = start;
+            ranges[rangeCount * 2 + 1] = end;
+            rangeCount++;
+            faceCount += faces;
+        }
+    }
+
+    private static class Builder {
+        private static final int OTHER = -1;
+
+        private final RecordBlocks[] blocks = {new RecordBlocks(), new RecordBlocks(), new RecordBlocks()};
+        private final Map<String, Entry> groups = new LinkedHashMap<>();
+        private final Map<String, Entry> objects = new LinkedHashMap<>();
+
+        private int previousKind = OTHER;
+
+        private String[] currentGroups = {DEFAULT_GROUP};
+        private long groupStart;
+        private int groupFaces;
+
+        private String currentObject;
+        private long objectStart;
+        private int objectFaces;
+
+        private void line(MappedLineScanner scanner) {
+            ByteBuffer buffer = scanner.buffer();
+            int end = scanner.lineEnd();
+            int start = MappedLineScanner.skipWhitespace(buffer, scanner.lineStart(), end);
+            int kind = OTHER;
+
+            switch (MappedLineScanner.recordType(buffer, start, end)) {
+                case 'v' -> kind = VERTICES;
+                case 'f' -> {
+                    groupFaces++;
+                    objectFaces++;
+                }
+                case 'g' -> {
+                    closeGroups(scanner.lineOffset());
+                    String names = scanner.lineString().trim().substring(1).trim();
+                    currentGroups = names.isEmpty() ? new String[]{DEFAULT_GROUP} : names.split("\\s+");
+                    groupStart = scanner.nextLineOffset();
+                }
+                case 'o' -> {
+                    closeObject(scanner.lineOffset());
+                    currentObject = scanner.lineString().trim().substring(1).trim();
+                    objectStart = scanner.nextLineOffset();
+                }
+                default -> {
+                    if (end - start >= 2 && buffer.get(start) == 'v'
+                        && (end - start == 2 || MappedLineScanner.isWhitespace(buffer.get(start + 2)))) {
+                        byte second = buffer.get(start + 1);
+                        kind = second == 't' ? TEXTURE_VERTICES : second == 'n' ? NORMALS : OTHER;
+                    }
+                }
+            }
+
+            if (kind != OTHER) {
+                blocks[kind].add(scanner.lineOffset(), kind == previousKind);
+            }
+            previousKind = kind;
+        }
+
+        private void finish(long fileSize) {
+            closeGroups(fileSize);
+            closeObject(fileSize);
+        }
+
+        private void closeGroups(long end) {
+            if (groupFaces > 0) {
+                for (String name : currentGroups) {
+                    groups.computeIfAbsent(name, key -> new Entry()).addRange(groupStart, end, groupFaces);
+                }
+            }
+            groupFaces = 0;
+        }
+
+        private void closeObject(long end) {
+            if (currentObject != null && objectFaces > 0) {
+                objects.computeIfAbsent(currentObject, key -> new Entry()).addRange(objectStart, end, objectFaces);
+            }
+            objectFaces = 0;
+        }
+    }
+}
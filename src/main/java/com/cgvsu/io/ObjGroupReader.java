@@ -0,0 +1,176 @@
+package com.cgvsu.io;
+
+import com.cgvsu.model.Model;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.Collection;
+
+// Частичная загрузка OBJ по ObjGroupIndex: разбираются только строки полигонов из диапазонов
+// выбранных групп, затем по блокам индекса читаются только те v/vt/vn, на которые они ссылаются.
+// Записи перенумеровываются в порядке первого использования.
+class ObjGroupReader {
+
+    private static final String[] MISSING_MESSAGES = {
+        "Полигон %d ссылается на несуществующую вершину %d",
+        "Полигон %d ссылается на несуществующие текстурные координаты %d",
+        "Полигон %d ссылается на несуществующую нормаль %d"
+    };
+
+    private final Path path;
+    private final ObjGroupIndex index;
+
+    ObjGroupReader(Path path, ObjGroupIndex index) {
+        this.path = path;
+        this.index = index;
+    }
+
+    Model read(Collection<String> names) throws ModelLoadingException {
+        long[] ranges = index.collectRanges(names);
+
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            MappedLineScanner scanner = new MappedLineScanner(channel, MappedLineScanner.DEFAULT_WINDOW_SIZE);
+
+            // Строки полигонов разбираются сразу по мере прохода, без копирования в строки
+            ObjModelBuilder builder = new ObjModelBuilder();
+            FaceRemapper remapper = new FaceRemapper(builder);
+            ObjParser parser = new ObjParser(remapper);
+            int faceLine = 0;
+            for (int i = 0; i < ranges.length; i += 2) {
+                scanner.seek(ranges[i]);
+                while (scanner.nextLine() && scanner.lineOffset() < ranges[i + 1]) {
+                    ByteBuffer buffer = scanner.buffer();
+                    int start = MappedLineScanner.skipWhitespace(buffer, scanner.lineStart(), scanner.lineEnd());
+                    if (MappedLineScanner.recordType(buffer, start, scanner.lineEnd()) == 'f') {
+                        parser.parseLine(scanner.lineChars(), ++faceLine);
+                    }
+                }
+            }
+
+            float[] vertices = readRecords(scanner, ObjGroupIndex.VERTICES, remapper, 3);
+            float[] textureVertices = readRecords(scanner, ObjGroupIndex.TEXTURE_VERTICES, remapper, 2);
+            float[] normals = readRecords(scanner, ObjGroupIndex.NORMALS, remapper, 3);
+
+            for (int i = 0; i < vertices.length; i += 3) {
+                builder.vertex(vertices[i], vertices[i + 1], vertices[i + 2], 0);
+            }
+            for (int i = 0; i < textureVertices.length; i += 2) {
+                builder.textureVertex(textureVertices[i], textureVertices[i + 1], 0);
+            }
+            for (int i = 0; i < normals.length; i += 3) {
+                builder.normal(normals[i], normals[i + 1], normals[i + 2], 0);
+            }
+            return builder.finish();
+        } catch (IOException e) {
+            throw new ModelLoadingException("Ошибка чтения файла: " + path, e);
+        }
+    }
+
+    // Читает использованные записи одного вида в порядке их следования в файле
+    private float[] readRecords(MappedLineScanner scanner, int kind, FaceRemapper remapper, int components)
+            throws IOException, ModelLoadingException {
+        int[] remap = remapper.remaps[kind];
+        float[] values = new float[remapper.usedCounts[kind] * components];
+        ObjGroupIndex.RecordBlocks blocks = index.getBlocks(kind);
+        RecordCapture capture = new RecordCapture();
+        ObjParser parser = new ObjParser(capture);
+
+        int block = -1;
+        int nextRecord = -1; // Номер записи, которую вернет следующий nextLine() внутри текущего блока
+        for (int record = 0; record < remap.length; record++) {
+            if (remap[record] < 0) {
+                continue;
+            }
+
+            int recordBlock = blocks.findBlock(record);
+            if (recordBlock != block || nextRecord > record) {
+                block = recordBlock;
+                scanner.seek(blocks.offsets[block]);
+                nextRecord = blocks.first[block];
+            }
+            while (nextRecord <= record) {
+                scanner.nextLine();
+                nextRecord++;
+            }
+
+            parser.parseLine(scanner.lineChars(), record + 1);
+            System.arraycopy(capture.values, 0, values, remap[record] * components, components);
+        }
+        return values;
+    }
+
+    private static int[] filled(int size) {
+        int[] values = new int[size];
+        Arrays.fill(values, -1);
+        return values;
+    }
+
+    // Переводит индексы полигонов в новую нумерацию и передает полигоны в ObjModelBuilder
+    private class FaceRemapper implements ObjHandler {
+        private final ObjModelBuilder builder;
+        private final int[][] remaps = {
+            filled(index.getVertexCount()), filled(index.getTextureVertexCount()), filled(index.getNormalCount())
+        };
+        private final int[] usedCounts = new int[3];
+        private int polygonIndex;
+
+        private FaceRemapper(ObjModelBuilder builder) {
+            this.builder = builder;
+        }
+
+        @Override
+        public void face(int[] vertexIndices, int vertexCount,
+                         int[] textureVertexIndices, int textureVertexCount,
+                         int[] normalIndices, int normalCount,
+                         int lineNumber) throws ModelLoadingException {
+            remap(ObjGroupIndex.VERTICES, vertexIndices, vertexCount);
+            remap(ObjGroupIndex.TEXTURE_VERTICES, textureVertexIndices, textureVertexCount);
+            remap(ObjGroupIndex.NORMALS, normalIndices, normalCount);
+            builder.face(vertexIndices, vertexCount, textureVertexIndices, textureVertexCount,
+                normalIndices, normalCount, lineNumber);
+            polygonIndex++;
+        }
+
+        private void remap(int kind, int[] indices, int count) throws ModelLoadingException {
+            int[] remap = remaps[kind];
+            for (int i = 0; i < count; i++) {
+                int original = indices[i];
+                if (original < 0 || original >= remap.length) {
+                    throw new ModelLoadingException(String.format(MISSING_MESSAGES[kind], polygonIndex, original));
+                }
+                if (remap[original] < 0) {
+                    remap[original] = usedCounts[kind]++;
+                }
+                indices[i] = remap[original];
+            }
+        }
+    }
+
+    private static class RecordCapture implements ObjHandler {
+        private final float[] values = new float[3];
+
+        @Override
+        public void vertex(float x, float y, float z, int lineNumber) {
+            values[0] = x;
+            values[1] = y;
+            values[2] = z;
+        }
+
+        @Override
+        public void textureVertex(float u, float v, int lineNumber) {
+            values[0] = u;
+            values[1] = v;
+        }
+
+        @Override
+        public void normal(float x, float y, float z, int lineNumber) {
+            values[0] = x;
+            values[1] = y;
+            values[2] = z;
+        }
+    }
+}
@@ -0,0 +1,27 @@
+package com.cgvsu.io;
+
+// Получатель событий ObjParser. Массивы индексов в face() переиспользуются парсером
+// и действительны только во время вызова; индексы уже переведены в 0-based.
+public interface ObjHandler {
+
+    default void vertex(float x, float y, float z, int lineNumber) throws ModelLoadingException {
+    }
+
+    default void textureVertex(float u, float v, int lineNumber) throws ModelLoadingException {
+    }
+
+    default void normal(float x, float y, float z, int lineNumber) throws ModelLoadingException {
+    }
+
+    default void face(int[] vertexIndices, int vertexCount,
+                      int[] textureVertexIndices, int textureVertexCount,
+                      int[] normalIndices, int normalCount,
+                      int lineNumber) throws ModelLoadingException {
+    }
+
+    default void group(String name, int lineNumber) throws ModelLoadingException {
+    }
+
+    default void object(String name, int lineNumber) throws ModelLoadingException {
+    }
+}
@@ -0,0 +1,159 @@
+package com.cgvsu.io;
+
+import com.cgvsu.math.Vector2f;
+import com.cgvsu.math.Vector3f;
+import com.cgvsu.model.Model;
+import com.cgvsu.model.Polygon;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+
+// Собирает Model из событий ObjParser и попутно проверяет индексы полигонов. Ссылки на уже
+// прочитанные вершины проверяются сразу; полигоны со ссылками вперед (OBJ их допускает) откладываются
+// до finish(), где сверяются с итоговым числом вершин, нормалей и текстурных координат. Ошибка
+// сообщается из finish() так же, как при проверке готовой модели: первый по номеру неверный полигон,
+// в нем - вершины, затем текстурные координаты, затем нормали.
+// Записи копятся в обычных списках и передаются модели в finish() одним addAll на список:
+// списки модели отслеживают изменения, и поэлементное добавление платило бы за это на каждой записи.
+public class ObjModelBuilder implements ObjHandler {
+
+    private static final String VERTEX_MESSAGE = "Полигон %d ссылается на несуществующую вершину %d";
+    private static final String TEXTURE_MESSAGE = "Полигон %d ссылается на несуществующие текстурные координаты %d";
+    private static final String NORMAL_MESSAGE = "Полигон %d ссылается на несуществующую нормаль %d";
+
+    private final ArrayList<Vector3f> vertices = new ArrayList<>();
+    private final ArrayList<Vector2f> textureVertices = new ArrayList<>();
+    private final ArrayList<Vector3f> normals = new ArrayList<>();
+    private final ArrayList<Polygon> polygons = new ArrayList<>();
+
+    private int[] deferredPolygons = new int[16];
+    private int deferredCount;
+
+    // Первая ошибка среди полигонов без ссылок вперед; полигоны после нее уже не проверяются
+    private int errorPolygon = -1;
+    private String errorMessage;
+
+    public Model finish() throws ModelLoadingException {
+        // Модель без вершин отвергается проверкой структуры с собственным сообщением
+        if (vertices.isEmpty()) {
+            return buildModel();
+        }
+        for (int i = 0; i < deferredCount; i++) {
+            int polygonIndex = deferredPolygons[i];
+            if (errorPolygon >= 0 && polygonIndex > errorPolygon) {
+                break;
+            }
+            Polygon polygon = polygons.get(polygonIndex);
+            checkIndices(polygonIndex, polygon.getVertexIndices(), vertices.size(), VERTEX_MESSAGE);
+            checkIndices(polygonIndex, polygon.getTextureVertexIndices(), textureVertices.size(), TEXTURE_MESSAGE);
+            checkIndices(polygonIndex, polygon.getNormalIndices(), normals.size(), NORMAL_MESSAGE);
+        }
+        deferredCount = 0;
+        if (errorMessage != null) {
+            throw new ModelLoadingException(errorMessage);
+        }
+        return buildModel();
+    }
+
+    private Model buildModel() {
+        Model model = new Model();
+        model.vertices.addAll(vertices);
+        model.textureVertices.addAll(textureVertices);
+        model.normals.addAll(normals);
+        model.polygons.addAll(polygons);
+        return model;
+    }
+
+    @Override
+    public void vertex(float x, float y, float z, int lineNumber) {
+        vertices.add(new Vector3f(x, y, z));
+    }
+
+    @Override
+    public void textureVertex(float u, float v, int lineNumber) {
+        textureVertices.add(new Vector2f(u, v));
+    }
+
+    @Override
+    public void normal(float x, float y, float z, int lineNumber) {
+        normals.add(new Vector3f(x, y, z));
+    }
+
+    @Override
+    public void face(int[] vertexIndices, int vertexCount,
+                     int[] textureVertexIndices, int textureVertexCount,
+                     int[] normalIndices, int normalCount,
+                     int lineNumber) {
+        int polygonIndex = polygons.size();
+        if (errorPolygon < 0) {
+            boolean forward = hasForward(vertexIndices, vertexCount, vertices.size())
+                || hasForward(textureVertexIndices, textureVertexCount, textureVertices.size())
+                || hasForward(normalIndices, normalCount, normals.size());
+            if (forward) {
+                if (deferredCount == deferredPolygons.length) {
+                    deferredPolygons = Arrays.copyOf(deferredPolygons, deferredCount * 2);
+                }
+                deferredPolygons[deferredCount++] = polygonIndex;
+            } else {
+                // Без ссылок вперед неверными могут быть только отрицательные индексы
+                errorMessage = firstNegative(polygonIndex, vertexIndices, vertexCount, VERTEX_MESSAGE);
+                if (errorMessage == null) {
+                    errorMessage = firstNegative(polygonIndex, textureVertexIndices, textureVertexCount, TEXTURE_MESSAGE);
+                }
+                if (errorMessage == null) {
+                    errorMessage = firstNegative(polygonIndex, normalIndices, normalCount, NORMAL_MESSAGE);
+                }
+                if (errorMessage != null) {
+                    errorPolygon = polygonIndex;
+                }
+            }
+        }
+
+        Polygon polygon = new Polygon();
+        polygon.setVertexIndices(toList(vertexIndices, vertexCount));
+
+        if (textureVertexCount > 0) {
+            polygon.setTextureVertexIndices(toList(textureVertexIndices, textureVertexCount));
+        }
+        if (normalCount > 0) {
+            polygon.setNormalIndices(toList(normalIndices, normalCount));
+        }
+
+        polygons.add(polygon);
+    }
+
+    private static boolean hasForward(int[] indices, int count, int available) {
+        for (int i = 0; i < count; i++) {
+            if (indices[i] >= available) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static String firstNegative(int polygonIndex, int[] indices, int count, String message) {
+        for (int i = 0; i < count; i++) {
+            if (indices[i] < 0) {
+                return String.format(message, polygonIndex, indices[i]);
+            }
+        }
+        return null;
+    }
+
+    private static void checkIndices(int polygonIndex, ArrayList<Integer> indices, int available, String message)
+            throws ModelLoadingException {
+        for (int index : indices) {
+            if (index < 0 || index >= available) {
+                throw new ModelLoadingException(String.format(message, polygonIndex, index));
+            }
+        }
+    }
+
+    private static ArrayList<Integer> toList(int[] values, int count) {
+        ArrayList<Integer> list = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            list.add(values[i]);
+        }
+        return list;
+    }
+}
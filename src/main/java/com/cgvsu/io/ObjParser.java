@@ -0,0 +1,291 @@
+package com.cgvsu.io;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+public class ObjParser {
+
+    private static final String OBJ_VERTEX_TOKEN = "v";
+    private static final String OBJ_TEXTURE_TOKEN = "vt";
+    private static final String OBJ_NORMAL_TOKEN = "vn";
+    private static final String OBJ_FACE_TOKEN = "f";
+    private static final char OBJ_COMMENT_CHAR = '#';
+    private static final String OBJ_OBJECT_TOKEN = "o";
+    private static final String OBJ_GROUP_TOKEN = "g";
+
+    private final ObjHandler handler;
+
+    private CharSequence line;
+    private int position;
+    private int lineNumber;
+
+    private final int[] wordBounds = new int[6];
+    private int[] vertexIndices = new int[16];
+    private int[] textureIndices = new int[16];
+    private int[] normalIndices = new int[16];
+
+    public ObjParser(ObjHandler handler) {
+        this.handler = handler;
+    }
+
+    public static void parse(String content, ObjHandler handler) throws ModelLoadingException {
+        new ObjParser(handler).parse(new BufferedReader(new StringReader(content)));
+    }
+
+    public static void parse(InputStream in, ObjHandler handler) throws ModelLoadingException {
+        new ObjParser(handler).parse(new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8)));
+    }
+
+    public void parse(BufferedReader reader) throws ModelLoadingException {
+        lineNumber = 0;
+
+        try {
+            while ((line = reader.readLine()) != null) {
+                lineNumber++;
+                parseCurrentLine();
+            }
+        } catch (IOException e) {
+            throw new ModelLoadingException("Ошибка чтения данных модели", lineNumber, e);
+        }
+    }
+
+    // Разбор одной строки; line может быть переиспользуемым представлением буфера и не копируется
+    public void parseLine(CharSequence line, int lineNumber) throws ModelLoadingException {
+        this.line = line;
+        this.lineNumber = lineNumber;
+        parseCurrentLine();
+    }
+
+    private void parseCurrentLine() throws ModelLoadingException {
+        position = 0;
+
+        String token = nextWord();
+        if (token == null || token.charAt(0) == OBJ_COMMENT_CHAR) {
+            return;
+        }
+
+        try {
+            switch (token) {
+                case OBJ_VERTEX_TOKEN -> parseVertex();
+                case OBJ_TEXTURE_TOKEN -> parseTextureVertex();
+                case OBJ_NORMAL_TOKEN -> parseNormal();
+                case OBJ_FACE_TOKEN -> parseFace();
+                case OBJ_GROUP_TOKEN -> handler.group(restOfLine(), lineNumber);
+                case OBJ_OBJECT_TOKEN -> handler.object(restOfLine(), lineNumber);
+                default -> {
+                }
+            }
+        } catch (ModelLoadingException e) {
+            throw e; // Пробрасываем дальше с правильным номером строки
+        } catch (Exception e) {
+            throw new ModelLoadingException("Неожиданная ошибка при парсинге строки", lineNumber, e);
+        }
+    }
+
+    private void parseVertex() throws ModelLoadingException {
+        if (readWords(3) < 3) {
+            throw new ModelLoadingException("Недостаточно координат для вершины (требуется минимум 3)", lineNumber);
+        }
+
+        try {
+            float x = Float.parseFloat(wordAt(0));
+            float y = Float.parseFloat(wordAt(1));
+            float z = Float.parseFloat(wordAt(2));
+
+            if (Float.isNaN(x) || Float.isNaN(y) || Float.isNaN(z)) {
+                throw new ModelLoadingException("Координаты вершины содержат некорректные значения (NaN)", lineNumber);
+            }
+            if (Float.isInfinite(x) || Float.isInfinite(y) || Float.isInfinite(z)) {
+                throw new ModelLoadingException("Координаты вершины содержат бесконечные значения", lineNumber);
+            }
+
+            handler.vertex(x, y, z, lineNumber);
+
+        } catch (NumberFormatException e) {
+            throw new ModelLoadingException("Некорректный формат чисел в координатах вершины", lineNumber, e);
+        }
+    }
+
+    private void parseTextureVertex() throws ModelLoadingException {
+        if (readWords(2) < 2) {
+            throw new ModelLoadingException("Недостаточно координат для текстурной вершины (требуется минимум 2)", lineNumber);
+        }
+
+        try {
+            float u = Float.parseFloat(wordAt(0));
+            float v = Float.parseFloat(wordAt(1));
+
+            if (Float.isNaN(u) || Float.isNaN(v)) {
+                throw new ModelLoadingException("Текстурные координаты содержат некорректные значения (NaN)", lineNumber);
+            }
+            if (Float.isInfinite(u) || Float.isInfinite(v)) {
+                throw new ModelLoadingException("Текстурные координаты содержат бесконечные значения", lineNumber);
+            }
+
+            handler.textureVertex(u, v, lineNumber);
+
+        } catch (NumberFormatException e) {
+            throw new ModelLoadingException("Некорректный формат чисел в текстурных координатах", lineNumber, e);
+        }
+    }
+
+    private void parseNormal() throws ModelLoadingException {
+        if (readWords(3) < 3) {
+            throw new ModelLoadingException("Недостаточно компонент для нормали (требуется 3)", lineNumber);
+        }
+
+        try {
+            float x = Float.parseFloat(wordAt(0));
+            float y = Float.parseFloat(wordAt(1));
+            float z = Float.parseFloat(wordAt(2));
+
+            if (Float.isNaN(x) || Float.isNaN(y) || Float.isNaN(z)) {
+                throw new ModelLoadingException("Компоненты нормали содержат некорректные значения (NaN)", lineNumber);
+            }
+            if (Float.isInfinite(x) || Float.isInfinite(y) || Float.isInfinite(z)) {
+                throw new ModelLoadingException("Компоненты нормали содержат бесконечные значения", lineNumber);
+            }
+
+            handler.normal(x, y, z, lineNumber);
+
+        } catch (NumberFormatException e) {
+            throw new ModelLoadingException("Некорректный формат чисел в компонентах нормали", lineNumber, e);
+        }
+    }
+
+    private void parseFace() throws ModelLoadingException {
+        int vertexCount = 0;
+        int textureCount = 0;
+        int normalCount = 0;
+
+        int wordStart;
+        while ((wordStart = skipWhitespace()) < line.length()) {
+            int wordEnd = wordEnd(wordStart);
+            position = wordEnd;
+
+            if (vertexCount == vertexIndices.length) {
+                vertexIndices = Arrays.copyOf(vertexIndices, vertexCount * 2);
+                textureIndices = Arrays.copyOf(textureIndices, vertexCount * 2);
+                normalIndices = Arrays.copyOf(normalIndices, vertexCount * 2);
+            }
+
+            // Слово вида v, v/vt, v//vn или v/vt/vn
+            int firstSlash = indexOf('/', wordStart, wordEnd);
+            int vertexEnd = firstSlash == -1 ? wordEnd : firstSlash;
+            if (vertexEnd == wordStart) {
+                throw new ModelLoadingException("Отсутствует индекс вершины в определении полигона", lineNumber);
+            }
+            vertexIndices[vertexCount++] = parseIndex(wordStart, vertexEnd) - 1; // OBJ использует 1-based индексы
+
+            if (firstSlash != -1) {
+                int secondSlash = indexOf('/', firstSlash + 1, wordEnd);
+                int textureEnd = secondSlash == -1 ? wordEnd : secondSlash;
+                if (textureEnd > firstSlash + 1) {
+                    textureIndices[textureCount++] = parseIndex(firstSlash + 1, textureEnd) - 1;
+                }
+
+                if (secondSlash != -1) {
+                    int thirdSlash = indexOf('/', secondSlash + 1, wordEnd);
+                    int normalEnd = thirdSlash == -1 ? wordEnd : thirdSlash;
+                    if (normalEnd > secondSlash + 1) {
+                        normalIndices[normalCount++] = parseIndex(secondSlash + 1, normalEnd) - 1;
+                    }
+                }
+            }
+        }
+
+        if (vertexCount < 3) {
+            throw new ModelLoadingException("Полигон должен содержать минимум 3 вершины", lineNumber);
+        }
+
+        handler.face(vertexIndices, vertexCount, textureIndices, textureCount, normalIndices, normalCount, lineNumber);
+    }
+
+    private int parseIndex(int start, int end) throws ModelLoadingException {
+        int i = start;
+        boolean negative = false;
+        char first = line.charAt(i);
+        if (first == '-' || first == '+') {
+            negative = first == '-';
+            i++;
+        }
+        if (i == end) {
+            throw new ModelLoadingException("Некорректный формат индексов в определении полигона", lineNumber);
+        }
+
+        long value = 0;
+        for (; i < end; i++) {
+            int digit = line.charAt(i) - '0';
+            if (digit < 0 || digit > 9) {
+                throw new ModelLoadingException("Некорректный формат индексов в определении полигона", lineNumber);
+            }
+            value = value * 10 + digit;
+            if (value > Integer.MAX_VALUE) {
+                throw new ModelLoadingException("Некорректный формат индексов в определении полигона", lineNumber);
+            }
+        }
+        return negative ? (int) -value : (int) value;
+    }
+
+    // Запоминает границы следующих слов строки, не разбирая их; возвращает число найденных слов
+    private int readWords(int count) {
+        int found = 0;
+        int wordStart;
+        while (found < count && (wordStart = skipWhitespace()) < line.length()) {
+            int wordEnd = wordEnd(wordStart);
+            wordBounds[found * 2] = wordStart;
+            wordBounds[found * 2 + 1] = wordEnd;
+            position = wordEnd;
+            found++;
+        }
+        return found;
+    }
+
+    private String wordAt(int index) {
+        return line.subSequence(wordBounds[index * 2], wordBounds[index * 2 + 1]).toString();
+    }
+
+    private String nextWord() {
+        int start = skipWhitespace();
+        if (start >= line.length()) {
+            return null;
+        }
+        int end = wordEnd(start);
+        position = end;
+        return line.subSequence(start, end).toString();
+    }
+
+    private String restOfLine() {
+        int start = skipWhitespace();
+        return line.subSequence(start, line.length()).toString().trim();
+    }
+
+    private int skipWhitespace() {
+        while (position < line.length() && Character.isWhitespace(line.charAt(position))) {
+            position++;
+        }
+        return position;
+    }
+
+    private int wordEnd(int start) {
+        int end = start;
+        while (end < line.length() && !Character.isWhitespace(line.charAt(end))) {
+            end++;
+        }
+        return end;
+    }
+
+    private int indexOf(char c, int from, int to) {
+        for (int i = from; i < to; i++) {
+            if (line.charAt(i) == c) {
+                return i;
+            }
+        }
+        return -1;
+    }
+}
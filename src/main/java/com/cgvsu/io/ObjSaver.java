@@ -5,6 +5,12 @@ import com.cgvsu.math.Vector3f;
 import com.cgvsu.model.Model;
 import com.cgvsu.model.Polygon;
 
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.StringWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Path;
 import java.util.List;
 
@@ -12,15 +18,34 @@ public class ObjSaver extends ModelSaver {
 
     private static final String[] SUPPORTED_EXTENSIONS = {"obj"};
 
+    private static final int WRITE_CHUNK_SIZE = 64 * 1024;
+
     @Override
     protected boolean supportsExtension(Path path) {
         if (path == null) return false;
         String fileName = path.getFileName().toString().toLowerCase();
-        return fileName.endsWith(".obj");
+        return fileName.endsWith(".obj") || fileName.endsWith(".obj" + COMPRESSED_SUFFIX);
     }
 
     @Override
     protected String generateContent(Model model, SaveSettings settings) throws ModelSavingException {
+        StringWriter writer = new StringWriter();
+        try {
+            writeObj(model, settings, writer);
+        } catch (IOException e) {
+            throw new ModelSavingException("Ошибка формирования содержимого OBJ", e);
+        }
+        return writer.toString();
+    }
+
+    @Override
+    protected void writeContent(Model model, SaveSettings settings, OutputStream out) throws IOException {
+        Writer writer = new OutputStreamWriter(out, StandardCharsets.UTF_8);
+        writeObj(model, settings, writer);
+        writer.flush();
+    }
+
+    private void writeObj(Model model, SaveSettings settings, Writer out) throws IOException {
         StringBuilder sb = new StringBuilder();
 
         if (settings.includeComments) {
@@ -41,6 +66,7 @@ public class ObjSaver extends ModelSaver {
               .append(formatFloat(vertex.x, settings.floatPrecision)).append(" ")
               .append(formatFloat(vertex.y, settings.floatPrecision)).append(" ")
               .append(formatFloat(vertex.z, settings.floatPrecision)).append("\n");
+            flushIfFull(sb, out);
         }
 
         if (settings.includeTextureCoords && model.textureVertices != null && !model.textureVertices.isEmpty()) {
@@ -49,6 +75,7 @@ public class ObjSaver extends ModelSaver {
                 sb.append("vt ")
                   .append(formatFloat(texCoord.x, settings.floatPrecision)).append(" ")
                   .append(formatFloat(texCoord.y, settings.floatPrecision)).append("\n");
+                flushIfFull(sb, out);
             }
         }
 
@@ -59,6 +86,7 @@ public class ObjSaver extends ModelSaver {
                   .append(formatFloat(normal.x, settings.floatPrecision)).append(" ")
                   .append(formatFloat(normal.y, settings.floatPrecision)).append(" ")
                   .append(formatFloat(normal.z, settings.floatPrecision)).append("\n");
+                flushIfFull(sb, out);
             }
         }
 
@@ -86,9 +114,17 @@ public class ObjSaver extends ModelSaver {
                 }
             }
             sb.append("\n");
+            flushIfFull(sb, out);
         }
 
-        return sb.toString();
+        out.append(sb);
+    }
+
+    private static void flushIfFull(StringBuilder sb, Writer out) throws IOException {
+        if (sb.length() >= WRITE_CHUNK_SIZE) {
+            out.append(sb);
+            sb.setLength(0);
+        }
     }
 
     private String formatFloat(float value, int precision) {
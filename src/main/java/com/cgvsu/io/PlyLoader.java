@@ -0,0 +1,529 @@
+package com.cgvsu.io;
+
+import com.cgvsu.math.Vector2f;
+import com.cgvsu.math.Vector3f;
+import com.cgvsu.model.Model;
+import com.cgvsu.model.Polygon;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+public class PlyLoader extends ModelLoader {
+
+    private static final String[] SUPPORTED_EXTENSIONS = {"ply"};
+
+    private static final int READ_BUFFER_SIZE = 256 * 1024;
+    private static final int MAX_HEADER_LENGTH = 64 * 1024;
+
+    private static final int SLOT_X = 0;
+    private static final int SLOT_Y = 1;
+    private static final int SLOT_Z = 2;
+    private static final int SLOT_NX = 3;
+    private static final int SLOT_NY = 4;
+    private static final int SLOT_NZ = 5;
+    private static final int SLOT_U = 6;
+    private static final int SLOT_V = 7;
+    private static final int SLOT_COUNT = 8;
+
+    @Override
+    protected boolean supportsExtension(Path path) {
+        if (path == null) return false;
+        String fileName = path.getFileName().toString().toLowerCase();
+        return fileName.endsWith(".ply") || fileName.endsWith(".ply" + COMPRESSED_SUFFIX);
+    }
+
+    @Override
+    protected Model parseFile(Path path) throws ModelLoadingException {
+        if (isCompressed(path)) {
+            return super.parseFile(path);
+        }
+
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size > Integer.MAX_VALUE) {
+                return decode(new BinaryInput(channel));
+            }
+            return decode(new BinaryInput(channel.map(FileChannel.MapMode.READ_ONLY, 0, size)));
+        } catch (IOException e) {
+            throw new ModelLoadingException("Ошибка чтения файла: " + path.toString(), e);
+        }
+    }
+
+    @Override
+    protected Model parseStream(InputStream in) throws ModelLoadingException, IOException {
+        return decode(new BinaryInput(Channels.newChannel(in)));
+    }
+
+    @Override
+    protected Model parseContent(String content) throws ModelLoadingException {
+        // Бинарные данные в строке ожидаются побайтно (ISO-8859-1), иначе они уже искажены
+        try {
+            return decode(new BinaryInput(ByteBuffer.wrap(content.getBytes(StandardCharsets.ISO_8859_1))));
+        } catch (IOException e) {
+            throw new ModelLoadingException("Ошибка чтения данных PLY", e);
+        }
+    }
+
+    private Model decode(BinaryInput input) throws ModelLoadingException, IOException {
+        PlyHeader header = readHeader(input);
+        input.order(header.byteOrder);
+
+        Model model = new Model();
+        boolean[] vertexSlots = new boolean[SLOT_COUNT];
+
+        for (PlyElement element : header.elements) {
+            switch (element.name) {
+                case "vertex" -> readVertices(input, element, model, vertexSlots);
+                case "face" -> readFaces(input, element, model, vertexSlots);
+                default -> skipElement(input, element);
+            }
+        }
+
+        return model;
+    }
+
+    private PlyHeader readHeader(BinaryInput input) throws ModelLoadingException, IOException {
+        String magic = input.readHeaderLine();
+        if (!"ply".equals(magic)) {
+            throw new ModelLoadingException("Файл не является PLY: отсутствует сигнатура 'ply'");
+        }
+
+        PlyHeader header = new PlyHeader();
+        PlyElement currentElement = null;
+        int lineNumber = 1;
+
+        while (true) {
+            String line = input.readHeaderLine();
+            lineNumber++;
+            if (line == null) {
+                throw new ModelLoadingException("Заголовок PLY не завершен строкой end_header");
+            }
+
+            String[] words = line.split("\\s+");
+            switch (words[0]) {
+                case "format" -> header.byteOrder = parseFormat(words, lineNumber);
+                case "element" -> {
+                    currentElement = parseElement(words, lineNumber);
+                    header.elements.add(currentElement);
+                }
+                case "property" -> {
+                    if (currentElement == null) {
+                        throw new ModelLoadingException("Свойство объявлено вне элемента", lineNumber);
+                    }
+                    currentElement.properties.add(parseProperty(words, lineNumber));
+                }
+                case "end_header" -> {
+                    if (header.byteOrder == null) {
+                        throw new ModelLoadingException("В заголовке PLY отсутствует строка format");
+                    }
+                    return header;
+                }
+                case "", "comment", "obj_info" -> {
+                }
+                default -> throw new ModelLoadingException("Неизвестная директива заголовка PLY: " + words[0], lineNumber);
+            }
+        }
+    }
+
+    private ByteOrder parseFormat(String[] words, int lineNumber) throws ModelLoadingException {
+        if (words.length < 2) {
+            throw new ModelLoadingException("Не указан формат PLY", lineNumber);
+        }
+
+        return switch (words[1]) {
+            case "binary_little_endian" -> ByteOrder.LITTLE_ENDIAN;
+            case "binary_big_endian" -> ByteOrder.BIG_ENDIAN;
+            case "ascii" -> throw new ModelLoadingException(
+                "Текстовый формат PLY (ascii) не поддерживается, ожидается binary_little_endian или binary_big_endian",
+                lineNumber);
+            default -> throw new ModelLoadingException("Неизвестный формат PLY: " + words[1], lineNumber);
+        };
+    }
+
+    private PlyElement parseElement(String[] words, int lineNumber) throws ModelLoadingException {
+        if (words.length < 3) {
+            throw new ModelLoadingException("Некорректное объявление элемента PLY", lineNumber);
+        }
+
+        try {
+            long count = Long.parseLong(words[2]);
+            if (count < 0 || count > Integer.MAX_VALUE) {
+                throw new ModelLoadingException("Некорректное количество записей элемента " + words[1], lineNumber);
+            }
+            return new PlyElement(words[1], (int) count);
+        } catch (NumberFormatException e) {
+            throw new ModelLoadingException("Некорректное количество записей элемента " + words[1], lineNumber, e);
+        }
+    }
+
+    private PlyProperty parseProperty(String[] words, int lineNumber) throws ModelLoadingException {
+        if (words.length >= 5 && words[1].equals("list")) {
+            return new PlyProperty(words[4], parseType(words[3], lineNumber), parseType(words[2], lineNumber));
+        }
+        if (words.length >= 3 && !words[1].equals("list")) {
+            return new PlyProperty(words[2], parseType(words[1], lineNumber), null);
+        }
+        throw new ModelLoadingException("Некорректное объявление свойства PLY", lineNumber);
+    }
+
+    private PlyType parseType(String name, int lineNumber) throws ModelLoadingException {
+        PlyType type = PlyType.fromName(name);
+        if (type == null) {
+            throw new ModelLoadingException("Неизвестный тип свойства PLY: " + name, lineNumber);
+        }
+        return type;
+    }
+
+    private void readVertices(BinaryInput input, PlyElement element, Model model, boolean[] present)
+            throws ModelLoadingException, IOException {
+        int propertyCount = element.properties.size();
+        int[] slots = new int[propertyCount];
+        for (int i = 0; i < propertyCount; i++) {
+            slots[i] = vertexSlot(element.properties.get(i).name);
+            if (slots[i] >= 0) {
+                present[slots[i]] = true;
+            }
+        }
+
+        if (!present[SLOT_X] || !present[SLOT_Y] || !present[SLOT_Z]) {
+            throw new ModelLoadingException("Элемент vertex не содержит координат x, y, z");
+        }
+        boolean hasNormals = present[SLOT_NX] && present[SLOT_NY] && present[SLOT_NZ];
+        boolean hasTextures = present[SLOT_U] && present[SLOT_V];
+        present[SLOT_NX] = hasNormals;
+        present[SLOT_U] = hasTextures;
+
+        // Записи копятся в обычных списках и передаются модели одним addAll: списки модели
+        // отслеживают изменения, и поэлементное добавление платило бы за это на каждой вершине
+        ArrayList<Vector3f> vertices = new ArrayList<>(element.count);
+        ArrayList<Vector3f> normals = new ArrayList<>(hasNormals ? element.count : 0);
+        ArrayList<Vector2f> textureVertices = new ArrayList<>(hasTextures ? element.count : 0);
+
+        int stride = element.fixedStride();
+        float[] values = new float[SLOT_COUNT];
+
+        for (int vertexIndex = 0; vertexIndex < element.count; vertexIndex++) {
+            if (stride > 0) {
+                input.ensure(stride);
+            }
+
+            ByteBuffer buffer = input.buffer();
+            for (int p = 0; p < propertyCount; p++) {
+                PlyProperty property = element.properties.get(p);
+                if (property.countType != null) {
+                    skipList(input, property);
+                    buffer = input.buffer();
+                    continue;
+                }
+                if (stride <= 0) {
+                    input.ensure(property.type.size);
+                    buffer = input.buffer();
+                }
+                float value = property.type.readFloat(buffer);
+                if (slots[p] >= 0) {
+                    values[slots[p]] = value;
+                }
+            }
+
+            if (!Float.isFinite(values[SLOT_X]) || !Float.isFinite(values[SLOT_Y]) || !Float.isFinite(values[SLOT_Z])) {
+                throw new ModelLoadingException(
+                    String.format("Вершина %d содержит некорректные значения координат", vertexIndex));
+            }
+
+            vertices.add(new Vector3f(values[SLOT_X], values[SLOT_Y], values[SLOT_Z]));
+            if (hasNormals) {
+                normals.add(new Vector3f(values[SLOT_NX], values[SLOT_NY], values[SLOT_NZ]));
+            }
+            if (hasTextures) {
+                textureVertices.add(new Vector2f(values[SLOT_U], values[SLOT_V]));
+            }
+        }
+
+        model.vertices.addAll(vertices);
+        model.normals.addAll(normals);
+        model.textureVertices.addAll(textureVertices);
+    }
+
+    private void readFaces(BinaryInput input, PlyElement element, Model model, boolean[] vertexSlots)
+            throws ModelLoadingException, IOException {
+        int indexProperty = -1;
+        for (int i = 0; i < element.properties.size(); i++) {
+            PlyProperty property = element.properties.get(i);
+            if (property.countType != null &&
+                (property.name.equals("vertex_indices") || property.name.equals("vertex_index"))) {
+                indexProperty = i;
+                break;
+            }
+        }
+
+        if (indexProperty == -1) {
+            throw new ModelLoadingException("Элемент face не содержит списка vertex_indices");
+        }
+
+        boolean hasNormals = vertexSlots[SLOT_NX];
+        boolean hasTextures = vertexSlots[SLOT_U];
+        ArrayList<Polygon> polygons = new ArrayList<>(element.count);
+
+        for (int faceIndex = 0; faceIndex < element.count; faceIndex++) {
+            for (int p = 0; p < element.properties.size(); p++) {
+                PlyProperty property = element.properties.get(p);
+                if (p != indexProperty) {
+                    skipProperty(input, property);
+                    continue;
+                }
+
+                input.ensure(property.countType.size);
+                int count = property.countType.readInt(input.buffer());
+                if (count < 0) {
+                    throw new ModelLoadingException(
+                        String.format("Полигон %d содержит некорректное количество вершин", faceIndex));
+                }
+
+                input.ensure(count * property.type.size);
+                ByteBuffer buffer = input.buffer();
+                ArrayList<Integer> vertexIndices = new ArrayList<>(count);
+                for (int i = 0; i < count; i++) {
+                    vertexIndices.add(property.type.readInt(buffer));
+                }
+
+                Polygon polygon = new Polygon();
+                polygon.setVertexIndices(vertexIndices);
+                // В PLY атрибуты хранятся в вершинах, поэтому индексы атрибутов совпадают с индексами вершин
+                if (hasNormals) {
+                    polygon.setNormalIndices(new ArrayList<>(vertexIndices));
+                }
+                if (hasTextures) {
+                    polygon.setTextureVertexIndices(new ArrayList<>(vertexIndices));
+                }
+                polygons.add(polygon);
+            }
+        }
+
+        model.polygons.addAll(polygons);
+    }
+
+    private void skipElement(BinaryInput input, PlyElement element) throws ModelLoadingException, IOException {
+        int stride = element.fixedStride();
+        if (stride > 0) {
+            input.skip((long) stride * element.count);
+            return;
+        }
+
+        for (int i = 0; i < element.count; i++) {
+            for (PlyProperty property : element.properties) {
+                skipProperty(input, property);
+            }
+        }
+    }
+
+    private void skipProperty(BinaryInput input, PlyProperty property) throws ModelLoadingException, IOException {
+        if (property.countType != null) {
+            skipList(input, property);
+        } else {
+            input.skip(property.type.size);
+        }
+    }
+
+    private void skipList(BinaryInput input, PlyProperty property) throws ModelLoadingException, IOException {
+        input.ensure(property.countType.size);
+        int count = property.countType.readInt(input.buffer());
+        input.skip((long) count * property.type.size);
+    }
+
+    private static int vertexSlot(String name) {
+        return switch (name) {
+            case "x" -> SLOT_X;
+            case "y" -> SLOT_Y;
+            case "z" -> SLOT_Z;
+            case "nx" -> SLOT_NX;
+            case "ny" -> SLOT_NY;
+            case "nz" -> SLOT_NZ;
+            case "s", "u", "texture_u", "texture_s" -> SLOT_U;
+            case "t", "v", "texture_v", "texture_t" -> SLOT_V;
+            default -> -1;
+        };
+    }
+
+    @Override
+    public String[] getSupportedExtensions() {
+        return SUPPORTED_EXTENSIONS.clone();
+    }
+
+    enum PlyType {
+        INT8(1), UINT8(1), INT16(2), UINT16(2), INT32(4), UINT32(4), FLOAT32(4), FLOAT64(8);
+
+        final int size;
+
+        PlyType(int size) {
+            this.size = size;
+        }
+
+        static PlyType fromName(String name) {
+            return switch (name) {
+                case "char", "int8" -> INT8;
+                case "uchar", "uint8" -> UINT8;
+                case "short", "int16" -> INT16;
+                case "ushort", "uint16" -> UINT16;
+                case "int", "int32" -> INT32;
+                case "uint", "uint32" -> UINT32;
+                case "float", "float32" -> FLOAT32;
+                case "double", "float64" -> FLOAT64;
+                default -> null;
+            };
+        }
+
+        float readFloat(ByteBuffer buffer) {
+            return switch (this) {
+                case FLOAT32 -> buffer.getFloat();
+                case FLOAT64 -> (float) buffer.getDouble();
+                case UINT32 -> (float) (buffer.getInt() & 0xFFFFFFFFL);
+                default -> readInt(buffer);
+            };
+        }
+
+        int readInt(ByteBuffer buffer) {
+            return switch (this) {
+                case INT8 -> buffer.get();
+                case UINT8 -> buffer.get() & 0xFF;
+                case INT16 -> buffer.getShort();
+                case UINT16 -> buffer.getShort() & 0xFFFF;
+                case INT32, UINT32 -> buffer.getInt();
+                case FLOAT32 -> (int) buffer.getFloat();
+                case FLOAT64 -> (int) buffer.getDouble();
+            };
+        }
+    }
+
+    private static final class PlyHeader {
+        ByteOrder byteOrder;
+        final List<PlyElement> elements = new ArrayList<>();
+    }
+
+    private static final class PlyElement {
+        final String name;
+        final int count;
+        final List<PlyProperty> properties = new ArrayList<>();
+
+        PlyElement(String name, int count) {
+            this.name = name;
+            this.count = count;
+        }
+
+        // Размер записи в байтах или -1, если запись содержит списки переменной длины
+        int fixedStride() {
+            int stride = 0;
+            for (PlyProperty property : properties) {
+                if (property.countType != null) {
+                    return -1;
+                }
+                stride += property.type.size;
+            }
+            return stride;
+        }
+    }
+
+    private static final class PlyProperty {
+        final String name;
+        final PlyType type;
+        final PlyType countType;
+
+        PlyProperty(String name, PlyType type, PlyType countType) {
+            this.name = name;
+            this.type = type;
+            this.countType = countType;
+        }
+    }
+
+    // Источник байтов поверх ByteBuffer: отображенного в память файла целиком
+    // либо прямого буфера, который подкачивается из канала по мере разбора
+    private static final class BinaryInput {
+        private final ReadableByteChannel channel;
+        private ByteBuffer buffer;
+
+        BinaryInput(ByteBuffer buffer) {
+            this.channel = null;
+            this.buffer = buffer;
+        }
+
+        BinaryInput(ReadableByteChannel channel) {
+            this.channel = channel;
+            this.buffer = ByteBuffer.allocateDirect(READ_BUFFER_SIZE);
+            this.buffer.flip();
+        }
+
+        ByteBuffer buffer() {
+            return buffer;
+        }
+
+        void order(ByteOrder order) {
+            buffer.order(order);
+        }
+
+        void ensure(int bytes) throws ModelLoadingException, IOException {
+            if (!fill(bytes)) {
+                throw new ModelLoadingException("Неожиданный конец файла PLY");
+            }
+        }
+
+        void skip(long bytes) throws ModelLoadingException, IOException {
+            while (bytes > 0) {
+                int step = (int) Math.min(bytes, Math.max(buffer.capacity(), 1));
+                ensure(step);
+                buffer.position(buffer.position() + step);
+                bytes -= step;
+            }
+        }
+
+        String readHeaderLine() throws ModelLoadingException, IOException {
+            StringBuilder line = new StringBuilder();
+            while (fill(1)) {
+                char c = (char) (buffer.get() & 0xFF);
+                if (c == '\n') {
+                    return line.toString().trim();
+                }
+                line.append(c);
+                if (line.length() > MAX_HEADER_LENGTH) {
+                    throw new ModelLoadingException("Слишком длинная строка заголовка PLY");
+                }
+            }
+            return line.length() > 0 ? line.toString().trim() : null;
+        }
+
+        private boolean fill(int bytes) throws IOException {
+            if (buffer.remaining() >= bytes) {
+                return true;
+            }
+            if (channel == null) {
+                return false;
+            }
+
+            if (bytes > buffer.capacity()) {
+                ByteBuffer larger = ByteBuffer.allocateDirect(Math.max(bytes, buffer.capacity() * 2));
+                larger.order(buffer.order());
+                larger.put(buffer);
+                buffer = larger;
+            } else {
+                buffer.compact();
+            }
+
+            while (buffer.position() < bytes) {
+                if (channel.read(buffer) < 0) {
+                    buffer.flip();
+                    return false;
+                }
+            }
+            buffer.flip();
+            return true;
+        }
+    }
+}
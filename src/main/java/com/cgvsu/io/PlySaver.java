@@ -0,0 +1,190 @@
+package com.cgvsu.io;
+
+import com.cgvsu.math.Vector2f;
+import com.cgvsu.math.Vector3f;
+import com.cgvsu.model.Model;
+import com.cgvsu.model.Polygon;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.Channels;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.Function;
+
+public class PlySaver extends ModelSaver {
+
+    private static final String[] SUPPORTED_EXTENSIONS = {"ply"};
+
+    private static final int WRITE_BUFFER_SIZE = 256 * 1024;
+
+    @Override
+    protected boolean supportsExtension(Path path) {
+        if (path == null) return false;
+        String fileName = path.getFileName().toString().toLowerCase();
+        return fileName.endsWith(".ply") || fileName.endsWith(".ply" + COMPRESSED_SUFFIX);
+    }
+
+    @Override
+    protected String generateContent(Model model, SaveSettings settings) throws ModelSavingException {
+        throw new ModelSavingException("Формат PLY сохраняется только в бинарном виде и не имеет текстового представления");
+    }
+
+    @Override
+    protected void writeContent(Model model, SaveSettings settings, OutputStream out) throws IOException {
+        ByteOrder byteOrder = settings instanceof PlySaveSettings plySettings
+            ? plySettings.byteOrder : ByteOrder.LITTLE_ENDIAN;
+
+        int[] normalPerVertex = settings.includeNormals
+            ? resolvePerVertex(model, Polygon::getNormalIndices, model.normals == null ? 0 : model.normals.size())
+            : null;
+        int[] texturePerVertex = settings.includeTextureCoords
+            ? resolvePerVertex(model, Polygon::getTextureVertexIndices,
+                               model.textureVertices == null ? 0 : model.textureVertices.size())
+            : null;
+
+        int maxPolygonSize = 0;
+        for (Polygon polygon : model.polygons) {
+            maxPolygonSize = Math.max(maxPolygonSize, polygon.getVertexIndices().size());
+        }
+        boolean wideCounts = maxPolygonSize > 0xFF;
+
+        StringBuilder header = new StringBuilder();
+        header.append("ply\n");
+        header.append("format ")
+              .append(byteOrder == ByteOrder.BIG_ENDIAN ? "binary_big_endian" : "binary_little_endian")
+              .append(" 1.0\n");
+        if (settings.includeComments) {
+            header.append("comment Exported by Simple3DViewer\n");
+        }
+        header.append("element vertex ").append(model.vertices.size()).append("\n");
+        header.append("property float x\nproperty float y\nproperty float z\n");
+        if (normalPerVertex != null) {
+            header.append("property float nx\nproperty float ny\nproperty float nz\n");
+        }
+        if (texturePerVertex != null) {
+            header.append("property float s\nproperty float t\n");
+        }
+        header.append("element face ").append(model.polygons.size()).append("\n");
+        header.append("property list ").append(wideCounts ? "int" : "uchar").append(" int vertex_indices\n");
+        header.append("end_header\n");
+        out.write(header.toString().getBytes(StandardCharsets.US_ASCII));
+
+        WritableByteChannel channel = Channels.newChannel(out);
+        ByteBuffer buffer = ByteBuffer.allocateDirect(WRITE_BUFFER_SIZE).order(byteOrder);
+
+        for (int i = 0; i < model.vertices.size(); i++) {
+            ensureSpace(channel, buffer, 8 * Float.BYTES);
+            Vector3f vertex = model.vertices.get(i);
+            buffer.putFloat(vertex.x).putFloat(vertex.y).putFloat(vertex.z);
+
+            if (normalPerVertex != null) {
+                int normalIndex = normalPerVertex[i];
+                if (normalIndex >= 0) {
+                    Vector3f normal = model.normals.get(normalIndex);
+                    buffer.putFloat(normal.x).putFloat(normal.y).putFloat(normal.z);
+                } else {
+                    buffer.putFloat(0).putFloat(0).putFloat(0);
+                }
+            }
+            if (texturePerVertex != null) {
+                int textureIndex = texturePerVertex[i];
+                if (textureIndex >= 0) {
+                    Vector2f texture = model.textureVertices.get(textureIndex);
+                    buffer.putFloat(texture.x).putFloat(texture.y);
+                } else {
+                    buffer.putFloat(0).putFloat(0);
+                }
+            }
+        }
+
+        for (Polygon polygon : model.polygons) {
+            List<Integer> vertexIndices = polygon.getVertexIndices();
+            ensureSpace(channel, buffer, Integer.BYTES);
+            if (wideCounts) {
+                buffer.putInt(vertexIndices.size());
+            } else {
+                buffer.put((byte) vertexIndices.size());
+            }
+
+            for (int vertexIndex : vertexIndices) {
+                ensureSpace(channel, buffer, Integer.BYTES);
+                buffer.putInt(vertexIndex);
+            }
+        }
+
+        flush(channel, buffer);
+    }
+
+    // PLY хранит нормали и текстурные координаты в вершинах: атрибут сохраняется,
+    // только если каждой вершине во всех полигонах сопоставлено одно и то же значение
+    private static int[] resolvePerVertex(Model model, Function<Polygon, List<Integer>> attributeIndices,
+                                          int attributeCount) {
+        if (attributeCount == 0) {
+            return null;
+        }
+
+        int[] perVertex = new int[model.vertices.size()];
+        Arrays.fill(perVertex, -1);
+
+        for (Polygon polygon : model.polygons) {
+            List<Integer> vertexIndices = polygon.getVertexIndices();
+            List<Integer> indices = attributeIndices.apply(polygon);
+            if (indices == null || indices.size() != vertexIndices.size()) {
+                return null;
+            }
+
+            for (int i = 0; i < vertexIndices.size(); i++) {
+                int vertexIndex = vertexIndices.get(i);
+                int attributeIndex = indices.get(i);
+                if (perVertex[vertexIndex] == -1) {
+                    perVertex[vertexIndex] = attributeIndex;
+                } else if (perVertex[vertexIndex] != attributeIndex) {
+                    return null;
+                }
+            }
+        }
+
+        return perVertex;
+    }
+
+    private static void ensureSpace(WritableByteChannel channel, ByteBuffer buffer, int bytes) throws IOException {
+        if (buffer.remaining() < bytes) {
+            flush(channel, buffer);
+        }
+    }
+
+    private static void flush(WritableByteChannel channel, ByteBuffer buffer) throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        buffer.clear();
+    }
+
+    @Override
+    protected PlySaveSettings getDefaultSettings() {
+        return new PlySaveSettings();
+    }
+
+    @Override
+    public String[] getSupportedExtensions() {
+        return SUPPORTED_EXTENSIONS.clone();
+    }
+
+    public static class PlySaveSettings extends SaveSettings {
+        public ByteOrder byteOrder = ByteOrder.LITTLE_ENDIAN;
+
+        public PlySaveSettings() {
+            super();
+            this.includeNormals = true;
+            this.includeTextureCoords = true;
+            this.includeComments = true;
+        }
+    }
+}
@@ -0,0 +1,163 @@
+package com.cgvsu.math;
+
+import java.nio.FloatBuffer;
+
+// Матрица 4x4 для векторов-строк: точка преобразуется как v * M, перенос хранится в строке 3
+// (m30, m31, m32), а произведение A * B сначала применяет A, затем B. Все операции пишут
+// результат в эту матрицу или в переданный приемник и ничего не выделяют. Пакетные
+// преобразования выполняет VertexTransform.
+public class Matrix4f {
+
+    public float m00, m01, m02, m03;
+    public float m10, m11, m12, m13;
+    public float m20, m21, m22, m23;
+    public float m30, m31, m32, m33;
+
+    public Matrix4f() {
+    }
+
+    // Элементы построчно: m00, m01, m02, m03, m10, ...
+    public Matrix4f(float[] values) {
+        set(values);
+    }
+
+    public Matrix4f(Matrix4f other) {
+        set(other);
+    }
+
+    public Matrix4f set(float[] values) {
+        m00 = values[0];
+        m01 = values[1];
+        m02 = values[2];
+        m03 = values[3];
+        m10 = values[4];
+        m11 = values[5];
+        m12 = values[6];
+        m13 = values[7];
+        m20 = values[8];
+        m21 = values[9];
+        m22 = values[10];
+        m23 = values[11];
+        m30 = values[12];
+        m31 = values[13];
+        m32 = values[14];
+        m33 = values[15];
+        return this;
+    }
+
+    public Matrix4f set(Matrix4f other) {
+        m00 = other.m00;
+        m01 = other.m01;
+        m02 = other.m02;
+        m03 = other.m03;
+        m10 = other.m10;
+        m11 = other.m11;
+        m12 = other.m12;
+        m13 = other.m13;
+        m20 = other.m20;
+        m21 = other.m21;
+        m22 = other.m22;
+        m23 = other.m23;
+        m30 = other.m30;
+        m31 = other.m31;
+        m32 = other.m32;
+        m33 = other.m33;
+        return this;
+    }
+
+    public Matrix4f setZero() {
+        m00 = m01 = m02 = m03 = 0;
+        m10 = m11 = m12 = m13 = 0;
+        m20 = m21 = m22 = m23 = 0;
+        m30 = m31 = m32 = m33 = 0;
+        return this;
+    }
+
+    public Matrix4f setIdentity() {
+        setZero();
+        m00 = m11 = m22 = m33 = 1;
+        return this;
+    }
+
+    // this = this * other
+    public Matrix4f mul(Matrix4f other) {
+        return mul(this, other);
+    }
+
+    // this = a * b; a и b могут совпадать с this
+    public Matrix4f mul(Matrix4f a, Matrix4f b) {
+        float r00 = a.m00 * b.m00 + a.m01 * b.m10 + a.m02 * b.m20 + a.m03 * b.m30;
+        float r01 = a.m00 * b.m01 + a.m01 * b.m11 + a.m02 * b.m21 + a.m03 * b.m31;
+        float r02 = a.m00 * b.m02 + a.m01 * b.m12 + a.m02 * b.m22 + a.m03 * b.m32;
+        float r03 = a.m00 * b.m03 + a.m01 * b.m13 + a.m02 * b.m23 + a.m03 * b.m33;
+        float r10 = a.m10 * b.m00 + a.m11 * b.m10 + a.m12 * b.m20 + a.m13 * b.m30;
+        float r11 = a.m10 * b.m01 + a.m11 * b.m11 + a.m12 * b.m21 + a.m13 * b.m31;
+        float r12 = a.m10 * b.m02 + a.m11 * b.m12 + a.m12 * b.m22 + a.m13 * b.m32;
+        float r13 = a.m10 * b.m03 + a.m11 * b.m13 + a.m12 * b.m23 + a.m13 * b.m33;
+        float r20 = a.m20 * b.m00 + a.m21 * b.m10 + a.m22 * b.m20 + a.m23 * b.m30;
+        float r21 = a.m20 * b.m01 + a.m21 * b.m11 + a.m22 * b.m21 + a.m23 * b.m31;
+        float r22 = a.m20 * b.m02 + a.m21 * b.m12 + a.m22 * b.m22 + a.m23 * b.m32;
+        float r23 = a.m20 * b.m03 + a.m21 * b.m13 + a.m22 * b.m23 + a.m23 * b.m33;
+        float r30 = a.m30 * b.m00 + a.m31 * b.m10 + a.m32 * b.m20 + a.m33 * b.m30;
+        float r31 = a.m30 * b.m01 + a.m31 * b.m11 + a.m32 * b.m21 + a.m33 * b.m31;
+        float r32 = a.m30 * b.m02 + a.m31 * b.m12 + a.m32 * b.m22 + a.m33 * b.m32;
+        float r33 = a.m30 * b.m03 + a.m31 * b.m13 + a.m32 * b.m23 + a.m33 * b.m33;
+        m00 = r00;
+        m01 = r01;
+        m02 = r02;
+        m03 = r03;
+        m10 = r10;
+        m11 = r11;
+        m12 = r12;
+        m13 = r13;
+        m20 = r20;
+        m21 = r21;
+        m22 = r22;
+        m23 = r23;
+        m30 = r30;
+        m31 = r31;
+        m32 = r32;
+        m33 = r33;
+        return this;
+    }
+
+    // dest = (x, y, z, 1) * this с делением на w; dest возвращается
+    public Vector3f transformPoint(float x, float y, float z, Vector3f dest) {
+        float w = x * m03 + y * m13 + z * m23 + m33;
+        return dest.set(
+            (x * m00 + y * m10 + z * m20 + m30) / w,
+            (x * m01 + y * m11 + z * m21 + m31) / w,
+            (x * m02 + y * m12 + z * m22 + m32) / w);
+    }
+
+    public Vector3f transformPoint(Vector3f point, Vector3f dest) {
+        return transformPoint(point.x, point.y, point.z, dest);
+    }
+
+    // Пакетное преобразование count точек (x, y, z подряд) с делением на w. src и dst могут совпадать
+    public void transformPoints(float[] src, int srcOffset, float[] dst, int dstOffset, int count) {
+        VertexTransform.transformPoints(this, src, srcOffset, dst, dstOffset, count);
+    }
+
+    // То же для буфера вершин (в том числе прямого) с абсолютной адресацией: позиция буфера не меняется
+    public void transformPoints(FloatBuffer src, int srcOffset, float[] dst, int dstOffset, int count) {
+        VertexTransform.transformPoints(this, src, srcOffset, dst, dstOffset, count);
+    }
+
+    public boolean equals(Matrix4f other, float eps) {
+        return Math.abs(m00 - other.m00) < eps && Math.abs(m01 - other.m01) < eps
+            && Math.abs(m02 - other.m02) < eps && Math.abs(m03 - other.m03) < eps
+            && Math.abs(m10 - other.m10) < eps && Math.abs(m11 - other.m11) < eps
+            && Math.abs(m12 - other.m12) < eps && Math.abs(m13 - other.m13) < eps
+            && Math.abs(m20 - other.m20) < eps && Math.abs(m21 - other.m21) < eps
+            && Math.abs(m22 - other.m22) < eps && Math.abs(m23 - other.m23) < eps
+            && Math.abs(m30 - other.m30) < eps && Math.abs(m31 - other.m31) < eps
+            && Math.abs(m32 - other.m32) < eps && Math.abs(m33 - other.m33) < eps;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("[%f %f %f %f; %f %f %f %f; %f %f %f %f; %f %f %f %f]",
+            m00, m01, m02, m03, m10, m11, m12, m13, m20, m21, m22, m23, m30, m31, m32, m33);
+    }
+}
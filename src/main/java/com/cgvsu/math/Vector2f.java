@@ -1,10 +1,19 @@
 package com.cgvsu.math;
 
 public class Vector2f {
+    public Vector2f() {
+    }
+
     public Vector2f(float x, float y) {
         this.x = x;
         this.y = y;
     }
 
+    public Vector2f set(float x, float y) {
+        this.x = x;
+        this.y = y;
+        return this;
+    }
+
     public float x, y;
 }
@@ -1,6 +1,9 @@
 package com.cgvsu.math;
 
 public class Vector3f {
+    public Vector3f() {
+    }
+
     public Vector3f(float x, float y, float z) {
         this.x = x;
         this.y = y;
@@ -12,5 +15,50 @@ public class Vector3f {
         return Math.abs(x - other.x) < eps && Math.abs(y - other.y) < eps && Math.abs(z - other.z) < eps;
     }
 
+    // Операции ниже изменяют этот вектор и возвращают его же, не создавая новых объектов
+
+    public Vector3f set(float x, float y, float z) {
+        this.x = x;
+        this.y = y;
+        this.z = z;
+        return this;
+    }
+
+    public Vector3f set(Vector3f other) {
+        return set(other.x, other.y, other.z);
+    }
+
+    public Vector3f add(Vector3f other) {
+        return set(x + other.x, y + other.y, z + other.z);
+    }
+
+    // this = a - b
+    public Vector3f sub(Vector3f a, Vector3f b) {
+        return set(a.x - b.x, a.y - b.y, a.z - b.z);
+    }
+
+    // this = a x b; a и b могут совпадать с this
+    public Vector3f cross(Vector3f a, Vector3f b) {
+        return set(a.y * b.z - a.z * b.y, a.z * b.x - a.x * b.z, a.x * b.y - a.y * b.x);
+    }
+
+    public float dot(Vector3f other) {
+        return x * other.x + y * other.y + z * other.z;
+    }
+
+    public float length() {
+        return (float) Math.sqrt(x * x + y * y + z * z);
+    }
+
+    public Vector3f normalize() {
+        float length = length();
+        return length > 0 ? set(x / length, y / length, z / length) : this;
+    }
+
+    @Override
+    public String toString() {
+        return "(" + x + ", " + y + ", " + z + ")";
+    }
+
     public float x, y, z;
 }
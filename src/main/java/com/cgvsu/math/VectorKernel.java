@@ -0,0 +1,120 @@
+package com.cgvsu.math;
+
+import jdk.incubator.vector.FloatVector;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorSpecies;
+
+// Векторное ядро VertexTransform. Позиции лежат подряд (x, y, z), поэтому компоненты собираются
+// в регистры выборкой по индексам с шагом 3. Разброс обратно по тем же индексам аппаратный только
+// на 512-битных векторах (AVX-512); на более узких результаты пишутся блоками в три отдельных
+// массива и перемежаются обычным циклом - так быстрее программной эмуляции разброса.
+// Операции те же, что в скалярном цикле, и в том же порядке (без FMA).
+final class VectorKernel implements VertexTransform.Kernel {
+
+    private static final VectorSpecies<Float> SPECIES = FloatVector.SPECIES_PREFERRED;
+    private static final int LANES = SPECIES.length();
+    private static final boolean NATIVE_SCATTER = SPECIES.vectorBitSize() >= 512;
+    private static final int BLOCK_POINTS = 1024;
+
+    private static final int[] STRIDE_3 = new int[LANES];
+
+    static {
+        for (int i = 0; i < LANES; i++) {
+            STRIDE_3[i] = i * 3;
+        }
+    }
+
+    private static final ThreadLocal<float[][]> BLOCKS =
+        ThreadLocal.withInitial(() -> new float[][]{new float[BLOCK_POINTS], new float[BLOCK_POINTS], new float[BLOCK_POINTS]});
+
+    VectorKernel() {
+        // Узкие векторы эмулируются и медленнее скалярного цикла
+        if (SPECIES.vectorBitSize() < 256) {
+            throw new UnsupportedOperationException("SIMD " + SPECIES.vectorBitSize() + " бит");
+        }
+    }
+
+    @Override
+    public void transformPoints(Matrix4f m, float[] src, int srcOffset, float[] dst, int dstOffset, int count) {
+        int vectorized = count - count % LANES;
+        if (NATIVE_SCATTER) {
+            transformScattered(m, src, srcOffset, dst, dstOffset, vectorized);
+        } else {
+            transformBlocked(m, src, srcOffset, dst, dstOffset, vectorized);
+        }
+        VertexTransform.ScalarKernel.transformRange(m, src, srcOffset, dst, dstOffset, vectorized, count);
+    }
+
+    private static void transformScattered(Matrix4f m, float[] src, int srcOffset, float[] dst, int dstOffset,
+                                           int count) {
+        for (int i = 0; i < count; i += LANES) {
+            int s = srcOffset + i * 3;
+            int d = dstOffset + i * 3;
+            FloatVector x = FloatVector.fromArray(SPECIES, src, s, STRIDE_3, 0);
+            FloatVector y = FloatVector.fromArray(SPECIES, src, s + 1, STRIDE_3, 0);
+            FloatVector z = FloatVector.fromArray(SPECIES, src, s + 2, STRIDE_3, 0);
+            FloatVector w = x.mul(m.m03).add(y.mul(m.m13)).add(z.mul(m.m23)).add(m.m33);
+            x.mul(m.m00).add(y.mul(m.m10)).add(z.mul(m.m20)).add(m.m30).div(w).intoArray(dst, d, STRIDE_3, 0);
+            x.mul(m.m01).add(y.mul(m.m11)).add(z.mul(m.m21)).add(m.m31).div(w).intoArray(dst, d + 1, STRIDE_3, 0);
+            x.mul(m.m02).add(y.mul(m.m12)).add(z.mul(m.m22)).add(m.m32).div(w).intoArray(dst, d + 2, STRIDE_3, 0);
+        }
+    }
+
+    private static void transformBlocked(Matrix4f m, float[] src, int srcOffset, float[] dst, int dstOffset,
+                                         int count) {
+        float[][] blocks = BLOCKS.get();
+        float[] xs = blocks[0], ys = blocks[1], zs = blocks[2];
+        for (int block = 0; block < count; block += BLOCK_POINTS) {
+            int blockEnd = Math.min(block + BLOCK_POINTS, count);
+            for (int i = block; i < blockEnd; i += LANES) {
+                int s = srcOffset + i * 3;
+                int b = i - block;
+                FloatVector x = FloatVector.fromArray(SPECIES, src, s, STRIDE_3, 0);
+                FloatVector y = FloatVector.fromArray(SPECIES, src, s + 1, STRIDE_3, 0);
+                FloatVector z = FloatVector.fromArray(SPECIES, src, s + 2, STRIDE_3, 0);
+                FloatVector w = x.mul(m.m03).add(y.mul(m.m13)).add(z.mul(m.m23)).add(m.m33);
+                x.mul(m.m00).add(y.mul(m.m10)).add(z.mul(m.m20)).add(m.m30).div(w).intoArray(xs, b);
+                x.mul(m.m01).add(y.mul(m.m11)).add(z.mul(m.m21)).add(m.m31).div(w).intoArray(ys, b);
+                x.mul(m.m02).add(y.mul(m.m12)).add(z.mul(m.m22)).add(m.m32).div(w).intoArray(zs, b);
+            }
+            for (int i = block; i < blockEnd; i++) {
+                int d = dstOffset + i * 3;
+                dst[d] = xs[i - block];
+                dst[d + 1] = ys[i - block];
+                dst[d + 2] = zs[i - block];
+            }
+        }
+    }
+
+    @Override
+    public void expandBounds(float[] points, int offset, int count, float[] bounds) {
+        int vectorized = count - count % LANES;
+        if (vectorized > 0) {
+            FloatVector minX = FloatVector.broadcast(SPECIES, bounds[0]);
+            FloatVector minY = FloatVector.broadcast(SPECIES, bounds[1]);
+            FloatVector minZ = FloatVector.broadcast(SPECIES, bounds[2]);
+            FloatVector maxX = FloatVector.broadcast(SPECIES, bounds[3]);
+            FloatVector maxY = FloatVector.broadcast(SPECIES, bounds[4]);
+            FloatVector maxZ = FloatVector.broadcast(SPECIES, bounds[5]);
+            for (int i = 0; i < vectorized; i += LANES) {
+                int p = offset + i * 3;
+                FloatVector x = FloatVector.fromArray(SPECIES, points, p, STRIDE_3, 0);
+                FloatVector y = FloatVector.fromArray(SPECIES, points, p + 1, STRIDE_3, 0);
+                FloatVector z = FloatVector.fromArray(SPECIES, points, p + 2, STRIDE_3, 0);
+                minX = minX.min(x);
+                minY = minY.min(y);
+                minZ = minZ.min(z);
+                maxX = maxX.max(x);
+                maxY = maxY.max(y);
+                maxZ = maxZ.max(z);
+            }
+            bounds[0] = minX.reduceLanes(VectorOperators.MIN);
+            bounds[1] = minY.reduceLanes(VectorOperators.MIN);
+            bounds[2] = minZ.reduceLanes(VectorOperators.MIN);
+            bounds[3] = maxX.reduceLanes(VectorOperators.MAX);
+            bounds[4] = maxY.reduceLanes(VectorOperators.MAX);
+            bounds[5] = maxZ.reduceLanes(VectorOperators.MAX);
+        }
+        VertexTransform.ScalarKernel.expandRange(points, offset, vectorized, count, bounds);
+    }
+}
@@ -0,0 +1,131 @@
+package com.cgvsu.math;
+
+import java.nio.FloatBuffer;
+
+// Пакетные операции над упакованными позициями (x, y, z подряд): преобразование матрицей с
+// делением на w и габариты. Если при запуске доступен модуль jdk.incubator.vector
+// (--add-modules jdk.incubator.vector), используется векторное ядро, иначе скалярный цикл.
+// Оба ядра выполняют одни и те же операции в одном порядке, поэтому результаты совпадают побитно.
+public class VertexTransform {
+
+    private static final String VECTOR_MODULE = "jdk.incubator.vector";
+    private static final int STAGING_POINTS = 4096;
+
+    private static final Kernel SCALAR = new ScalarKernel();
+    private static final Kernel KERNEL = loadKernel();
+
+    private static final ThreadLocal<float[]> STAGING = ThreadLocal.withInitial(() -> new float[STAGING_POINTS * 3]);
+
+    interface Kernel {
+        void transformPoints(Matrix4f matrix, float[] src, int srcOffset, float[] dst, int dstOffset, int count);
+
+        // bounds: minX, minY, minZ, maxX, maxY, maxZ; расширяются точками, а не перезаписываются
+        void expandBounds(float[] points, int offset, int count, float[] bounds);
+    }
+
+    public static boolean isVectorized() {
+        return KERNEL != SCALAR;
+    }
+
+    public static void transformPoints(Matrix4f matrix, float[] src, int srcOffset, float[] dst, int dstOffset,
+                                       int count) {
+        KERNEL.transformPoints(matrix, src, srcOffset, dst, dstOffset, count);
+    }
+
+    // Буфер без массива (прямой или только для чтения) копируется в dst и преобразуется на месте
+    public static void transformPoints(Matrix4f matrix, FloatBuffer src, int srcOffset, float[] dst, int dstOffset,
+                                       int count) {
+        if (src.hasArray()) {
+            KERNEL.transformPoints(matrix, src.array(), src.arrayOffset() + srcOffset, dst, dstOffset, count);
+            return;
+        }
+        src.get(srcOffset, dst, dstOffset, count * 3);
+        KERNEL.transformPoints(matrix, dst, dstOffset, dst, dstOffset, count);
+    }
+
+    // Возвращает {minX, minY, minZ, maxX, maxY, maxZ}; для пустого набора min > max
+    public static float[] computeBounds(float[] points, int offset, int count) {
+        float[] bounds = emptyBounds();
+        KERNEL.expandBounds(points, offset, count, bounds);
+        return bounds;
+    }
+
+    public static float[] computeBounds(FloatBuffer points, int offset, int count) {
+        if (points.hasArray()) {
+            return computeBounds(points.array(), points.arrayOffset() + offset, count);
+        }
+        float[] bounds = emptyBounds();
+        float[] staging = STAGING.get();
+        for (int done = 0; done < count; done += STAGING_POINTS) {
+            int chunk = Math.min(STAGING_POINTS, count - done);
+            points.get(offset + done * 3, staging, 0, chunk * 3);
+            KERNEL.expandBounds(staging, 0, chunk, bounds);
+        }
+        return bounds;
+    }
+
+    static Kernel scalarKernel() {
+        return SCALAR;
+    }
+
+    static Kernel kernel() {
+        return KERNEL;
+    }
+
+    private static float[] emptyBounds() {
+        return new float[]{
+            Float.POSITIVE_INFINITY, Float.POSITIVE_INFINITY, Float.POSITIVE_INFINITY,
+            Float.NEGATIVE_INFINITY, Float.NEGATIVE_INFINITY, Float.NEGATIVE_INFINITY
+        };
+    }
+
+    // Класс векторного ядра загружается только при наличии модуля, иначе его ссылки не разрешатся
+    private static Kernel loadKernel() {
+        if (ModuleLayer.boot().findModule(VECTOR_MODULE).isEmpty()) {
+            return SCALAR;
+        }
+        try {
+            return (Kernel) Class.forName(VertexTransform.class.getPackageName() + ".VectorKernel")
+                .getDeclaredConstructor().newInstance();
+        } catch (ReflectiveOperationException | LinkageError | UnsupportedOperationException e) {
+            return SCALAR;
+        }
+    }
+
+    static final class ScalarKernel implements Kernel {
+
+        @Override
+        public void transformPoints(Matrix4f m, float[] src, int srcOffset, float[] dst, int dstOffset, int count) {
+            transformRange(m, src, srcOffset, dst, dstOffset, 0, count);
+        }
+
+        @Override
+        public void expandBounds(float[] points, int offset, int count, float[] bounds) {
+            expandRange(points, offset, 0, count, bounds);
+        }
+
+        // Общие с векторным ядром хвосты: точки с from по to - 1
+        static void transformRange(Matrix4f m, float[] src, int srcOffset, float[] dst, int dstOffset,
+                                   int from, int to) {
+            for (int i = from; i < to; i++) {
+                int s = srcOffset + i * 3;
+                int d = dstOffset + i * 3;
+                float x = src[s], y = src[s + 1], z = src[s + 2];
+                float w = x * m.m03 + y * m.m13 + z * m.m23 + m.m33;
+                dst[d] = (x * m.m00 + y * m.m10 + z * m.m20 + m.m30) / w;
+                dst[d + 1] = (x * m.m01 + y * m.m11 + z * m.m21 + m.m31) / w;
+                dst[d + 2] = (x * m.m02 + y * m.m12 + z * m.m22 + m.m32) / w;
+            }
+        }
+
+        static void expandRange(float[] points, int offset, int from, int to, float[] bounds) {
+            for (int i = from; i < to; i++) {
+                int p = offset + i * 3;
+                for (int k = 0; k < 3; k++) {
+                    bounds[k] = Math.min(bounds[k], points[p + k]);
+                    bounds[k + 3] = Math.max(bounds[k + 3], points[p + k]);
+                }
+            }
+        }
+    }
+}
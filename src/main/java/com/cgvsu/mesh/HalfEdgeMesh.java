@@ -0,0 +1,275 @@
+package com.cgvsu.mesh;
+
+import com.cgvsu.model.DerivedKey;
+import com.cgvsu.model.Model;
+import com.cgvsu.model.PackedMesh;
+
+import java.util.Arrays;
+
+// Смежность полигональной сетки в виде полуребер. Полуребро h совпадает с углом h в порядке
+// PackedMesh: оно выходит из вершины этого угла к следующей вершине того же полигона, поэтому
+// next/prev вычисляются, а хранятся только начальная вершина, полигон и парное полуребро.
+// Пары находятся за один проход через хэш-таблицу направленных ребер. Ребра, которые встречаются
+// в одном направлении несколько раз или принадлежат больше чем двум полигонам, считаются
+// неманифолдными: пары у них нет, и они перечислены отдельно.
+public class HalfEdgeMesh {
+
+    public static final DerivedKey<HalfEdgeMesh> DERIVED = new DerivedKey<>("half-edges", HalfEdgeMesh::of);
+
+    public static final int NONE = -1;
+
+    private final int[] polygonStarts;
+    private final int[] origins;
+    private final int[] faces;
+    private final int[] twins;
+    private final int[] vertexHalfEdges;
+    private final int[] nonManifoldHalfEdges;
+    private final int boundaryHalfEdgeCount;
+
+    private HalfEdgeMesh(int[] polygonStarts, int[] origins, int[] faces, int[] twins, int[] vertexHalfEdges,
+                         int[] nonManifoldHalfEdges, int boundaryHalfEdgeCount) {
+        this.polygonStarts = polygonStarts;
+        this.origins = origins;
+        this.faces = faces;
+        this.twins = twins;
+        this.vertexHalfEdges = vertexHalfEdges;
+        this.nonManifoldHalfEdges = nonManifoldHalfEdges;
+        this.boundaryHalfEdgeCount = boundaryHalfEdgeCount;
+    }
+
+    public static HalfEdgeMesh of(Model model) {
+        return of(model.getDerived(PackedMesh.DERIVED));
+    }
+
+    public static HalfEdgeMesh of(PackedMesh mesh) {
+        int polygonCount = mesh.getPolygonCount();
+        int halfEdgeCount = mesh.getIndexCount();
+
+        int[] polygonStarts = new int[polygonCount + 1];
+        int[] origins = new int[halfEdgeCount];
+        int[] faces = new int[halfEdgeCount];
+        for (int p = 0; p < polygonCount; p++) {
+            int start = mesh.getPolygonStart(p);
+            int end = start + mesh.getPolygonVertexCount(p);
+            polygonStarts[p] = start;
+            for (int h = start; h < end; h++) {
+                origins[h] = mesh.getIndex(h);
+                faces[h] = p;
+            }
+        }
+        polygonStarts[polygonCount] = halfEdgeCount;
+
+        EdgeTable table = new EdgeTable(halfEdgeCount);
+        boolean[] nonManifold = new boolean[halfEdgeCount];
+        for (int h = 0; h < halfEdgeCount; h++) {
+            int to = origins[nextInPolygon(polygonStarts, faces, h)];
+            if (origins[h] == to) {
+                nonManifold[h] = true; // Вырожденное ребро
+                continue;
+            }
+            int existing = table.putIfAbsent(origins[h], to, h);
+            if (existing != NONE) {
+                nonManifold[h] = true;
+                nonManifold[existing] = true;
+            }
+        }
+
+        int[] twins = new int[halfEdgeCount];
+        Arrays.fill(twins, NONE);
+        for (int h = 0; h < halfEdgeCount; h++) {
+            if (nonManifold[h]) {
+                continue;
+            }
+            int to = origins[nextInPolygon(polygonStarts, faces, h)];
+            int opposite = table.get(to, origins[h]);
+            if (opposite != NONE && nonManifold[opposite]) {
+                nonManifold[h] = true;
+            } else {
+                twins[h] = opposite;
+            }
+        }
+        // Пара могла стать неманифолдной после того, как на нее сослались
+        for (int h = 0; h < halfEdgeCount; h++) {
+            if (twins[h] != NONE && nonManifold[twins[h]]) {
+                twins[h] = NONE;
+                nonManifold[h] = true;
+            }
+        }
+
+        int nonManifoldCount = 0;
+        int boundaryCount = 0;
+        for (int h = 0; h < halfEdgeCount; h++) {
+            if (nonManifold[h]) {
+                nonManifoldCount++;
+            } else if (twins[h] == NONE) {
+                boundaryCount++;
+            }
+        }
+        int[] nonManifoldHalfEdges = new int[nonManifoldCount];
+        for (int h = 0, i = 0; h < halfEdgeCount; h++) {
+            if (nonManifold[h]) {
+                nonManifoldHalfEdges[i++] = h;
+            }
+        }
+
+        // Для граничной вершины запоминается полуребро без пары: обход от него покрывает весь веер
+        int[] vertexHalfEdges = new int[mesh.getVertexCount()];
+        Arrays.fill(vertexHalfEdges, NONE);
+        for (int h = 0; h < halfEdgeCount; h++) {
+            int v = origins[h];
+            if (vertexHalfEdges[v] == NONE || (twins[h] == NONE && twins[vertexHalfEdges[v]] != NONE)) {
+                vertexHalfEdges[v] = h;
+            }
+        }
+
+        return new HalfEdgeMesh(polygonStarts, origins, faces, twins, vertexHalfEdges,
+            nonManifoldHalfEdges, boundaryCount);
+    }
+
+    public int getHalfEdgeCount() {
+        return origins.length;
+    }
+
+    public int getFaceCount() {
+        return polygonStarts.length - 1;
+    }
+
+    public int getVertexCount() {
+        return vertexHalfEdges.length;
+    }
+
+    public int getOrigin(int halfEdge) {
+        return origins[halfEdge];
+    }
+
+    public int getTarget(int halfEdge) {
+        return origins[next(halfEdge)];
+    }
+
+    public int getFace(int halfEdge) {
+        return faces[halfEdge];
+    }
+
+    public int getTwin(int halfEdge) {
+        return twins[halfEdge];
+    }
+
+    public int next(int halfEdge) {
+        return nextInPolygon(polygonStarts, faces, halfEdge);
+    }
+
+    public int prev(int halfEdge) {
+        int face = faces[halfEdge];
+        return halfEdge == polygonStarts[face] ? polygonStarts[face + 1] - 1 : halfEdge - 1;
+    }
+
+    public boolean isBoundary(int halfEdge) {
+        return twins[halfEdge] == NONE;
+    }
+
+    public int getBoundaryHalfEdgeCount() {
+        return boundaryHalfEdgeCount;
+    }
+
+    public int getNonManifoldHalfEdgeCount() {
+        return nonManifoldHalfEdges.length;
+    }
+
+    public int getNonManifoldHalfEdge(int index) {
+        return nonManifoldHalfEdges[index];
+    }
+
+    // Полуребра полигона: от getFaceHalfEdge(f) через next() до возврата к нему
+    public int getFaceHalfEdge(int face) {
+        return polygonStarts[face];
+    }
+
+    public int getFaceSize(int face) {
+        return polygonStarts[face + 1] - polygonStarts[face];
+    }
+
+    // Соседний через полуребро полигон или NONE
+    public int getNeighbourFace(int halfEdge) {
+        int twin = twins[halfEdge];
+        return twin == NONE ? NONE : faces[twin];
+    }
+
+    // Обход кольца вершины без выделения памяти:
+    // for (int h = mesh.firstOutgoing(v); h != NONE; h = mesh.nextOutgoing(h)) { ... mesh.getTarget(h) ... }
+    // У неманифолдной вершины обходится только веер, содержащий firstOutgoing
+    public int firstOutgoing(int vertex) {
+        return vertexHalfEdges[vertex];
+    }
+
+    public int nextOutgoing(int halfEdge) {
+        int incoming = prev(halfEdge);
+        int outgoing = twins[incoming];
+        if (outgoing == NONE || outgoing == vertexHalfEdges[origins[halfEdge]]) {
+            return NONE;
+        }
+        return outgoing;
+    }
+
+    // Для граничной вершины последнее исходящее полуребро не замыкает кольцо: соседом является
+    // еще начало входящего граничного полуребра, которое возвращает этот метод (или NONE)
+    public int lastRingVertex(int lastOutgoing) {
+        int incoming = prev(lastOutgoing);
+        return twins[incoming] == NONE ? origins[incoming] : NONE;
+    }
+
+    private static int nextInPolygon(int[] polygonStarts, int[] faces, int halfEdge) {
+        int face = faces[halfEdge];
+        return halfEdge + 1 == polygonStarts[face + 1] ? polygonStarts[face] : halfEdge + 1;
+    }
+
+    // Хэш-таблица с открытой адресацией: направленное ребро (from, to) -> полуребро
+    private static final class EdgeTable {
+        private final long[] keys;
+        private final int[] values;
+        private final int mask;
+
+        EdgeTable(int expected) {
+            int capacity = Integer.highestOneBit(Math.max(expected, 1) * 2 - 1) << 1;
+            keys = new long[capacity];
+            values = new int[capacity];
+            Arrays.fill(values, NONE);
+            mask = capacity - 1;
+        }
+
+        // Возвращает уже записанное полуребро или NONE, если ребро добавлено
+        int putIfAbsent(int from, int to, int halfEdge) {
+            long key = key(from, to);
+            int slot = slot(key);
+            while (values[slot] != NONE) {
+                if (keys[slot] == key) {
+                    return values[slot];
+                }
+                slot = (slot + 1) & mask;
+            }
+            keys[slot] = key;
+            values[slot] = halfEdge;
+            return NONE;
+        }
+
+        int get(int from, int to) {
+            long key = key(from, to);
+            int slot = slot(key);
+            while (values[slot] != NONE) {
+                if (keys[slot] == key) {
+                    return values[slot];
+                }
+                slot = (slot + 1) & mask;
+            }
+            return NONE;
+        }
+
+        private int slot(long key) {
+            long hash = key * 0x9E3779B97F4A7C15L;
+            return (int) (hash ^ (hash >>> 32)) & mask;
+        }
+
+        private static long key(int from, int to) {
+            return ((long) from << 32) | (to & 0xFFFFFFFFL);
+        }
+    }
+}
@@ -0,0 +1,105 @@
+package com.cgvsu.mesh;
+
+import com.cgvsu.model.Model;
+
+import java.util.ArrayList;
+import java.util.List;
+
+// Цепочка уровней детализации модели. Уровень 0 - сама модель, каждый следующий получается
+// упрощением предыдущего примерно в REDUCTION раз, пока треугольников больше MIN_TRIANGLES.
+// Уровень выбирается по бюджету треугольников, пропорциональному площади модели на экране;
+// смена уровня происходит только при выходе бюджета за порог с запасом HYSTERESIS, чтобы
+// модель на границе не переключалась каждый кадр.
+public class LodChain {
+
+    public static final int MIN_TRIANGLES = 2_000;
+
+    private static final int REDUCTION = 4;
+    private static final int MAX_LEVELS = 6;
+    private static final float TRIANGLES_PER_PIXEL = 0.5f;
+    private static final float HYSTERESIS = 0.25f;
+
+    private final Model source;
+    private final long sourceVersion;
+    private final List<Model> levels;
+    private final int[] triangleCounts;
+
+    private LodChain(Model source, long sourceVersion, List<Model> levels, int[] triangleCounts) {
+        this.source = source;
+        this.sourceVersion = sourceVersion;
+        this.levels = levels;
+        this.triangleCounts = triangleCounts;
+    }
+
+    public static LodChain build(Model source) {
+        long version = source.getVersion();
+        List<Model> levels = new ArrayList<>();
+        levels.add(source);
+        int triangles = source.getDerived(Triangulation.DERIVED).getTriangleCount();
+        List<Integer> counts = new ArrayList<>();
+        counts.add(triangles);
+
+        Model current = source;
+        while (levels.size() < MAX_LEVELS && triangles > MIN_TRIANGLES) {
+            Model next = new MeshSimplifier().simplify(current, triangles / REDUCTION);
+            int nextTriangles = next.polygons.size();
+            if (nextTriangles >= triangles * 9 / 10) {
+                break; // Упрощение уперлось в ограничения - дальше уровни не уменьшатся
+            }
+            levels.add(next);
+            counts.add(nextTriangles);
+            current = next;
+            triangles = nextTriangles;
+        }
+
+        int[] triangleCounts = new int[counts.size()];
+        for (int i = 0; i < triangleCounts.length; i++) {
+            triangleCounts[i] = counts.get(i);
+        }
+        return new LodChain(source, version, levels, triangleCounts);
+    }
+
+    public Model getSource() {
+        return source;
+    }
+
+    // Цепочка построена для текущего состояния модели
+    public boolean isCurrent(Model model) {
+        return model == source && model.getVersion() == sourceVersion;
+    }
+
+    public int getLevelCount() {
+        return levels.size();
+    }
+
+    public Model getLevel(int level) {
+        return levels.get(level);
+    }
+
+    public int getTriangleCount(int level) {
+        return triangleCounts[level];
+    }
+
+    // projectedSize - размер модели на экране в пикселях, currentLevel - уровень прошлого кадра
+    public int selectLevel(float projectedSize, int currentLevel) {
+        float budget = projectedSize * projectedSize * TRIANGLES_PER_PIXEL;
+        int current = Math.min(Math.max(currentLevel, 0), levels.size() - 1);
+
+        int finer = levelForBudget(budget / (1 + HYSTERESIS));
+        if (finer < current) {
+            return finer;
+        }
+        int coarser = levelForBudget(budget * (1 + HYSTERESIS));
+        return Math.max(coarser, current);
+    }
+
+    // Самый подробный уровень, укладывающийся в бюджет, иначе самый грубый
+    private int levelForBudget(float budget) {
+        for (int level = 0; level < triangleCounts.length; level++) {
+            if (triangleCounts[level] <= budget) {
+                return level;
+            }
+        }
+        return triangleCounts.length - 1;
+    }
+}
@@ -0,0 +1,425 @@
+package com.cgvsu.mesh;
+
+import com.cgvsu.math.Vector2f;
+import com.cgvsu.math.Vector3f;
+import com.cgvsu.model.Model;
+import com.cgvsu.model.PackedMesh;
+import com.cgvsu.model.Polygon;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+// Переупорядочивание данных модели для локальности обращений. Полигоны сортируются жадным
+// алгоритмом Форсайта: следующим выбирается полигон с наибольшей суммой оценок вершин, где
+// оценка растет для вершин, недавно попавших в моделируемый LRU-кэш, и для вершин с малым
+// числом оставшихся полигонов. Затем вершины перенумеровываются в порядке первого использования
+// или по коду Мортона их координат; индексы всех полигонов, текстурные координаты и нормали
+// (в порядке первого использования) обновляются согласованно.
+public class MeshOptimizer {
+
+    public enum VertexOrder {
+        FIRST_USE,
+        MORTON
+    }
+
+    private static final int CACHE_SIZE = 32;
+    private static final int METRICS_CACHE_SIZE = 16;
+
+    private static final float CACHE_DECAY_POWER = 1.5f;
+    private static final float LAST_FACE_SCORE = 0.75f;
+    private static final float VALENCE_BOOST_SCALE = 2.0f;
+    private static final float VALENCE_BOOST_POWER = 0.5f;
+
+    private final VertexOrder vertexOrder;
+
+    public MeshOptimizer() {
+        this(VertexOrder.FIRST_USE);
+    }
+
+    public MeshOptimizer(VertexOrder vertexOrder) {
+        this.vertexOrder = vertexOrder;
+    }
+
+    public Report optimize(Model model) {
+        model.markModified(); // Разделяемую модель только для чтения менять нельзя - ошибка до любых правок
+        PackedMesh mesh = PackedMesh.fromModel(model);
+        LayoutMetrics before = measure(mesh);
+
+        int[] faceOrder = orderFaces(mesh);
+        int[] vertexRemap = vertexOrder == VertexOrder.MORTON
+            ? mortonOrder(mesh)
+            : firstUseOrder(mesh, faceOrder);
+
+        apply(model, faceOrder, vertexRemap);
+        return new Report(before, measure(PackedMesh.fromModel(model)));
+    }
+
+    // Доля промахов FIFO-кэша вершин на треугольник (ACMR) и средний разброс соседних индексов
+    public static LayoutMetrics measure(Model model) {
+        return measure(model.getDerived(PackedMesh.DERIVED));
+    }
+
+    public static LayoutMetrics measure(PackedMesh mesh) {
+        int[] fifo = new int[METRICS_CACHE_SIZE];
+        Arrays.fill(fifo, -1);
+        int head = 0;
+        long misses = 0;
+        long triangles = 0;
+        long span = 0;
+        int previous = -1;
+
+        for (int p = 0; p < mesh.getPolygonCount(); p++) {
+            int start = mesh.getPolygonStart(p);
+            int n = mesh.getPolygonVertexCount(p);
+            triangles += Math.max(0, n - 2);
+            for (int c = start; c < start + n; c++) {
+                int vertex = mesh.getIndex(c);
+                boolean hit = false;
+                for (int cached : fifo) {
+                    if (cached == vertex) {
+                        hit = true;
+                        break;
+                    }
+                }
+                if (!hit) {
+                    misses++;
+                    fifo[head] = vertex;
+                    head = (head + 1) % fifo.length;
+                }
+                if (previous >= 0) {
+                    span += Math.abs(vertex - previous);
+                }
+                previous = vertex;
+            }
+        }
+
+        int corners = mesh.getIndexCount();
+        return new LayoutMetrics(
+            triangles == 0 ? 0 : (double) misses / triangles,
+            corners < 2 ? 0 : (double) span / (corners - 1));
+    }
+
+    private static int[] orderFaces(PackedMesh mesh) {
+        int vertexCount = mesh.getVertexCount();
+        int faceCount = mesh.getPolygonCount();
+
+        // Списки активных полигонов вершин; оставшиеся полигоны держатся в начале отрезка
+        int[] adjacencyStarts = new int[vertexCount + 1];
+        int maxFaceSize = 3;
+        for (int c = 0; c < mesh.getIndexCount(); c++) {
+            adjacencyStarts[mesh.getIndex(c) + 1]++;
+        }
+        for (int v = 0; v < vertexCount; v++) {
+            adjacencyStarts[v + 1] += adjacencyStarts[v];
+        }
+        int[] remaining = new int[vertexCount];
+        int[] adjacency = new int[mesh.getIndexCount()];
+        for (int f = 0; f < faceCount; f++) {
+            int start = mesh.getPolygonStart(f);
+            int n = mesh.getPolygonVertexCount(f);
+            maxFaceSize = Math.max(maxFaceSize, n);
+            for (int c = start; c < start + n; c++) {
+                int v = mesh.getIndex(c);
+                adjacency[adjacencyStarts[v] + remaining[v]++] = f;
+            }
+        }
+
+        int[] cachePositions = new int[vertexCount];
+        Arrays.fill(cachePositions, -1);
+        float[] vertexScores = new float[vertexCount];
+        for (int v = 0; v < vertexCount; v++) {
+            vertexScores[v] = vertexScore(-1, remaining[v], 0);
+        }
+        float[] faceScores = new float[faceCount];
+        int bestFace = -1;
+        for (int f = 0; f < faceCount; f++) {
+            faceScores[f] = faceScore(mesh, f, vertexScores);
+            if (bestFace < 0 || faceScores[f] > faceScores[bestFace]) {
+                bestFace = f;
+            }
+        }
+
+        boolean[] emitted = new boolean[faceCount];
+        int[] order = new int[faceCount];
+        int[] cache = new int[CACHE_SIZE + maxFaceSize];
+        int[] nextCache = new int[CACHE_SIZE + maxFaceSize];
+        int cacheCount = 0;
+        int fallback = 0;
+
+        for (int emittedCount = 0; emittedCount < faceCount; emittedCount++) {
+            if (bestFace < 0) {
+                while (emitted[fallback]) {
+                    fallback++;
+                }
+                bestFace = fallback;
+            }
+
+            int face = bestFace;
+            emitted[face] = true;
+            order[emittedCount] = face;
+
+            int start = mesh.getPolygonStart(face);
+            int n = mesh.getPolygonVertexCount(face);
+            int nextCount = 0;
+            for (int c = start; c < start + n; c++) {
+                int v = mesh.getIndex(c);
+                // Убираем полигон из активных полигонов вершины
+                int from = adjacencyStarts[v];
+                int last = from + remaining[v] - 1;
+                for (int i = from; i <= last; i++) {
+                    if (adjacency[i] == face) {
+                        adjacency[i] = adjacency[last];
+                        adjacency[last] = face;
+                        remaining[v]--;
+                        break;
+                    }
+                }
+                if (cachePositions[v] != -2) {
+                    nextCache[nextCount++] = v;
+                    cachePositions[v] = -2; // Временная пометка: уже в новом кэше
+                }
+            }
+            for (int i = 0; i < cacheCount; i++) {
+                int v = cache[i];
+                if (cachePositions[v] != -2) {
+                    nextCache[nextCount++] = v;
+                    cachePositions[v] = -2;
+                }
+            }
+
+            // Вершины за пределами кэша выпадают из него, но их оценки тоже пересчитываются
+            for (int i = 0; i < nextCount; i++) {
+                int v = nextCache[i];
+                cachePositions[v] = i < CACHE_SIZE ? i : -1;
+                vertexScores[v] = vertexScore(cachePositions[v], remaining[v], n);
+            }
+
+            bestFace = -1;
+            float bestScore = -Float.MAX_VALUE;
+            for (int i = 0; i < nextCount; i++) {
+                int v = nextCache[i];
+                for (int a = adjacencyStarts[v]; a < adjacencyStarts[v] + remaining[v]; a++) {
+                    int candidate = adjacency[a];
+                    faceScores[candidate] = faceScore(mesh, candidate, vertexScores);
+                    if (faceScores[candidate] > bestScore) {
+                        bestScore = faceScores[candidate];
+                        bestFace = candidate;
+                    }
+                }
+            }
+
+            int[] swap = cache;
+            cache = nextCache;
+            nextCache = swap;
+            cacheCount = Math.min(nextCount, CACHE_SIZE);
+        }
+        return order;
+    }
+
+    private static float vertexScore(int cachePosition, int remainingFaces, int lastFaceSize) {
+        if (remainingFaces == 0) {
+            return -1.0f;
+        }
+
+        float score = 0.0f;
+        if (cachePosition >= 0) {
+            if (cachePosition < lastFaceSize) {
+                score = LAST_FACE_SCORE;
+            } else {
+                float scaler = 1.0f / (CACHE_SIZE - lastFaceSize);
+                score = (float) Math.pow(1.0f - (cachePosition - lastFaceSize) * scaler, CACHE_DECAY_POWER);
+            }
+        }
+        return score + VALENCE_BOOST_SCALE * (float) Math.pow(remainingFaces, -VALENCE_BOOST_POWER);
+    }
+
+    private static float faceScore(PackedMesh mesh, int face, float[] vertexScores) {
+        int start = mesh.getPolygonStart(face);
+        float score = 0;
+        for (int c = start; c < start + mesh.getPolygonVertexCount(face); c++) {
+            score += vertexScores[mesh.getIndex(c)];
+        }
+        return score;
+    }
+
+    private static int[] firstUseOrder(PackedMesh mesh, int[] faceOrder) {
+        int[] remap = new int[mesh.getVertexCount()];
+        Arrays.fill(remap, -1);
+        int next = 0;
+        for (int face : faceOrder) {
+            int start = mesh.getPolygonStart(face);
+            for (int c = start; c < start + mesh.getPolygonVertexCount(face); c++) {
+                int v = mesh.getIndex(c);
+                if (remap[v] < 0) {
+                    remap[v] = next++;
+                }
+            }
+        }
+        for (int v = 0; v < remap.length; v++) {
+            if (remap[v] < 0) {
+                remap[v] = next++; // Неиспользуемые вершины - в конец, в прежнем порядке
+            }
+        }
+        return remap;
+    }
+
+    private static int[] mortonOrder(PackedMesh mesh) {
+        int vertexCount = mesh.getVertexCount();
+        float minX = Float.MAX_VALUE, minY = Float.MAX_VALUE, minZ = Float.MAX_VALUE;
+        float maxX = -Float.MAX_VALUE, maxY = -Float.MAX_VALUE, maxZ = -Float.MAX_VALUE;
+        for (int v = 0; v < vertexCount; v++) {
+            minX = Math.min(minX, mesh.getX(v));
+            minY = Math.min(minY, mesh.getY(v));
+            minZ = Math.min(minZ, mesh.getZ(v));
+            maxX = Math.max(maxX, mesh.getX(v));
+            maxY = Math.max(maxY, mesh.getY(v));
+            maxZ = Math.max(maxZ, mesh.getZ(v));
+        }
+        float extent = Math.max(maxX - minX, Math.max(maxY - minY, maxZ - minZ));
+        float scale = extent > 0 ? 1023.0f / extent : 0;
+
+        long[] keys = new long[vertexCount];
+        for (int v = 0; v < vertexCount; v++) {
+            long code = morton((int) ((mesh.getX(v) - minX) * scale),
+                (int) ((mesh.getY(v) - minY) * scale),
+                (int) ((mesh.getZ(v) - minZ) * scale));
+            keys[v] = (code << 32) | v;
+        }
+        Arrays.sort(keys);
+
+        int[] remap = new int[vertexCount];
+        for (int i = 0; i < vertexCount; i++) {
+            remap[(int) keys[i]] = i;
+        }
+        return remap;
+    }
+
+    // Чередование битов трех 10-битных координат
+    private static long morton(int x, int y, int z) {
+        return spreadBits(x) | (spreadBits(y) << 1) | (spreadBits(z) << 2);
+    }
+
+    private static long spreadBits(int value) {
+        long x = value & 0x3FF;
+        x = (x | (x << 16)) & 0x030000FFL;
+        x = (x | (x << 8)) & 0x0300F00FL;
+        x = (x | (x << 4)) & 0x030C30C3L;
+        x = (x | (x << 2)) & 0x09249249L;
+        return x;
+    }
+
+    private static void apply(Model model, int[] faceOrder, int[] vertexRemap) {
+        int[] textureRemap = new int[model.textureVertices.size()];
+        int[] normalRemap = new int[model.normals.size()];
+        Arrays.fill(textureRemap, -1);
+        Arrays.fill(normalRemap, -1);
+        int[] textureNext = {0};
+        int[] normalNext = {0};
+
+        List<Polygon> polygons = new ArrayList<>(model.polygons.size());
+        for (int face : faceOrder) {
+            Polygon polygon = model.polygons.get(face);
+            polygon.setVertexIndices(remapIndices(polygon.getVertexIndices(), vertexRemap, null));
+            if (!polygon.getTextureVertexIndices().isEmpty()) {
+                polygon.setTextureVertexIndices(remapIndices(polygon.getTextureVertexIndices(), textureRemap, textureNext));
+            }
+            if (!polygon.getNormalIndices().isEmpty()) {
+                polygon.setNormalIndices(remapIndices(polygon.getNormalIndices(), normalRemap, normalNext));
+            }
+            polygons.add(polygon);
+        }
+
+        List<Vector3f> vertices = reorder(model.vertices, vertexRemap, model.vertices.size());
+        List<Vector2f> textureVertices = reorder(model.textureVertices, completeRemap(textureRemap, textureNext[0]), textureRemap.length);
+        List<Vector3f> normals = reorder(model.normals, completeRemap(normalRemap, normalNext[0]), normalRemap.length);
+
+        model.polygons.clear();
+        model.polygons.addAll(polygons);
+        model.vertices.clear();
+        model.vertices.addAll(vertices);
+        model.textureVertices.clear();
+        model.textureVertices.addAll(textureVertices);
+        model.normals.clear();
+        model.normals.addAll(normals);
+        model.markModified();
+    }
+
+    // Без счетчика next используется готовая таблица; со счетчиком номера назначаются по первому использованию
+    private static ArrayList<Integer> remapIndices(List<Integer> indices, int[] remap, int[] next) {
+        ArrayList<Integer> result = new ArrayList<>(indices.size());
+        for (int index : indices) {
+            if (next != null && remap[index] < 0) {
+                remap[index] = next[0]++;
+            }
+            result.add(remap[index]);
+        }
+        return result;
+    }
+
+    private static int[] completeRemap(int[] remap, int next) {
+        for (int i = 0; i < remap.length; i++) {
+            if (remap[i] < 0) {
+                remap[i] = next++;
+            }
+        }
+        return remap;
+    }
+
+    private static <T> List<T> reorder(List<T> values, int[] remap, int count) {
+        List<T> result = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            result.add(null);
+        }
+        for (int i = 0; i < count; i++) {
+            result.set(remap[i], values.get(i));
+        }
+        return result;
+    }
+
+    public static class LayoutMetrics {
+        private final double acmr;
+        private final double averageIndexSpan;
+
+        LayoutMetrics(double acmr, double averageIndexSpan) {
+            this.acmr = acmr;
+            this.averageIndexSpan = averageIndexSpan;
+        }
+
+        public double getAcmr() {
+            return acmr;
+        }
+
+        public double getAverageIndexSpan() {
+            return averageIndexSpan;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("ACMR=%.3f, средний разброс индексов=%.1f", acmr, averageIndexSpan);
+        }
+    }
+
+    public static class Report {
+        private final LayoutMetrics before;
+        private final LayoutMetrics after;
+
+        Report(LayoutMetrics before, LayoutMetrics after) {
+            this.before = before;
+            this.after = after;
+        }
+
+        public LayoutMetrics getBefore() {
+            return before;
+        }
+
+        public LayoutMetrics getAfter() {
+            return after;
+        }
+
+        @Override
+        public String toString() {
+            return "до: " + before + "; после: " + after;
+        }
+    }
+}
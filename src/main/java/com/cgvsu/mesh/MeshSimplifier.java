@@ -0,0 +1,517 @@
+package com.cgvsu.mesh;
+
+import com.cgvsu.math.Vector3f;
+import com.cgvsu.model.Model;
+import com.cgvsu.model.PackedMesh;
+import com.cgvsu.model.Polygon;
+
+import java.nio.FloatBuffer;
+import java.nio.IntBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+
+// Упрощение сетки стягиванием ребер по квадрикам ошибки (Гарланд - Хекберт). Модель
+// предварительно триангулируется; у каждой вершины копится квадрика плоскостей ее треугольников,
+// граничные ребра получают дополнительные плоскости с большим весом, чтобы край не "съедался".
+// Ребра стягиваются в порядке возрастания ошибки из кучи с ленивым удалением устаревших записей;
+// стягивание, переворачивающее соседний треугольник, отклоняется. Результат - модель из
+// треугольников без текстурных координат и нормалей.
+public class MeshSimplifier {
+
+    private static final double BOUNDARY_WEIGHT = 1000.0;
+    private static final double MIN_NORMAL_DOT = 0.2;
+    private static final double SINGULAR_EPSILON = 1e-6;
+
+    private float[] positions;
+    private double[] quadrics;
+    private int[] triangles;
+    private boolean[] deadTriangles;
+    private int[][] vertexTriangles;
+    private int[] vertexTriangleCounts;
+    private int[] stamps;
+    private boolean[] deadVertices;
+    private int liveTriangles;
+
+    private final CollapseHeap heap = new CollapseHeap();
+    private final double[] target = new double[3];
+    // Рабочие массивы внутренних циклов, чтобы стягивания не создавали временных объектов
+    private final double[] quadricSum = new double[10];
+    private final double[] normalBefore = new double[3];
+    private final double[] normalAfter = new double[3];
+    private final double[] edge = new double[3];
+
+    public Model simplify(Model model, int targetTriangles) {
+        PackedMesh mesh = model.getDerived(PackedMesh.DERIVED);
+        Triangulation triangulation = model.getDerived(Triangulation.DERIVED);
+        return simplify(mesh, triangulation, targetTriangles);
+    }
+
+    public Model simplify(PackedMesh mesh, Triangulation triangulation, int targetTriangles) {
+        initialize(mesh, triangulation);
+
+        while (liveTriangles > targetTriangles && heap.size() > 0) {
+            int a = heap.topA();
+            int b = heap.topB();
+            boolean current = heap.topStampA() == stamps[a] && heap.topStampB() == stamps[b];
+            heap.pop();
+            if (!current || deadVertices[a] || deadVertices[b]) {
+                continue;
+            }
+
+            computeTarget(a, b);
+            if (flips(a, b) || flips(b, a)) {
+                continue;
+            }
+            collapse(a, b);
+        }
+
+        return buildModel();
+    }
+
+    private void initialize(PackedMesh mesh, Triangulation triangulation) {
+        int vertexCount = mesh.getVertexCount();
+        int triangleCount = triangulation.getTriangleCount();
+
+        positions = new float[vertexCount * 3];
+        for (int v = 0; v < vertexCount; v++) {
+            positions[v * 3] = mesh.getX(v);
+            positions[v * 3 + 1] = mesh.getY(v);
+            positions[v * 3 + 2] = mesh.getZ(v);
+        }
+
+        triangles = new int[triangleCount * 3];
+        for (int t = 0; t < triangleCount; t++) {
+            for (int k = 0; k < 3; k++) {
+                triangles[t * 3 + k] = triangulation.getVertexIndex(t, k);
+            }
+        }
+        deadTriangles = new boolean[triangleCount];
+        liveTriangles = triangleCount;
+
+        vertexTriangleCounts = new int[vertexCount];
+        for (int index : triangles) {
+            vertexTriangleCounts[index]++;
+        }
+        vertexTriangles = new int[vertexCount][];
+        for (int v = 0; v < vertexCount; v++) {
+            vertexTriangles[v] = new int[Math.max(vertexTriangleCounts[v], 1)];
+            vertexTriangleCounts[v] = 0;
+        }
+        for (int t = 0; t < triangleCount; t++) {
+            for (int k = 0; k < 3; k++) {
+                addVertexTriangle(triangles[t * 3 + k], t);
+            }
+        }
+
+        stamps = new int[vertexCount];
+        deadVertices = new boolean[vertexCount];
+        quadrics = new double[vertexCount * 10];
+        double[] plane = new double[4];
+        for (int t = 0; t < triangleCount; t++) {
+            if (trianglePlane(triangles[t * 3], triangles[t * 3 + 1], triangles[t * 3 + 2], plane)) {
+                for (int k = 0; k < 3; k++) {
+                    addPlane(triangles[t * 3 + k], plane, 1.0);
+                }
+            }
+        }
+        addBoundaryPlanes(triangleCount);
+
+        for (int t = 0; t < triangleCount; t++) {
+            for (int k = 0; k < 3; k++) {
+                int a = triangles[t * 3 + k];
+                int b = triangles[t * 3 + (k + 1) % 3];
+                if (a < b) {
+                    pushCollapse(a, b);
+                } else if (a != b && isBoundaryEdge(b, a, t)) {
+                    pushCollapse(b, a); // Граничное ребро встречается только в одном направлении
+                }
+            }
+        }
+    }
+
+    // Граничные ребра находятся по полуребрам треугольной сетки
+    private void addBoundaryPlanes(int triangleCount) {
+        int[] starts = new int[triangleCount + 1];
+        for (int t = 0; t <= triangleCount; t++) {
+            starts[t] = t * 3;
+        }
+        PackedMesh triangleMesh = new PackedMesh(FloatBuffer.wrap(positions), IntBuffer.wrap(starts),
+            IntBuffer.wrap(triangles));
+        HalfEdgeMesh halfEdges = HalfEdgeMesh.of(triangleMesh);
+
+        double[] plane = new double[4];
+        for (int h = 0; h < halfEdges.getHalfEdgeCount(); h++) {
+            if (!halfEdges.isBoundary(h)) {
+                continue;
+            }
+            int t = halfEdges.getFace(h);
+            int a = halfEdges.getOrigin(h);
+            int b = halfEdges.getTarget(h);
+            if (edgePlane(a, b, t, plane)) {
+                addPlane(a, plane, BOUNDARY_WEIGHT);
+                addPlane(b, plane, BOUNDARY_WEIGHT);
+            }
+        }
+    }
+
+    private boolean isBoundaryEdge(int from, int to, int triangle) {
+        // Ребро (to, from) треугольника triangle не встретится в обратном порядке, если нет соседа
+        for (int i = 0; i < vertexTriangleCounts[from]; i++) {
+            int t = vertexTriangles[from][i];
+            if (t == triangle) {
+                continue;
+            }
+            for (int k = 0; k < 3; k++) {
+                if (triangles[t * 3 + k] == from && triangles[t * 3 + (k + 1) % 3] == to) {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
+    private void pushCollapse(int a, int b) {
+        computeTarget(a, b);
+        heap.push(evaluate(a, b, target[0], target[1], target[2]), a, b, stamps[a], stamps[b]);
+    }
+
+    // Оптимальная точка квадрики суммы; если система вырождена - лучшая из концов и середины
+    private void computeTarget(int a, int b) {
+        double[] q = quadricSum;
+        for (int i = 0; i < 10; i++) {
+            q[i] = quadrics[a * 10 + i] + quadrics[b * 10 + i];
+        }
+
+        // Минимум квадрики: A * p = -b, решается по Крамеру
+        double det = det3(q[0], q[1], q[2], q[1], q[4], q[5], q[2], q[5], q[7]);
+        double trace = q[0] + q[4] + q[7];
+        if (Math.abs(det) > SINGULAR_EPSILON * trace * trace * trace) {
+            target[0] = det3(-q[3], q[1], q[2], -q[6], q[4], q[5], -q[8], q[5], q[7]) / det;
+            target[1] = det3(q[0], -q[3], q[2], q[1], -q[6], q[5], q[2], -q[8], q[7]) / det;
+            target[2] = det3(q[0], q[1], -q[3], q[1], q[4], -q[6], q[2], q[5], -q[8]) / det;
+            return;
+        }
+
+        double bestCost = Double.MAX_VALUE;
+        for (int i = 0; i < 3; i++) {
+            double x, y, z;
+            if (i == 2) {
+                x = (positions[a * 3] + positions[b * 3]) * 0.5;
+                y = (positions[a * 3 + 1] + positions[b * 3 + 1]) * 0.5;
+                z = (positions[a * 3 + 2] + positions[b * 3 + 2]) * 0.5;
+            } else {
+                int v = i == 0 ? a : b;
+                x = positions[v * 3];
+                y = positions[v * 3 + 1];
+                z = positions[v * 3 + 2];
+            }
+            double cost = evaluate(a, b, x, y, z);
+            if (cost < bestCost) {
+                bestCost = cost;
+                target[0] = x;
+                target[1] = y;
+                target[2] = z;
+            }
+        }
+    }
+
+    // Квадрика хранится как верхний треугольник симметричной матрицы 4x4:
+    // [0]=aa [1]=ab [2]=ac [3]=ad [4]=bb [5]=bc [6]=bd [7]=cc [8]=cd [9]=dd
+    private double evaluate(int a, int b, double x, double y, double z) {
+        return Math.max(evaluate(a, x, y, z) + evaluate(b, x, y, z), 0);
+    }
+
+    private double evaluate(int v, double x, double y, double z) {
+        int o = v * 10;
+        double[] q = quadrics;
+        return q[o] * x * x + 2 * q[o + 1] * x * y + 2 * q[o + 2] * x * z + 2 * q[o + 3] * x
+            + q[o + 4] * y * y + 2 * q[o + 5] * y * z + 2 * q[o + 6] * y
+            + q[o + 7] * z * z + 2 * q[o + 8] * z + q[o + 9];
+    }
+
+    // Стягивание from в to с перемещением to в target не должно переворачивать треугольники from
+    private boolean flips(int from, int to) {
+        for (int i = 0; i < vertexTriangleCounts[from]; i++) {
+            int t = vertexTriangles[from][i];
+            if (deadTriangles[t]) {
+                continue;
+            }
+            int a = triangles[t * 3], b = triangles[t * 3 + 1], c = triangles[t * 3 + 2];
+            if (a == to || b == to || c == to) {
+                continue; // Этот треугольник исчезнет
+            }
+
+            double[] before = normal(a, b, c, -1, normalBefore);
+            double[] after = normal(a, b, c, from, normalAfter);
+            double lengths = Math.sqrt(dot(before, before) * dot(after, after));
+            if (lengths == 0 || dot(before, after) < MIN_NORMAL_DOT * lengths) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // Координата axis вершины; вершина moved считается уже перенесенной в target
+    private double coordinate(int vertex, int axis, int moved) {
+        return vertex == moved ? target[axis] : positions[vertex * 3 + axis];
+    }
+
+    private void collapse(int from, int to) {
+        positions[to * 3] = (float) target[0];
+        positions[to * 3 + 1] = (float) target[1];
+        positions[to * 3 + 2] = (float) target[2];
+        for (int i = 0; i < 10; i++) {
+            quadrics[to * 10 + i] += quadrics[from * 10 + i];
+        }
+
+        for (int i = 0; i < vertexTriangleCounts[from]; i++) {
+            int t = vertexTriangles[from][i];
+            if (deadTriangles[t]) {
+                continue;
+            }
+            boolean hasTo = false;
+            for (int k = 0; k < 3; k++) {
+                hasTo |= triangles[t * 3 + k] == to;
+            }
+            if (hasTo) {
+                deadTriangles[t] = true;
+                liveTriangles--;
+            } else {
+                for (int k = 0; k < 3; k++) {
+                    if (triangles[t * 3 + k] == from) {
+                        triangles[t * 3 + k] = to;
+                    }
+                }
+                addVertexTriangle(to, t);
+            }
+        }
+
+        deadVertices[from] = true;
+        vertexTriangles[from] = null;
+        vertexTriangleCounts[from] = 0;
+        stamps[from]++;
+        stamps[to]++;
+        compactVertexTriangles(to);
+
+        // Метка to изменилась, поэтому все ее ребра заново кладутся в кучу с новой стоимостью
+        for (int i = 0; i < vertexTriangleCounts[to]; i++) {
+            int t = vertexTriangles[to][i];
+            for (int k = 0; k < 3; k++) {
+                int neighbour = triangles[t * 3 + k];
+                if (neighbour != to) {
+                    pushCollapse(to, neighbour);
+                }
+            }
+        }
+    }
+
+    private static double det3(double a, double b, double c, double d, double e, double f,
+                               double g, double h, double i) {
+        return a * (e * i - f * h) - b * (d * i - f * g) + c * (d * h - e * g);
+    }
+
+    private void compactVertexTriangles(int vertex) {
+        int[] list = vertexTriangles[vertex];
+        int count = 0;
+        for (int i = 0; i < vertexTriangleCounts[vertex]; i++) {
+            if (!deadTriangles[list[i]]) {
+                list[count++] = list[i];
+            }
+        }
+        vertexTriangleCounts[vertex] = count;
+    }
+
+    private void addVertexTriangle(int vertex, int triangle) {
+        int[] list = vertexTriangles[vertex];
+        if (vertexTriangleCounts[vertex] == list.length) {
+            list = Arrays.copyOf(list, list.length * 2);
+            vertexTriangles[vertex] = list;
+        }
+        list[vertexTriangleCounts[vertex]++] = triangle;
+    }
+
+    private boolean trianglePlane(int a, int b, int c, double[] plane) {
+        double[] n = normal(a, b, c, -1, normalBefore);
+        double length = Math.sqrt(dot(n, n));
+        if (length == 0) {
+            return false;
+        }
+        plane[0] = n[0] / length;
+        plane[1] = n[1] / length;
+        plane[2] = n[2] / length;
+        plane[3] = -(plane[0] * positions[a * 3] + plane[1] * positions[a * 3 + 1] + plane[2] * positions[a * 3 + 2]);
+        return true;
+    }
+
+    // Плоскость через граничное ребро перпендикулярно треугольнику
+    private boolean edgePlane(int a, int b, int triangle, double[] plane) {
+        double[] faceNormal = normal(triangles[triangle * 3], triangles[triangle * 3 + 1],
+            triangles[triangle * 3 + 2], -1, normalBefore);
+        edge[0] = positions[b * 3] - positions[a * 3];
+        edge[1] = positions[b * 3 + 1] - positions[a * 3 + 1];
+        edge[2] = positions[b * 3 + 2] - positions[a * 3 + 2];
+        double[] n = cross(edge, faceNormal, normalAfter);
+        double length = Math.sqrt(dot(n, n));
+        if (length == 0) {
+            return false;
+        }
+        plane[0] = n[0] / length;
+        plane[1] = n[1] / length;
+        plane[2] = n[2] / length;
+        plane[3] = -(plane[0] * positions[a * 3] + plane[1] * positions[a * 3 + 1] + plane[2] * positions[a * 3 + 2]);
+        return true;
+    }
+
+    private void addPlane(int vertex, double[] p, double weight) {
+        int o = vertex * 10;
+        quadrics[o] += weight * p[0] * p[0];
+        quadrics[o + 1] += weight * p[0] * p[1];
+        quadrics[o + 2] += weight * p[0] * p[2];
+        quadrics[o + 3] += weight * p[0] * p[3];
+        quadrics[o + 4] += weight * p[1] * p[1];
+        quadrics[o + 5] += weight * p[1] * p[2];
+        quadrics[o + 6] += weight * p[1] * p[3];
+        quadrics[o + 7] += weight * p[2] * p[2];
+        quadrics[o + 8] += weight * p[2] * p[3];
+        quadrics[o + 9] += weight * p[3] * p[3];
+    }
+
+    private Model buildModel() {
+        int[] remap = new int[deadVertices.length];
+        Arrays.fill(remap, -1);
+        Model result = new Model();
+        ArrayList<Vector3f> vertices = new ArrayList<>();
+        ArrayList<Polygon> polygons = new ArrayList<>(liveTriangles);
+
+        for (int t = 0; t < deadTriangles.length; t++) {
+            if (deadTriangles[t]) {
+                continue;
+            }
+            ArrayList<Integer> indices = new ArrayList<>(3);
+            for (int k = 0; k < 3; k++) {
+                int v = triangles[t * 3 + k];
+                if (remap[v] < 0) {
+                    remap[v] = vertices.size();
+                    vertices.add(new Vector3f(positions[v * 3], positions[v * 3 + 1], positions[v * 3 + 2]));
+                }
+                indices.add(remap[v]);
+            }
+            Polygon polygon = new Polygon();
+            polygon.setVertexIndices(indices);
+            polygons.add(polygon);
+        }
+
+        result.vertices.addAll(vertices);
+        result.polygons.addAll(polygons);
+        return result;
+    }
+
+    // Ненормированная нормаль треугольника (a, b, c) в dest
+    private double[] normal(int a, int b, int c, int moved, double[] dest) {
+        double ax = coordinate(a, 0, moved), ay = coordinate(a, 1, moved), az = coordinate(a, 2, moved);
+        double ux = coordinate(b, 0, moved) - ax, uy = coordinate(b, 1, moved) - ay, uz = coordinate(b, 2, moved) - az;
+        double vx = coordinate(c, 0, moved) - ax, vy = coordinate(c, 1, moved) - ay, vz = coordinate(c, 2, moved) - az;
+        dest[0] = uy * vz - uz * vy;
+        dest[1] = uz * vx - ux * vz;
+        dest[2] = ux * vy - uy * vx;
+        return dest;
+    }
+
+    private static double[] cross(double[] u, double[] v, double[] dest) {
+        double x = u[1] * v[2] - u[2] * v[1];
+        double y = u[2] * v[0] - u[0] * v[2];
+        double z = u[0] * v[1] - u[1] * v[0];
+        dest[0] = x;
+        dest[1] = y;
+        dest[2] = z;
+        return dest;
+    }
+
+    private static double dot(double[] u, double[] v) {
+        return u[0] * v[0] + u[1] * v[1] + u[2] * v[2];
+    }
+
+    // Двоичная куча кандидатов в массивах примитивов
+    private static final class CollapseHeap {
+        private double[] costs = new double[1024];
+        private int[] entries = new int[1024 * 4];
+        private int size;
+
+        int size() {
+            return size;
+        }
+
+        void push(double cost, int a, int b, int stampA, int stampB) {
+            if (size == costs.length) {
+                costs = Arrays.copyOf(costs, size * 2);
+                entries = Arrays.copyOf(entries, size * 8);
+            }
+            int i = size++;
+            set(i, cost, a, b, stampA, stampB);
+            while (i > 0) {
+                int parent = (i - 1) >>> 1;
+                if (costs[parent] <= costs[i]) {
+                    break;
+                }
+                swap(i, parent);
+                i = parent;
+            }
+        }
+
+        int topA() {
+            return entries[0];
+        }
+
+        int topB() {
+            return entries[1];
+        }
+
+        int topStampA() {
+            return entries[2];
+        }
+
+        int topStampB() {
+            return entries[3];
+        }
+
+        void pop() {
+            size--;
+            if (size == 0) {
+                return;
+            }
+            swap(0, size);
+            int i = 0;
+            while (true) {
+                int left = i * 2 + 1;
+                if (left >= size) {
+                    break;
+                }
+                int child = left + 1 < size && costs[left + 1] < costs[left] ? left + 1 : left;
+                if (costs[i] <= costs[child]) {
+                    break;
+                }
+                swap(i, child);
+                i = child;
+            }
+        }
+
+        private void set(int i, double cost, int a, int b, int stampA, int stampB) {
+            costs[i] = cost;
+            entries[i * 4] = a;
+            entries[i * 4 + 1] = b;
+            entries[i * 4 + 2] = stampA;
+            entries[i * 4 + 3] = stampB;
+        }
+
+        private void swap(int i, int j) {
+            double cost = costs[i];
+            costs[i] = costs[j];
+            costs[j] = cost;
+            for (int k = 0; k < 4; k++) {
+                int value = entries[i * 4 + k];
+                entries[i * 4 + k] = entries[j * 4 + k];
+                entries[j * 4 + k] = value;
+            }
+        }
+    }
+}
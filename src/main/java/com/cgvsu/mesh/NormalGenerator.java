@@ -0,0 +1,349 @@
+package com.cgvsu.mesh;
+
+import com.cgvsu.math.Vector3f;
+import com.cgvsu.model.DerivedKey;
+import com.cgvsu.model.Model;
+import com.cgvsu.model.PackedMesh;
+import com.cgvsu.model.Polygon;
+
+import java.util.ArrayList;
+import java.util.stream.IntStream;
+
+// Сглаженные нормали вершин. Нормаль вершины - взвешенная сумма нормалей полигонов, в которые
+// она входит: по площади (ненормированная нормаль Ньюэлла) или по углу полигона при этой вершине.
+// С углом сгиба ребра, на которых нормали соседних полигонов расходятся сильнее этого угла, режут
+// веер вершины на группы, и каждая группа получает свою нормаль. Вершины обрабатываются
+// параллельно, каждая собирает вклады своих углов через таблицу "вершина - углы", поэтому потокам
+// не нужны ни общие сумматоры, ни собственные копии массива нормалей.
+public class NormalGenerator {
+
+    public static final DerivedKey<Result> DERIVED =
+        new DerivedKey<>("smooth-normals", model -> new NormalGenerator().generate(model));
+
+    private static final int PARALLEL_THRESHOLD = 20_000;
+
+    public enum Weighting {
+        AREA,
+        ANGLE
+    }
+
+    public static class Settings {
+        public Weighting weighting = Weighting.AREA;
+
+        // 180 градусов - сглаживание без сгибов
+        public float creaseAngleDegrees = 180.0f;
+    }
+
+    private final Settings settings;
+
+    public NormalGenerator() {
+        this(new Settings());
+    }
+
+    public NormalGenerator(Settings settings) {
+        this.settings = settings;
+    }
+
+    public Result generate(Model model) {
+        HalfEdgeMesh halfEdges = isCreased() ? model.getDerived(HalfEdgeMesh.DERIVED) : null;
+        return generate(model.getDerived(PackedMesh.DERIVED), halfEdges);
+    }
+
+    public Result generate(PackedMesh mesh) {
+        return generate(mesh, isCreased() ? HalfEdgeMesh.of(mesh) : null);
+    }
+
+    private boolean isCreased() {
+        return settings.creaseAngleDegrees < 180.0f;
+    }
+
+    // Полуребра нужны только для обхода колец при сгибах: полуребро h совпадает с углом h
+    private Result generate(PackedMesh mesh, HalfEdgeMesh halfEdges) {
+        int vertexCount = mesh.getVertexCount();
+        int polygonCount = mesh.getPolygonCount();
+        int cornerCount = mesh.getIndexCount();
+
+        float[] faceNormals = new float[polygonCount * 3];
+        int[] cornerPolygons = new int[cornerCount];
+        range(polygonCount).forEach(p -> {
+            computeFaceNormal(mesh, p, faceNormals);
+            int start = mesh.getPolygonStart(p);
+            int end = start + mesh.getPolygonVertexCount(p);
+            for (int c = start; c < end; c++) {
+                cornerPolygons[c] = p;
+            }
+        });
+
+        // Таблица "вершина - углы" подсчетом
+        int[] vertexCornerStarts = new int[vertexCount + 1];
+        for (int c = 0; c < cornerCount; c++) {
+            vertexCornerStarts[mesh.getIndex(c) + 1]++;
+        }
+        for (int v = 0; v < vertexCount; v++) {
+            vertexCornerStarts[v + 1] += vertexCornerStarts[v];
+        }
+        int[] vertexCorners = new int[cornerCount];
+        int[] fill = new int[vertexCount];
+        for (int c = 0; c < cornerCount; c++) {
+            int v = mesh.getIndex(c);
+            vertexCorners[vertexCornerStarts[v] + fill[v]++] = c;
+        }
+        fill = null;
+
+        boolean angleWeighted = settings.weighting == Weighting.ANGLE;
+        boolean crease = isCreased();
+        float creaseCos = (float) Math.cos(Math.toRadians(settings.creaseAngleDegrees));
+
+        // Вес угла: для площади - сама нормаль Ньюэлла, для угла - единичная нормаль, умноженная на угол.
+        // Сгибы проверяются по единичным нормалям в отдельном массиве, не портя веса по площади.
+        float[] cornerWeights = angleWeighted ? new float[cornerCount] : null;
+        float[] unitNormals = angleWeighted || crease ? faceNormals.clone() : null;
+        if (unitNormals != null) {
+            range(polygonCount).forEach(p -> normalizeFace(unitNormals, p));
+        }
+        float[] sumNormals = angleWeighted ? unitNormals : faceNormals;
+        if (angleWeighted) {
+            range(polygonCount).forEach(p -> computeCornerAngles(mesh, p, cornerWeights));
+        }
+
+        // Первый проход: нормаль каждого угла и номер уникальной нормали внутри вершины. Со сгибами
+        // углы вершины делятся на группы обходом ее кольца: соседние через ребро углы попадают в одну
+        // группу, если полигоны не расходятся сильнее угла сгиба. Каждый угол посещается один раз
+        float[] cornerNormals = new float[cornerCount * 3];
+        int[] cornerLocal = new int[cornerCount];
+        int[] uniqueCounts = new int[vertexCount];
+        range(vertexCount).forEach(v -> {
+            int from = vertexCornerStarts[v];
+            int to = vertexCornerStarts[v + 1];
+            if (!crease) {
+                // Без сгибов у вершины одна нормаль, общая для всех углов
+                float x = 0, y = 0, z = 0;
+                for (int i = from; i < to; i++) {
+                    int c = vertexCorners[i];
+                    int p = cornerPolygons[c];
+                    float weight = angleWeighted ? cornerWeights[c] : 1.0f;
+                    x += sumNormals[p * 3] * weight;
+                    y += sumNormals[p * 3 + 1] * weight;
+                    z += sumNormals[p * 3 + 2] * weight;
+                }
+                float length = (float) Math.sqrt(x * x + y * y + z * z);
+                if (length > 0) {
+                    x /= length;
+                    y /= length;
+                    z /= length;
+                }
+                for (int i = from; i < to; i++) {
+                    int c = vertexCorners[i];
+                    cornerLocal[c] = 0;
+                    cornerNormals[c * 3] = x;
+                    cornerNormals[c * 3 + 1] = y;
+                    cornerNormals[c * 3 + 2] = z;
+                }
+                uniqueCounts[v] = to > from ? 1 : 0;
+                return;
+            }
+
+            for (int i = from; i < to; i++) {
+                cornerLocal[vertexCorners[i]] = -1;
+            }
+            int unique = 0;
+            // Сначала цепочки, которые начинаются на границе или сгибе, затем замкнутые кольца
+            for (int pass = 0; pass < 2; pass++) {
+                for (int i = from; i < to; i++) {
+                    int c = vertexCorners[i];
+                    if (cornerLocal[c] < 0
+                        && (pass == 1 || previousInGroup(halfEdges, unitNormals, creaseCos, c) == HalfEdgeMesh.NONE)) {
+                        smoothGroup(halfEdges, unitNormals, creaseCos, sumNormals, cornerWeights, c, unique++,
+                            cornerNormals, cornerLocal);
+                    }
+                }
+            }
+            uniqueCounts[v] = unique;
+        });
+
+        int[] normalStarts = new int[vertexCount + 1];
+        for (int v = 0; v < vertexCount; v++) {
+            normalStarts[v + 1] = normalStarts[v] + uniqueCounts[v];
+        }
+
+        // Второй проход: раскладка уникальных нормалей и индексы нормалей углов
+        float[] normals = new float[normalStarts[vertexCount] * 3];
+        int[] cornerNormalIndices = new int[cornerCount];
+        range(vertexCount).forEach(v -> {
+            for (int i = vertexCornerStarts[v]; i < vertexCornerStarts[v + 1]; i++) {
+                int c = vertexCorners[i];
+                int index = normalStarts[v] + cornerLocal[c];
+                cornerNormalIndices[c] = index;
+                System.arraycopy(cornerNormals, c * 3, normals, index * 3, 3);
+            }
+        });
+
+        return new Result(normals, cornerNormalIndices);
+    }
+
+    // Угол той же вершины в соседнем через входящее ребро полигоне, если ребро не является сгибом
+    private static int nextInGroup(HalfEdgeMesh halfEdges, float[] unitNormals, float creaseCos, int corner) {
+        int twin = halfEdges.getTwin(halfEdges.prev(corner));
+        if (twin == HalfEdgeMesh.NONE
+            || dot(unitNormals, halfEdges.getFace(corner), halfEdges.getFace(twin)) < creaseCos) {
+            return HalfEdgeMesh.NONE;
+        }
+        return twin;
+    }
+
+    private static int previousInGroup(HalfEdgeMesh halfEdges, float[] unitNormals, float creaseCos, int corner) {
+        int twin = halfEdges.getTwin(corner);
+        if (twin == HalfEdgeMesh.NONE
+            || dot(unitNormals, halfEdges.getFace(corner), halfEdges.getFace(twin)) < creaseCos) {
+            return HalfEdgeMesh.NONE;
+        }
+        return halfEdges.next(twin);
+    }
+
+    // Суммирует группу углов от first по кольцу и записывает общую нормаль и ее номер в каждый угол
+    private static void smoothGroup(HalfEdgeMesh halfEdges, float[] unitNormals, float creaseCos,
+                                    float[] sumNormals, float[] cornerWeights, int first, int local,
+                                    float[] cornerNormals, int[] cornerLocal) {
+        float x = 0, y = 0, z = 0;
+        int c = first;
+        do {
+            int p = halfEdges.getFace(c);
+            float weight = cornerWeights != null ? cornerWeights[c] : 1.0f;
+            x += sumNormals[p * 3] * weight;
+            y += sumNormals[p * 3 + 1] * weight;
+            z += sumNormals[p * 3 + 2] * weight;
+            c = nextInGroup(halfEdges, unitNormals, creaseCos, c);
+        } while (c != HalfEdgeMesh.NONE && c != first);
+        float length = (float) Math.sqrt(x * x + y * y + z * z);
+        if (length > 0) {
+            x /= length;
+            y /= length;
+            z /= length;
+        }
+        c = first;
+        do {
+            cornerLocal[c] = local;
+            cornerNormals[c * 3] = x;
+            cornerNormals[c * 3 + 1] = y;
+            cornerNormals[c * 3 + 2] = z;
+            c = nextInGroup(halfEdges, unitNormals, creaseCos, c);
+        } while (c != HalfEdgeMesh.NONE && c != first);
+    }
+
+    private static IntStream range(int count) {
+        IntStream stream = IntStream.range(0, count);
+        return count >= PARALLEL_THRESHOLD ? stream.parallel() : stream;
+    }
+
+    private static void computeFaceNormal(PackedMesh mesh, int polygon, float[] faceNormals) {
+        int start = mesh.getPolygonStart(polygon);
+        int n = mesh.getPolygonVertexCount(polygon);
+        float x = 0, y = 0, z = 0;
+        for (int i = 0; i < n; i++) {
+            int a = mesh.getIndex(start + i);
+            int b = mesh.getIndex(start + (i + 1) % n);
+            float ax = mesh.getX(a), ay = mesh.getY(a), az = mesh.getZ(a);
+            float bx = mesh.getX(b), by = mesh.getY(b), bz = mesh.getZ(b);
+            x += (ay - by) * (az + bz);
+            y += (az - bz) * (ax + bx);
+            z += (ax - bx) * (ay + by);
+        }
+        // Длина нормали Ньюэлла равна удвоенной площади полигона
+        faceNormals[polygon * 3] = x * 0.5f;
+        faceNormals[polygon * 3 + 1] = y * 0.5f;
+        faceNormals[polygon * 3 + 2] = z * 0.5f;
+    }
+
+    private static void normalizeFace(float[] faceNormals, int polygon) {
+        float x = faceNormals[polygon * 3];
+        float y = faceNormals[polygon * 3 + 1];
+        float z = faceNormals[polygon * 3 + 2];
+        float length = (float) Math.sqrt(x * x + y * y + z * z);
+        if (length > 0) {
+            faceNormals[polygon * 3] = x / length;
+            faceNormals[polygon * 3 + 1] = y / length;
+            faceNormals[polygon * 3 + 2] = z / length;
+        }
+    }
+
+    private static void computeCornerAngles(PackedMesh mesh, int polygon, float[] cornerWeights) {
+        int start = mesh.getPolygonStart(polygon);
+        int n = mesh.getPolygonVertexCount(polygon);
+        for (int i = 0; i < n; i++) {
+            int vertex = mesh.getIndex(start + i);
+            int previous = mesh.getIndex(start + (i + n - 1) % n);
+            int next = mesh.getIndex(start + (i + 1) % n);
+            float ux = mesh.getX(previous) - mesh.getX(vertex);
+            float uy = mesh.getY(previous) - mesh.getY(vertex);
+            float uz = mesh.getZ(previous) - mesh.getZ(vertex);
+            float vx = mesh.getX(next) - mesh.getX(vertex);
+            float vy = mesh.getY(next) - mesh.getY(vertex);
+            float vz = mesh.getZ(next) - mesh.getZ(vertex);
+            float cx = uy * vz - uz * vy;
+            float cy = uz * vx - ux * vz;
+            float cz = ux * vy - uy * vx;
+            float sin = (float) Math.sqrt(cx * cx + cy * cy + cz * cz);
+            float cos = ux * vx + uy * vy + uz * vz;
+            cornerWeights[start + i] = (float) Math.atan2(sin, cos);
+        }
+    }
+
+    private static float dot(float[] faceNormals, int a, int b) {
+        return faceNormals[a * 3] * faceNormals[b * 3]
+            + faceNormals[a * 3 + 1] * faceNormals[b * 3 + 1]
+            + faceNormals[a * 3 + 2] * faceNormals[b * 3 + 2];
+    }
+
+    // Упакованные нормали (x, y, z подряд) и индекс нормали для каждого угла в порядке PackedMesh
+    public static class Result {
+        private final float[] normals;
+        private final int[] cornerNormalIndices;
+
+        private Result(float[] normals, int[] cornerNormalIndices) {
+            this.normals = normals;
+            this.cornerNormalIndices = cornerNormalIndices;
+        }
+
+        public int getNormalCount() {
+            return normals.length / 3;
+        }
+
+        public float getX(int normal) {
+            return normals[normal * 3];
+        }
+
+        public float getY(int normal) {
+            return normals[normal * 3 + 1];
+        }
+
+        public float getZ(int normal) {
+            return normals[normal * 3 + 2];
+        }
+
+        public int getCornerNormalIndex(int corner) {
+            return cornerNormalIndices[corner];
+        }
+
+        // Заменяет нормали модели и индексы нормалей ее полигонов
+        public void applyTo(Model model) {
+            model.markModified(); // Разделяемую модель только для чтения менять нельзя - ошибка до любых правок
+            ArrayList<Vector3f> modelNormals = new ArrayList<>(getNormalCount());
+            for (int i = 0; i < getNormalCount(); i++) {
+                modelNormals.add(new Vector3f(getX(i), getY(i), getZ(i)));
+            }
+            model.normals.clear();
+            model.normals.addAll(modelNormals);
+
+            int corner = 0;
+            for (Polygon polygon : model.polygons) {
+                int size = polygon.getVertexIndices().size();
+                ArrayList<Integer> normalIndices = new ArrayList<>(size);
+                for (int i = 0; i < size; i++) {
+                    normalIndices.add(cornerNormalIndices[corner++]);
+                }
+                polygon.setNormalIndices(normalIndices);
+            }
+            model.markModified();
+        }
+    }
+}
@@ -0,0 +1,241 @@
+package com.cgvsu.mesh;
+
+import com.cgvsu.model.DerivedKey;
+import com.cgvsu.model.Model;
+import com.cgvsu.model.PackedMesh;
+
+import java.nio.IntBuffer;
+import java.util.stream.IntStream;
+
+// Разбиение полигонов модели на треугольники отсечением ушей. Полигон проецируется на плоскость,
+// перпендикулярную наибольшей компоненте его нормали (по Ньюэллу), поэтому выпуклые и вогнутые
+// плоские полигоны разбиваются корректно; вырожденные - веером. Каждый полигон из n вершин дает
+// n - 2 треугольника с тем же обходом. Для треугольника хранятся индексы вершин, номера углов
+// (позиции в общем массиве индексов полигонов, как в PackedMesh) и исходный полигон.
+public class Triangulation {
+
+    public static final DerivedKey<Triangulation> DERIVED = new DerivedKey<>("triangulation", Triangulation::of);
+
+    private static final int PARALLEL_THRESHOLD = 20_000;
+
+    private static final ThreadLocal<Scratch> SCRATCH = ThreadLocal.withInitial(Scratch::new);
+
+    private final int[] vertexIndices;
+    private final int[] corners;
+    private final int[] sourcePolygons;
+    private final int[] polygonTriangleStarts;
+
+    private Triangulation(int[] vertexIndices, int[] corners, int[] sourcePolygons, int[] polygonTriangleStarts) {
+        this.vertexIndices = vertexIndices;
+        this.corners = corners;
+        this.sourcePolygons = sourcePolygons;
+        this.polygonTriangleStarts = polygonTriangleStarts;
+    }
+
+    public static Triangulation of(Model model) {
+        return of(model.getDerived(PackedMesh.DERIVED));
+    }
+
+    public static Triangulation of(PackedMesh mesh) {
+        int polygonCount = mesh.getPolygonCount();
+        int[] polygonTriangleStarts = new int[polygonCount + 1];
+        for (int p = 0; p < polygonCount; p++) {
+            polygonTriangleStarts[p + 1] = polygonTriangleStarts[p] + Math.max(0, mesh.getPolygonVertexCount(p) - 2);
+        }
+
+        int triangleCount = polygonTriangleStarts[polygonCount];
+        int[] corners = new int[triangleCount * 3];
+        int[] vertexIndices = new int[triangleCount * 3];
+        int[] sourcePolygons = new int[triangleCount];
+
+        IntStream polygons = IntStream.range(0, polygonCount);
+        if (polygonCount >= PARALLEL_THRESHOLD) {
+            polygons = polygons.parallel();
+        }
+        polygons.forEach(p -> {
+            int first = polygonTriangleStarts[p];
+            int start = mesh.getPolygonStart(p);
+            triangulatePolygon(mesh, p, corners, first * 3, SCRATCH.get());
+            for (int t = first; t < polygonTriangleStarts[p + 1]; t++) {
+                sourcePolygons[t] = p;
+                for (int k = 0; k < 3; k++) {
+                    corners[t * 3 + k] += start;
+                    vertexIndices[t * 3 + k] = mesh.getIndex(corners[t * 3 + k]);
+                }
+            }
+        });
+
+        return new Triangulation(vertexIndices, corners, sourcePolygons, polygonTriangleStarts);
+    }
+
+    public int getTriangleCount() {
+        return sourcePolygons.length;
+    }
+
+    public int getVertexIndex(int triangle, int k) {
+        return vertexIndices[triangle * 3 + k];
+    }
+
+    public int getCorner(int triangle, int k) {
+        return corners[triangle * 3 + k];
+    }
+
+    public int getSourcePolygon(int triangle) {
+        return sourcePolygons[triangle];
+    }
+
+    public int getFirstTriangle(int polygon) {
+        return polygonTriangleStarts[polygon];
+    }
+
+    public int getPolygonTriangleCount(int polygon) {
+        return polygonTriangleStarts[polygon + 1] - polygonTriangleStarts[polygon];
+    }
+
+    // Плоский индексный буфер: по три индекса вершин на треугольник
+    public IntBuffer getIndices() {
+        return IntBuffer.wrap(vertexIndices).asReadOnlyBuffer();
+    }
+
+    // Записывает в out локальные номера углов (0..n-1) для n - 2 треугольников полигона
+    private static void triangulatePolygon(PackedMesh mesh, int polygon, int[] out, int offset, Scratch scratch) {
+        int n = mesh.getPolygonVertexCount(polygon);
+        if (n < 3) {
+            return;
+        }
+        if (n == 3) {
+            out[offset] = 0;
+            out[offset + 1] = 1;
+            out[offset + 2] = 2;
+            return;
+        }
+
+        int start = mesh.getPolygonStart(polygon);
+        scratch.ensureCapacity(n);
+        float[] xs = scratch.xs;
+        float[] ys = scratch.ys;
+
+        // Нормаль Ньюэлла определяет плоскость проекции
+        float nx = 0, ny = 0, nz = 0;
+        for (int i = 0; i < n; i++) {
+            int a = mesh.getIndex(start + i);
+            int b = mesh.getIndex(start + (i + 1) % n);
+            float ay = mesh.getY(a), az = mesh.getZ(a), ax = mesh.getX(a);
+            float by = mesh.getY(b), bz = mesh.getZ(b), bx = mesh.getX(b);
+            nx += (ay - by) * (az + bz);
+            ny += (az - bz) * (ax + bx);
+            nz += (ax - bx) * (ay + by);
+        }
+        float absX = Math.abs(nx), absY = Math.abs(ny), absZ = Math.abs(nz);
+        for (int i = 0; i < n; i++) {
+            int vertex = mesh.getIndex(start + i);
+            if (absX >= absY && absX >= absZ) {
+                xs[i] = mesh.getY(vertex);
+                ys[i] = mesh.getZ(vertex);
+            } else if (absY >= absZ) {
+                xs[i] = mesh.getZ(vertex);
+                ys[i] = mesh.getX(vertex);
+            } else {
+                xs[i] = mesh.getX(vertex);
+                ys[i] = mesh.getY(vertex);
+            }
+        }
+
+        float area = 0;
+        for (int i = 0; i < n; i++) {
+            int j = (i + 1) % n;
+            area += xs[i] * ys[j] - xs[j] * ys[i];
+        }
+        if (area == 0 || Float.isNaN(area)) {
+            fan(out, offset, 0, n);
+            return;
+        }
+        float orientation = Math.signum(area);
+
+        int[] prev = scratch.prev;
+        int[] next = scratch.next;
+        for (int i = 0; i < n; i++) {
+            prev[i] = (i + n - 1) % n;
+            next[i] = (i + 1) % n;
+        }
+
+        // Обход с вершины 1 дает для выпуклого полигона тот же веер из вершины 0
+        int remaining = n;
+        int current = 1;
+        int attempts = 0;
+        while (remaining > 3) {
+            int p = prev[current];
+            int q = next[current];
+            if (isEar(xs, ys, next, p, current, q, orientation)) {
+                out[offset++] = p;
+                out[offset++] = current;
+                out[offset++] = q;
+                next[p] = q;
+                prev[q] = p;
+                remaining--;
+                current = q;
+                attempts = 0;
+            } else if (++attempts > remaining) {
+                // Уха нет (самопересечение или вырождение) - остаток разбивается веером
+                for (int i = 0; i < remaining - 2; i++) {
+                    out[offset++] = current;
+                    out[offset++] = next[current];
+                    out[offset++] = next[next[current]];
+                    next[current] = next[next[current]];
+                }
+                return;
+            } else {
+                current = q;
+            }
+        }
+        out[offset] = prev[current];
+        out[offset + 1] = current;
+        out[offset + 2] = next[current];
+    }
+
+    private static boolean isEar(float[] xs, float[] ys, int[] next, int p, int i, int q, float orientation) {
+        float cross = (xs[i] - xs[p]) * (ys[q] - ys[p]) - (ys[i] - ys[p]) * (xs[q] - xs[p]);
+        if (cross * orientation <= 0) {
+            return false; // Вогнутая или вырожденная вершина
+        }
+
+        for (int j = next[q]; j != p; j = next[j]) {
+            if (insideTriangle(xs[j], ys[j], xs[p], ys[p], xs[i], ys[i], xs[q], ys[q], orientation)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean insideTriangle(float x, float y, float ax, float ay, float bx, float by,
+                                          float cx, float cy, float orientation) {
+        float d1 = ((bx - ax) * (y - ay) - (by - ay) * (x - ax)) * orientation;
+        float d2 = ((cx - bx) * (y - by) - (cy - by) * (x - bx)) * orientation;
+        float d3 = ((ax - cx) * (y - cy) - (ay - cy) * (x - cx)) * orientation;
+        return d1 >= 0 && d2 >= 0 && d3 >= 0;
+    }
+
+    private static void fan(int[] out, int offset, int first, int n) {
+        for (int i = 1; i + 1 < n; i++) {
+            out[offset++] = first;
+            out[offset++] = i;
+            out[offset++] = i + 1;
+        }
+    }
+
+    private static final class Scratch {
+        float[] xs = new float[16];
+        float[] ys = new float[16];
+        int[] prev = new int[16];
+        int[] next = new int[16];
+
+        void ensureCapacity(int n) {
+            if (xs.length < n) {
+                xs = new float[n];
+                ys = new float[n];
+                prev = new int[n];
+                next = new int[n];
+            }
+        }
+    }
+}
@@ -0,0 +1,29 @@
+package com.cgvsu.model;
+
+import java.util.function.Function;
+
+// Ключ производных данных модели для Model.getDerived. Ключи сравниваются по ссылке,
+// поэтому объявляются константами рядом с кодом, который эти данные использует.
+public final class DerivedKey<T> {
+
+    private final String name;
+    private final Function<Model, T> factory;
+
+    public DerivedKey(String name, Function<Model, T> factory) {
+        this.name = name;
+        this.factory = factory;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    T compute(Model model) {
+        return factory.apply(model);
+    }
+
+    @Override
+    public String toString() {
+        return "DerivedKey{" + name + "}";
+    }
+}
@@ -2,12 +2,147 @@ package com.cgvsu.model;
 import com.cgvsu.math.Vector2f;
 import com.cgvsu.math.Vector3f;
 
+import java.lang.ref.SoftReference;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
 
 public class Model {
 
-    public ArrayList<Vector3f> vertices = new ArrayList<Vector3f>();
-    public ArrayList<Vector2f> textureVertices = new ArrayList<Vector2f>();
-    public ArrayList<Vector3f> normals = new ArrayList<Vector3f>();
-    public ArrayList<Polygon> polygons = new ArrayList<Polygon>();
+    public ArrayList<Vector3f> vertices = new ModelList<Vector3f>(this);
+    public ArrayList<Vector2f> textureVertices = new ModelList<Vector2f>(this);
+    public ArrayList<Vector3f> normals = new ModelList<Vector3f>(this);
+    public ArrayList<Polygon> polygons = new ModelList<Polygon>(this);
+
+    // Геометрия модели, загруженной с отображением в память: списки такой модели пусты
+    private final PackedMesh packed;
+
+    private volatile boolean readOnly;
+    private volatile long version;
+
+    // Производные данные (границы, триангуляция, нормали и т.п.) хранятся вместе с версией модели,
+    // на которой они вычислены. Мягкие ссылки позволяют сборщику освободить их при нехватке памяти.
+    private final Map<DerivedKey<?>, SoftReference<DerivedValue>> derived = new ConcurrentHashMap<>();
+
+    public Model() {
+        this.packed = null;
+    }
+
+    private Model(PackedMesh packed) {
+        this.packed = packed;
+    }
+
+    // Модель поверх упакованной сетки, не помещающейся в кучу в виде списков. Вершины и полигоны
+    // доступны только через PackedMesh.DERIVED и построенные по нему данные; модель только для
+    // чтения, copy() переносит ее в кучу.
+    public static Model fromPacked(PackedMesh mesh) {
+        Model model = new Model(mesh);
+        model.setReadOnly();
+        return model;
+    }
+
+    public boolean isPacked() {
+        return packed != null;
+    }
+
+    PackedMesh getPacked() {
+        return packed;
+    }
+
+    public int getVertexCount() {
+        return packed != null ? packed.getVertexCount() : vertices.size();
+    }
+
+    public int getPolygonCount() {
+        return packed != null ? packed.getPolygonCount() : polygons.size();
+    }
+
+    // Модель, разделяемая несколькими владельцами (например, из кэша загрузки), помечается
+    // только для чтения: списки модели начинают отклонять изменения. Полигоны не отслеживаются,
+    // их индексы у разделяемой модели также менять нельзя - для правок нужна copy().
+    public void setReadOnly() {
+        readOnly = true;
+    }
+
+    public boolean isReadOnly() {
+        return readOnly;
+    }
+
+    void checkWritable() {
+        if (readOnly) {
+            throw new UnsupportedOperationException("Модель используется совместно и доступна только для чтения");
+        }
+    }
+
+    void modified() {
+        version++;
+        if (!derived.isEmpty()) {
+            derived.clear();
+        }
+    }
+
+    // Списки модели отслеживают изменения сами; правки координат вершин на месте, замена
+    // индексов полигонов или присваивание полей-списков нужно отмечать этим методом
+    public void markModified() {
+        checkWritable();
+        modified();
+    }
+
+    public long getVersion() {
+        return version;
+    }
+
+    @SuppressWarnings("unchecked")
+    public <T> T getDerived(DerivedKey<T> key) {
+        long currentVersion = version;
+        SoftReference<DerivedValue> reference = derived.get(key);
+        DerivedValue cached = reference != null ? reference.get() : null;
+        if (cached != null && cached.version() == currentVersion) {
+            return (T) cached.value();
+        }
+
+        T value = key.compute(this);
+        if (version == currentVersion) {
+            derived.put(key, new SoftReference<>(new DerivedValue(currentVersion, value)));
+        }
+        return value;
+    }
+
+    public void clearDerived() {
+        derived.clear();
+    }
+
+    public Model copy() {
+        if (packed != null) {
+            return packed.toModel();
+        }
+        Model copy = new Model();
+        copy.vertices.ensureCapacity(vertices.size());
+        for (Vector3f vertex : vertices) {
+            copy.vertices.add(new Vector3f(vertex.x, vertex.y, vertex.z));
+        }
+        copy.textureVertices.ensureCapacity(textureVertices.size());
+        for (Vector2f textureVertex : textureVertices) {
+            copy.textureVertices.add(new Vector2f(textureVertex.x, textureVertex.y));
+        }
+        copy.normals.ensureCapacity(normals.size());
+        for (Vector3f normal : normals) {
+            copy.normals.add(new Vector3f(normal.x, normal.y, normal.z));
+        }
+        copy.polygons.ensureCapacity(polygons.size());
+        for (Polygon polygon : polygons) {
+            Polygon polygonCopy = new Polygon();
+            polygonCopy.setVertexIndices(new ArrayList<>(polygon.getVertexIndices()));
+            if (!polygon.getTextureVertexIndices().isEmpty()) {
+                polygonCopy.setTextureVertexIndices(new ArrayList<>(polygon.getTextureVertexIndices()));
+            }
+            if (!polygon.getNormalIndices().isEmpty()) {
+                polygonCopy.setNormalIndices(new ArrayList<>(polygon.getNormalIndices()));
+            }
+            copy.polygons.add(polygonCopy);
+        }
+        return copy;
+    }
+
+    private record DerivedValue(long version, Object value) {
+    }
 }
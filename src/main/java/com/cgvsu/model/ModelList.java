@@ -0,0 +1,272 @@
+package com.cgvsu.model;
+
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.ListIterator;
+import java.util.RandomAccess;
+import java.util.function.Predicate;
+import java.util.function.UnaryOperator;
+
+// Список данных модели: перед любым изменением спрашивает у владельца, можно ли его менять,
+// а после изменения сообщает ему об этом, чтобы сбросить производные данные.
+// Поля Model остаются типа ArrayList, поэтому существующий код работает с ними как раньше.
+// Итераторы и подсписки тоже проверяют запрет записи и сообщают об изменениях: часть их
+// операций в ArrayList пишет в массив напрямую, минуя переопределенные методы.
+class ModelList<E> extends ArrayList<E> {
+
+    private static final long serialVersionUID = 1L;
+
+    private final Model owner;
+
+    ModelList(Model owner) {
+        this.owner = owner;
+    }
+
+    @Override
+    public boolean add(E element) {
+        owner.checkWritable();
+        boolean result = super.add(element);
+        owner.modified();
+        return result;
+    }
+
+    @Override
+    public void add(int index, E element) {
+        owner.checkWritable();
+        super.add(index, element);
+        owner.modified();
+    }
+
+    @Override
+    public boolean addAll(Collection<? extends E> collection) {
+        owner.checkWritable();
+        boolean result = super.addAll(collection);
+        owner.modified();
+        return result;
+    }
+
+    @Override
+    public boolean addAll(int index, Collection<? extends E> collection) {
+        owner.checkWritable();
+        boolean result = super.addAll(index, collection);
+        owner.modified();
+        return result;
+    }
+
+    @Override
+    public E set(int index, E element) {
+        owner.checkWritable();
+        E result = super.set(index, element);
+        owner.modified();
+        return result;
+    }
+
+    @Override
+    public E remove(int index) {
+        owner.checkWritable();
+        E result = super.remove(index);
+        owner.modified();
+        return result;
+    }
+
+    @Override
+    public boolean remove(Object element) {
+        owner.checkWritable();
+        boolean result = super.remove(element);
+        owner.modified();
+        return result;
+    }
+
+    @Override
+    public boolean removeAll(Collection<?> collection) {
+        owner.checkWritable();
+        boolean result = super.removeAll(collection);
+        owner.modified();
+        return result;
+    }
+
+    @Override
+    public boolean retainAll(Collection<?> collection) {
+        owner.checkWritable();
+        boolean result = super.retainAll(collection);
+        owner.modified();
+        return result;
+    }
+
+    @Override
+    public boolean removeIf(Predicate<? super E> filter) {
+        owner.checkWritable();
+        boolean result = super.removeIf(filter);
+        owner.modified();
+        return result;
+    }
+
+    @Override
+    protected void removeRange(int fromIndex, int toIndex) {
+        owner.checkWritable();
+        super.removeRange(fromIndex, toIndex);
+        owner.modified();
+    }
+
+    @Override
+    public void replaceAll(UnaryOperator<E> operator) {
+        owner.checkWritable();
+        super.replaceAll(operator);
+        owner.modified();
+    }
+
+    @Override
+    public void sort(Comparator<? super E> comparator) {
+        owner.checkWritable();
+        super.sort(comparator);
+        owner.modified();
+    }
+
+    @Override
+    public void clear() {
+        owner.checkWritable();
+        super.clear();
+        owner.modified();
+    }
+
+    @Override
+    public Iterator<E> iterator() {
+        return listIterator(0);
+    }
+
+    @Override
+    public ListIterator<E> listIterator() {
+        return listIterator(0);
+    }
+
+    @Override
+    public ListIterator<E> listIterator(int index) {
+        return new GuardedListIterator(super.listIterator(index));
+    }
+
+    @Override
+    public List<E> subList(int fromIndex, int toIndex) {
+        return new GuardedSubList(super.subList(fromIndex, toIndex));
+    }
+
+    private final class GuardedListIterator implements ListIterator<E> {
+        private final ListIterator<E> delegate;
+
+        GuardedListIterator(ListIterator<E> delegate) {
+            this.delegate = delegate;
+        }
+
+        @Override
+        public boolean hasNext() {
+            return delegate.hasNext();
+        }
+
+        @Override
+        public E next() {
+            return delegate.next();
+        }
+
+        @Override
+        public boolean hasPrevious() {
+            return delegate.hasPrevious();
+        }
+
+        @Override
+        public E previous() {
+            return delegate.previous();
+        }
+
+        @Override
+        public int nextIndex() {
+            return delegate.nextIndex();
+        }
+
+        @Override
+        public int previousIndex() {
+            return delegate.previousIndex();
+        }
+
+        @Override
+        public void remove() {
+            owner.checkWritable();
+            delegate.remove();
+            owner.modified();
+        }
+
+        @Override
+        public void set(E element) {
+            owner.checkWritable();
+            delegate.set(element);
+            owner.modified();
+        }
+
+        @Override
+        public void add(E element) {
+            owner.checkWritable();
+            delegate.add(element);
+            owner.modified();
+        }
+    }
+
+    // Операции подсписка сводятся к get/set/add/remove/removeRange (остальное AbstractList строит
+    // на них), и каждая из них проверяется здесь
+    private final class GuardedSubList extends AbstractList<E> implements RandomAccess {
+        private final List<E> delegate;
+
+        GuardedSubList(List<E> delegate) {
+            this.delegate = delegate;
+        }
+
+        @Override
+        public E get(int index) {
+            return delegate.get(index);
+        }
+
+        @Override
+        public int size() {
+            return delegate.size();
+        }
+
+        @Override
+        public E set(int index, E element) {
+            owner.checkWritable();
+            E result = delegate.set(index, element);
+            owner.modified();
+            return result;
+        }
+
+        @Override
+        public void add(int index, E element) {
+            owner.checkWritable();
+            delegate.add(index, element);
+            modCount++;
+            owner.modified();
+        }
+
+        @Override
+        public E remove(int index) {
+            owner.checkWritable();
+            E result = delegate.remove(index);
+            modCount++;
+            owner.modified();
+            return result;
+        }
+
+        @Override
+        protected void removeRange(int fromIndex, int toIndex) {
+            owner.checkWritable();
+            delegate.subList(fromIndex, toIndex).clear();
+            modCount++;
+            owner.modified();
+        }
+
+        @Override
+        public List<E> subList(int fromIndex, int toIndex) {
+            return new GuardedSubList(delegate.subList(fromIndex, toIndex));
+        }
+    }
+}
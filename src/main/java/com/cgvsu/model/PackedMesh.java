@@ -0,0 +1,134 @@
+package com.cgvsu.model;
+
+import com.cgvsu.math.Vector3f;
+
+import java.nio.FloatBuffer;
+import java.nio.IntBuffer;
+import java.util.ArrayList;
+
+// Компактное представление геометрии: координаты вершин подряд (x, y, z),
+// индексы всех полигонов одним массивом и начала полигонов в нем (polygonCount + 1 значений).
+// Загрузчик с отображением в память хранит буферы вне кучи.
+// Используется для моделей, которые не помещаются в кучу в виде Model, а также как
+// кэшируемое представление обычной модели для отрисовки (PackedMesh.DERIVED).
+public class PackedMesh {
+
+    public static final DerivedKey<PackedMesh> DERIVED = new DerivedKey<>("packed-mesh", PackedMesh::fromModel);
+
+    private final FloatBuffer positions;
+    private final IntBuffer polygonStarts;
+    private final IntBuffer indices;
+
+    public PackedMesh(FloatBuffer positions, IntBuffer polygonStarts, IntBuffer indices) {
+        this.positions = positions;
+        this.polygonStarts = polygonStarts;
+        this.indices = indices;
+    }
+
+    public static PackedMesh fromModel(Model model) {
+        if (model.isPacked()) {
+            return model.getPacked();
+        }
+        float[] positions = new float[model.vertices.size() * 3];
+        for (int i = 0; i < model.vertices.size(); i++) {
+            Vector3f vertex = model.vertices.get(i);
+            positions[i * 3] = vertex.x;
+            positions[i * 3 + 1] = vertex.y;
+            positions[i * 3 + 2] = vertex.z;
+        }
+
+        int polygonCount = model.polygons.size();
+        int[] polygonStarts = new int[polygonCount + 1];
+        for (int p = 0; p < polygonCount; p++) {
+            polygonStarts[p + 1] = polygonStarts[p] + model.polygons.get(p).getVertexIndices().size();
+        }
+        int[] indices = new int[polygonStarts[polygonCount]];
+        for (int p = 0; p < polygonCount; p++) {
+            int offset = polygonStarts[p];
+            for (int index : model.polygons.get(p).getVertexIndices()) {
+                indices[offset++] = index;
+            }
+        }
+
+        return new PackedMesh(FloatBuffer.wrap(positions), IntBuffer.wrap(polygonStarts), IntBuffer.wrap(indices));
+    }
+
+    public int getVertexCount() {
+        return positions.capacity() / 3;
+    }
+
+    public int getPolygonCount() {
+        return polygonStarts.capacity() - 1;
+    }
+
+    public int getIndexCount() {
+        return indices.capacity();
+    }
+
+    public int getPolygonStart(int polygon) {
+        return polygonStarts.get(polygon);
+    }
+
+    public int getPolygonVertexCount(int polygon) {
+        return polygonStarts.get(polygon + 1) - polygonStarts.get(polygon);
+    }
+
+    public int getIndex(int index) {
+        return indices.get(index);
+    }
+
+    public float getX(int vertex) {
+        return positions.get(vertex * 3);
+    }
+
+    public float getY(int vertex) {
+        return positions.get(vertex * 3 + 1);
+    }
+
+    public float getZ(int vertex) {
+        return positions.get(vertex * 3 + 2);
+    }
+
+    public FloatBuffer getPositions() {
+        return positions.asReadOnlyBuffer();
+    }
+
+    public IntBuffer getPolygonStarts() {
+        return polygonStarts.asReadOnlyBuffer();
+    }
+
+    public IntBuffer getIndices() {
+        return indices.asReadOnlyBuffer();
+    }
+
+    // Байты, занятые буферами вне кучи
+    public long getSizeInBytes() {
+        return 4L * (positions.capacity() + polygonStarts.capacity() + indices.capacity());
+    }
+
+    // Перенос в обычную Model - только для сеток, которые заведомо помещаются в кучу;
+    // для отрисовки без переноса служит Model.fromPacked
+    public Model toModel() {
+        Model model = new Model();
+        int vertexCount = getVertexCount();
+        model.vertices.ensureCapacity(vertexCount);
+        for (int i = 0; i < vertexCount; i++) {
+            model.vertices.add(new Vector3f(getX(i), getY(i), getZ(i)));
+        }
+
+        int polygonCount = getPolygonCount();
+        model.polygons.ensureCapacity(polygonCount);
+        for (int p = 0; p < polygonCount; p++) {
+            int start = polygonStarts.get(p);
+            int end = polygonStarts.get(p + 1);
+            ArrayList<Integer> vertexIndices = new ArrayList<>(end - start);
+            for (int i = start; i < end; i++) {
+                vertexIndices.add(indices.get(i));
+            }
+            Polygon polygon = new Polygon();
+            polygon.setVertexIndices(vertexIndices);
+            model.polygons.add(polygon);
+        }
+        return model;
+    }
+}
@@ -0,0 +1,175 @@
+package com.cgvsu.render_engine;
+
+import com.cgvsu.model.Model;
+import javafx.scene.canvas.GraphicsContext;
+import javafx.scene.image.PixelFormat;
+import javafx.scene.image.WritableImage;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.LongSupplier;
+
+// Заливка моделей через OffscreenRenderer с выводом кадра на Canvas. Пока сцена меняется (камера,
+// размер холста, модели), кадр строится в пониженном внутреннем разрешении и растягивается при выводе;
+// масштаб подбирается по времени предыдущих кадров так, чтобы держать targetFrameNanos. Когда сцена
+// неподвижна settleNanos, кадр один раз строится в полном разрешении, и дальше холст не перерисовывается.
+// Масштаб кадра округляется вниз до одной из ступеней SCALE_STEPS: буфер кадра на каждую ступень и
+// изображение полного размера создаются один раз на размер холста, пониженный кадр пишется в левый
+// верхний угол изображения и растягивается выводом этого прямоугольника.
+public class AdaptiveRasterizer {
+
+    static final float[] SCALE_STEPS = {0.25f, 0.375f, 0.5f, 0.75f, 1.0f};
+
+    public static class Settings {
+        public long targetFrameNanos = 16_666_667L;
+
+        public long settleNanos = 200_000_000L;
+
+        // Доля стороны кадра при движении: начальная и пределы подстройки
+        public float initialScale = 0.5f;
+
+        public float minScale = 0.25f;
+
+        public float maxScale = 1.0f;
+    }
+
+    private final Settings settings;
+    private final OffscreenRenderer renderer;
+    private final LongSupplier clock;
+
+    private final Framebuffer[] framebuffers = new Framebuffer[SCALE_STEPS.length];
+    private WritableImage image;
+    private int canvasWidth;
+    private int canvasHeight;
+    private OffscreenRenderer.CullingStats cullingStats = new OffscreenRenderer.CullingStats(0, 0, 0, 0);
+    private float scale;
+    private boolean hasSignature = false;
+    private long signature;
+    private long lastChange;
+    // Что сейчас на холсте: отпечаток сцены и было ли это полное разрешение
+    private boolean drawn = false;
+    private long drawnSignature;
+    private boolean drawnNative = false;
+
+    public AdaptiveRasterizer(OffscreenRenderer renderer) {
+        this(new Settings(), renderer);
+    }
+
+    public AdaptiveRasterizer(Settings settings, OffscreenRenderer renderer) {
+        this(settings, renderer, System::nanoTime);
+    }
+
+    AdaptiveRasterizer(Settings settings, OffscreenRenderer renderer, LongSupplier clock) {
+        this.settings = settings;
+        this.renderer = renderer;
+        this.clock = clock;
+        this.scale = settings.initialScale;
+    }
+
+    // Отсечение моделей в последнем построенном кадре
+    public OffscreenRenderer.CullingStats getCullingStats() {
+        return cullingStats;
+    }
+
+    public float getScale() {
+        return scale;
+    }
+
+    // Следующий кадр будет построен заново, даже если сцена не изменилась
+    public void invalidate() {
+        hasSignature = false;
+        drawn = false;
+    }
+
+    public void renderFrame(GraphicsContext graphicsContext, Camera camera, List<Model> models, int width, int height) {
+        Framebuffer frame = renderOffscreen(camera, models, width, height);
+        if (frame != null) {
+            present(graphicsContext, frame, width, height);
+        }
+    }
+
+    // Решение о кадре и заливка без вывода на холст: построенный буфер кадра или null,
+    // если на холсте уже актуальное изображение
+    Framebuffer renderOffscreen(Camera camera, List<Model> models, int width, int height) {
+        if (width <= 0 || height <= 0) {
+            return null;
+        }
+        final long start = clock.getAsLong();
+        final long sceneSignature = SceneSignature.of(camera, models, width, height);
+        if (!hasSignature || sceneSignature != signature) {
+            hasSignature = true;
+            signature = sceneSignature;
+            lastChange = start;
+        }
+
+        Framebuffer frame = null;
+        if (start - lastChange < settings.settleNanos) {
+            // Пока сцена не сдвинулась с прошлого кадра, перерисовывать нечего
+            if (drawn && sceneSignature == drawnSignature && !drawnNative) {
+                return null;
+            }
+            final int step = scaleStep(scale);
+            frame = draw(camera, models, width, height, step);
+            drawn = true;
+            drawnSignature = sceneSignature;
+            drawnNative = false;
+            scale = adjustScale(scale, SCALE_STEPS[step], clock.getAsLong() - start, settings);
+        } else if (!drawn || !drawnNative || sceneSignature != drawnSignature) {
+            frame = draw(camera, models, width, height, SCALE_STEPS.length - 1);
+            drawn = true;
+            drawnSignature = sceneSignature;
+            drawnNative = true;
+        }
+        return frame;
+    }
+
+    private Framebuffer draw(Camera camera, List<Model> models, int width, int height, int step) {
+        if (width != canvasWidth || height != canvasHeight) {
+            canvasWidth = width;
+            canvasHeight = height;
+            Arrays.fill(framebuffers, null);
+            image = null;
+        }
+        Framebuffer framebuffer = framebuffers[step];
+        if (framebuffer == null) {
+            framebuffer = new Framebuffer(scaledSize(width, SCALE_STEPS[step]), scaledSize(height, SCALE_STEPS[step]));
+            framebuffers[step] = framebuffer;
+        }
+        cullingStats = renderer.render(models, camera, framebuffer);
+        return framebuffer;
+    }
+
+    private void present(GraphicsContext graphicsContext, Framebuffer frame, int width, int height) {
+        if (image == null) {
+            image = new WritableImage(width, height);
+        }
+        final int frameWidth = frame.getWidth();
+        final int frameHeight = frame.getHeight();
+        image.getPixelWriter().setPixels(0, 0, frameWidth, frameHeight, PixelFormat.getIntArgbInstance(),
+            frame.getPixels(), 0, frameWidth);
+        graphicsContext.setImageSmoothing(frameWidth < width || frameHeight < height);
+        graphicsContext.drawImage(image, 0, 0, frameWidth, frameHeight, 0, 0, width, height);
+    }
+
+    // Время заливки пропорционально числу пикселей, то есть квадрату масштаба, на котором кадр
+    // построен (renderedScale - ступень, не сам scale); шаг сглажен вдвое, чтобы одиночный медленный
+    // кадр не обрушивал разрешение
+    static float adjustScale(float scale, float renderedScale, long frameNanos, Settings settings) {
+        float ideal = renderedScale * (float) Math.sqrt((double) settings.targetFrameNanos / Math.max(1L, frameNanos));
+        float next = scale + (ideal - scale) * 0.5f;
+        return Math.max(settings.minScale, Math.min(settings.maxScale, next));
+    }
+
+    // Наибольшая ступень, не превышающая масштаб, чтобы кадр укладывался в бюджет времени
+    static int scaleStep(float scale) {
+        int step = 0;
+        while (step + 1 < SCALE_STEPS.length && SCALE_STEPS[step + 1] <= scale) {
+            step++;
+        }
+        return step;
+    }
+
+    static int scaledSize(int size, float scale) {
+        return Math.max(1, Math.round(size * scale));
+    }
+}
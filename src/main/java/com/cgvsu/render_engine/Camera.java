@@ -1,6 +1,7 @@
 package com.cgvsu.render_engine;
-import javax.vecmath.Vector3f;
-import javax.vecmath.Matrix4f;
+
+import com.cgvsu.math.Matrix4f;
+import com.cgvsu.math.Vector3f;
 
 public class Camera {
 
@@ -19,6 +20,29 @@ public class Camera {
         this.farPlane = farPlane;
     }
 
+    // Камера, которая смотрит на сферу (center, radius) со стороны direction и целиком помещает
+    // ее в кадр. Экранные координаты строятся по vertexToPoint, где видимая часть нормализованных
+    // координат - от -0.5 до 0.5
+    public static Camera framing(
+            final Vector3f center,
+            final float radius,
+            final Vector3f direction,
+            final float fov,
+            final float aspectRatio) {
+        float safeRadius = Math.max(radius, 1e-3f);
+        double visibleTangent = 0.5 * Math.tan(fov * 0.5) * Math.min(1.0f, aspectRatio);
+        float distance = (float) (safeRadius / Math.sin(Math.atan(visibleTangent)));
+
+        Vector3f offset = new Vector3f().set(direction).normalize();
+        Vector3f position = new Vector3f(
+            center.x + offset.x * distance,
+            center.y + offset.y * distance,
+            center.z + offset.z * distance);
+        float nearPlane = Math.max(distance - safeRadius * 1.5f, distance * 1e-3f);
+        float farPlane = distance + safeRadius * 1.5f;
+        return new Camera(position, new Vector3f().set(center), fov, aspectRatio, nearPlane, farPlane);
+    }
+
     public void setPosition(final Vector3f position) {
         this.position = position;
     }
@@ -39,20 +63,32 @@ public class Camera {
         return target;
     }
 
+    public float getFov() {
+        return fov;
+    }
+
     public void movePosition(final Vector3f translation) {
         this.position.add(translation);
     }
 
     public void moveTarget(final Vector3f translation) {
-        this.target.add(target);
+        this.target.add(translation);
     }
 
     Matrix4f getViewMatrix() {
-        return GraphicConveyor.lookAt(position, target);
+        return getViewMatrix(new Matrix4f());
+    }
+
+    Matrix4f getViewMatrix(Matrix4f dest) {
+        return GraphicConveyor.lookAt(position, target, dest);
     }
 
     Matrix4f getProjectionMatrix() {
-        return GraphicConveyor.perspective(fov, aspectRatio, nearPlane, farPlane);
+        return getProjectionMatrix(new Matrix4f());
+    }
+
+    Matrix4f getProjectionMatrix(Matrix4f dest) {
+        return GraphicConveyor.perspective(fov, aspectRatio, nearPlane, farPlane, dest);
     }
 
     private Vector3f position;
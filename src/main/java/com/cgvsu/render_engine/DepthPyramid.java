@@ -0,0 +1,100 @@
+package com.cgvsu.render_engine;
+
+// Пирамида глубины кадра: уровень 0 - буфер глубины Framebuffer, каждый следующий хранит минимум
+// и максимум блока 2x2 предыдущего. Прямоугольник экрана закрыт, если объект в нем дальше самого
+// дальнего записанного пикселя; проверка идет на уровне, где прямоугольник занимает не больше
+// TEST_TEXELS текселей по стороне.
+class DepthPyramid {
+
+    static final int TEST_TEXELS = 4;
+
+    private final int[] widths;
+    private final int[] heights;
+    private final float[][] minDepth;
+    private final float[][] maxDepth;
+
+    DepthPyramid(Framebuffer framebuffer) {
+        int levels = 1;
+        for (int size = Math.max(framebuffer.getWidth(), framebuffer.getHeight()); size > 1; size = (size + 1) / 2) {
+            levels++;
+        }
+        widths = new int[levels];
+        heights = new int[levels];
+        minDepth = new float[levels][];
+        maxDepth = new float[levels][];
+
+        widths[0] = framebuffer.getWidth();
+        heights[0] = framebuffer.getHeight();
+        minDepth[0] = framebuffer.getDepths();
+        maxDepth[0] = framebuffer.getDepths();
+        for (int level = 1; level < levels; level++) {
+            int sourceWidth = widths[level - 1];
+            int sourceHeight = heights[level - 1];
+            int width = (sourceWidth + 1) / 2;
+            int height = (sourceHeight + 1) / 2;
+            float[] sourceMin = minDepth[level - 1];
+            float[] sourceMax = maxDepth[level - 1];
+            float[] levelMin = new float[width * height];
+            float[] levelMax = new float[width * height];
+            for (int y = 0; y < height; y++) {
+                int y0 = y * 2;
+                int y1 = Math.min(y0 + 1, sourceHeight - 1);
+                for (int x = 0; x < width; x++) {
+                    int x0 = x * 2;
+                    int x1 = Math.min(x0 + 1, sourceWidth - 1);
+                    int a = y0 * sourceWidth + x0, b = y0 * sourceWidth + x1;
+                    int c = y1 * sourceWidth + x0, d = y1 * sourceWidth + x1;
+                    levelMin[y * width + x] = Math.min(Math.min(sourceMin[a], sourceMin[b]), Math.min(sourceMin[c], sourceMin[d]));
+                    levelMax[y * width + x] = Math.max(Math.max(sourceMax[a], sourceMax[b]), Math.max(sourceMax[c], sourceMax[d]));
+                }
+            }
+            widths[level] = width;
+            heights[level] = height;
+            minDepth[level] = levelMin;
+            maxDepth[level] = levelMax;
+        }
+    }
+
+    int getLevelCount() {
+        return widths.length;
+    }
+
+    // true, если все пиксели прямоугольника [x0, x1] x [y0, y1] ближе depth
+    boolean isOccluded(int x0, int y0, int x1, int y1, float depth) {
+        int level = 0;
+        while (level + 1 < widths.length
+            && ((x1 >> level) - (x0 >> level) >= TEST_TEXELS || (y1 >> level) - (y0 >> level) >= TEST_TEXELS)) {
+            level++;
+        }
+
+        // Объект ближе всего, что уже есть в прямоугольнике, виден без подробной проверки
+        if (depth <= rangeMin(level, x0, y0, x1, y1)) {
+            return false;
+        }
+        return depth > rangeMax(level, x0, y0, x1, y1);
+    }
+
+    private float rangeMin(int level, int x0, int y0, int x1, int y1) {
+        float[] depths = minDepth[level];
+        int width = widths[level];
+        float result = Float.POSITIVE_INFINITY;
+        for (int y = y0 >> level; y <= y1 >> level; y++) {
+            for (int x = x0 >> level; x <= x1 >> level; x++) {
+                result = Math.min(result, depths[y * width + x]);
+            }
+        }
+        return result;
+    }
+
+    private float rangeMax(int level, int x0, int y0, int x1, int y1) {
+        float[] depths = maxDepth[level];
+        int width = widths[level];
+        float result = Float.NEGATIVE_INFINITY;
+        for (int y = y0 >> level; y <= y1 >> level; y++) {
+            for (int x = x0 >> level; x <= x1 >> level; x++) {
+                result = Math.max(result, depths[y * width + x]);
+            }
+        }
+        return result;
+    }
+}
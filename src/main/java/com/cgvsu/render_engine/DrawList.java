@@ -0,0 +1,105 @@
+package com.cgvsu.render_engine;
+
+import com.cgvsu.mesh.HalfEdgeMesh;
+import com.cgvsu.mesh.Triangulation;
+import com.cgvsu.model.DerivedKey;
+import com.cgvsu.model.Model;
+
+import java.util.Arrays;
+
+// Готовый к повтору список примитивов модели: индексы вершин PackedMesh парами (отрезки) или
+// тройками (треугольники). Списки хранятся в модели как производные данные, поэтому строятся один
+// раз на версию геометрии и общие для всех SceneModel; кадр только проецирует вершины и проходит
+// по списку. Общее ребро соседних полигонов попадает в список отрезков один раз.
+public class DrawList {
+
+    public static final DerivedKey<DrawList> EDGES = new DerivedKey<>("draw-list-edges", DrawList::compileEdges);
+
+    public static final DerivedKey<DrawList> TRIANGLES =
+        new DerivedKey<>("draw-list-triangles", DrawList::compileTriangles);
+
+    public enum Primitive {
+        LINES(2),
+        TRIANGLES(3);
+
+        private final int vertexCount;
+
+        Primitive(int vertexCount) {
+            this.vertexCount = vertexCount;
+        }
+
+        public int getVertexCount() {
+            return vertexCount;
+        }
+    }
+
+    private final Primitive primitive;
+    private final int[] indices;
+
+    private DrawList(Primitive primitive, int[] indices) {
+        this.primitive = primitive;
+        this.indices = indices;
+    }
+
+    public static DrawList compileEdges(Model model) {
+        HalfEdgeMesh mesh = model.getDerived(HalfEdgeMesh.DERIVED);
+        int[] edges = new int[mesh.getHalfEdgeCount() * 2];
+        int count = 0;
+        // Полуребра без пары (граница, неманифолдные ребра, соседи с разным обходом) могут описывать
+        // одно и то же ребро несколько раз: они собираются ключами (min, max) и выводятся по одному
+        long[] unpaired = new long[mesh.getHalfEdgeCount()];
+        int unpairedCount = 0;
+        for (int h = 0; h < mesh.getHalfEdgeCount(); h++) {
+            int twin = mesh.getTwin(h);
+            int origin = mesh.getOrigin(h);
+            int target = mesh.getTarget(h);
+            if (origin == target) {
+                continue;
+            }
+            if (twin == HalfEdgeMesh.NONE) {
+                unpaired[unpairedCount++] = ((long) Math.min(origin, target) << 32) | Math.max(origin, target);
+            } else if (h < twin) {
+                edges[count++] = origin;
+                edges[count++] = target;
+            }
+        }
+        // Ребро с парой не может совпасть с ребром без пары: у неманифолдного ребра пары нет ни у одного
+        // из его полуребер
+        Arrays.sort(unpaired, 0, unpairedCount);
+        for (int i = 0; i < unpairedCount; i++) {
+            if (i == 0 || unpaired[i] != unpaired[i - 1]) {
+                edges[count++] = (int) (unpaired[i] >>> 32);
+                edges[count++] = (int) unpaired[i];
+            }
+        }
+        return new DrawList(Primitive.LINES, Arrays.copyOf(edges, count));
+    }
+
+    public static DrawList compileTriangles(Model model) {
+        Triangulation triangulation = model.getDerived(Triangulation.DERIVED);
+        int[] triangles = new int[triangulation.getTriangleCount() * 3];
+        triangulation.getIndices().get(triangles);
+        return new DrawList(Primitive.TRIANGLES, triangles);
+    }
+
+    public Primitive getPrimitive() {
+        return primitive;
+    }
+
+    public int getPrimitiveCount() {
+        return indices.length / primitive.getVertexCount();
+    }
+
+    public int getIndexCount() {
+        return indices.length;
+    }
+
+    // Вершина k (0..1 или 0..2) примитива i
+    public int getIndex(int primitiveIndex, int k) {
+        return indices[primitiveIndex * primitive.getVertexCount() + k];
+    }
+
+    public int getIndex(int index) {
+        return indices[index];
+    }
+}
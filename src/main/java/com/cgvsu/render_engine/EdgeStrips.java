@@ -0,0 +1,128 @@
+package com.cgvsu.render_engine;
+
+import com.cgvsu.model.DerivedKey;
+import com.cgvsu.model.Model;
+
+import java.util.Arrays;
+
+// Ребра модели, сцепленные в ломаные: соседние ребра ломаной имеют общую вершину, поэтому ее
+// можно вывести одной командой moveTo и цепочкой lineTo. Цепочки строятся жадно по списку ребер
+// DrawList.EDGES, начиная с вершин нечетной степени (в них ломаные обязаны начинаться или
+// заканчиваться), так что на связной сетке получается немного длинных ломаных.
+public class EdgeStrips {
+
+    public static final DerivedKey<EdgeStrips> DERIVED =
+        new DerivedKey<>("edge-strips", model -> build(model.getDerived(DrawList.EDGES)));
+
+    private final int[] stripStarts;
+    private final int[] indices;
+
+    private EdgeStrips(int[] stripStarts, int[] indices) {
+        this.stripStarts = stripStarts;
+        this.indices = indices;
+    }
+
+    public static EdgeStrips of(Model model) {
+        return model.getDerived(DERIVED);
+    }
+
+    public static EdgeStrips build(DrawList edges) {
+        int edgeCount = edges.getPrimitiveCount();
+        int vertexCount = 0;
+        for (int i = 0; i < edges.getIndexCount(); i++) {
+            vertexCount = Math.max(vertexCount, edges.getIndex(i) + 1);
+        }
+
+        // Таблица "вершина - инцидентные ребра" подсчетом
+        int[] starts = new int[vertexCount + 1];
+        for (int i = 0; i < edges.getIndexCount(); i++) {
+            starts[edges.getIndex(i) + 1]++;
+        }
+        for (int v = 0; v < vertexCount; v++) {
+            starts[v + 1] += starts[v];
+        }
+        int[] incident = new int[edges.getIndexCount()];
+        int[] fill = new int[vertexCount];
+        for (int e = 0; e < edgeCount; e++) {
+            int a = edges.getIndex(e, 0);
+            int b = edges.getIndex(e, 1);
+            incident[starts[a] + fill[a]++] = e;
+            incident[starts[b] + fill[b]++] = e;
+        }
+
+        // fill переиспользуется как число еще не пройденных ребер вершины, cursor - позиция поиска
+        int[] remaining = fill;
+        int[] cursor = new int[vertexCount];
+        for (int v = 0; v < vertexCount; v++) {
+            cursor[v] = starts[v];
+        }
+        boolean[] used = new boolean[edgeCount];
+
+        int[] stripStarts = new int[edgeCount + 1];
+        int[] indices = new int[edgeCount * 2];
+        int stripCount = 0;
+        int indexCount = 0;
+        for (int pass = 0; pass < 2; pass++) {
+            for (int v = 0; v < vertexCount; v++) {
+                // Первый проход - только вершины нечетной степени
+                while (remaining[v] > 0 && (pass == 1 || remaining[v] % 2 == 1)) {
+                    stripStarts[stripCount++] = indexCount;
+                    indices[indexCount++] = v;
+                    int current = v;
+                    int edge;
+                    while ((edge = nextUnused(current, starts, cursor, incident, used)) >= 0) {
+                        used[edge] = true;
+                        int a = edges.getIndex(edge, 0);
+                        int next = a == current ? edges.getIndex(edge, 1) : a;
+                        remaining[current]--;
+                        remaining[next]--;
+                        indices[indexCount++] = next;
+                        current = next;
+                    }
+                }
+            }
+        }
+        stripStarts[stripCount] = indexCount;
+
+        return new EdgeStrips(Arrays.copyOf(stripStarts, stripCount + 1),
+            Arrays.copyOf(indices, indexCount));
+    }
+
+    private static int nextUnused(int vertex, int[] starts, int[] cursor, int[] incident, boolean[] used) {
+        while (cursor[vertex] < starts[vertex + 1]) {
+            int edge = incident[cursor[vertex]];
+            if (!used[edge]) {
+                return edge;
+            }
+            cursor[vertex]++;
+        }
+        return -1;
+    }
+
+    public int getStripCount() {
+        return stripStarts.length - 1;
+    }
+
+    public int getStripStart(int strip) {
+        return stripStarts[strip];
+    }
+
+    // Ломаная, которой принадлежит позиция index массива индексов
+    public int findStrip(int index) {
+        int found = Arrays.binarySearch(stripStarts, 0, stripStarts.length - 1, index);
+        return found >= 0 ? found : Math.max(0, -found - 2);
+    }
+
+    // Число вершин ломаной (ребер на одно меньше)
+    public int getStripLength(int strip) {
+        return stripStarts[strip + 1] - stripStarts[strip];
+    }
+
+    public int getIndexCount() {
+        return indices.length;
+    }
+
+    public int getIndex(int index) {
+        return indices[index];
+    }
+}
@@ -0,0 +1,123 @@
+package com.cgvsu.render_engine;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+// Кадр в памяти: цвета ARGB построчно сверху вниз и буфер глубины (меньше - ближе)
+public class Framebuffer {
+
+    private final int width;
+    private final int height;
+    private final int[] pixels;
+    private final float[] depth;
+
+    public Framebuffer(int width, int height) {
+        if (width <= 0 || height <= 0) {
+            throw new IllegalArgumentException("Некорректный размер кадра: " + width + "x" + height);
+        }
+        this.width = width;
+        this.height = height;
+        this.pixels = new int[width * height];
+        this.depth = new float[width * height];
+    }
+
+    public int getWidth() {
+        return width;
+    }
+
+    public int getHeight() {
+        return height;
+    }
+
+    public void clear(int argb) {
+        Arrays.fill(pixels, argb);
+        Arrays.fill(depth, Float.POSITIVE_INFINITY);
+    }
+
+    public int getPixel(int x, int y) {
+        return pixels[y * width + x];
+    }
+
+    public void setPixel(int x, int y, int argb) {
+        if (x >= 0 && y >= 0 && x < width && y < height) {
+            pixels[y * width + x] = argb;
+        }
+    }
+
+    // Записывает пиксель, если он ближе уже записанного
+    public boolean testAndSet(int x, int y, float z, int argb) {
+        int index = y * width + x;
+        if (z >= depth[index]) {
+            return false;
+        }
+        depth[index] = z;
+        pixels[index] = argb;
+        return true;
+    }
+
+    // Отрезок по Брезенхэму без проверки глубины; части за пределами кадра отбрасываются
+    public void drawLine(float x0, float y0, float x1, float y1, int argb) {
+        if (!Float.isFinite(x0) || !Float.isFinite(y0) || !Float.isFinite(x1) || !Float.isFinite(y1)) {
+            return;
+        }
+        int ax = Math.round(x0), ay = Math.round(y0);
+        int bx = Math.round(x1), by = Math.round(y1);
+        if ((ax < 0 && bx < 0) || (ay < 0 && by < 0) || (ax >= width && bx >= width) || (ay >= height && by >= height)) {
+            return;
+        }
+
+        int dx = Math.abs(bx - ax), sx = ax < bx ? 1 : -1;
+        int dy = -Math.abs(by - ay), sy = ay < by ? 1 : -1;
+        int error = dx + dy;
+        // Длинные отрезки, уходящие далеко за кадр, ограничены числом шагов
+        int steps = Math.min(Math.max(dx, -dy), 4 * (width + height));
+        for (int i = 0; i <= steps; i++) {
+            setPixel(ax, ay, argb);
+            if (ax == bx && ay == by) {
+                break;
+            }
+            int doubled = 2 * error;
+            if (doubled >= dy) {
+                error += dy;
+                ax += sx;
+            }
+            if (doubled <= dx) {
+                error += dx;
+                ay += sy;
+            }
+        }
+    }
+
+    // Пиксели без копирования, построчно по width значений
+    public int[] getPixels() {
+        return pixels;
+    }
+
+    // Глубина без копирования, в том же порядке, что и пиксели
+    public float[] getDepths() {
+        return depth;
+    }
+
+    public BufferedImage toImage() {
+        BufferedImage image = new BufferedImage(width, height, BufferedImage.TYPE_INT_ARGB);
+        image.setRGB(0, 0, width, height, pixels, 0, width);
+        return image;
+    }
+
+    public void writePng(OutputStream out) throws IOException {
+        if (!ImageIO.write(toImage(), "png", out)) {
+            throw new IOException("Кодировщик PNG недоступен");
+        }
+    }
+
+    public void writePng(Path path) throws IOException {
+        try (OutputStream out = Files.newOutputStream(path)) {
+            writePng(out);
+        }
+    }
+}
@@ -1,40 +1,76 @@
 package com.cgvsu.render_engine;
-import javax.vecmath.*;
 
+import com.cgvsu.math.Matrix4f;
+import com.cgvsu.math.Vector2f;
+import com.cgvsu.math.Vector3f;
+
+// Функции с приемником dest ничего не выделяют и используются при отрисовке;
+// варианты без него создают новый объект и оставлены для остального кода
 public class GraphicConveyor {
 
     public static Matrix4f rotateScaleTranslate() {
-        float[] matrix = new float[]{
-                1, 0, 0, 0,
-                0, 1, 0, 0,
-                0, 0, 1, 0,
-                0, 0, 0, 1};
-        return new Matrix4f(matrix);
+        return rotateScaleTranslate(new Matrix4f());
+    }
+
+    public static Matrix4f rotateScaleTranslate(Matrix4f dest) {
+        return dest.setIdentity();
     }
 
     public static Matrix4f lookAt(Vector3f eye, Vector3f target) {
-        return lookAt(eye, target, new Vector3f(0F, 1.0F, 0F));
+        return lookAt(eye, target, new Matrix4f());
+    }
+
+    public static Matrix4f lookAt(Vector3f eye, Vector3f target, Matrix4f dest) {
+        return lookAt(eye, target, 0F, 1.0F, 0F, dest);
     }
 
     public static Matrix4f lookAt(Vector3f eye, Vector3f target, Vector3f up) {
-        Vector3f resultX = new Vector3f();
-        Vector3f resultY = new Vector3f();
-        Vector3f resultZ = new Vector3f();
-
-        resultZ.sub(target, eye);
-        resultX.cross(up, resultZ);
-        resultY.cross(resultZ, resultX);
-
-        resultX.normalize();
-        resultY.normalize();
-        resultZ.normalize();
-
-        float[] matrix = new float[]{
-                resultX.x, resultY.x, resultZ.x, 0,
-                resultX.y, resultY.y, resultZ.y, 0,
-                resultX.z, resultY.z, resultZ.z, 0,
-                -resultX.dot(eye), -resultY.dot(eye), -resultZ.dot(eye), 1};
-        return new Matrix4f(matrix);
+        return lookAt(eye, target, up.x, up.y, up.z, new Matrix4f());
+    }
+
+    public static Matrix4f lookAt(Vector3f eye, Vector3f target, float upX, float upY, float upZ, Matrix4f dest) {
+        float zx = target.x - eye.x;
+        float zy = target.y - eye.y;
+        float zz = target.z - eye.z;
+
+        float xx = upY * zz - upZ * zy;
+        float xy = upZ * zx - upX * zz;
+        float xz = upX * zy - upY * zx;
+
+        float yx = zy * xz - zz * xy;
+        float yy = zz * xx - zx * xz;
+        float yz = zx * xy - zy * xx;
+
+        float lengthX = (float) Math.sqrt(xx * xx + xy * xy + xz * xz);
+        float lengthY = (float) Math.sqrt(yx * yx + yy * yy + yz * yz);
+        float lengthZ = (float) Math.sqrt(zx * zx + zy * zy + zz * zz);
+        xx /= lengthX;
+        xy /= lengthX;
+        xz /= lengthX;
+        yx /= lengthY;
+        yy /= lengthY;
+        yz /= lengthY;
+        zx /= lengthZ;
+        zy /= lengthZ;
+        zz /= lengthZ;
+
+        dest.m00 = xx;
+        dest.m01 = yx;
+        dest.m02 = zx;
+        dest.m03 = 0;
+        dest.m10 = xy;
+        dest.m11 = yy;
+        dest.m12 = zy;
+        dest.m13 = 0;
+        dest.m20 = xz;
+        dest.m21 = yz;
+        dest.m22 = zz;
+        dest.m23 = 0;
+        dest.m30 = -(xx * eye.x + xy * eye.y + xz * eye.z);
+        dest.m31 = -(yx * eye.x + yy * eye.y + yz * eye.z);
+        dest.m32 = -(zx * eye.x + zy * eye.y + zz * eye.z);
+        dest.m33 = 1;
+        return dest;
     }
 
     public static Matrix4f perspective(
@@ -42,25 +78,56 @@ public class GraphicConveyor {
             final float aspectRatio,
             final float nearPlane,
             final float farPlane) {
-        Matrix4f result = new Matrix4f();
+        return perspective(fov, aspectRatio, nearPlane, farPlane, new Matrix4f());
+    }
+
+    public static Matrix4f perspective(
+            final float fov,
+            final float aspectRatio,
+            final float nearPlane,
+            final float farPlane,
+            final Matrix4f dest) {
         float tangentMinusOnDegree = (float) (1.0F / (Math.tan(fov * 0.5F)));
-        result.m00 = tangentMinusOnDegree / aspectRatio;
-        result.m11 = tangentMinusOnDegree;
-        result.m22 = (farPlane + nearPlane) / (farPlane - nearPlane);
-        result.m23 = 1.0F;
-        result.m32 = 2 * (nearPlane * farPlane) / (nearPlane - farPlane);
-        return result;
+        dest.setZero();
+        dest.m00 = tangentMinusOnDegree / aspectRatio;
+        dest.m11 = tangentMinusOnDegree;
+        dest.m22 = (farPlane + nearPlane) / (farPlane - nearPlane);
+        dest.m23 = 1.0F;
+        dest.m32 = 2 * (nearPlane * farPlane) / (nearPlane - farPlane);
+        return dest;
     }
 
     public static Vector3f multiplyMatrix4ByVector3(final Matrix4f matrix, final Vector3f vertex) {
-        final float x = (vertex.x * matrix.m00) + (vertex.y * matrix.m10) + (vertex.z * matrix.m20) + matrix.m30;
-        final float y = (vertex.x * matrix.m01) + (vertex.y * matrix.m11) + (vertex.z * matrix.m21) + matrix.m31;
-        final float z = (vertex.x * matrix.m02) + (vertex.y * matrix.m12) + (vertex.z * matrix.m22) + matrix.m32;
-        final float w = (vertex.x * matrix.m03) + (vertex.y * matrix.m13) + (vertex.z * matrix.m23) + matrix.m33;
-        return new Vector3f(x / w, y / w, z / w);
+        return matrix.transformPoint(vertex, new Vector3f());
+    }
+
+    public static Vector3f multiplyMatrix4ByVector3(final Matrix4f matrix, final Vector3f vertex, final Vector3f dest) {
+        return matrix.transformPoint(vertex, dest);
+    }
+
+    public static Vector2f vertexToPoint(final Vector3f vertex, final int width, final int height) {
+        return vertexToPoint(vertex, width, height, new Vector2f());
+    }
+
+    public static Vector2f vertexToPoint(final Vector3f vertex, final int width, final int height, final Vector2f dest) {
+        return dest.set(vertex.x * width + width / 2.0F, -vertex.y * height + height / 2.0F);
+    }
+
+    // Пакетный перевод count точек из нормализованных координат (x, y, z подряд) в экранные:
+    // в dst записываются пары (x, y)
+    public static void verticesToPoints(final float[] src, final float[] dst, final int count,
+                                        final int width, final int height) {
+        verticesToPoints(src, dst, 0, count, width, height);
     }
 
-    public static Point2f vertexToPoint(final Vector3f vertex, final int width, final int height) {
-        return new Point2f(vertex.x * width + width / 2.0F, -vertex.y * height + height / 2.0F);
+    // То же для точек с from по to - 1
+    public static void verticesToPoints(final float[] src, final float[] dst, final int from, final int to,
+                                        final int width, final int height) {
+        final float halfWidth = width / 2.0F;
+        final float halfHeight = height / 2.0F;
+        for (int i = from; i < to; i++) {
+            dst[i * 2] = src[i * 3] * width + halfWidth;
+            dst[i * 2 + 1] = -src[i * 3 + 1] * height + halfHeight;
+        }
     }
 }
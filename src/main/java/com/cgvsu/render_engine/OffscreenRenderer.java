@@ -0,0 +1,322 @@
+package com.cgvsu.render_engine;
+
+import com.cgvsu.math.Matrix4f;
+import com.cgvsu.math.Vector3f;
+import com.cgvsu.math.VertexTransform;
+import com.cgvsu.model.DerivedKey;
+import com.cgvsu.model.Model;
+import com.cgvsu.model.PackedMesh;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+// Отрисовка без JavaFX в Framebuffer: те же матрицы и проекция вершин, что у RenderEngine, но
+// треугольники заливаются с буфером глубины и освещением от камеры, а каркас рисуется поверх.
+// Экземпляр не хранит состояния между вызовами, поэтому его можно использовать из разных потоков.
+public class OffscreenRenderer {
+
+    public static class Settings {
+        public int backgroundColor = 0xFFFFFFFF;
+
+        public boolean shaded = true;
+
+        public int surfaceColor = 0xFFB4BECD;
+
+        // Доля освещенности грани, повернутой к камере ребром
+        public float ambient = 0.25f;
+
+        public boolean wireframe = false;
+
+        public int wireframeColor = 0xFF303030;
+
+        // Отсечение моделей вне кадра и закрытых крупными моделями (только при заливке)
+        public boolean occlusionCulling = true;
+
+        // Доля площади кадра, начиная с которой модель рисуется первой как заслоняющая
+        public float occluderCoverage = 0.05f;
+    }
+
+    // Статистика отсечения за вызов render со списком моделей
+    public static class CullingStats {
+        private final int drawn;
+        private final int frustumCulled;
+        private final int tested;
+        private final int occluded;
+
+        public CullingStats(int drawn, int frustumCulled, int tested, int occluded) {
+            this.drawn = drawn;
+            this.frustumCulled = frustumCulled;
+            this.tested = tested;
+            this.occluded = occluded;
+        }
+
+        public int getDrawn() {
+            return drawn;
+        }
+
+        public int getFrustumCulled() {
+            return frustumCulled;
+        }
+
+        public int getTested() {
+            return tested;
+        }
+
+        public int getOccluded() {
+            return occluded;
+        }
+    }
+
+    // Габариты модели в ее координатах: {minX, minY, minZ, maxX, maxY, maxZ}
+    static final DerivedKey<float[]> BOUNDS = new DerivedKey<>("offscreen-bounds", model -> {
+        PackedMesh packed = model.getDerived(PackedMesh.DERIVED);
+        return VertexTransform.computeBounds(packed.getPositions(), 0, packed.getVertexCount());
+    });
+
+    private final Settings settings;
+
+    public OffscreenRenderer() {
+        this(new Settings());
+    }
+
+    public OffscreenRenderer(Settings settings) {
+        this.settings = settings;
+    }
+
+    public Framebuffer render(Model model, Camera camera, int width, int height) {
+        Framebuffer framebuffer = new Framebuffer(width, height);
+        render(model, camera, framebuffer);
+        return framebuffer;
+    }
+
+    public void render(Model model, Camera camera, Framebuffer framebuffer) {
+        render(List.of(model), camera, framebuffer);
+    }
+
+    // Несколько моделей в одном кадре с общим буфером глубины. При заливке модели вне кадра
+    // отбрасываются, крупные модели рисуются первыми, по их глубине строится DepthPyramid, и остальные
+    // модели рисуются, только если их экранный прямоугольник габаритов не закрыт целиком
+    public CullingStats render(List<Model> models, Camera camera, Framebuffer framebuffer) {
+        framebuffer.clear(settings.backgroundColor);
+        Matrix4f viewProjection = camera.getViewMatrix(new Matrix4f());
+        viewProjection.mul(camera.getProjectionMatrix(new Matrix4f()));
+
+        if (!settings.shaded || !settings.occlusionCulling) {
+            for (Model model : models) {
+                draw(model, camera, viewProjection, framebuffer);
+            }
+            return new CullingStats(models.size(), 0, 0, 0);
+        }
+
+        int width = framebuffer.getWidth();
+        int height = framebuffer.getHeight();
+        List<ScreenBounds> occluders = new ArrayList<>();
+        List<ScreenBounds> candidates = new ArrayList<>();
+        int frustumCulled = 0;
+        for (Model model : models) {
+            ScreenBounds bounds = ScreenBounds.project(model, viewProjection, width, height);
+            if (bounds.outside) {
+                frustumCulled++;
+            } else if (!bounds.testable || bounds.getArea() >= settings.occluderCoverage * width * height) {
+                occluders.add(bounds);
+            } else {
+                candidates.add(bounds);
+            }
+        }
+
+        // Спереди назад: ближние пиксели отсекают дальние уже в буфере глубины
+        Comparator<ScreenBounds> frontToBack = Comparator.comparingDouble(bounds -> bounds.nearDepth);
+        occluders.sort(frontToBack);
+        candidates.sort(frontToBack);
+        for (ScreenBounds occluder : occluders) {
+            draw(occluder.model, camera, viewProjection, framebuffer);
+        }
+        if (occluders.isEmpty()) {
+            for (ScreenBounds candidate : candidates) {
+                draw(candidate.model, camera, viewProjection, framebuffer);
+            }
+            return new CullingStats(candidates.size(), frustumCulled, 0, 0);
+        }
+
+        DepthPyramid pyramid = new DepthPyramid(framebuffer);
+        int occluded = 0;
+        for (ScreenBounds candidate : candidates) {
+            if (pyramid.isOccluded(candidate.x0, candidate.y0, candidate.x1, candidate.y1, candidate.nearDepth)) {
+                occluded++;
+            } else {
+                draw(candidate.model, camera, viewProjection, framebuffer);
+            }
+        }
+        return new CullingStats(occluders.size() + candidates.size() - occluded, frustumCulled,
+            candidates.size(), occluded);
+    }
+
+    private void draw(Model model, Camera camera, Matrix4f viewProjection, Framebuffer framebuffer) {
+        int width = framebuffer.getWidth();
+        int height = framebuffer.getHeight();
+
+        PackedMesh packed = model.getDerived(PackedMesh.DERIVED);
+        int vertexCount = packed.getVertexCount();
+        float[] transformed = new float[vertexCount * 3];
+        float[] screenPoints = new float[vertexCount * 2];
+        RenderEngine.projectVertices(viewProjection, packed.getPositions(), transformed, screenPoints,
+            vertexCount, width, height);
+
+        if (settings.shaded) {
+            Vector3f forward = new Vector3f().sub(camera.getTarget(), camera.getPosition()).normalize();
+            DrawList triangles = model.getDerived(DrawList.TRIANGLES);
+            for (int t = 0; t < triangles.getPrimitiveCount(); t++) {
+                fillTriangle(framebuffer, packed, transformed, screenPoints, forward,
+                    triangles.getIndex(t, 0), triangles.getIndex(t, 1), triangles.getIndex(t, 2));
+            }
+        }
+
+        if (settings.wireframe) {
+            DrawList edges = model.getDerived(DrawList.EDGES);
+            for (int e = 0; e < edges.getPrimitiveCount(); e++) {
+                int a = edges.getIndex(e, 0);
+                int b = edges.getIndex(e, 1);
+                if (inDepthRange(transformed, a) && inDepthRange(transformed, b)) {
+                    framebuffer.drawLine(screenPoints[a * 2], screenPoints[a * 2 + 1],
+                        screenPoints[b * 2], screenPoints[b * 2 + 1], settings.wireframeColor);
+                }
+            }
+        }
+    }
+
+    private void fillTriangle(Framebuffer framebuffer, PackedMesh packed, float[] transformed, float[] screenPoints,
+                              Vector3f forward, int a, int b, int c) {
+        // Треугольники, задевающие ближнюю или дальнюю плоскость, отбрасываются целиком
+        if (!inDepthRange(transformed, a) || !inDepthRange(transformed, b) || !inDepthRange(transformed, c)) {
+            return;
+        }
+
+        float ax = screenPoints[a * 2], ay = screenPoints[a * 2 + 1], az = transformed[a * 3 + 2];
+        float bx = screenPoints[b * 2], by = screenPoints[b * 2 + 1], bz = transformed[b * 3 + 2];
+        float cx = screenPoints[c * 2], cy = screenPoints[c * 2 + 1], cz = transformed[c * 3 + 2];
+        float area = (bx - ax) * (cy - ay) - (by - ay) * (cx - ax);
+        if (area == 0 || Float.isNaN(area)) {
+            return;
+        }
+
+        // Треугольник меньше пикселя может не накрыть ни одного центра пикселя: вместо заливки
+        // он записывается одной точкой в центре тяжести, занятый более близкой гранью пиксель не меняется
+        if (Math.max(ax, Math.max(bx, cx)) - Math.min(ax, Math.min(bx, cx)) < SubPixelFilter.MAX_EXTENT
+            && Math.max(ay, Math.max(by, cy)) - Math.min(ay, Math.min(by, cy)) < SubPixelFilter.MAX_EXTENT) {
+            float px = (ax + bx + cx) / 3, py = (ay + by + cy) / 3;
+            if (px >= 0 && py >= 0 && px < framebuffer.getWidth() && py < framebuffer.getHeight()) {
+                framebuffer.testAndSet((int) px, (int) py, (az + bz + cz) / 3, shade(packed, forward, a, b, c));
+            }
+            return;
+        }
+
+        int minX = Math.max(0, (int) Math.floor(Math.min(ax, Math.min(bx, cx))));
+        int maxX = Math.min(framebuffer.getWidth() - 1, (int) Math.ceil(Math.max(ax, Math.max(bx, cx))));
+        int minY = Math.max(0, (int) Math.floor(Math.min(ay, Math.min(by, cy))));
+        int maxY = Math.min(framebuffer.getHeight() - 1, (int) Math.ceil(Math.max(ay, Math.max(by, cy))));
+        if (minX > maxX || minY > maxY) {
+            return;
+        }
+
+        int color = shade(packed, forward, a, b, c);
+        float inverseArea = 1.0f / area;
+        for (int y = minY; y <= maxY; y++) {
+            float py = y + 0.5f;
+            for (int x = minX; x <= maxX; x++) {
+                float px = x + 0.5f;
+                // Барицентрические веса по знаковым площадям; знак area учитывает обход
+                float wa = ((bx - px) * (cy - py) - (by - py) * (cx - px)) * inverseArea;
+                float wb = ((cx - px) * (ay - py) - (cy - py) * (ax - px)) * inverseArea;
+                float wc = 1 - wa - wb;
+                if (wa < 0 || wb < 0 || wc < 0) {
+                    continue;
+                }
+                framebuffer.testAndSet(x, y, wa * az + wb * bz + wc * cz, color);
+            }
+        }
+    }
+
+    // Освещение от камеры: грани, обращенные к ней, светлее; обход граней не важен
+    private int shade(PackedMesh packed, Vector3f forward, int a, int b, int c) {
+        float ux = packed.getX(b) - packed.getX(a), uy = packed.getY(b) - packed.getY(a), uz = packed.getZ(b) - packed.getZ(a);
+        float vx = packed.getX(c) - packed.getX(a), vy = packed.getY(c) - packed.getY(a), vz = packed.getZ(c) - packed.getZ(a);
+        float nx = uy * vz - uz * vy;
+        float ny = uz * vx - ux * vz;
+        float nz = ux * vy - uy * vx;
+        float length = (float) Math.sqrt(nx * nx + ny * ny + nz * nz);
+        float facing = length > 0 ? Math.abs(nx * forward.x + ny * forward.y + nz * forward.z) / length : 0;
+        float intensity = settings.ambient + (1 - settings.ambient) * facing;
+
+        int color = settings.surfaceColor;
+        int r = Math.round(((color >> 16) & 0xFF) * intensity);
+        int g = Math.round(((color >> 8) & 0xFF) * intensity);
+        int bl = Math.round((color & 0xFF) * intensity);
+        return (color & 0xFF000000) | (r << 16) | (g << 8) | bl;
+    }
+
+    private static boolean inDepthRange(float[] transformed, int vertex) {
+        float z = transformed[vertex * 3 + 2];
+        return z >= -1 && z <= 1;
+    }
+
+    // Экранный прямоугольник габаритов модели (пиксели x0..x1, y0..y1 в пределах кадра) и ближайшая
+    // глубина его углов. Габариты, пересекающие ближнюю плоскость или плоскость камеры, проверить
+    // нельзя: такая модель всегда рисуется
+    private static final class ScreenBounds {
+        final Model model;
+        boolean testable = true;
+        boolean outside = false;
+        int x0, y0, x1, y1;
+        float nearDepth = -1;
+
+        private ScreenBounds(Model model) {
+            this.model = model;
+        }
+
+        int getArea() {
+            return (x1 - x0 + 1) * (y1 - y0 + 1);
+        }
+
+        static ScreenBounds project(Model model, Matrix4f m, int width, int height) {
+            ScreenBounds result = new ScreenBounds(model);
+            float[] box = model.getDerived(BOUNDS);
+            if (box[0] > box[3]) {
+                result.outside = true;
+                return result;
+            }
+
+            float minX = Float.POSITIVE_INFINITY, minY = Float.POSITIVE_INFINITY, minZ = Float.POSITIVE_INFINITY;
+            float maxX = Float.NEGATIVE_INFINITY, maxY = Float.NEGATIVE_INFINITY;
+            for (int corner = 0; corner < 8; corner++) {
+                float x = box[(corner & 1) == 0 ? 0 : 3];
+                float y = box[(corner & 2) == 0 ? 1 : 4];
+                float z = box[(corner & 4) == 0 ? 2 : 5];
+                float w = x * m.m03 + y * m.m13 + z * m.m23 + m.m33;
+                float depth = (x * m.m02 + y * m.m12 + z * m.m22 + m.m32) / w;
+                if (!(w > 0) || depth < -1) {
+                    result.testable = false;
+                    return result;
+                }
+                float screenX = (x * m.m00 + y * m.m10 + z * m.m20 + m.m30) / w * width + width / 2.0f;
+                float screenY = -(x * m.m01 + y * m.m11 + z * m.m21 + m.m31) / w * height + height / 2.0f;
+                minX = Math.min(minX, screenX);
+                maxX = Math.max(maxX, screenX);
+                minY = Math.min(minY, screenY);
+                maxY = Math.max(maxY, screenY);
+                minZ = Math.min(minZ, depth);
+            }
+
+            if (maxX < 0 || maxY < 0 || minX >= width || minY >= height || minZ > 1) {
+                result.outside = true;
+                return result;
+            }
+            result.x0 = Math.max(0, (int) Math.floor(minX));
+            result.y0 = Math.max(0, (int) Math.floor(minY));
+            result.x1 = Math.min(width - 1, (int) Math.floor(maxX));
+            result.y1 = Math.min(height - 1, (int) Math.floor(maxY));
+            result.nearDepth = minZ;
+            return result;
+        }
+    }
+}
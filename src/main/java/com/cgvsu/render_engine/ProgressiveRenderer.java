@@ -0,0 +1,138 @@
+package com.cgvsu.render_engine;
+
+import com.cgvsu.model.Model;
+import javafx.scene.canvas.GraphicsContext;
+
+import java.util.List;
+import java.util.function.LongSupplier;
+
+// Отрисовка сцены в бюджет времени кадра. Пока камера, размер холста или модели меняются, каждый кадр
+// заново выводит облегченные модели (уровни детализации) каркасом; если каркас не уложился в бюджет,
+// до конца движения выводится облако точек, а не успевшие модели в этом кадре пропускаются. Когда
+// сцена неподвижна settleNanos, полные модели дорисовываются по частям в следующих кадрах поверх
+// очищенного холста; после этого кадры ничего не рисуют, пока сцена снова не изменится.
+public class ProgressiveRenderer {
+
+    public static class Settings {
+        // Canvas растеризует команды позже, поэтому бюджет ограничивает время записи команд
+        public long frameBudgetNanos = 12_000_000L;
+
+        // Сколько сцена должна оставаться неподвижной до начала уточнения
+        public long settleNanos = 200_000_000L;
+    }
+
+    enum Phase {
+        INTERACTIVE,
+        REFINING,
+        COMPLETE
+    }
+
+    private final Settings settings;
+    private final LongSupplier clock;
+
+    private Phase phase = Phase.INTERACTIVE;
+    private boolean hasSignature = false;
+    private long signature;
+    private long lastChange;
+    private RenderEngine.StrokeMode previewMode = RenderEngine.DEFAULT_STROKE_MODE;
+    private int refineModel;
+    private int refinePosition;
+
+    public ProgressiveRenderer() {
+        this(new Settings());
+    }
+
+    public ProgressiveRenderer(Settings settings) {
+        this(settings, System::nanoTime);
+    }
+
+    ProgressiveRenderer(Settings settings, LongSupplier clock) {
+        this.settings = settings;
+        this.clock = clock;
+    }
+
+    // Следующий кадр начнет отрисовку заново, даже если сцена не изменилась
+    public void invalidate() {
+        hasSignature = false;
+    }
+
+    // previews - модели для движения (обычно уровни детализации), models - полные модели в том же порядке.
+    // Возвращает true, когда на холсте полное изображение
+    public boolean renderFrame(GraphicsContext graphicsContext, Camera camera, List<Model> previews, List<Model> models,
+                               int width, int height) {
+        final long start = clock.getAsLong();
+        final long deadline = start + settings.frameBudgetNanos;
+        switch (beginFrame(SceneSignature.of(camera, models, width, height), start)) {
+            case INTERACTIVE -> {
+                graphicsContext.clearRect(0, 0, width, height);
+                drawPreviews(graphicsContext, camera, previews, width, height, deadline);
+            }
+            case REFINING -> refine(graphicsContext, camera, models, width, height, deadline);
+            case COMPLETE -> { }
+        }
+        return phase == Phase.COMPLETE;
+    }
+
+    // Переход между фазами по подписи сцены и времени начала кадра
+    Phase beginFrame(long sceneSignature, long now) {
+        if (!hasSignature || sceneSignature != signature) {
+            hasSignature = true;
+            signature = sceneSignature;
+            lastChange = now;
+            phase = Phase.INTERACTIVE;
+        } else if (phase == Phase.INTERACTIVE && now - lastChange >= settings.settleNanos) {
+            phase = Phase.REFINING;
+            previewMode = RenderEngine.DEFAULT_STROKE_MODE;
+            refineModel = 0;
+            refinePosition = 0;
+        }
+        return phase;
+    }
+
+    RenderEngine.StrokeMode getPreviewMode() {
+        return previewMode;
+    }
+
+    void reportPreview(boolean finished) {
+        // Облако точек сохраняется до конца движения, чтобы режимы не чередовались от кадра к кадру
+        if (!finished) {
+            previewMode = RenderEngine.StrokeMode.POINTS;
+        }
+    }
+
+    private void drawPreviews(GraphicsContext graphicsContext, Camera camera, List<Model> previews,
+                              int width, int height, long deadline) {
+        boolean finished = true;
+        for (Model preview : previews) {
+            if (clock.getAsLong() - deadline >= 0 || RenderEngine.render(graphicsContext, camera, preview,
+                    width, height, previewMode, 0, deadline) != RenderEngine.COMPLETE) {
+                finished = false;
+                break;
+            }
+        }
+        reportPreview(finished);
+    }
+
+    private void refine(GraphicsContext graphicsContext, Camera camera, List<Model> models,
+                        int width, int height, long deadline) {
+        if (refineModel == 0 && refinePosition == 0) {
+            graphicsContext.clearRect(0, 0, width, height);
+        }
+        while (refineModel < models.size()) {
+            int next = RenderEngine.render(graphicsContext, camera, models.get(refineModel), width, height,
+                RenderEngine.DEFAULT_STROKE_MODE, refinePosition, deadline);
+            if (next != RenderEngine.COMPLETE) {
+                refinePosition = next;
+                return;
+            }
+            refineModel++;
+            refinePosition = 0;
+            if (clock.getAsLong() - deadline >= 0) {
+                break;
+            }
+        }
+        if (refineModel >= models.size()) {
+            phase = Phase.COMPLETE;
+        }
+    }
+}
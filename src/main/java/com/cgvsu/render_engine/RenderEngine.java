@@ -1,15 +1,65 @@
 package com.cgvsu.render_engine;
 
-import java.util.ArrayList;
-
-import com.cgvsu.math.Vector3f;
 import javafx.scene.canvas.GraphicsContext;
-import javax.vecmath.*;
+import javafx.scene.image.PixelWriter;
+import javafx.scene.paint.Color;
+import javafx.scene.paint.Paint;
+import com.cgvsu.math.Matrix4f;
 import com.cgvsu.model.Model;
+import com.cgvsu.model.PackedMesh;
+
+import java.lang.ref.WeakReference;
+import java.nio.FloatBuffer;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinWorkerThread;
+import java.util.concurrent.RecursiveAction;
+
 import static com.cgvsu.render_engine.GraphicConveyor.*;
 
 public class RenderEngine {
 
+    // Модели меньше порога проецируются в вызывающем потоке без накладных расходов на задачи
+    static final int PARALLEL_THRESHOLD = 200_000;
+
+    // 16K вершин: 192 КБ входа и 320 КБ выхода на задачу укладываются в L2
+    static final int CHUNK_VERTICES = 16_384;
+
+    // Отрезков в одном пути до вызова stroke(): очень длинные пути растеризуются медленнее
+    static final int PATH_BATCH_SEGMENTS = 4096;
+
+    // Результат частичной отрисовки: модель выведена полностью
+    public static final int COMPLETE = -1;
+
+    public static final long NO_DEADLINE = Long.MAX_VALUE;
+
+    // Способ вывода каркаса на Canvas: по отрезку на команду, ломаными в общем пути со stroke()
+    // на пакет или отдельной strokePolyline на ломаную. POINTS выводит только вершины облаком точек
+    // для навигации по плотным моделям. Отрезки короче пикселя во всех режимах заменяются точками
+    public enum StrokeMode {
+        LINES,
+        PATHS,
+        POLYLINES,
+        POINTS
+    }
+
+    // PATHS и POLYLINES не становятся режимом по умолчанию, пока StrokeModeBenchmark не покажет
+    // выигрыш на сетках от 100 тысяч до миллиона граней
+    public static final StrokeMode DEFAULT_STROKE_MODE = StrokeMode.LINES;
+
+    private static final ForkJoinPool TRANSFORM_POOL = new ForkJoinPool(
+        Runtime.getRuntime().availableProcessors(),
+        pool -> {
+            ForkJoinWorkerThread thread = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(pool);
+            thread.setName("vertex-transform-" + thread.getPoolIndex());
+            thread.setDaemon(true);
+            return thread;
+        },
+        null, false);
+
+    // Матрицы и буферы вершин переиспользуются между кадрами: в установившемся режиме отрисовка
+    // не выделяет память (буферы растут только под модель с большим числом вершин)
+    private static final ThreadLocal<FrameScratch> SCRATCH = ThreadLocal.withInitial(FrameScratch::new);
+
     public static void render(
             final GraphicsContext graphicsContext,
             final Camera camera,
@@ -17,42 +67,336 @@ public class RenderEngine {
             final int width,
             final int height)
     {
-        Matrix4f modelMatrix = rotateScaleTranslate();
-        Matrix4f viewMatrix = camera.getViewMatrix();
-        Matrix4f projectionMatrix = camera.getProjectionMatrix();
+        render(graphicsContext, camera, mesh, width, height, DEFAULT_STROKE_MODE);
+    }
 
-        Matrix4f modelViewProjectionMatrix = new Matrix4f(modelMatrix);
-        modelViewProjectionMatrix.mul(viewMatrix);
-        modelViewProjectionMatrix.mul(projectionMatrix);
+    public static void render(
+            final GraphicsContext graphicsContext,
+            final Camera camera,
+            final Model mesh,
+            final int width,
+            final int height,
+            final StrokeMode strokeMode)
+    {
+        render(graphicsContext, camera, mesh, width, height, strokeMode, 0, NO_DEADLINE);
+    }
 
-        final int nPolygons = mesh.polygons.size();
-        for (int polygonInd = 0; polygonInd < nPolygons; ++polygonInd) {
-            final int nVerticesInPolygon = mesh.polygons.get(polygonInd).getVertexIndices().size();
+    // Частичная отрисовка для бюджета кадра: вывод начинается с позиции from (0 - с начала) и
+    // прерывается после срока deadline по System.nanoTime(). Возвращает позицию для продолжения
+    // в следующем кадре или COMPLETE, если модель выведена до конца
+    public static int render(
+            final GraphicsContext graphicsContext,
+            final Camera camera,
+            final Model mesh,
+            final int width,
+            final int height,
+            final StrokeMode strokeMode,
+            final int from,
+            final long deadline)
+    {
+        final FrameScratch scratch = SCRATCH.get();
+        final Matrix4f modelViewProjectionMatrix = rotateScaleTranslate(scratch.modelViewProjection);
+        modelViewProjectionMatrix.mul(camera.getViewMatrix(scratch.view));
+        modelViewProjectionMatrix.mul(camera.getProjectionMatrix(scratch.projection));
 
-            ArrayList<Point2f> resultPoints = new ArrayList<>();
-            for (int vertexInPolygonInd = 0; vertexInPolygonInd < nVerticesInPolygon; ++vertexInPolygonInd) {
-                Vector3f vertex = mesh.vertices.get(mesh.polygons.get(polygonInd).getVertexIndices().get(vertexInPolygonInd));
+        // Упакованная геометрия кэшируется в модели и пересчитывается только после ее изменения
+        final PackedMesh packed = mesh.getDerived(PackedMesh.DERIVED);
+        final int nVertices = packed.getVertexCount();
+        // Продолжение вывода той же модели с той же камерой не проецирует вершины заново
+        if (!scratch.isProjected(mesh, modelViewProjectionMatrix, width, height)) {
+            scratch.ensureCapacity(nVertices);
+            projectVertices(modelViewProjectionMatrix, packed.getPositions(), scratch.transformed,
+                scratch.screenPoints, nVertices, width, height);
+            scratch.setProjected(mesh, modelViewProjectionMatrix, width, height);
+        }
+        final float[] transformed = scratch.transformed;
+        final float[] screenPoints = scratch.screenPoints;
 
-                javax.vecmath.Vector3f vertexVecmath = new javax.vecmath.Vector3f(vertex.x, vertex.y, vertex.z);
+        final Splat splat = scratch.splat;
+        splat.begin(graphicsContext.getPixelWriter(), toArgb(graphicsContext.getStroke()), width, height);
 
-                Point2f resultPoint = vertexToPoint(multiplyMatrix4ByVector3(modelViewProjectionMatrix, vertexVecmath), width, height);
-                resultPoints.add(resultPoint);
+        return switch (strokeMode) {
+            case LINES -> strokeLines(graphicsContext, mesh.getDerived(DrawList.EDGES), screenPoints, splat,
+                from, deadline);
+            case PATHS -> strokePaths(graphicsContext, mesh.getDerived(EdgeStrips.DERIVED), screenPoints, splat,
+                from, deadline);
+            case POLYLINES -> strokePolylines(graphicsContext, mesh.getDerived(EdgeStrips.DERIVED), screenPoints,
+                scratch, splat, from, deadline);
+            case POINTS -> drawPoints(transformed, screenPoints, nVertices, splat, from, deadline);
+        };
+    }
+
+    private static boolean isExpired(long deadline) {
+        return deadline != NO_DEADLINE && System.nanoTime() - deadline >= 0;
+    }
+
+    // Списки ребер и ломаных строятся один раз на версию геометрии; кадр только повторяет их.
+    // Позиция продолжения - номер ребра
+    private static int strokeLines(GraphicsContext graphicsContext, DrawList edges, float[] screenPoints,
+                                   Splat splat, int from, long deadline) {
+        final int nEdges = edges.getPrimitiveCount();
+        for (int edgeInd = from; edgeInd < nEdges; ++edgeInd) {
+            final int start = edges.getIndex(edgeInd, 0) * 2;
+            final int end = edges.getIndex(edgeInd, 1) * 2;
+            final float x0 = screenPoints[start], y0 = screenPoints[start + 1];
+            final float x1 = screenPoints[end], y1 = screenPoints[end + 1];
+            if (SubPixelFilter.isSubPixel(x0, y0, x1, y1)) {
+                splat.point((x0 + x1) * 0.5f, (y0 + y1) * 0.5f);
+            } else {
+                graphicsContext.strokeLine(x0, y0, x1, y1);
             }
+            if ((edgeInd + 1) % PATH_BATCH_SEGMENTS == 0 && edgeInd + 1 < nEdges && isExpired(deadline)) {
+                return edgeInd + 1;
+            }
+        }
+        return COMPLETE;
+    }
+
+    // Ломаные добавляются в общий путь, stroke() вызывается раз на PATH_BATCH_SEGMENTS отрезков.
+    // Замкнутая ломаная, целиком попавшая в один путь, закрывается closePath(); на отрезке короче
+    // пикселя ломаная прерывается точкой и продолжается новым moveTo. Позиция продолжения - номер
+    // индекса EdgeStrips, которым заканчивается следующий отрезок
+    private static int strokePaths(GraphicsContext graphicsContext, EdgeStrips strips, float[] screenPoints,
+                                   Splat splat, int from, long deadline) {
+        final int nStrips = strips.getStripCount();
+        if (nStrips == 0) {
+            return COMPLETE;
+        }
+        graphicsContext.beginPath();
+        int segments = 0;
+        for (int stripInd = strips.findStrip(from); stripInd < nStrips; ++stripInd) {
+            final int start = strips.getStripStart(stripInd);
+            final int end = start + strips.getStripLength(stripInd);
+            final boolean closed = end - start > 3 && strips.getIndex(start) == strips.getIndex(end - 1);
+            boolean split = from > start;
+            boolean penDown = false;
 
-            for (int vertexInPolygonInd = 1; vertexInPolygonInd < nVerticesInPolygon; ++vertexInPolygonInd) {
-                graphicsContext.strokeLine(
-                        resultPoints.get(vertexInPolygonInd - 1).x,
-                        resultPoints.get(vertexInPolygonInd - 1).y,
-                        resultPoints.get(vertexInPolygonInd).x,
-                        resultPoints.get(vertexInPolygonInd).y);
+            int first = Math.max(start + 1, from);
+            int previous = strips.getIndex(first - 1) * 2;
+            for (int i = first; i < end; ++i) {
+                final int point = strips.getIndex(i) * 2;
+                final float x0 = screenPoints[previous], y0 = screenPoints[previous + 1];
+                final float x1 = screenPoints[point], y1 = screenPoints[point + 1];
+                previous = point;
+                if (SubPixelFilter.isSubPixel(x0, y0, x1, y1)) {
+                    splat.point((x0 + x1) * 0.5f, (y0 + y1) * 0.5f);
+                    penDown = false;
+                    split = true;
+                    continue;
+                }
+
+                if (!penDown) {
+                    graphicsContext.moveTo(x0, y0);
+                    penDown = true;
+                }
+                if (closed && !split && i == end - 1) {
+                    graphicsContext.closePath();
+                } else {
+                    graphicsContext.lineTo(x1, y1);
+                }
+                if (++segments >= PATH_BATCH_SEGMENTS) {
+                    graphicsContext.stroke();
+                    final int next = i + 1 < end ? i + 1 : (stripInd + 1 < nStrips ? end : COMPLETE);
+                    if (next != COMPLETE && isExpired(deadline)) {
+                        return next;
+                    }
+                    graphicsContext.beginPath();
+                    penDown = false;
+                    split = true;
+                    segments = 0;
+                }
             }
+        }
+        graphicsContext.stroke();
+        return COMPLETE;
+    }
+
+    // Позиция продолжения - номер ломаной
+    private static int strokePolylines(GraphicsContext graphicsContext, EdgeStrips strips, float[] screenPoints,
+                                       FrameScratch scratch, Splat splat, int from, long deadline) {
+        final int nStrips = strips.getStripCount();
+        for (int stripInd = from; stripInd < nStrips; ++stripInd) {
+            final int start = strips.getStripStart(stripInd);
+            final int length = strips.getStripLength(stripInd);
+            scratch.ensurePolylineCapacity(length);
+            final double[] xs = scratch.polylineX;
+            final double[] ys = scratch.polylineY;
 
-            if (nVerticesInPolygon > 0)
-                graphicsContext.strokeLine(
-                        resultPoints.get(nVerticesInPolygon - 1).x,
-                        resultPoints.get(nVerticesInPolygon - 1).y,
-                        resultPoints.get(0).x,
-                        resultPoints.get(0).y);
+            int point = strips.getIndex(start) * 2;
+            xs[0] = screenPoints[point];
+            ys[0] = screenPoints[point + 1];
+            int run = 1;
+            for (int i = 1; i < length; ++i) {
+                point = strips.getIndex(start + i) * 2;
+                final float x = screenPoints[point], y = screenPoints[point + 1];
+                final float previousX = (float) xs[run - 1], previousY = (float) ys[run - 1];
+                if (SubPixelFilter.isSubPixel(previousX, previousY, x, y)) {
+                    // Отрезок короче пикселя завершает текущую ломаную и заменяется точкой
+                    if (run > 1) {
+                        graphicsContext.strokePolyline(xs, ys, run);
+                    }
+                    splat.point((previousX + x) * 0.5f, (previousY + y) * 0.5f);
+                    run = 0;
+                }
+                xs[run] = x;
+                ys[run] = y;
+                run++;
+            }
+            if (run > 1) {
+                graphicsContext.strokePolyline(xs, ys, run);
+            }
+            if (stripInd + 1 < nStrips && isExpired(deadline)) {
+                return stripInd + 1;
+            }
+        }
+        return COMPLETE;
+    }
+
+    // Облако точек: по точке на вершину в пределах глубины, повторы в пикселе пропускаются.
+    // Позиция продолжения - номер вершины
+    private static int drawPoints(float[] transformed, float[] screenPoints, int nVertices, Splat splat,
+                                  int from, long deadline) {
+        for (int vertexInd = from; vertexInd < nVertices; ++vertexInd) {
+            final float z = transformed[vertexInd * 3 + 2];
+            if (z >= -1 && z <= 1) {
+                splat.point(screenPoints[vertexInd * 2], screenPoints[vertexInd * 2 + 1]);
+            }
+            if ((vertexInd + 1) % CHUNK_VERTICES == 0 && vertexInd + 1 < nVertices && isExpired(deadline)) {
+                return vertexInd + 1;
+            }
+        }
+        return COMPLETE;
+    }
+
+    private static int toArgb(Paint paint) {
+        if (paint instanceof Color color) {
+            return ((int) Math.round(color.getOpacity() * 255) << 24)
+                | ((int) Math.round(color.getRed() * 255) << 16)
+                | ((int) Math.round(color.getGreen() * 255) << 8)
+                | (int) Math.round(color.getBlue() * 255);
+        }
+        return 0xFF000000;
+    }
+
+    // Запись точек напрямую в пиксели холста цветом обводки
+    private static final class Splat {
+        private final SubPixelFilter filter = new SubPixelFilter();
+        private PixelWriter pixelWriter;
+        private int argb;
+
+        void begin(PixelWriter pixelWriter, int argb, int width, int height) {
+            this.pixelWriter = pixelWriter;
+            this.argb = argb;
+            filter.reset(width, height);
+        }
+
+        void point(float x, float y) {
+            if (filter.mark(x, y)) {
+                pixelWriter.setArgb((int) x, (int) y, argb);
+            }
+        }
+    }
+
+    // Вершины переводятся в экранные координаты: transformed получает (x, y, z) после деления на w,
+    // screenPoints - пары (x, y). Большие модели делятся на куски по CHUNK_VERTICES между потоками
+    static void projectVertices(Matrix4f matrix, FloatBuffer positions, float[] transformed, float[] screenPoints,
+                                int count, int width, int height) {
+        if (count < PARALLEL_THRESHOLD || TRANSFORM_POOL.getParallelism() == 1) {
+            projectRange(matrix, positions, transformed, screenPoints, 0, count, width, height);
+            return;
+        }
+        TRANSFORM_POOL.invoke(new ProjectTask(matrix, positions, transformed, screenPoints, 0, count, width, height));
+    }
+
+    private static void projectRange(Matrix4f matrix, FloatBuffer positions, float[] transformed, float[] screenPoints,
+                                     int from, int to, int width, int height) {
+        matrix.transformPoints(positions, from * 3, transformed, from * 3, to - from);
+        verticesToPoints(transformed, screenPoints, from, to, width, height);
+    }
+
+    private static final class ProjectTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final Matrix4f matrix;
+        private final FloatBuffer positions;
+        private final float[] transformed;
+        private final float[] screenPoints;
+        private final int from;
+        private final int to;
+        private final int width;
+        private final int height;
+
+        ProjectTask(Matrix4f matrix, FloatBuffer positions, float[] transformed, float[] screenPoints,
+                    int from, int to, int width, int height) {
+            this.matrix = matrix;
+            this.positions = positions;
+            this.transformed = transformed;
+            this.screenPoints = screenPoints;
+            this.from = from;
+            this.to = to;
+            this.width = width;
+            this.height = height;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= CHUNK_VERTICES) {
+                projectRange(matrix, positions, transformed, screenPoints, from, to, width, height);
+                return;
+            }
+            // Граница кусков кратна CHUNK_VERTICES, чтобы задачи не делили строки кэша
+            int middle = from + ((to - from) / CHUNK_VERTICES / 2) * CHUNK_VERTICES;
+            if (middle == from) {
+                middle = from + CHUNK_VERTICES;
+            }
+            invokeAll(new ProjectTask(matrix, positions, transformed, screenPoints, from, middle, width, height),
+                new ProjectTask(matrix, positions, transformed, screenPoints, middle, to, width, height));
+        }
+    }
+
+    private static final class FrameScratch {
+        final Matrix4f view = new Matrix4f();
+        final Matrix4f projection = new Matrix4f();
+        final Matrix4f modelViewProjection = new Matrix4f();
+        float[] transformed = new float[0];
+        float[] screenPoints = new float[0];
+        double[] polylineX = new double[0];
+        double[] polylineY = new double[0];
+        final Splat splat = new Splat();
+
+        // Для какой модели, версии, матрицы и размера кадра заполнены transformed и screenPoints.
+        // Слабая ссылка не удерживает закрытую модель
+        private WeakReference<Model> projectedMesh = new WeakReference<>(null);
+        private long projectedVersion;
+        private final Matrix4f projectedMatrix = new Matrix4f();
+        private int projectedWidth;
+        private int projectedHeight;
+
+        boolean isProjected(Model mesh, Matrix4f matrix, int width, int height) {
+            return projectedMesh.get() == mesh && projectedVersion == mesh.getVersion()
+                && projectedWidth == width && projectedHeight == height && projectedMatrix.equals(matrix, 0);
+        }
+
+        void setProjected(Model mesh, Matrix4f matrix, int width, int height) {
+            projectedMesh = new WeakReference<>(mesh);
+            projectedVersion = mesh.getVersion();
+            projectedMatrix.set(matrix);
+            projectedWidth = width;
+            projectedHeight = height;
+        }
+
+        void ensureCapacity(int vertexCount) {
+            if (screenPoints.length < vertexCount * 2) {
+                transformed = new float[vertexCount * 3];
+                screenPoints = new float[vertexCount * 2];
+            }
+        }
+
+        void ensurePolylineCapacity(int length) {
+            if (polylineX.length < length) {
+                polylineX = new double[length];
+                polylineY = new double[length];
+            }
         }
     }
-}
\ No newline at end of file
+}
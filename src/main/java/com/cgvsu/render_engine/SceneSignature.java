@@ -0,0 +1,31 @@
+package com.cgvsu.render_engine;
+
+import com.cgvsu.model.Model;
+
+import java.util.List;
+
+// Отпечаток того, что влияет на кадр: камера, размер холста, набор моделей и их версии.
+// Совпадение отпечатков соседних кадров означает, что сцена неподвижна
+final class SceneSignature {
+
+    private SceneSignature() {
+    }
+
+    static long of(Camera camera, List<Model> models, int width, int height) {
+        long hash = width * 31L + height;
+        hash = hash * 31 + Float.floatToIntBits(camera.getFov());
+        hash = mix(hash, camera.getPosition().x, camera.getPosition().y, camera.getPosition().z);
+        hash = mix(hash, camera.getTarget().x, camera.getTarget().y, camera.getTarget().z);
+        for (Model model : models) {
+            hash = hash * 31 + System.identityHashCode(model);
+            hash = hash * 31 + model.getVersion();
+        }
+        return hash * 31 + models.size();
+    }
+
+    private static long mix(long hash, float x, float y, float z) {
+        hash = hash * 31 + Float.floatToIntBits(x);
+        hash = hash * 31 + Float.floatToIntBits(y);
+        return hash * 31 + Float.floatToIntBits(z);
+    }
+}
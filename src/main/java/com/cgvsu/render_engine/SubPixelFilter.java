@@ -0,0 +1,45 @@
+package com.cgvsu.render_engine;
+
+import java.util.Arrays;
+
+// Стадия мелких примитивов: отрезок, экранные габариты которого меньше пикселя, заменяется записью
+// одной точки, а точка в уже закрашенный за кадр пиксель пропускается. На плотных сканах при обычном
+// масштабе так отбрасывается большая часть граней, которые иначе давали бы по три вызова рисования.
+class SubPixelFilter {
+
+    static final float MAX_EXTENT = 1.0f;
+
+    private long[] covered = new long[0];
+    private int width;
+    private int height;
+
+    void reset(int width, int height) {
+        this.width = width;
+        this.height = height;
+        int words = (Math.max(width, 0) * Math.max(height, 0) + 63) >>> 6;
+        if (covered.length < words) {
+            covered = new long[words];
+        } else {
+            Arrays.fill(covered, 0, words, 0L);
+        }
+    }
+
+    static boolean isSubPixel(float x0, float y0, float x1, float y1) {
+        return Math.abs(x1 - x0) < MAX_EXTENT && Math.abs(y1 - y0) < MAX_EXTENT;
+    }
+
+    // Отмечает пиксель, содержащий точку; true, если он в кадре и еще не был отмечен
+    boolean mark(float x, float y) {
+        if (!(x >= 0 && y >= 0 && x < width && y < height)) {
+            return false;
+        }
+        int index = (int) y * width + (int) x;
+        long bit = 1L << index;
+        long word = covered[index >>> 6];
+        if ((word & bit) != 0) {
+            return false;
+        }
+        covered[index >>> 6] = word | bit;
+        return true;
+    }
+}
@@ -0,0 +1,238 @@
+package com.cgvsu.scene;
+
+import com.cgvsu.io.ModelIOFactory;
+import com.cgvsu.model.Model;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.nio.file.attribute.FileTime;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BiConsumer;
+import java.util.zip.CRC32C;
+
+// Следит за файлами, из которых загружены SceneModel, и подменяет модели после их перезаписи.
+// Серия событий записи схлопывается задержкой; файл, содержимое которого не изменилось
+// (например, его только "потрогали"), не разбирается повторно. Новая модель устанавливается
+// через swapExecutor (в GUI - поток JavaFX), поэтому положение, масштаб и выделение остаются прежними.
+// В том же исполнителе ищутся модели сцены, загруженные из файла: поток перезагрузки только
+// считает хэш и разбирает файл и к сцене не обращается.
+public class ModelFileWatcher implements AutoCloseable {
+
+    private static final long DEFAULT_DEBOUNCE_MILLIS = 300;
+    private static final int HASH_BUFFER_SIZE = 64 * 1024;
+
+    // Хэш файла еще не посчитан или не читается: любое событие записи приводит к перезагрузке
+    private static final ContentHash UNKNOWN = new ContentHash(-1, -1);
+
+    private final Scene scene;
+    private final Executor swapExecutor;
+    private final long debounceMillis;
+    private final WatchService watchService;
+    private final ScheduledExecutorService reloadExecutor;
+    private final Thread watchThread;
+
+    private final Map<Path, WatchKey> watchedDirectories = new ConcurrentHashMap<>();
+    private final Map<Path, ContentHash> contentHashes = new ConcurrentHashMap<>();
+    private final Map<Path, ScheduledFuture<?>> pendingReloads = new ConcurrentHashMap<>();
+
+    private volatile BiConsumer<Path, Exception> errorListener = (path, error) -> { };
+
+    public ModelFileWatcher(Scene scene, Executor swapExecutor) throws IOException {
+        this(scene, swapExecutor, DEFAULT_DEBOUNCE_MILLIS);
+    }
+
+    public ModelFileWatcher(Scene scene, Executor swapExecutor, long debounceMillis) throws IOException {
+        this.scene = scene;
+        this.swapExecutor = swapExecutor;
+        this.debounceMillis = debounceMillis;
+        this.watchService = FileSystems.getDefault().newWatchService();
+        this.reloadExecutor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "model-reload");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.watchThread = new Thread(this::watchLoop, "model-file-watcher");
+        this.watchThread.setDaemon(true);
+    }
+
+    public void start() {
+        watchThread.start();
+    }
+
+    public void setErrorListener(BiConsumer<Path, Exception> errorListener) {
+        this.errorListener = errorListener != null ? errorListener : (path, error) -> { };
+    }
+
+    public void watch(Path file) throws IOException {
+        Path normalized = file.toAbsolutePath().normalize();
+        Path directory = normalized.getParent();
+        if (directory == null) {
+            return;
+        }
+
+        if (!watchedDirectories.containsKey(directory)) {
+            WatchKey key = directory.register(watchService,
+                StandardWatchEventKinds.ENTRY_CREATE, StandardWatchEventKinds.ENTRY_MODIFY);
+            watchedDirectories.put(directory, key);
+        }
+
+        // Исходный хэш считается в потоке перезагрузки, а не в вызывающем (потоке JavaFX); перезагрузки
+        // выполняются в том же однопоточном исполнителе и с задержкой, поэтому всегда видят его.
+        // Если файл успели изменить после вызова watch, хэш остается неизвестным и изменение не теряется
+        FileTime watchedTime = Files.getLastModifiedTime(normalized);
+        long watchedSize = Files.size(normalized);
+        contentHashes.put(normalized, UNKNOWN);
+        reloadExecutor.execute(() -> {
+            try {
+                ContentHash hash = hashContent(normalized);
+                if (hash.size() == watchedSize && Files.getLastModifiedTime(normalized).equals(watchedTime)) {
+                    contentHashes.replace(normalized, UNKNOWN, hash);
+                }
+            } catch (IOException e) {
+                errorListener.accept(normalized, e);
+            }
+        });
+    }
+
+    // Исходный хэш файла посчитан (для тестов: до этого любая запись вызовет перезагрузку)
+    boolean hasContentHash(Path file) {
+        ContentHash hash = contentHashes.get(file.toAbsolutePath().normalize());
+        return hash != null && hash != UNKNOWN;
+    }
+
+    public void unwatch(Path file) {
+        Path normalized = file.toAbsolutePath().normalize();
+        contentHashes.remove(normalized);
+        ScheduledFuture<?> pending = pendingReloads.remove(normalized);
+        if (pending != null) {
+            pending.cancel(false);
+        }
+    }
+
+    @Override
+    public void close() {
+        try {
+            watchService.close();
+        } catch (IOException ignored) {
+        }
+        reloadExecutor.shutdownNow();
+    }
+
+    private void watchLoop() {
+        try {
+            while (true) {
+                WatchKey key = watchService.take();
+                Path directory = (Path) key.watchable();
+
+                for (WatchEvent<?> event : key.pollEvents()) {
+                    if (event.kind() == StandardWatchEventKinds.OVERFLOW) {
+                        for (Path file : contentHashes.keySet()) {
+                            if (directory.equals(file.getParent())) {
+                                scheduleReload(file);
+                            }
+                        }
+                        continue;
+                    }
+
+                    Path file = directory.resolve((Path) event.context());
+                    if (contentHashes.containsKey(file)) {
+                        scheduleReload(file);
+                    }
+                }
+
+                if (!key.reset()) {
+                    watchedDirectories.remove(directory);
+                }
+            }
+        } catch (InterruptedException | ClosedWatchServiceException e) {
+            // Наблюдатель закрыт
+        }
+    }
+
+    private void scheduleReload(Path file) {
+        pendingReloads.compute(file, (path, pending) -> {
+            if (pending != null) {
+                pending.cancel(false);
+            }
+            return reloadExecutor.schedule(() -> reload(path), debounceMillis, TimeUnit.MILLISECONDS);
+        });
+    }
+
+    private void reload(Path file) {
+        ContentHash previous = contentHashes.get(file);
+        if (previous == null) {
+            return;
+        }
+
+        try {
+            ContentHash current = hashContent(file);
+            if (current.equals(previous)) {
+                return;
+            }
+
+            // Кэш сверяет размер и время изменения, а их перезапись за один такт времени может не поменять
+            ModelIOFactory.getModelCache().invalidate(file);
+            Model model = ModelIOFactory.loadModel(file);
+            contentHashes.replace(file, current);
+            swapExecutor.execute(() -> swap(file, model));
+        } catch (Exception e) {
+            // Файл мог быть записан не полностью: старая модель остается, следующее событие повторит попытку
+            errorListener.accept(file, e);
+        }
+    }
+
+    // Выполняется в swapExecutor: сцена меняется в этом потоке, поэтому и модели файла ищутся в нем
+    private void swap(Path file, Model model) {
+        try {
+            List<SceneModel> sceneModels = findSceneModels(file);
+            if (sceneModels.isEmpty()) {
+                // Модели файла удалены из сцены
+                unwatch(file);
+                return;
+            }
+            for (SceneModel sceneModel : sceneModels) {
+                sceneModel.setModel(model);
+            }
+        } catch (RuntimeException e) {
+            errorListener.accept(file, e);
+        }
+    }
+
+    private List<SceneModel> findSceneModels(Path file) {
+        List<SceneModel> sceneModels = scene.getElementsOfType(SceneModel.class);
+        sceneModels.removeIf(sceneModel -> !file.equals(sceneModel.getSourcePath()));
+        return sceneModels;
+    }
+
+    private static ContentHash hashContent(Path file) throws IOException {
+        CRC32C crc = new CRC32C();
+        long size = 0;
+        byte[] buffer = new byte[HASH_BUFFER_SIZE];
+        try (InputStream in = Files.newInputStream(file)) {
+            int read;
+            while ((read = in.read(buffer)) > 0) {
+                crc.update(buffer, 0, read);
+                size += read;
+            }
+        }
+        return new ContentHash(size, crc.getValue());
+    }
+
+    private record ContentHash(long size, long crc) {
+    }
+}
@@ -1,16 +1,40 @@
 package com.cgvsu.scene;
 
 import com.cgvsu.math.Vector3f;
+import com.cgvsu.math.VertexTransform;
+import com.cgvsu.mesh.LodChain;
+import com.cgvsu.model.DerivedKey;
 import com.cgvsu.model.Model;
+import com.cgvsu.model.PackedMesh;
+import com.cgvsu.render_engine.Camera;
+
+import java.nio.file.Path;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.function.Consumer;
 
 public class SceneModel extends SceneElement {
 
-    private Model model;
+    // Границы модели без масштаба кэшируются в самой модели и общие для всех ее SceneModel
+    private static final DerivedKey<BoundingBox> LOCAL_BOUNDS =
+        new DerivedKey<>("local-bounds", SceneModel::calculateLocalBoundingBox);
+
+    private volatile Model model;
+    private Path sourcePath;
     private Vector3f position;
     private Vector3f rotation; // в радианах
     private Vector3f scale;
-    private BoundingBox cachedBoundingBox;
-    private boolean boundingBoxDirty = true;
+
+    // Уровни детализации строятся в фоне и публикуются через lodPublisher (поток отрисовки)
+    private Executor lodBuilder;
+    private Executor lodPublisher;
+    private LodChain lodChain;
+    private Model lodRequestedFor;
+    private long lodRequestedVersion;
+    private int lodLevel;
+    private Consumer<Throwable> lodErrorListener =
+        error -> System.err.println("Не удалось построить уровни детализации модели " + name + ": " + error);
 
     public SceneModel(String id, Model model) {
         super(id);
@@ -34,7 +58,97 @@ public class SceneModel extends SceneElement {
 
     public void setModel(Model model) {
         this.model = model;
-        this.boundingBoxDirty = true;
+        this.lodChain = null;
+        this.lodLevel = 0;
+        requestLevelsOfDetail();
+    }
+
+    public void enableLevelsOfDetail(Executor builder, Executor publisher) {
+        this.lodBuilder = builder;
+        this.lodPublisher = publisher;
+        requestLevelsOfDetail();
+    }
+
+    // Вызывается в потоке публикации, если построение уровней детализации завершилось ошибкой
+    public void setLodErrorListener(Consumer<Throwable> lodErrorListener) {
+        this.lodErrorListener = lodErrorListener != null ? lodErrorListener : error -> { };
+    }
+
+    public LodChain getLevelsOfDetail() {
+        return lodChain;
+    }
+
+    public int getLevelOfDetail() {
+        return lodLevel;
+    }
+
+    // Модель для отрисовки: уровень детализации по размеру на экране или сама модель, пока
+    // цепочка уровней не построена или устарела после правки
+    public Model getRenderModel(Camera camera, int height) {
+        Model current = model;
+        LodChain chain = lodChain;
+        if (chain == null || !chain.isCurrent(current)) {
+            requestLevelsOfDetail();
+            return current;
+        }
+
+        lodLevel = chain.selectLevel(getProjectedSize(camera, height), lodLevel);
+        return chain.getLevel(lodLevel);
+    }
+
+    // Диагональ габаритов модели в пикселях экрана высотой height
+    public float getProjectedSize(Camera camera, int height) {
+        BoundingBox box = getBoundingBox();
+        Vector3f center = box.getCenter();
+        float dx = center.x + position.x - camera.getPosition().x;
+        float dy = center.y + position.y - camera.getPosition().y;
+        float dz = center.z + position.z - camera.getPosition().z;
+        float distance = (float) Math.sqrt(dx * dx + dy * dy + dz * dz);
+        float radius = box.getDiagonal() * 0.5f;
+        if (distance <= radius) {
+            return Float.MAX_VALUE; // Камера внутри модели
+        }
+        return (float) (box.getDiagonal() * height / (distance * Math.tan(camera.getFov() * 0.5f)));
+    }
+
+    private void requestLevelsOfDetail() {
+        Model source = model;
+        if (lodBuilder == null || source == null
+            || (source == lodRequestedFor && source.getVersion() == lodRequestedVersion)) {
+            return;
+        }
+        lodRequestedFor = source;
+        lodRequestedVersion = source.getVersion();
+        // Упаковка снимается в текущем потоке, чтобы фон не читал списки модели во время правки
+        if (source.getDerived(PackedMesh.DERIVED).getPolygonCount() * 2 < LodChain.MIN_TRIANGLES) {
+            return;
+        }
+
+        CompletableFuture.supplyAsync(() -> LodChain.build(source), lodBuilder)
+            .whenCompleteAsync((chain, error) -> {
+                if (error != null) {
+                    // Сбой (например, нехватка памяти) сообщается, а запрос сбрасывается, чтобы следующий
+                    // кадр попробовал построить уровни заново
+                    if (lodRequestedFor == source) {
+                        lodRequestedFor = null;
+                    }
+                    lodErrorListener.accept(error instanceof CompletionException && error.getCause() != null
+                        ? error.getCause() : error);
+                    return;
+                }
+                if (chain.isCurrent(model)) {
+                    lodChain = chain;
+                    lodLevel = 0;
+                }
+            }, lodPublisher);
+    }
+
+    public Path getSourcePath() {
+        return sourcePath;
+    }
+
+    public void setSourcePath(Path sourcePath) {
+        this.sourcePath = sourcePath != null ? sourcePath.toAbsolutePath().normalize() : null;
     }
 
     @Override
@@ -61,7 +175,6 @@ public class SceneModel extends SceneElement {
 
     public void setScale(Vector3f scale) {
         this.scale = new Vector3f(scale.x, scale.y, scale.z);
-        this.boundingBoxDirty = true;
     }
 
     public void translate(Vector3f delta) {
@@ -80,53 +193,49 @@ public class SceneModel extends SceneElement {
         scale.x *= scaleFactor;
         scale.y *= scaleFactor;
         scale.z *= scaleFactor;
-        this.boundingBoxDirty = true;
     }
 
     public void scaleBy(Vector3f scaleFactors) {
         scale.x *= scaleFactors.x;
         scale.y *= scaleFactors.y;
         scale.z *= scaleFactors.z;
-        this.boundingBoxDirty = true;
     }
 
     public void resetTransform() {
         position = new Vector3f(0, 0, 0);
         rotation = new Vector3f(0, 0, 0);
         scale = new Vector3f(1, 1, 1);
-        boundingBoxDirty = true;
     }
 
     @Override
     public BoundingBox getBoundingBox() {
-        if (boundingBoxDirty || cachedBoundingBox == null) {
-            cachedBoundingBox = calculateBoundingBox();
-            boundingBoxDirty = false;
-        }
-        return cachedBoundingBox.copy();
-    }
-
-    private BoundingBox calculateBoundingBox() {
-        if (model == null || model.vertices == null || model.vertices.isEmpty()) {
+        Model current = model;
+        if (current == null || current.getVertexCount() == 0) {
             return new BoundingBox();
         }
 
-        BoundingBox box = new BoundingBox();
+        BoundingBox local = current.getDerived(LOCAL_BOUNDS);
+        Vector3f min = local.getMin();
+        Vector3f max = local.getMax();
+        return BoundingBox.fromPoints(
+            new Vector3f(min.x * scale.x, min.y * scale.y, min.z * scale.z),
+            new Vector3f(max.x * scale.x, max.y * scale.y, max.z * scale.z)
+        );
+    }
 
-        for (Vector3f vertex : model.vertices) {
-            Vector3f transformedVertex = new Vector3f(
-                vertex.x * scale.x,
-                vertex.y * scale.y,
-                vertex.z * scale.z
-            );
-            box.expandToInclude(transformedVertex);
+    private static BoundingBox calculateLocalBoundingBox(Model model) {
+        PackedMesh mesh = model.getDerived(PackedMesh.DERIVED);
+        if (mesh.getVertexCount() == 0) {
+            return new BoundingBox();
         }
-
-        return box;
+        float[] bounds = VertexTransform.computeBounds(mesh.getPositions(), 0, mesh.getVertexCount());
+        return new BoundingBox(new Vector3f(bounds[0], bounds[1], bounds[2]),
+            new Vector3f(bounds[3], bounds[4], bounds[5]));
     }
 
     public SceneModel copy() {
         SceneModel copy = new SceneModel(id + "_copy", name + " (копия)", model);
+        copy.sourcePath = sourcePath;
         copy.position = new Vector3f(position.x, position.y, position.z);
         copy.rotation = new Vector3f(rotation.x, rotation.y, rotation.z);
         copy.scale = new Vector3f(scale.x, scale.y, scale.z);
@@ -134,9 +243,7 @@ public class SceneModel extends SceneElement {
     }
 
     public boolean isValid() {
-        return model != null &&
-               model.vertices != null && !model.vertices.isEmpty() &&
-               model.polygons != null && !model.polygons.isEmpty();
+        return model != null && model.getVertexCount() > 0 && model.getPolygonCount() > 0;
     }
 
     @Override
@@ -146,15 +253,14 @@ public class SceneModel extends SceneElement {
     @Override
     public void dispose() {
         model = null;
-        cachedBoundingBox = null;
     }
 
     @Override
     public String toString() {
         return String.format("SceneModel{id='%s', name='%s', vertices=%d, polygons=%d, position=%s}",
                            id, name,
-                           model != null && model.vertices != null ? model.vertices.size() : 0,
-                           model != null && model.polygons != null ? model.polygons.size() : 0,
+                           model != null ? model.getVertexCount() : 0,
+                           model != null ? model.getPolygonCount() : 0,
                            position);
     }
 }
@@ -139,7 +139,7 @@ public class ErrorDialogs {
 
         if (exception instanceof ModelLoadingException) {
             if (message.contains("Не найден загрузчик")) {
-                return "Формат файла не поддерживается. Поддерживаемые форматы: OBJ";
+                return "Формат файла не поддерживается. Поддерживаемые форматы: OBJ, PLY";
             } else if (message.contains("Недостаточно координат")) {
                 return "Файл модели поврежден: недостаточно данных для вершин";
             } else if (message.contains("ссылается на несуществующую")) {
@@ -1,8 +1,8 @@
 module com.cgvsu {
     requires javafx.controls;
     requires javafx.fxml;
-    requires vecmath;
     requires java.desktop;
+    requires static jdk.incubator.vector;
 
 
     opens com.cgvsu to javafx.fxml;
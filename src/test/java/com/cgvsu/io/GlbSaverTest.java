@@ -0,0 +1,109 @@
+package com.cgvsu.io;
+
+import com.cgvsu.math.Vector2f;
+import com.cgvsu.math.Vector3f;
+import com.cgvsu.model.Model;
+import com.cgvsu.model.Polygon;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class GlbSaverTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    @DisplayName("Фабрика создает сохранитель GLB")
+    void testFactoryRegistration() throws ModelIOFactoryException {
+        assertTrue(ModelIOFactory.supportsSaving(Path.of("scene.glb")));
+        assertInstanceOf(GlbSaver.class, ModelIOFactory.createSaver(Path.of("scene.glb")));
+        assertFalse(ModelIOFactory.supportsLoading(Path.of("scene.glb")));
+    }
+
+    @Test
+    @DisplayName("Структура GLB: заголовок, выравнивание чанков, 16-битные индексы")
+    void testContainerLayout() throws Exception {
+        Model model = createQuad(false);
+        Path path = tempDir.resolve("quad.glb");
+
+        new GlbSaver().save(model, path);
+
+        ByteBuffer data = ByteBuffer.wrap(Files.readAllBytes(path)).order(ByteOrder.LITTLE_ENDIAN);
+        assertEquals(0x46546C67, data.getInt());
+        assertEquals(2, data.getInt());
+        assertEquals(data.capacity(), data.getInt());
+
+        int jsonLength = data.getInt();
+        assertEquals(0x4E4F534A, data.getInt());
+        assertEquals(0, jsonLength % 4);
+        byte[] jsonBytes = new byte[jsonLength];
+        data.get(jsonBytes);
+        String json = new String(jsonBytes, StandardCharsets.UTF_8);
+        assertTrue(json.contains("\"componentType\":5123"));
+        assertTrue(json.contains("\"min\":[0.0,0.0,0.0]"));
+        assertTrue(json.contains("\"max\":[1.0,1.0,0.0]"));
+        assertFalse(json.contains("NORMAL"));
+
+        int binLength = data.getInt();
+        assertEquals(0x004E4942, data.getInt());
+        assertEquals(0, binLength % 4);
+        assertEquals(4 * 12 + 6 * 2, binLength);
+
+        data.position(data.position() + 4 * 12);
+        List<Integer> indices = new ArrayList<>();
+        for (int i = 0; i < 6; i++) {
+            indices.add((int) data.getShort());
+        }
+        assertEquals(List.of(0, 1, 2, 0, 2, 3), indices);
+    }
+
+    @Test
+    @DisplayName("Вершины с разными атрибутами разделяются")
+    void testAttributesSplitVertices() throws Exception {
+        Model model = createQuad(true);
+        model.textureVertices.add(new Vector2f(0, 0));
+        Polygon second = new Polygon();
+        second.setVertexIndices(new ArrayList<>(List.of(0, 2, 1)));
+        second.setTextureVertexIndices(new ArrayList<>(List.of(4, 2, 1)));
+        model.polygons.add(second);
+        Path path = tempDir.resolve("split.glb");
+
+        new GlbSaver().save(model, path);
+
+        String json = new String(Files.readAllBytes(path), StandardCharsets.ISO_8859_1);
+        assertTrue(json.contains("TEXCOORD_0"));
+        assertTrue(json.contains("\"count\":5,\"type\":\"VEC3\""));
+        assertTrue(json.contains("\"count\":9,\"type\":\"SCALAR\""));
+    }
+
+    private Model createQuad(boolean withTextures) {
+        Model model = new Model();
+        model.vertices.add(new Vector3f(0, 0, 0));
+        model.vertices.add(new Vector3f(1, 0, 0));
+        model.vertices.add(new Vector3f(1, 1, 0));
+        model.vertices.add(new Vector3f(0, 1, 0));
+
+        Polygon polygon = new Polygon();
+        polygon.setVertexIndices(new ArrayList<>(List.of(0, 1, 2, 3)));
+        if (withTextures) {
+            model.textureVertices.add(new Vector2f(0, 0));
+            model.textureVertices.add(new Vector2f(1, 0));
+            model.textureVertices.add(new Vector2f(1, 1));
+            model.textureVertices.add(new Vector2f(0, 1));
+            polygon.setTextureVertexIndices(new ArrayList<>(List.of(0, 1, 2, 3)));
+        }
+        model.polygons.add(polygon);
+        return model;
+    }
+}
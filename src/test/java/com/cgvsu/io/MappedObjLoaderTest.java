@@ -0,0 +1,61 @@
+package com.cgvsu.io;
+
+import com.cgvsu.model.PackedMesh;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class MappedObjLoaderTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    @DisplayName("Загрузка окнами меньше файла сохраняет топологию и пропускает неиспользуемые вершины")
+    void testSmallWindows() throws Exception {
+        String content =
+            "# quad\r\n" +
+            "v 9.0 9.0 9.0\r\n" +
+            "v 0.0 0.0 0.0\r\n" +
+            "v 1.0 0.0 0.0\r\n" +
+            "vt 0.5 0.5\r\n" +
+            "v 1.0 1.0 0.0\r\n" +
+            "v 0.0 1.0 0.0\r\n" +
+            "vn 0.0 0.0 1.0\r\n" +
+            "f 2/1/1 3/1/1 4/1/1 5/1/1\r\n" +
+            "f 2//1 4//1 5//1";
+        Path path = Files.writeString(tempDir.resolve("quad.obj"), content);
+
+        MappedObjLoader loader = new MappedObjLoader();
+        loader.setWindowSize(32);
+        PackedMesh mesh = loader.load(path);
+
+        assertEquals(4, mesh.getVertexCount());
+        assertEquals(2, mesh.getPolygonCount());
+        assertEquals(4, mesh.getPolygonVertexCount(0));
+        assertEquals(3, mesh.getPolygonVertexCount(1));
+
+        // Вершины нумеруются в порядке первого использования
+        assertEquals(0, mesh.getIndex(0));
+        assertEquals(3, mesh.getIndex(3));
+        assertEquals(2, mesh.getIndex(mesh.getPolygonStart(1) + 1));
+        assertEquals(1.0f, mesh.getX(2));
+        assertEquals(1.0f, mesh.getY(2));
+        assertEquals(0.0f, mesh.getX(0));
+    }
+
+    @Test
+    @DisplayName("Ссылка на несуществующую вершину отклоняется")
+    void testInvalidIndex() throws Exception {
+        Path path = Files.writeString(tempDir.resolve("broken.obj"),
+            "v 0 0 0\nv 1 0 0\nv 0 1 0\nf 1 2 4\n");
+
+        ModelLoadingException e = assertThrows(ModelLoadingException.class, () -> new MappedObjLoader().load(path));
+        assertTrue(e.getMessage().contains("несуществующую вершину 3"));
+    }
+}
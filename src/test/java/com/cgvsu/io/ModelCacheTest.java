@@ -0,0 +1,147 @@
+package com.cgvsu.io;
+
+import com.cgvsu.math.Vector3f;
+import com.cgvsu.model.Model;
+import com.cgvsu.model.PackedMesh;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.Iterator;
+import java.util.List;
+import java.util.ListIterator;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ModelCacheTest {
+
+    private static final String TRIANGLE =
+        "v 0.0 0.0 0.0\n" +
+        "v 1.0 0.0 0.0\n" +
+        "v 0.0 1.0 0.0\n" +
+        "f 1 2 3\n";
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    @DisplayName("Повторная загрузка возвращает разделяемую модель только для чтения")
+    void testCacheHit() throws Exception {
+        Path path = Files.writeString(tempDir.resolve("triangle.obj"), TRIANGLE);
+        ModelCache cache = new ModelCache(1 << 20);
+
+        Model first = cache.load(path);
+        Model second = cache.load(tempDir.resolve(".").resolve("triangle.obj"));
+
+        assertSame(first, second);
+        assertEquals(1, cache.getHitCount());
+        assertTrue(first.isReadOnly());
+        assertThrows(UnsupportedOperationException.class, () -> first.vertices.add(new Vector3f(0, 0, 1)));
+
+        Model editable = first.copy();
+        assertFalse(editable.isReadOnly());
+        editable.vertices.add(new Vector3f(0, 0, 1));
+        assertEquals(4, editable.vertices.size());
+    }
+
+    @Test
+    @DisplayName("Измененный файл загружается заново")
+    void testModifiedFileReloads() throws Exception {
+        Path path = Files.writeString(tempDir.resolve("triangle.obj"), TRIANGLE);
+        ModelCache cache = new ModelCache(1 << 20);
+
+        Model first = cache.load(path);
+        Files.writeString(path, TRIANGLE + "v 0.0 0.0 1.0\n");
+        Files.setLastModifiedTime(path, FileTime.fromMillis(System.currentTimeMillis() + 10_000));
+        Model second = cache.load(path);
+
+        assertNotSame(first, second);
+        assertEquals(4, second.vertices.size());
+        assertEquals(1, cache.size());
+    }
+
+    @Test
+    @DisplayName("Вытеснение по оценочному объему")
+    void testEvictionByFootprint() throws Exception {
+        Path first = Files.writeString(tempDir.resolve("first.obj"), TRIANGLE);
+        Path second = Files.writeString(tempDir.resolve("second.obj"), TRIANGLE);
+        long footprint = ModelCache.estimateFootprint(new ObjLoader().loadFromContent(TRIANGLE));
+        ModelCache cache = new ModelCache(footprint + footprint / 2);
+
+        Model firstModel = cache.load(first);
+        cache.load(second);
+
+        assertEquals(1, cache.size());
+        assertEquals(footprint, cache.getUsedBytes());
+        assertNotSame(firstModel, cache.load(first));
+    }
+
+    @Test
+    @DisplayName("Производные данные модели пересчитываются только после ее изменения")
+    void testDerivedDataFollowsVersion() throws Exception {
+        Model model = new ObjLoader().loadFromContent(TRIANGLE);
+
+        PackedMesh packed = model.getDerived(PackedMesh.DERIVED);
+        assertSame(packed, model.getDerived(PackedMesh.DERIVED));
+
+        long version = model.getVersion();
+        model.vertices.add(new Vector3f(0, 0, 1));
+        assertTrue(model.getVersion() > version);
+
+        PackedMesh updated = model.getDerived(PackedMesh.DERIVED);
+        assertNotSame(packed, updated);
+        assertEquals(4, updated.getVertexCount());
+    }
+
+    @Test
+    @DisplayName("Итераторы и подсписки разделяемой модели не меняют ее, а у копии увеличивают версию")
+    void testIteratorsAndSubLists() throws Exception {
+        Path path = Files.writeString(tempDir.resolve("triangle.obj"), TRIANGLE);
+        Model shared = new ModelCache(1 << 20).load(path);
+
+        Iterator<Vector3f> iterator = shared.vertices.iterator();
+        iterator.next();
+        assertThrows(UnsupportedOperationException.class, iterator::remove);
+        ListIterator<Vector3f> listIterator = shared.vertices.listIterator();
+        listIterator.next();
+        assertThrows(UnsupportedOperationException.class, () -> listIterator.set(new Vector3f(0, 0, 1)));
+        assertThrows(UnsupportedOperationException.class, () -> listIterator.add(new Vector3f(0, 0, 1)));
+        List<Vector3f> subList = shared.vertices.subList(0, 2);
+        assertThrows(UnsupportedOperationException.class, subList::clear);
+        assertThrows(UnsupportedOperationException.class, () -> subList.set(0, new Vector3f(0, 0, 1)));
+        assertThrows(UnsupportedOperationException.class, () -> subList.removeIf(vertex -> true));
+        assertThrows(UnsupportedOperationException.class, () -> subList.subList(0, 1).clear());
+        assertEquals(3, shared.vertices.size());
+        assertEquals(0, shared.vertices.get(0).x);
+
+        Model editable = shared.copy();
+        PackedMesh packed = editable.getDerived(PackedMesh.DERIVED);
+        long version = editable.getVersion();
+        ListIterator<Vector3f> editor = editable.vertices.listIterator();
+        editor.next();
+        editor.set(new Vector3f(5, 0, 0));
+        assertTrue(editable.getVersion() > version);
+        assertNotSame(packed, editable.getDerived(PackedMesh.DERIVED));
+        assertEquals(5, editable.getDerived(PackedMesh.DERIVED).getX(0));
+
+        version = editable.getVersion();
+        editable.vertices.subList(1, 3).set(0, new Vector3f(6, 0, 0));
+        assertTrue(editable.getVersion() > version);
+        assertEquals(6, editable.vertices.get(1).x);
+
+        version = editable.getVersion();
+        editable.vertices.subList(1, 3).clear();
+        assertTrue(editable.getVersion() > version);
+        assertEquals(1, editable.vertices.size());
+
+        version = editable.getVersion();
+        Iterator<Vector3f> remover = editable.vertices.iterator();
+        remover.next();
+        remover.remove();
+        assertTrue(editable.getVersion() > version);
+        assertTrue(editable.vertices.isEmpty());
+    }
+}
@@ -0,0 +1,85 @@
+package com.cgvsu.io;
+
+import com.cgvsu.model.Model;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ObjGroupIndexTest {
+
+    private static final String ASSEMBLY =
+        "v 0 0 0\n" +
+        "v 1 0 0\n" +
+        "v 0 1 0\n" +
+        "vt 0 0\n" +
+        "vt 1 0\n" +
+        "vt 0 1\n" +
+        "o base\n" +
+        "g plate\n" +
+        "f 1/1 2/2 3/3\n" +
+        "v 5 5 5\n" +
+        "v 6 5 5\n" +
+        "v 5 6 5\n" +
+        "v 7 7 7\n" +
+        "o arm\n" +
+        "g joint\n" +
+        "f 4 5 6\n" +
+        "g joint tip\n" +
+        "f 5 6 7\n";
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    @DisplayName("Индекс находит группы и объекты и сохраняется рядом с файлом только по запросу")
+    void testIndexBuildAndPersist() throws Exception {
+        Path path = Files.writeString(tempDir.resolve("assembly.obj"), ASSEMBLY);
+
+        ObjGroupIndex.open(path);
+        assertFalse(Files.exists(ObjGroupIndex.indexPathFor(path)));
+
+        ObjGroupIndex index = ObjGroupIndex.open(path, true);
+        assertEquals(Set.of("plate", "joint", "tip"), index.getGroupNames());
+        assertEquals(Set.of("base", "arm"), index.getObjectNames());
+        assertEquals(2, index.getFaceCount("joint"));
+        assertEquals(7, index.getVertexCount());
+        assertEquals(3, index.getTextureVertexCount());
+        assertTrue(Files.exists(ObjGroupIndex.indexPathFor(path)));
+
+        ObjGroupIndex stored = ObjGroupIndex.read(ObjGroupIndex.indexPathFor(path));
+        assertTrue(stored.matches(path));
+        assertEquals(index.getGroupNames(), stored.getGroupNames());
+        assertEquals(1, stored.getFaceCount("tip"));
+    }
+
+    @Test
+    @DisplayName("Загрузка выбранной группы берет только нужные вершины")
+    void testLoadSelectedGroups() throws Exception {
+        Path path = Files.writeString(tempDir.resolve("assembly.obj"), ASSEMBLY);
+        ObjLoader loader = new ObjLoader();
+
+        Model tip = loader.loadGroups(path, List.of("tip"));
+        assertEquals(1, tip.polygons.size());
+        assertEquals(3, tip.vertices.size());
+        assertEquals(6.0f, tip.vertices.get(0).x);
+        assertEquals(7.0f, tip.vertices.get(2).z);
+
+        Model plate = loader.loadGroups(path, List.of("plate"));
+        assertEquals(3, plate.vertices.size());
+        assertEquals(3, plate.textureVertices.size());
+        assertEquals(1.0f, plate.textureVertices.get(1).x);
+
+        Model arm = loader.loadGroups(path, List.of("arm", "joint"));
+        assertEquals(2, arm.polygons.size());
+        assertEquals(4, arm.vertices.size());
+
+        assertThrows(ModelLoadingException.class, () -> loader.loadGroups(path, List.of("missing")));
+    }
+}
@@ -199,4 +199,63 @@ public class ObjLoaderTest {
             () -> loader.validateModel(invalidModel));
         assertTrue(exception.getMessage().contains("ссылается на несуществующую вершину"));
     }
+
+    @Test
+    @DisplayName("Ссылки полигона на вершины, объявленные ниже")
+    void testForwardReferences() throws ModelLoadingException {
+        String objContent =
+            "v 0.0 0.0 0.0\n" +
+            "f 1 2 3\n" +
+            "v 1.0 0.0 0.0\n" +
+            "v 0.0 1.0 0.0\n";
+
+        Model model = loader.loadFromContent(objContent);
+        assertEquals(1, model.polygons.size());
+
+        ModelLoadingException exception = assertThrows(ModelLoadingException.class,
+            () -> loader.loadFromContent(objContent + "f 1 2 3\nf 1 2 5\n"));
+        assertEquals("Полигон 2 ссылается на несуществующую вершину 4", exception.getMessage());
+    }
+
+    @Test
+    @DisplayName("Ошибка индексов сообщается для первого полигона, вершины раньше текстурных координат")
+    void testIndexErrorOrder() {
+        String vertices =
+            "v 0.0 0.0 0.0\n" +
+            "v 1.0 0.0 0.0\n" +
+            "v 0.0 1.0 0.0\n" +
+            "vt 0.0 0.0\n";
+
+        // Ссылка вперед в полигоне 0 так и не разрешилась, полигон 1 неверен сразу
+        ModelLoadingException exception = assertThrows(ModelLoadingException.class,
+            () -> loader.loadFromContent(vertices + "f 1 2 9\nf 0 1 2\n"));
+        assertEquals("Полигон 0 ссылается на несуществующую вершину 8", exception.getMessage());
+
+        exception = assertThrows(ModelLoadingException.class,
+            () -> loader.loadFromContent(vertices + "f 1/1 2/0 9/1\n"));
+        assertEquals("Полигон 0 ссылается на несуществующую вершину 8", exception.getMessage());
+
+        exception = assertThrows(ModelLoadingException.class,
+            () -> loader.loadFromContent(vertices + "f 1 2 3\nf 1/1 2/0 3/1\nf 0 1 2\n"));
+        assertEquals("Полигон 1 ссылается на несуществующие текстурные координаты -1", exception.getMessage());
+    }
+
+    @Test
+    @DisplayName("Параллельная валидация сообщает первый некорректный полигон")
+    void testParallelValidation() {
+        Model model = new Model();
+        model.vertices.add(new Vector3f(0, 0, 0));
+        model.vertices.add(new Vector3f(1, 0, 0));
+        model.vertices.add(new Vector3f(0, 1, 0));
+        for (int i = 0; i < 200_000; i++) {
+            com.cgvsu.model.Polygon polygon = new com.cgvsu.model.Polygon();
+            int last = i == 123_456 || i == 190_000 ? 7 : 2;
+            polygon.setVertexIndices(new ArrayList<>(java.util.List.of(0, 1, last)));
+            model.polygons.add(polygon);
+        }
+
+        ModelLoadingException exception = assertThrows(ModelLoadingException.class,
+            () -> loader.validateModel(model));
+        assertEquals("Полигон 123456 ссылается на несуществующую вершину 7", exception.getMessage());
+    }
 }
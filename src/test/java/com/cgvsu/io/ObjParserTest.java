@@ -0,0 +1,91 @@
+package com.cgvsu.io;
+
+import com.cgvsu.model.Model;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.DisplayName;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ObjParserTest {
+
+    @Test
+    @DisplayName("События разбора без построения модели")
+    void testEvents() throws ModelLoadingException {
+        String objContent =
+            "# comment\n" +
+            "o body\n" +
+            "v -1.0 0.0 2.0\n" +
+            "v 3.0 4.0 -5.0\n" +
+            "v 0.0 1.0 0.0\n" +
+            "vt 0.5 0.25\n" +
+            "vn 0.0 0.0 1.0\n" +
+            "g left arm\n" +
+            "f 1/1/1 2//1 3\n";
+
+        List<String> events = new ArrayList<>();
+        float[] min = {Float.MAX_VALUE, Float.MAX_VALUE, Float.MAX_VALUE};
+
+        ObjParser.parse(objContent, new ObjHandler() {
+            @Override
+            public void vertex(float x, float y, float z, int lineNumber) {
+                min[0] = Math.min(min[0], x);
+                min[1] = Math.min(min[1], y);
+                min[2] = Math.min(min[2], z);
+            }
+
+            @Override
+            public void textureVertex(float u, float v, int lineNumber) {
+                events.add("vt " + u + " " + v);
+            }
+
+            @Override
+            public void face(int[] vertexIndices, int vertexCount,
+                             int[] textureVertexIndices, int textureVertexCount,
+                             int[] normalIndices, int normalCount, int lineNumber) {
+                events.add("f " + Arrays.toString(Arrays.copyOf(vertexIndices, vertexCount)) +
+                           " " + Arrays.toString(Arrays.copyOf(textureVertexIndices, textureVertexCount)) +
+                           " " + Arrays.toString(Arrays.copyOf(normalIndices, normalCount)) +
+                           " @" + lineNumber);
+            }
+
+            @Override
+            public void group(String name, int lineNumber) {
+                events.add("g " + name);
+            }
+
+            @Override
+            public void object(String name, int lineNumber) {
+                events.add("o " + name);
+            }
+        });
+
+        assertArrayEquals(new float[]{-1.0f, 0.0f, -5.0f}, min);
+        assertEquals(List.of("o body", "vt 0.5 0.25", "g left arm", "f [0, 1, 2] [0] [0, 0] @9"), events);
+    }
+
+    @Test
+    @DisplayName("Ошибка обработчика сохраняет номер строки")
+    void testHandlerErrorPropagates() {
+        ModelLoadingException exception = assertThrows(ModelLoadingException.class,
+            () -> ObjParser.parse("v 1 2 3\nf 1 2 x\n", new ObjHandler() {}));
+
+        assertTrue(exception.getMessage().contains("строке 2"));
+        assertTrue(exception.getMessage().contains("Некорректный формат индексов"));
+    }
+
+    @Test
+    @DisplayName("ObjModelBuilder передает модели каждый список одним изменением")
+    void testBuilderAttachesListsOnce() throws ModelLoadingException {
+        ObjModelBuilder builder = new ObjModelBuilder();
+        ObjParser.parse("v 0 0 0\nv 1 0 0\nv 0 1 0\nvt 0 0\nvn 0 0 1\nf 1 2 3\nf 3 2 1\n", builder);
+        Model model = builder.finish();
+
+        assertEquals(3, model.vertices.size());
+        assertEquals(2, model.polygons.size());
+        assertEquals(4, model.getVersion());
+    }
+}
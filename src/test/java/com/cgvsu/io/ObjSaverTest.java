@@ -170,6 +170,26 @@ public class ObjSaverTest {
         assertEquals(loadedModel.polygons.size(), reloadedModel.polygons.size());
     }
 
+    @Test
+    @DisplayName("Сохранение и загрузка сжатого OBJ")
+    void testCompressedRoundTrip() throws Exception {
+        Model model = createModelWithNormals();
+        Path path = tempDir.resolve("model.obj.gz");
+
+        ModelSaver gzSaver = ModelIOFactory.createSaver(path);
+        gzSaver.save(model, path);
+
+        byte[] header = java.nio.file.Files.readAllBytes(path);
+        assertEquals((byte) 0x1f, header[0]);
+        assertEquals((byte) 0x8b, header[1]);
+
+        Model reloadedModel = ModelIOFactory.createLoader(path).load(path);
+
+        assertEquals(model.vertices.size(), reloadedModel.vertices.size());
+        assertEquals(model.normals.size(), reloadedModel.normals.size());
+        assertEquals(model.polygons.size(), reloadedModel.polygons.size());
+    }
+
 
     private Model createSimpleModel() {
         Model model = new Model();
@@ -0,0 +1,159 @@
+package com.cgvsu.io;
+
+import com.cgvsu.math.Vector3f;
+import com.cgvsu.model.Model;
+import com.cgvsu.model.Polygon;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class PlyLoaderTest {
+
+    private PlyLoader loader;
+    private PlySaver saver;
+
+    @TempDir
+    Path tempDir;
+
+    @BeforeEach
+    void setUp() {
+        loader = new PlyLoader();
+        saver = new PlySaver();
+    }
+
+    @Test
+    @DisplayName("Поддержка PLY расширения")
+    void testSupportsExtension() {
+        assertTrue(loader.supportsExtension(Path.of("model.ply")));
+        assertTrue(loader.supportsExtension(Path.of("MODEL.PLY")));
+        assertTrue(loader.supportsExtension(Path.of("model.ply.gz")));
+        assertFalse(loader.supportsExtension(Path.of("model.obj")));
+        assertFalse(saver.supportsExtension(Path.of("model.obj")));
+        assertTrue(saver.supportsExtension(Path.of("model.ply")));
+    }
+
+    @Test
+    @DisplayName("Загрузка binary_big_endian PLY с дополнительными свойствами")
+    void testLoadBigEndian() throws Exception {
+        String header =
+            "ply\n" +
+            "format binary_big_endian 1.0\n" +
+            "comment test\n" +
+            "element vertex 3\n" +
+            "property double x\n" +
+            "property double y\n" +
+            "property double z\n" +
+            "property uchar red\n" +
+            "element face 1\n" +
+            "property uchar flags\n" +
+            "property list uchar uint vertex_indices\n" +
+            "end_header\n";
+
+        ByteBuffer body = ByteBuffer.allocate(3 * 25 + 1 + 1 + 3 * 4).order(ByteOrder.BIG_ENDIAN);
+        double[][] vertices = {{0, 0, 0}, {1, 0, 0}, {0, 2, 0}};
+        for (double[] vertex : vertices) {
+            body.putDouble(vertex[0]).putDouble(vertex[1]).putDouble(vertex[2]).put((byte) 255);
+        }
+        body.put((byte) 7).put((byte) 3).putInt(0).putInt(1).putInt(2);
+
+        Path path = tempDir.resolve("model.ply");
+        ByteArrayOutputStream content = new ByteArrayOutputStream();
+        content.write(header.getBytes(StandardCharsets.US_ASCII));
+        content.write(body.array());
+        Files.write(path, content.toByteArray());
+
+        Model model = loader.load(path);
+
+        assertEquals(3, model.vertices.size());
+        assertEquals(2.0f, model.vertices.get(2).y, 1e-6f);
+        assertEquals(1, model.polygons.size());
+        assertEquals(List.of(0, 1, 2), model.polygons.get(0).getVertexIndices());
+        assertTrue(model.normals.isEmpty());
+    }
+
+    @Test
+    @DisplayName("Полный цикл сохранение-загрузка в обоих порядках байтов")
+    void testRoundTrip() throws Exception {
+        Model model = createQuadWithNormals();
+
+        for (ByteOrder order : new ByteOrder[]{ByteOrder.LITTLE_ENDIAN, ByteOrder.BIG_ENDIAN}) {
+            PlySaver.PlySaveSettings settings = new PlySaver.PlySaveSettings();
+            settings.byteOrder = order;
+            Path path = tempDir.resolve("model_" + order + ".ply");
+            saver.save(model, path, settings);
+
+            Model loaded = loader.load(path);
+
+            assertEquals(model.vertices.size(), loaded.vertices.size());
+            assertEquals(model.normals.size(), loaded.normals.size());
+            assertEquals(model.polygons.size(), loaded.polygons.size());
+            assertEquals(List.of(0, 1, 2, 3), loaded.polygons.get(0).getVertexIndices());
+            assertEquals(List.of(0, 1, 2, 3), loaded.polygons.get(0).getNormalIndices());
+            assertEquals(3.5f, loaded.vertices.get(2).z, 1e-6f);
+        }
+    }
+
+    @Test
+    @DisplayName("Загрузка сжатого PLY через фабрику")
+    void testCompressedRoundTrip() throws Exception {
+        Model model = createQuadWithNormals();
+        Path path = tempDir.resolve("model.ply.gz");
+
+        ModelIOFactory.createSaver(path).save(model, path);
+        Model loaded = ModelIOFactory.createLoader(path).load(path);
+
+        assertEquals(model.vertices.size(), loaded.vertices.size());
+        assertEquals(model.polygons.size(), loaded.polygons.size());
+    }
+
+    @Test
+    @DisplayName("Ошибка при текстовом PLY")
+    void testAsciiNotSupported() throws Exception {
+        Path path = tempDir.resolve("ascii.ply");
+        Files.writeString(path, "ply\nformat ascii 1.0\nelement vertex 0\nend_header\n");
+
+        ModelLoadingException exception = assertThrows(ModelLoadingException.class, () -> loader.load(path));
+        assertTrue(exception.getMessage().contains("ascii"));
+    }
+
+    @Test
+    @DisplayName("Ошибка при обрезанном файле")
+    void testTruncatedFile() throws Exception {
+        Path path = tempDir.resolve("truncated.ply");
+        Files.writeString(path,
+            "ply\nformat binary_little_endian 1.0\nelement vertex 2\n" +
+            "property float x\nproperty float y\nproperty float z\nend_header\n", StandardCharsets.US_ASCII);
+
+        ModelLoadingException exception = assertThrows(ModelLoadingException.class, () -> loader.load(path));
+        assertTrue(exception.getMessage().contains("конец файла"));
+    }
+
+    private Model createQuadWithNormals() {
+        Model model = new Model();
+        model.vertices.add(new Vector3f(0, 0, 0));
+        model.vertices.add(new Vector3f(1, 0, 0));
+        model.vertices.add(new Vector3f(1, 1, 3.5f));
+        model.vertices.add(new Vector3f(0, 1, 0));
+        for (int i = 0; i < 4; i++) {
+            model.normals.add(new Vector3f(0, 0, 1));
+        }
+
+        Polygon polygon = new Polygon();
+        polygon.setVertexIndices(new ArrayList<>(List.of(0, 1, 2, 3)));
+        polygon.setNormalIndices(new ArrayList<>(List.of(0, 1, 2, 3)));
+        model.polygons.add(polygon);
+        return model;
+    }
+}
@@ -0,0 +1,81 @@
+package com.cgvsu.math;
+
+import com.cgvsu.render_engine.GraphicConveyor;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.DisplayName;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class Matrix4fTest {
+
+    @Test
+    @DisplayName("Пакетное преобразование совпадает с последовательным применением матриц")
+    void testBatchTransformMatchesComposition() {
+        Matrix4f view = GraphicConveyor.lookAt(new Vector3f(3, 4, 10), new Vector3f(0, 0, 0));
+        Matrix4f projection = GraphicConveyor.perspective(1.0f, 1.5f, 0.1f, 100);
+        Matrix4f viewProjection = new Matrix4f(view).mul(projection);
+
+        float[] points = {1, 2, 3, -1, 0.5f, 2, 0, 0, 0};
+        float[] batch = new float[points.length];
+        viewProjection.transformPoints(points, 0, batch, 0, 3);
+
+        Vector3f step = new Vector3f();
+        Vector3f result = new Vector3f();
+        for (int i = 0; i < 3; i++) {
+            view.transformPoint(points[i * 3], points[i * 3 + 1], points[i * 3 + 2], step);
+            projection.transformPoint(step, result);
+            assertEquals(result.x, batch[i * 3], 1e-5);
+            assertEquals(result.y, batch[i * 3 + 1], 1e-5);
+            assertEquals(result.z, batch[i * 3 + 2], 1e-5);
+        }
+
+        // Умножение на месте, когда приемник совпадает с множителем
+        Matrix4f inPlace = new Matrix4f(view);
+        inPlace.mul(inPlace, projection);
+        assertTrue(inPlace.equals(viewProjection, 1e-6f));
+
+        // Камера в (3, 4, 10) переходит в начало координат вида
+        view.transformPoint(3, 4, 10, result);
+        assertEquals(0, result.length(), 1e-5);
+    }
+
+    @Test
+    @DisplayName("lookAt, perspective и порядок умножения совпадают с прежними результатами vecmath")
+    void testConventionsMatchVecmath() {
+        // Значения получены прежним GraphicConveyor на javax.vecmath 1.3.1 (матрицы по строкам)
+        Matrix4f expectedView = new Matrix4f(new float[]{
+            0.9486833f, 0.0805823f, 0.30578834f, 0.0f,
+            0.0f, 0.96698755f, -0.2548236f, 0.0f,
+            -0.31622776f, 0.24174689f, 0.91736495f, 0.0f,
+            -0.3162278f, 0.40291154f, 7.4153666f, 1.0f});
+        Matrix4f expectedProjection = new Matrix4f(new float[]{
+            1.2203251f, 0.0f, 0.0f, 0.0f,
+            0.0f, 1.8304877f, 0.0f, 0.0f,
+            0.0f, 0.0f, 1.002002f, 1.0f,
+            0.0f, 0.0f, -0.2002002f, 0.0f});
+        // vecmath: model.mul(view); model.mul(projection) - произведение model * view * projection
+        Matrix4f expectedViewProjection = new Matrix4f(new float[]{
+            1.1577021f, 0.14750491f, 0.30640054f, 0.30578834f,
+            0.0f, 1.7700589f, -0.25533375f, -0.2548236f,
+            -0.38590068f, 0.44251472f, 0.9192015f, 0.91736495f,
+            -0.3859007f, 0.7375246f, 7.230012f, 7.4153666f});
+
+        Matrix4f view = GraphicConveyor.lookAt(new Vector3f(-2, 1.5f, -7), new Vector3f(1, -1, 2));
+        Matrix4f projection = GraphicConveyor.perspective(1.0f, 1.5f, 0.1f, 100);
+        assertTrue(view.equals(expectedView, 1e-6f), view.toString());
+        assertTrue(projection.equals(expectedProjection, 1e-6f), projection.toString());
+
+        Matrix4f viewProjection = new Matrix4f(GraphicConveyor.rotateScaleTranslate()).mul(view).mul(projection);
+        assertTrue(viewProjection.equals(expectedViewProjection, 1e-5f), viewProjection.toString());
+        assertTrue(new Matrix4f().mul(view, projection).equals(expectedViewProjection, 1e-5f));
+
+        // Точка проходит весь путь до экрана так же, как через multiplyMatrix4ByVector3 и vertexToPoint vecmath
+        Vector3f ndc = GraphicConveyor.multiplyMatrix4ByVector3(viewProjection, new Vector3f(0.5f, -0.25f, 1.0f));
+        assertEquals(-0.022569055f, ndc.x, 1e-6f);
+        assertEquals(0.09489363f, ndc.y, 1e-6f);
+        assertEquals(0.97858495f, ndc.z, 1e-6f);
+        Vector2f point = GraphicConveyor.vertexToPoint(ndc, 800, 600);
+        assertEquals(381.94476f, point.x, 1e-3f);
+        assertEquals(243.06383f, point.y, 1e-3f);
+    }
+}
@@ -0,0 +1,50 @@
+package com.cgvsu.math;
+
+import com.cgvsu.render_engine.GraphicConveyor;
+
+import java.util.Random;
+
+// Сравнение скалярного и рабочего ядра VertexTransform на миллионах вершин. Запуск после mvn test-compile:
+// java --add-modules jdk.incubator.vector -p target/classes:target/test-classes \
+//     --add-reads com.cgvsu=ALL-UNNAMED -m com.cgvsu/com.cgvsu.math.VertexTransformBenchmark
+// или с -cp и --add-modules jdk.incubator.vector. Без модуля оба ядра скалярные.
+public class VertexTransformBenchmark {
+
+    private static final int VERTICES = 2_000_000;
+    private static final int ROUNDS = 10;
+    private static final int REPEATS = 20;
+
+    public static void main(String[] args) {
+        Matrix4f matrix = GraphicConveyor.lookAt(new Vector3f(3, 4, 10), new Vector3f(0, 1, 0))
+            .mul(GraphicConveyor.perspective(1.0f, 1.5f, 0.1f, 100));
+        Random random = new Random(1);
+        float[] src = new float[VERTICES * 3];
+        for (int i = 0; i < src.length; i++) {
+            src[i] = random.nextFloat() * 20 - 10;
+        }
+        float[] dst = new float[src.length];
+
+        VertexTransform.Kernel scalar = VertexTransform.scalarKernel();
+        VertexTransform.Kernel kernel = VertexTransform.kernel();
+        System.out.printf("Ядро: %s, вершин: %d%n", kernel.getClass().getSimpleName(), VERTICES);
+
+        for (int round = 0; round < ROUNDS; round++) {
+            long scalarTransform = time(() -> scalar.transformPoints(matrix, src, 0, dst, 0, VERTICES));
+            long kernelTransform = time(() -> kernel.transformPoints(matrix, src, 0, dst, 0, VERTICES));
+            float[] bounds = new float[6];
+            long scalarBounds = time(() -> scalar.expandBounds(src, 0, VERTICES, bounds));
+            long kernelBounds = time(() -> kernel.expandBounds(src, 0, VERTICES, bounds));
+            System.out.printf("преобразование: %.2f / %.2f мс (x%.2f), габариты: %.2f / %.2f мс (x%.2f)%n",
+                scalarTransform / 1e6, kernelTransform / 1e6, (double) scalarTransform / kernelTransform,
+                scalarBounds / 1e6, kernelBounds / 1e6, (double) scalarBounds / kernelBounds);
+        }
+    }
+
+    private static long time(Runnable action) {
+        long start = System.nanoTime();
+        for (int i = 0; i < REPEATS; i++) {
+            action.run();
+        }
+        return (System.nanoTime() - start) / REPEATS;
+    }
+}
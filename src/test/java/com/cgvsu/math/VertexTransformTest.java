@@ -0,0 +1,51 @@
+package com.cgvsu.math;
+
+import com.cgvsu.render_engine.GraphicConveyor;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.DisplayName;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.FloatBuffer;
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class VertexTransformTest {
+
+    @Test
+    @DisplayName("Рабочее ядро преобразует точки и считает габариты так же, как скалярное")
+    void testKernelMatchesScalar() {
+        Matrix4f matrix = GraphicConveyor.lookAt(new Vector3f(3, 4, 10), new Vector3f(0, 1, 0))
+            .mul(GraphicConveyor.perspective(1.0f, 1.5f, 0.1f, 100));
+
+        // Число точек не кратно ширине вектора, смещения ненулевые
+        int count = 1003;
+        Random random = new Random(7);
+        float[] src = new float[3 + count * 3];
+        for (int i = 0; i < src.length; i++) {
+            src[i] = random.nextFloat() * 20 - 10;
+        }
+
+        float[] expected = new float[6 + count * 3];
+        float[] actual = new float[6 + count * 3];
+        VertexTransform.scalarKernel().transformPoints(matrix, src, 3, expected, 6, count);
+        VertexTransform.transformPoints(matrix, src, 3, actual, 6, count);
+        assertArrayEquals(expected, actual, "Ядро: " + VertexTransform.kernel().getClass().getSimpleName());
+
+        FloatBuffer direct = ByteBuffer.allocateDirect(src.length * Float.BYTES)
+            .order(ByteOrder.nativeOrder()).asFloatBuffer().put(src);
+        Arrays.fill(actual, 0);
+        matrix.transformPoints(direct, 3, actual, 6, count);
+        assertArrayEquals(expected, actual);
+
+        float[] expectedBounds = {
+            Float.POSITIVE_INFINITY, Float.POSITIVE_INFINITY, Float.POSITIVE_INFINITY,
+            Float.NEGATIVE_INFINITY, Float.NEGATIVE_INFINITY, Float.NEGATIVE_INFINITY
+        };
+        VertexTransform.scalarKernel().expandBounds(src, 3, count, expectedBounds);
+        assertArrayEquals(expectedBounds, VertexTransform.computeBounds(src, 3, count));
+        assertArrayEquals(expectedBounds, VertexTransform.computeBounds(direct, 3, count));
+    }
+}
@@ -0,0 +1,73 @@
+package com.cgvsu.mesh;
+
+import com.cgvsu.io.ObjLoader;
+import com.cgvsu.model.Model;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.DisplayName;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class HalfEdgeMeshTest {
+
+    @Test
+    @DisplayName("Замкнутый куб: у всех полуребер есть пары, у вершин по три соседа")
+    void testClosedCube() throws Exception {
+        Model model = new ObjLoader().loadFromContent(
+            "v 0 0 0\nv 1 0 0\nv 1 1 0\nv 0 1 0\n" +
+            "v 0 0 1\nv 1 0 1\nv 1 1 1\nv 0 1 1\n" +
+            "f 1 4 3 2\nf 5 6 7 8\nf 1 2 6 5\nf 2 3 7 6\nf 3 4 8 7\nf 4 1 5 8\n");
+
+        HalfEdgeMesh mesh = model.getDerived(HalfEdgeMesh.DERIVED);
+        assertEquals(24, mesh.getHalfEdgeCount());
+        assertEquals(0, mesh.getBoundaryHalfEdgeCount());
+        assertEquals(0, mesh.getNonManifoldHalfEdgeCount());
+
+        for (int v = 0; v < mesh.getVertexCount(); v++) {
+            int valence = 0;
+            for (int h = mesh.firstOutgoing(v); h != HalfEdgeMesh.NONE; h = mesh.nextOutgoing(h)) {
+                assertEquals(v, mesh.getOrigin(h));
+                valence++;
+            }
+            assertEquals(3, valence);
+        }
+
+        int face = 0;
+        int h = mesh.getFaceHalfEdge(face);
+        for (int i = 0; i < mesh.getFaceSize(face); i++, h = mesh.next(h)) {
+            assertNotEquals(face, mesh.getNeighbourFace(h));
+            assertEquals(h, mesh.getTwin(mesh.getTwin(h)));
+        }
+    }
+
+    @Test
+    @DisplayName("Граница обходится по вееру, ребро трех полигонов - неманифолдное")
+    void testBoundaryAndNonManifold() throws Exception {
+        Model model = new ObjLoader().loadFromContent(
+            "v 0 0 0\nv 1 0 0\nv 0 1 0\nv 0 -1 0\nv 0 0 1\n" +
+            "f 1 2 3\nf 2 1 4\nf 1 2 5\n");
+
+        HalfEdgeMesh mesh = HalfEdgeMesh.of(model);
+        assertEquals(3, mesh.getNonManifoldHalfEdgeCount());
+        for (int i = 0; i < mesh.getNonManifoldHalfEdgeCount(); i++) {
+            int h = mesh.getNonManifoldHalfEdge(i);
+            int from = mesh.getOrigin(h);
+            int to = mesh.getTarget(h);
+            assertTrue((from == 0 && to == 1) || (from == 1 && to == 0));
+        }
+
+        Model strip = new ObjLoader().loadFromContent(
+            "v 0 0 0\nv 1 0 0\nv 1 1 0\nv 0 1 0\n" +
+            "f 1 2 3\nf 1 3 4\n");
+        HalfEdgeMesh stripMesh = HalfEdgeMesh.of(strip);
+        assertEquals(4, stripMesh.getBoundaryHalfEdgeCount());
+
+        int last = HalfEdgeMesh.NONE;
+        int count = 0;
+        for (int h = stripMesh.firstOutgoing(0); h != HalfEdgeMesh.NONE; h = stripMesh.nextOutgoing(h)) {
+            last = h;
+            count++;
+        }
+        assertEquals(2, count);
+        assertNotEquals(HalfEdgeMesh.NONE, stripMesh.lastRingVertex(last));
+    }
+}
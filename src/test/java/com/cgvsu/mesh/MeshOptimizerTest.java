@@ -0,0 +1,75 @@
+package com.cgvsu.mesh;
+
+import com.cgvsu.io.ObjLoader;
+import com.cgvsu.math.Vector3f;
+import com.cgvsu.model.Model;
+import com.cgvsu.model.Polygon;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.DisplayName;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class MeshOptimizerTest {
+
+    @Test
+    @DisplayName("Перемешанная сетка после оптимизации лучше использует кэш и сохраняет геометрию")
+    void testShuffledGrid() throws Exception {
+        int size = 40;
+        StringBuilder obj = new StringBuilder();
+        List<Integer> vertexOrder = new ArrayList<>();
+        for (int i = 0; i < (size + 1) * (size + 1); i++) {
+            vertexOrder.add(i);
+        }
+        Collections.shuffle(vertexOrder, new Random(1));
+        int[] position = new int[vertexOrder.size()];
+        for (int i = 0; i < vertexOrder.size(); i++) {
+            int grid = vertexOrder.get(i);
+            position[grid] = i;
+            obj.append("v ").append(grid % (size + 1)).append(' ').append(grid / (size + 1)).append(" 0\n");
+        }
+        List<String> faces = new ArrayList<>();
+        for (int y = 0; y < size; y++) {
+            for (int x = 0; x < size; x++) {
+                int a = y * (size + 1) + x;
+                faces.add("f " + (position[a] + 1) + " " + (position[a + 1] + 1) + " "
+                    + (position[a + size + 2] + 1) + " " + (position[a + size + 1] + 1));
+            }
+        }
+        Collections.shuffle(faces, new Random(2));
+        for (String face : faces) {
+            obj.append(face).append('\n');
+        }
+
+        Model model = new ObjLoader().loadFromContent(obj.toString());
+        Set<String> before = quads(model);
+
+        MeshOptimizer.Report report = new MeshOptimizer().optimize(model);
+        assertTrue(report.getAfter().getAcmr() < report.getBefore().getAcmr() * 0.6, report.toString());
+        assertTrue(report.getAfter().getAverageIndexSpan() < report.getBefore().getAverageIndexSpan());
+        assertEquals(before, quads(model));
+
+        new MeshOptimizer(MeshOptimizer.VertexOrder.MORTON).optimize(model);
+        assertEquals(before, quads(model));
+    }
+
+    // Полигоны как множества координат: не зависят от порядка полигонов и номеров вершин
+    private static Set<String> quads(Model model) {
+        Set<String> result = new HashSet<>();
+        for (Polygon polygon : model.polygons) {
+            StringBuilder key = new StringBuilder();
+            for (int index : polygon.getVertexIndices()) {
+                Vector3f v = model.vertices.get(index);
+                key.append(v.x).append(',').append(v.y).append(';');
+            }
+            result.add(key.toString());
+        }
+        return result;
+    }
+}
@@ -0,0 +1,72 @@
+package com.cgvsu.mesh;
+
+import com.cgvsu.io.ObjLoader;
+import com.cgvsu.math.Vector3f;
+import com.cgvsu.model.Model;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.DisplayName;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class MeshSimplifierTest {
+
+    @Test
+    @DisplayName("Упрощение плоской сетки сохраняет плоскость и ее границы")
+    void testFlatGrid() throws Exception {
+        Model model = grid(40);
+        Model simplified = new MeshSimplifier().simplify(model, 320);
+
+        assertTrue(simplified.polygons.size() <= 322, "Треугольников: " + simplified.polygons.size());
+        assertTrue(simplified.polygons.size() >= 2);
+
+        float minX = Float.MAX_VALUE, maxX = -Float.MAX_VALUE, minY = Float.MAX_VALUE, maxY = -Float.MAX_VALUE;
+        for (Vector3f vertex : simplified.vertices) {
+            assertEquals(0, vertex.z, 1e-4);
+            minX = Math.min(minX, vertex.x);
+            maxX = Math.max(maxX, vertex.x);
+            minY = Math.min(minY, vertex.y);
+            maxY = Math.max(maxY, vertex.y);
+        }
+        assertEquals(0, minX, 1e-3);
+        assertEquals(40, maxX, 1e-3);
+        assertEquals(0, minY, 1e-3);
+        assertEquals(40, maxY, 1e-3);
+    }
+
+    @Test
+    @DisplayName("Уровень детализации меняется по размеру на экране с гистерезисом")
+    void testLevelSelection() throws Exception {
+        LodChain chain = LodChain.build(grid(60));
+        assertEquals(2, chain.getLevelCount());
+        assertEquals(7200, chain.getTriangleCount(0));
+        assertTrue(chain.getTriangleCount(1) <= 1800);
+
+        int level = chain.selectLevel(200, 0);
+        assertEquals(0, level);
+        level = chain.selectLevel(110, level);
+        assertEquals(0, level); // Бюджет чуть меньше порога - уровень не меняется
+        level = chain.selectLevel(100, level);
+        assertEquals(1, level);
+        level = chain.selectLevel(125, level);
+        assertEquals(1, level);
+        level = chain.selectLevel(140, level);
+        assertEquals(0, level);
+    }
+
+    private static Model grid(int size) throws Exception {
+        StringBuilder obj = new StringBuilder();
+        for (int y = 0; y <= size; y++) {
+            for (int x = 0; x <= size; x++) {
+                obj.append("v ").append(x).append(' ').append(y).append(" 0\n");
+            }
+        }
+        for (int y = 0; y < size; y++) {
+            for (int x = 0; x < size; x++) {
+                int a = y * (size + 1) + x + 1;
+                obj.append("f ").append(a).append(' ').append(a + 1).append(' ')
+                    .append(a + size + 2).append(' ').append(a + size + 1).append('\n');
+            }
+        }
+        return new ObjLoader().loadFromContent(obj.toString());
+    }
+}
@@ -0,0 +1,107 @@
+package com.cgvsu.mesh;
+
+import com.cgvsu.io.ObjLoader;
+import com.cgvsu.model.Model;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.DisplayName;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class NormalGeneratorTest {
+
+    private static final String CUBE =
+        "v 0 0 0\nv 1 0 0\nv 1 1 0\nv 0 1 0\n" +
+        "v 0 0 1\nv 1 0 1\nv 1 1 1\nv 0 1 1\n" +
+        "f 1 4 3 2\nf 5 6 7 8\nf 1 2 6 5\nf 2 3 7 6\nf 3 4 8 7\nf 4 1 5 8\n";
+
+    @Test
+    @DisplayName("Сглаженные нормали куба направлены по диагоналям")
+    void testSmoothNormals() throws Exception {
+        Model model = new ObjLoader().loadFromContent(CUBE);
+
+        NormalGenerator.Result result = new NormalGenerator().generate(model);
+        assertEquals(8, result.getNormalCount());
+
+        result.applyTo(model);
+        int normal = model.polygons.get(1).getNormalIndices().get(2); // вершина 7 (1, 1, 1)
+        float expected = (float) (1 / Math.sqrt(3));
+        assertEquals(expected, model.normals.get(normal).x, 1e-5f);
+        assertEquals(expected, model.normals.get(normal).y, 1e-5f);
+        assertEquals(expected, model.normals.get(normal).z, 1e-5f);
+    }
+
+    @Test
+    @DisplayName("Угол сгиба разделяет нормали на ребрах куба")
+    void testCreaseAngle() throws Exception {
+        Model model = new ObjLoader().loadFromContent(CUBE);
+        NormalGenerator.Settings settings = new NormalGenerator.Settings();
+        settings.weighting = NormalGenerator.Weighting.ANGLE;
+        settings.creaseAngleDegrees = 60.0f;
+
+        NormalGenerator.Result result = new NormalGenerator(settings).generate(model);
+        assertEquals(24, result.getNormalCount());
+
+        result.applyTo(model);
+        int top = model.polygons.get(1).getNormalIndices().get(0);
+        assertEquals(1.0f, model.normals.get(top).z, 1e-6f);
+    }
+
+    @Test
+    @DisplayName("Сгиб делит замкнутый веер вершины на группы углов")
+    void testCreaseSplitsClosedFan() throws Exception {
+        // Восемь треугольников вокруг вершины 1, согнутых по оси x: при y > 0 они лежат в плоскости
+        // z = -y, при y < 0 - в плоскости z = y
+        StringBuilder obj = new StringBuilder("v 0 0 0\n");
+        for (int k = 0; k < 8; k++) {
+            double angle = Math.toRadians(45 * k);
+            double y = Math.round(Math.sin(angle) * 1e6) / 1e6;
+            obj.append("v ").append(Math.cos(angle)).append(' ').append(y).append(' ').append(-Math.abs(y)).append('\n');
+        }
+        for (int k = 0; k < 8; k++) {
+            obj.append("f 1 ").append(k + 2).append(' ').append((k + 1) % 8 + 2).append('\n');
+        }
+        Model model = new ObjLoader().loadFromContent(obj.toString());
+        NormalGenerator.Settings settings = new NormalGenerator.Settings();
+        settings.creaseAngleDegrees = 60.0f;
+
+        NormalGenerator.Result result = new NormalGenerator(settings).generate(model);
+        // Центр и две вершины на сгибе получают по две нормали, остальные шесть - по одной
+        assertEquals(12, result.getNormalCount());
+        int upper = result.getCornerNormalIndex(0);
+        int lower = result.getCornerNormalIndex(12);
+        assertNotEquals(upper, lower);
+        for (int face = 0; face < 8; face++) {
+            assertEquals(face < 4 ? upper : lower, result.getCornerNormalIndex(face * 3));
+        }
+        float half = (float) (1 / Math.sqrt(2));
+        assertEquals(half, result.getY(upper), 1e-5f);
+        assertEquals(half, result.getZ(upper), 1e-5f);
+        assertEquals(-half, result.getY(lower), 1e-5f);
+        assertEquals(half, result.getZ(lower), 1e-5f);
+    }
+
+    @Test
+    @DisplayName("Угол сгиба не меняет веса по площади у сглаживаемых полигонов")
+    void testAreaWeightingWithCrease() throws Exception {
+        // Большой треугольник в плоскости z = 0 и маленький, наклоненный на 45 градусов
+        Model model = new ObjLoader().loadFromContent(
+            "v 0 0 0\nv 1 0 0\nv 0 4 0\nv 0 -1 1\nf 1 2 3\nf 2 1 4\n");
+        NormalGenerator.Settings settings = new NormalGenerator.Settings();
+        settings.creaseAngleDegrees = 60.0f;
+
+        NormalGenerator.Result creased = new NormalGenerator(settings).generate(model);
+        NormalGenerator.Result smooth = new NormalGenerator().generate(model);
+
+        // 2 * (0, 0, 1) + (sqrt(2) / 2) * (0, 1, 1) / sqrt(2) = (0, 0.5, 2.5)
+        int normal = creased.getCornerNormalIndex(0);
+        float length = (float) Math.sqrt(0.5 * 0.5 + 2.5 * 2.5);
+        assertEquals(0.5f / length, creased.getY(normal), 1e-5f);
+        assertEquals(2.5f / length, creased.getZ(normal), 1e-5f);
+        assertEquals(smooth.getY(smooth.getCornerNormalIndex(0)), creased.getY(normal), 1e-6f);
+
+        model.setReadOnly();
+        assertThrows(UnsupportedOperationException.class, () -> creased.applyTo(model));
+        assertTrue(model.normals.isEmpty());
+        assertTrue(model.polygons.get(0).getNormalIndices().isEmpty());
+    }
+}
@@ -0,0 +1,44 @@
+package com.cgvsu.mesh;
+
+import com.cgvsu.io.ObjLoader;
+import com.cgvsu.model.Model;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.DisplayName;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TriangulationTest {
+
+    @Test
+    @DisplayName("Вогнутый полигон разбивается без треугольников вне его контура")
+    void testConcavePolygon() throws Exception {
+        // Стрелка: вершина 4 (0.5, 0.5) вогнутая, веер из вершины 1 вышел бы за контур
+        Model model = new ObjLoader().loadFromContent(
+            "v 0 0 0\n" +
+            "v 2 0 0\n" +
+            "v 2 2 0\n" +
+            "v 1 1 0\n" +
+            "v 0 2 0\n" +
+            "f 4 5 1 2 3\n");
+
+        Triangulation triangulation = model.getDerived(Triangulation.DERIVED);
+        assertEquals(3, triangulation.getTriangleCount());
+
+        float area = 0;
+        for (int t = 0; t < triangulation.getTriangleCount(); t++) {
+            assertEquals(0, triangulation.getSourcePolygon(t));
+            float[] p = new float[6];
+            for (int k = 0; k < 3; k++) {
+                int vertex = triangulation.getVertexIndex(t, k);
+                assertEquals(vertex, model.polygons.get(0).getVertexIndices().get(triangulation.getCorner(t, k)));
+                p[k * 2] = model.vertices.get(vertex).x;
+                p[k * 2 + 1] = model.vertices.get(vertex).y;
+            }
+            float signedArea = ((p[2] - p[0]) * (p[5] - p[1]) - (p[3] - p[1]) * (p[4] - p[0])) / 2;
+            assertTrue(signedArea > 0, "Треугольник сохраняет обход полигона");
+            area += signedArea;
+        }
+        assertEquals(3.0f, area, 1e-6f);
+        assertSame(triangulation, model.getDerived(Triangulation.DERIVED));
+    }
+}
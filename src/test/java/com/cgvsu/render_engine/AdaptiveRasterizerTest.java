@@ -0,0 +1,115 @@
+package com.cgvsu.render_engine;
+
+import com.cgvsu.io.ObjLoader;
+import com.cgvsu.math.Vector3f;
+import com.cgvsu.model.Model;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.DisplayName;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class AdaptiveRasterizerTest {
+
+    @Test
+    @DisplayName("Масштаб сходится к целевому времени кадра и не выходит за пределы")
+    void testScaleConvergesToTarget() {
+        AdaptiveRasterizer.Settings settings = new AdaptiveRasterizer.Settings();
+        settings.targetFrameNanos = 16_000_000L;
+
+        // Модель кадра: время пропорционально числу пикселей, полное разрешение стоит 64 мс
+        float scale = 1.0f;
+        for (int frame = 0; frame < 20; frame++) {
+            scale = AdaptiveRasterizer.adjustScale(scale, scale, (long) (64_000_000L * scale * scale), settings);
+        }
+        assertEquals(0.5f, scale, 0.01f);
+
+        assertEquals(settings.minScale, AdaptiveRasterizer.adjustScale(0.3f, 0.3f, 10_000_000_000L, settings));
+        assertEquals(settings.maxScale, AdaptiveRasterizer.adjustScale(0.9f, 0.9f, 1, settings));
+
+        assertEquals(1920, AdaptiveRasterizer.scaledSize(3840, 0.5f));
+        assertEquals(1, AdaptiveRasterizer.scaledSize(1, 0.25f));
+    }
+
+    @Test
+    @DisplayName("Движение рисуется ступенью пониженного разрешения, после остановки - один кадр в полном")
+    void testMovingSettledNativeTransition() throws Exception {
+        Model quad = new ObjLoader().loadFromContent(
+            "v -1 -1 -1\nv 1 -1 -1\nv 1 1 -1\nv -1 1 -1\nf 1 2 3 4\n");
+        List<Model> models = List.of(quad);
+        Camera camera = new Camera(new Vector3f(0, 0, 10), new Vector3f(0, 0, 0), 1.0f, 2, 0.1f, 100);
+
+        long[] now = {0};
+        AdaptiveRasterizer.Settings settings = new AdaptiveRasterizer.Settings();
+        settings.maxScale = 0.6f; // Часы стоят, кадр "ничего не стоит" - масштаб упирается в предел
+        AdaptiveRasterizer rasterizer = new AdaptiveRasterizer(settings, new OffscreenRenderer(), () -> now[0]);
+
+        Framebuffer moving = rasterizer.renderOffscreen(camera, models, 200, 100);
+        assertEquals(100, moving.getWidth());
+        assertEquals(50, moving.getHeight());
+
+        // Следующий кадр движения - та же ступень 0.5 и тот же буфер, без новых выделений
+        now[0] = 20_000_000L;
+        camera.movePosition(new Vector3f(0.5f, 0, 0));
+        assertSame(moving, rasterizer.renderOffscreen(camera, models, 200, 100));
+
+        now[0] = 40_000_000L;
+        assertNull(rasterizer.renderOffscreen(camera, models, 200, 100));
+
+        // Сцена неподвижна settleNanos - один кадр в полном разрешении, дальше холст не трогается
+        now[0] = 20_000_000L + settings.settleNanos;
+        Framebuffer full = rasterizer.renderOffscreen(camera, models, 200, 100);
+        assertEquals(200, full.getWidth());
+        assertEquals(100, full.getHeight());
+        now[0] += 50_000_000L;
+        assertNull(rasterizer.renderOffscreen(camera, models, 200, 100));
+
+        // Новое движение и новая остановка переиспользуют буферы своих ступеней
+        now[0] += 50_000_000L;
+        camera.movePosition(new Vector3f(-0.5f, 0, 0));
+        assertSame(moving, rasterizer.renderOffscreen(camera, models, 200, 100));
+        now[0] += settings.settleNanos;
+        assertSame(full, rasterizer.renderOffscreen(camera, models, 200, 100));
+
+        assertEquals(2, AdaptiveRasterizer.scaleStep(0.6f));
+        assertEquals(0, AdaptiveRasterizer.scaleStep(0.1f));
+        assertEquals(AdaptiveRasterizer.SCALE_STEPS.length - 1, AdaptiveRasterizer.scaleStep(1.0f));
+    }
+
+    @Test
+    @DisplayName("Масштаб подстраивается по времени кадра на ступени, в которой кадр построен")
+    void testScaleSettlesOnRenderedStep() throws Exception {
+        Model quad = new ObjLoader().loadFromContent("v -1 -1 0\nv 1 -1 0\nv 1 1 0\nv -1 1 0\nf 1 2 3 4\n");
+        List<Model> models = List.of(quad);
+        Camera camera = new Camera(new Vector3f(0, 0, 10), new Vector3f(0, 0, 0), 1.0f, 1, 0.1f, 100);
+
+        // Время кадра пропорционально числу пикселей построенного буфера: полный кадр 400x400
+        // стоит 16 / 0.36 мс, поэтому в бюджет 16 мс укладывается масштаб 0.6 - между ступенями 0.5 и 0.75
+        long[] now = {0};
+        long fullFrameNanos = (long) (16_000_000L / 0.36);
+        OffscreenRenderer renderer = new OffscreenRenderer() {
+            @Override
+            public CullingStats render(List<Model> models, Camera camera, Framebuffer framebuffer) {
+                now[0] += fullFrameNanos * framebuffer.getWidth() * framebuffer.getHeight() / (400L * 400L);
+                return new CullingStats(0, 0, 0, 0);
+            }
+        };
+        AdaptiveRasterizer.Settings settings = new AdaptiveRasterizer.Settings();
+        settings.targetFrameNanos = 16_000_000L;
+        settings.initialScale = 1.0f;
+        AdaptiveRasterizer rasterizer = new AdaptiveRasterizer(settings, renderer, () -> now[0]);
+
+        int[] widths = new int[30];
+        for (int frame = 0; frame < widths.length; frame++) {
+            camera.movePosition(new Vector3f(0.01f, 0, 0));
+            long start = now[0];
+            widths[frame] = rasterizer.renderOffscreen(camera, models, 400, 400).getWidth();
+            if (frame >= 10) {
+                assertEquals(200, widths[frame], "кадр " + frame);
+                assertTrue(now[0] - start <= settings.targetFrameNanos);
+            }
+        }
+        assertEquals(0.6f, rasterizer.getScale(), 0.01f);
+    }
+}
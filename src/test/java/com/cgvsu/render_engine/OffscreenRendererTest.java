@@ -0,0 +1,181 @@
+package com.cgvsu.render_engine;
+
+import com.cgvsu.ThumbnailGenerator;
+import com.cgvsu.io.ModelIOFactory;
+import com.cgvsu.io.ObjLoader;
+import com.cgvsu.math.Vector3f;
+import com.cgvsu.model.Model;
+import com.cgvsu.scene.SceneModel;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.io.TempDir;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class OffscreenRendererTest {
+
+    private static final String CUBE = """
+        v -1 -1 -1
+        v 1 -1 -1
+        v 1 1 -1
+        v -1 1 -1
+        v -1 -1 1
+        v 1 -1 1
+        v 1 1 1
+        v -1 1 1
+        f 1 4 3 2
+        f 5 6 7 8
+        f 1 2 6 5
+        f 2 3 7 6
+        f 3 4 8 7
+        f 4 1 5 8
+        """;
+
+    @Test
+    @DisplayName("Миниатюра куба заполняет центр кадра и не касается углов")
+    void testAutoFramedCube() throws Exception {
+        Model model = new ObjLoader().loadFromContent(CUBE);
+        Framebuffer framebuffer = new ThumbnailGenerator(64).render(model);
+
+        int background = new OffscreenRenderer.Settings().backgroundColor;
+        assertNotEquals(background, framebuffer.getPixel(32, 32));
+        assertEquals(background, framebuffer.getPixel(0, 0));
+        assertEquals(background, framebuffer.getPixel(63, 63));
+
+        // Видимы три грани с разной освещенностью
+        assertNotEquals(framebuffer.getPixel(32, 20), framebuffer.getPixel(24, 40));
+    }
+
+    @Test
+    @DisplayName("Миниатюры дерева каталогов пишутся в PNG и не пересоздаются без изменений")
+    void testDirectoryTree(@TempDir Path temp) throws Exception {
+        Path models = temp.resolve("models");
+        Files.createDirectories(models.resolve("a/b"));
+        Files.writeString(models.resolve("cube.obj"), CUBE);
+        Files.writeString(models.resolve("a/b/cube.obj"), CUBE);
+        Files.writeString(models.resolve("a/broken.obj"), "f 1 2 3\n");
+        Files.writeString(models.resolve("a/readme.txt"), "не модель");
+
+        Path thumbnails = temp.resolve("thumbnails");
+        ThumbnailGenerator generator = new ThumbnailGenerator(32);
+        ThumbnailGenerator.Report report = generator.generate(models, thumbnails, 2);
+        assertEquals(2, report.getRendered());
+        assertEquals(1, report.getFailed());
+
+        BufferedImage image = ImageIO.read(thumbnails.resolve("a/b/cube.obj.png").toFile());
+        assertEquals(32, image.getWidth());
+        assertEquals(32, image.getHeight());
+
+        report = generator.generate(models, thumbnails, 2);
+        assertEquals(0, report.getRendered());
+        assertEquals(2, report.getSkipped());
+    }
+
+    @Test
+    @DisplayName("Треугольник меньше пикселя записывается одной точкой")
+    void testSubPixelTriangleSplat() throws Exception {
+        Model model = new ObjLoader().loadFromContent("""
+            v 0 0 0
+            v 0.01 0 0
+            v 0 0.01 0
+            f 1 2 3
+            """);
+        Camera camera = new Camera(new Vector3f(0, 0, 10), new Vector3f(0, 0, 0), 1.0f, 1.0f, 0.1f, 100);
+        Framebuffer framebuffer = new OffscreenRenderer().render(model, camera, 64, 64);
+
+        int background = new OffscreenRenderer.Settings().backgroundColor;
+        int covered = 0;
+        for (int y = 0; y < 64; y++) {
+            for (int x = 0; x < 64; x++) {
+                if (framebuffer.getPixel(x, y) != background) {
+                    covered++;
+                }
+            }
+        }
+        assertEquals(1, covered);
+    }
+
+    @Test
+    @DisplayName("Модели за стеной и вне кадра не рисуются и попадают в статистику")
+    void testOcclusionCulling() throws Exception {
+        Model wall = new ObjLoader().loadFromContent("""
+            v -50 -50 0
+            v 50 -50 0
+            v 50 50 0
+            v -50 50 0
+            f 1 2 3 4
+            """);
+        Model hidden = shiftedCube(0, 0, -10);
+        Model front = shiftedCube(0, 0, 5);
+        Model outside = shiftedCube(500, 0, 5);
+        Camera camera = new Camera(new Vector3f(0, 0, 40), new Vector3f(0, 0, 0), 1.0f, 1.0f, 0.1f, 100);
+
+        Framebuffer framebuffer = new Framebuffer(64, 64);
+        OffscreenRenderer.CullingStats stats = new OffscreenRenderer()
+            .render(List.of(hidden, front, wall, outside), camera, framebuffer);
+        assertEquals(2, stats.getDrawn());
+        assertEquals(1, stats.getFrustumCulled());
+        assertEquals(2, stats.getTested());
+        assertEquals(1, stats.getOccluded());
+
+        // Без отсечения кадр тот же
+        OffscreenRenderer.Settings settings = new OffscreenRenderer.Settings();
+        settings.occlusionCulling = false;
+        Framebuffer reference = new Framebuffer(64, 64);
+        new OffscreenRenderer(settings).render(List.of(hidden, front, wall, outside), camera, reference);
+        assertArrayEquals(reference.getPixels(), framebuffer.getPixels());
+    }
+
+    private static Model shiftedCube(float dx, float dy, float dz) throws Exception {
+        Model cube = new ObjLoader().loadFromContent(CUBE);
+        for (Vector3f vertex : cube.vertices) {
+            vertex.add(new Vector3f(dx, dy, dz));
+        }
+        cube.markModified();
+        return cube;
+    }
+
+    @Test
+    @DisplayName("OBJ в режиме отображения в память загружается без списков модели и рисуется как обычный")
+    void testMappedModelRendering(@TempDir Path temp) throws Exception {
+        Path path = Files.writeString(temp.resolve("cube.obj"), CUBE);
+
+        ModelIOFactory.LoadMode previousMode = ModelIOFactory.getLoadMode();
+        Model mapped;
+        try {
+            ModelIOFactory.setLoadMode(ModelIOFactory.LoadMode.MAPPED);
+            mapped = ModelIOFactory.loadModel(path);
+        } finally {
+            ModelIOFactory.setLoadMode(previousMode);
+            ModelIOFactory.getModelCache().invalidate(path);
+        }
+
+        // В режиме AUTO отображаются только большие несжатые OBJ
+        assertTrue(ModelIOFactory.usesMappedLoader(path, Long.MAX_VALUE));
+        assertFalse(ModelIOFactory.usesMappedLoader(path, 0));
+        assertFalse(ModelIOFactory.usesMappedLoader(temp.resolve("cube.obj.gz"), Long.MAX_VALUE));
+
+        assertTrue(mapped.isPacked());
+        assertTrue(mapped.isReadOnly());
+        assertTrue(mapped.vertices.isEmpty());
+        assertTrue(mapped.polygons.isEmpty());
+        assertEquals(8, mapped.getVertexCount());
+        assertEquals(6, mapped.getPolygonCount());
+
+        SceneModel sceneModel = new SceneModel("mapped", mapped);
+        assertTrue(sceneModel.isValid());
+        assertEquals(2, sceneModel.getBoundingBox().getMax().x - sceneModel.getBoundingBox().getMin().x, 1e-6f);
+        assertEquals(12, mapped.getDerived(DrawList.EDGES).getPrimitiveCount());
+        assertEquals(12, mapped.getDerived(DrawList.TRIANGLES).getPrimitiveCount());
+
+        Framebuffer expected = new ThumbnailGenerator(64).render(new ObjLoader().loadFromContent(CUBE));
+        Framebuffer actual = new ThumbnailGenerator(64).render(mapped);
+        assertArrayEquals(expected.getPixels(), actual.getPixels());
+    }
+}
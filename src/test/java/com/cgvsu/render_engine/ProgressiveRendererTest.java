@@ -0,0 +1,35 @@
+package com.cgvsu.render_engine;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.DisplayName;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ProgressiveRendererTest {
+
+    @Test
+    @DisplayName("Уточнение начинается после паузы и сбрасывается изменением сцены")
+    void testPhases() {
+        ProgressiveRenderer.Settings settings = new ProgressiveRenderer.Settings();
+        settings.settleNanos = 100;
+        ProgressiveRenderer renderer = new ProgressiveRenderer(settings, () -> 0);
+
+        assertEquals(ProgressiveRenderer.Phase.INTERACTIVE, renderer.beginFrame(1, 0));
+        assertEquals(ProgressiveRenderer.Phase.INTERACTIVE, renderer.beginFrame(2, 50));
+        // Пауза отсчитывается от последнего изменения
+        assertEquals(ProgressiveRenderer.Phase.INTERACTIVE, renderer.beginFrame(2, 120));
+        renderer.reportPreview(false);
+        assertEquals(RenderEngine.StrokeMode.POINTS, renderer.getPreviewMode());
+        renderer.reportPreview(true);
+        assertEquals(RenderEngine.StrokeMode.POINTS, renderer.getPreviewMode());
+
+        assertEquals(ProgressiveRenderer.Phase.REFINING, renderer.beginFrame(2, 150));
+        assertEquals(RenderEngine.DEFAULT_STROKE_MODE, renderer.getPreviewMode());
+        assertEquals(ProgressiveRenderer.Phase.REFINING, renderer.beginFrame(2, 160));
+
+        assertEquals(ProgressiveRenderer.Phase.INTERACTIVE, renderer.beginFrame(3, 170));
+        renderer.invalidate();
+        assertEquals(ProgressiveRenderer.Phase.INTERACTIVE, renderer.beginFrame(3, 300));
+        assertEquals(ProgressiveRenderer.Phase.REFINING, renderer.beginFrame(3, 400));
+    }
+}
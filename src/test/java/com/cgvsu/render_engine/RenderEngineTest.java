@@ -0,0 +1,184 @@
+package com.cgvsu.render_engine;
+
+import com.cgvsu.io.ObjLoader;
+import com.cgvsu.math.Matrix4f;
+import com.cgvsu.math.Vector3f;
+import com.cgvsu.model.Model;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.DisplayName;
+
+import java.nio.FloatBuffer;
+import java.util.HashSet;
+import java.util.Random;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class RenderEngineTest {
+
+    @Test
+    @DisplayName("Параллельная проекция большой модели совпадает с последовательной")
+    void testParallelProjectionMatchesSerial() {
+        Matrix4f matrix = GraphicConveyor.lookAt(new Vector3f(0, 0, 100), new Vector3f(0, 0, 0))
+            .mul(GraphicConveyor.perspective(1.0f, 1.0f, 0.01f, 100));
+
+        // Не кратно размеру куска, чтобы последний кусок был неполным
+        int count = RenderEngine.PARALLEL_THRESHOLD + RenderEngine.CHUNK_VERTICES * 3 + 17;
+        Random random = new Random(3);
+        float[] positions = new float[count * 3];
+        for (int i = 0; i < positions.length; i++) {
+            positions[i] = random.nextFloat() * 50 - 25;
+        }
+
+        float[] transformed = new float[count * 3];
+        float[] screenPoints = new float[count * 2];
+        RenderEngine.projectVertices(matrix, FloatBuffer.wrap(positions).asReadOnlyBuffer(), transformed, screenPoints,
+            count, 800, 600);
+
+        float[] expectedTransformed = new float[count * 3];
+        float[] expectedScreen = new float[count * 2];
+        matrix.transformPoints(positions, 0, expectedTransformed, 0, count);
+        GraphicConveyor.verticesToPoints(expectedTransformed, expectedScreen, count, 800, 600);
+
+        assertArrayEquals(expectedTransformed, transformed);
+        assertArrayEquals(expectedScreen, screenPoints);
+    }
+
+    @Test
+    @DisplayName("Список ребер содержит общее ребро один раз и перестраивается после изменения модели")
+    void testDrawListsFollowModelVersion() throws Exception {
+        Model model = new ObjLoader().loadFromContent("""
+            v 0 0 0
+            v 1 0 0
+            v 1 1 0
+            v 0 1 0
+            v 2 0 0
+            f 1 2 3 4
+            f 2 5 3
+            """);
+
+        DrawList edges = model.getDerived(DrawList.EDGES);
+        assertEquals(DrawList.Primitive.LINES, edges.getPrimitive());
+        assertEquals(6, edges.getPrimitiveCount()); // 4 + 3 ребра, одно общее
+        assertSame(edges, model.getDerived(DrawList.EDGES));
+        assertEquals(3, model.getDerived(DrawList.TRIANGLES).getPrimitiveCount());
+
+        model.polygons.remove(1);
+        DrawList rebuilt = model.getDerived(DrawList.EDGES);
+        assertNotSame(edges, rebuilt);
+        assertEquals(4, rebuilt.getPrimitiveCount());
+    }
+
+    @Test
+    @DisplayName("Ребро без пары попадает в список один раз при разном обходе соседей и у неманифолдного ребра")
+    void testDrawListDeduplicatesUnpairedEdges() throws Exception {
+        // Треугольник обходит общее с квадратом ребро 2-3 в том же направлении
+        Model flipped = new ObjLoader().loadFromContent("""
+            v 0 0 0
+            v 1 0 0
+            v 1 1 0
+            v 0 1 0
+            v 2 0 0
+            f 1 2 3 4
+            f 2 3 5
+            """);
+        assertEquals(6, distinctEdgeCount(flipped.getDerived(DrawList.EDGES)));
+        assertEquals(6, flipped.getDerived(DrawList.EDGES).getPrimitiveCount());
+
+        // Ребро 1-2 принадлежит трем треугольникам
+        Model nonManifold = new ObjLoader().loadFromContent("""
+            v 0 0 0
+            v 1 0 0
+            v 0 1 0
+            v 0 -1 0
+            v 0 0 1
+            f 1 2 3
+            f 2 1 4
+            f 1 2 5
+            """);
+        assertEquals(7, distinctEdgeCount(nonManifold.getDerived(DrawList.EDGES)));
+        assertEquals(7, nonManifold.getDerived(DrawList.EDGES).getPrimitiveCount());
+    }
+
+    private static int distinctEdgeCount(DrawList edges) {
+        Set<Long> keys = new HashSet<>();
+        for (int e = 0; e < edges.getPrimitiveCount(); e++) {
+            keys.add(edgeKey(edges.getIndex(e, 0), edges.getIndex(e, 1)));
+        }
+        return keys.size();
+    }
+
+    @Test
+    @DisplayName("Ломаные покрывают каждое ребро ровно один раз")
+    void testEdgeStripsCoverEveryEdgeOnce() throws Exception {
+        Model model = new ObjLoader().loadFromContent("""
+            v 0 0 0
+            v 1 0 0
+            v 1 1 0
+            v 0 1 0
+            v 2 0 0
+            v 2 1 0
+            f 1 2 3 4
+            f 2 5 6 3
+            """);
+
+        DrawList edges = model.getDerived(DrawList.EDGES);
+        EdgeStrips strips = EdgeStrips.of(model);
+        Set<Long> expected = new HashSet<>();
+        for (int e = 0; e < edges.getPrimitiveCount(); e++) {
+            expected.add(edgeKey(edges.getIndex(e, 0), edges.getIndex(e, 1)));
+        }
+
+        Set<Long> covered = new HashSet<>();
+        int segments = 0;
+        for (int s = 0; s < strips.getStripCount(); s++) {
+            int start = strips.getStripStart(s);
+            for (int i = start + 1; i < start + strips.getStripLength(s); i++) {
+                assertTrue(covered.add(edgeKey(strips.getIndex(i - 1), strips.getIndex(i))));
+                segments++;
+            }
+        }
+        assertEquals(expected, covered);
+        assertEquals(7, segments);
+        // Две вершины нечетной степени: весь каркас выводится одной ломаной
+        assertEquals(1, strips.getStripCount());
+        assertEquals(0, strips.findStrip(0));
+        assertEquals(0, strips.findStrip(strips.getIndexCount() - 1));
+    }
+
+    @Test
+    @DisplayName("Отрезки короче пикселя дают по одной точке на пиксель в пределах кадра")
+    void testSubPixelFilter() {
+        assertTrue(SubPixelFilter.isSubPixel(10.1f, 10.2f, 10.9f, 10.8f));
+        assertFalse(SubPixelFilter.isSubPixel(10.1f, 10.2f, 11.2f, 10.2f));
+
+        SubPixelFilter filter = new SubPixelFilter();
+        filter.reset(100, 50);
+        assertTrue(filter.mark(10.5f, 10.5f));
+        assertFalse(filter.mark(10.9f, 10.1f));
+        assertTrue(filter.mark(99.5f, 49.5f));
+        assertFalse(filter.mark(-0.5f, 10));
+        assertFalse(filter.mark(100, 10));
+        assertFalse(filter.mark(Float.NaN, 10));
+
+        // Новый кадр начинается с пустого покрытия
+        filter.reset(100, 50);
+        assertTrue(filter.mark(10.5f, 10.5f));
+    }
+
+    private static long edgeKey(int a, int b) {
+        return ((long) Math.min(a, b) << 32) | Math.max(a, b);
+    }
+
+    @Test
+    @DisplayName("moveTarget сдвигает цель камеры на вектор переноса")
+    void testMoveTarget() {
+        // До перехода на com.cgvsu.math цель прибавлялась сама к себе и перенос игнорировался
+        Camera camera = new Camera(new Vector3f(0, 0, 10), new Vector3f(1, 2, 3), 1.0f, 1, 0.1f, 100);
+        camera.moveTarget(new Vector3f(1, 0, -1));
+
+        assertEquals(2, camera.getTarget().x);
+        assertEquals(2, camera.getTarget().y);
+        assertEquals(2, camera.getTarget().z);
+    }
+}
@@ -0,0 +1,88 @@
+package com.cgvsu.render_engine;
+
+import com.cgvsu.math.Vector3f;
+import com.cgvsu.model.Model;
+import com.cgvsu.model.Polygon;
+import javafx.application.Application;
+import javafx.application.Platform;
+import javafx.scene.Scene;
+import javafx.scene.canvas.Canvas;
+import javafx.scene.canvas.GraphicsContext;
+import javafx.scene.layout.Pane;
+import javafx.stage.Stage;
+
+import java.util.ArrayList;
+import java.util.List;
+
+// Сравнение способов вывода каркаса на Canvas на сетках от 100 тысяч до миллиона граней.
+// Запуск после mvn test-compile (нужен дисплей):
+// java --module-path <javafx-*.jar> --add-modules javafx.controls \
+//     -cp target/classes:target/test-classes com.cgvsu.render_engine.StrokeModeBenchmark
+// Каждый кадр завершается snapshot(), иначе Canvas только копит команды и растеризует их позже.
+public class StrokeModeBenchmark extends Application {
+
+    private static final int[] FACES = {100_000, 250_000, 500_000, 1_000_000};
+    private static final int WIDTH = 1280;
+    private static final int HEIGHT = 720;
+    private static final int WARMUP = 2;
+    private static final int REPEATS = 5;
+
+    public static void main(String[] args) {
+        launch(args);
+    }
+
+    @Override
+    public void start(Stage stage) {
+        Canvas canvas = new Canvas(WIDTH, HEIGHT);
+        stage.setScene(new Scene(new Pane(canvas)));
+        stage.show();
+
+        Camera camera = new Camera(new Vector3f(0, 0, 1.2f), new Vector3f(0, 0, 0),
+            1.0f, (float) WIDTH / HEIGHT, 0.01f, 100);
+        for (int faces : FACES) {
+            Model model = grid((int) Math.sqrt(faces));
+            // Списки ребер и ломаных строятся заранее и в замер не входят
+            model.getDerived(DrawList.EDGES);
+            model.getDerived(EdgeStrips.DERIVED);
+            System.out.printf("Граней: %d, ломаных: %d%n", model.polygons.size(),
+                model.getDerived(EdgeStrips.DERIVED).getStripCount());
+            for (RenderEngine.StrokeMode mode : RenderEngine.StrokeMode.values()) {
+                for (int i = 0; i < WARMUP; i++) {
+                    frame(canvas, camera, model, mode);
+                }
+                long start = System.nanoTime();
+                for (int i = 0; i < REPEATS; i++) {
+                    frame(canvas, camera, model, mode);
+                }
+                System.out.printf("  %-9s %8.1f мс%n", mode, (System.nanoTime() - start) / 1e6 / REPEATS);
+            }
+        }
+        Platform.exit();
+    }
+
+    private static void frame(Canvas canvas, Camera camera, Model model, RenderEngine.StrokeMode mode) {
+        GraphicsContext graphicsContext = canvas.getGraphicsContext2D();
+        graphicsContext.clearRect(0, 0, WIDTH, HEIGHT);
+        RenderEngine.render(graphicsContext, camera, model, WIDTH, HEIGHT, mode);
+        canvas.snapshot(null, null);
+    }
+
+    // Квадратная сетка size x size четырехугольников в плоскости z = 0
+    private static Model grid(int size) {
+        Model model = new Model();
+        for (int y = 0; y <= size; y++) {
+            for (int x = 0; x <= size; x++) {
+                model.vertices.add(new Vector3f((float) x / size - 0.5f, (float) y / size - 0.5f, 0));
+            }
+        }
+        for (int y = 0; y < size; y++) {
+            for (int x = 0; x < size; x++) {
+                int corner = y * (size + 1) + x;
+                Polygon polygon = new Polygon();
+                polygon.setVertexIndices(new ArrayList<>(List.of(corner, corner + 1, corner + size + 2, corner + size + 1)));
+                model.polygons.add(polygon);
+            }
+        }
+        return model;
+    }
+}
@@ -0,0 +1,116 @@
+package com.cgvsu.scene;
+
+import com.cgvsu.io.ObjLoader;
+import com.cgvsu.math.Vector3f;
+import com.cgvsu.model.Model;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ModelFileWatcherTest {
+
+    private static final String TRIANGLE =
+        "v 0.0 0.0 0.0\n" +
+        "v 1.0 0.0 0.0\n" +
+        "v 0.0 1.0 0.0\n" +
+        "f 1 2 3\n";
+
+    private static final long DEBOUNCE_MILLIS = 100;
+    private static final long TIMEOUT_MILLIS = 10_000;
+
+    @TempDir
+    Path tempDir;
+
+    private Path file;
+    private Scene scene;
+    private SceneModel sceneModel;
+    private ModelFileWatcher watcher;
+
+    // Подмена выполняется синхронно в потоке перезагрузки; счетчик - число подмен
+    private final AtomicInteger swaps = new AtomicInteger();
+
+    @BeforeEach
+    void setUp() throws Exception {
+        file = Files.writeString(tempDir.resolve("model.obj"), TRIANGLE).toAbsolutePath().normalize();
+        scene = new Scene("test");
+        sceneModel = new SceneModel("model", new ObjLoader().load(file));
+        sceneModel.setSourcePath(file);
+        scene.addElement(sceneModel);
+
+        watcher = new ModelFileWatcher(scene, runnable -> {
+            swaps.incrementAndGet();
+            runnable.run();
+        }, DEBOUNCE_MILLIS);
+        watcher.start();
+        watcher.watch(file);
+        await(() -> watcher.hasContentHash(file));
+    }
+
+    @AfterEach
+    void tearDown() {
+        watcher.close();
+    }
+
+    @Test
+    @DisplayName("Перезаписанный файл подменяет модель, сохраняя положение и выделение")
+    void testReloadKeepsTransformAndSelection() throws Exception {
+        sceneModel.setPosition(new Vector3f(1, 2, 3));
+        scene.selectElement(sceneModel);
+
+        Files.writeString(file, TRIANGLE + "v 0.0 0.0 1.0\nf 1 2 4\n");
+        await(() -> sceneModel.getModel().vertices.size() == 4);
+
+        assertEquals(2, sceneModel.getModel().polygons.size());
+        assertEquals(2, sceneModel.getPosition().y);
+        assertTrue(scene.isElementSelected(sceneModel));
+        assertEquals(1, swaps.get());
+    }
+
+    @Test
+    @DisplayName("Серия записей дает одну перезагрузку, запись без изменений - ни одной")
+    void testDebounceAndUnchangedContent() throws Exception {
+        Model original = sceneModel.getModel();
+        Files.writeString(file, TRIANGLE);
+        Thread.sleep(DEBOUNCE_MILLIS * 5);
+        assertSame(original, sceneModel.getModel());
+        assertEquals(0, swaps.get());
+
+        StringBuilder content = new StringBuilder(TRIANGLE);
+        for (int i = 0; i < 5; i++) {
+            content.append("v ").append(i).append(" 0.0 1.0\n");
+            Files.writeString(file, content);
+            Thread.sleep(DEBOUNCE_MILLIS / 5);
+        }
+        await(() -> sceneModel.getModel().vertices.size() == 8);
+        Thread.sleep(DEBOUNCE_MILLIS * 3);
+        assertEquals(1, swaps.get());
+    }
+
+    @Test
+    @DisplayName("Файл модели, удаленной из сцены, перестает отслеживаться при подмене")
+    void testRemovedModelIsUnwatched() throws Exception {
+        scene.removeElement(sceneModel);
+
+        Files.writeString(file, TRIANGLE + "v 0.0 0.0 1.0\nf 1 2 4\n");
+        await(() -> !watcher.hasContentHash(file));
+        // Сцена просматривается только в swapExecutor
+        assertEquals(1, swaps.get());
+    }
+
+    private static void await(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + TIMEOUT_MILLIS;
+        while (!condition.getAsBoolean()) {
+            assertTrue(System.currentTimeMillis() < deadline, "Условие не выполнено за отведенное время");
+            Thread.sleep(20);
+        }
+    }
+}
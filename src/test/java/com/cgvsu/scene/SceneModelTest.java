@@ -0,0 +1,42 @@
+package com.cgvsu.scene;
+
+import com.cgvsu.math.Vector3f;
+import com.cgvsu.model.Model;
+import com.cgvsu.model.Polygon;
+import com.cgvsu.render_engine.Camera;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.DisplayName;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletionException;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class SceneModelTest {
+
+    @Test
+    @DisplayName("Ошибка построения уровней детализации сообщается, и построение повторяется")
+    void testLevelsOfDetailFailureIsReportedAndRetried() {
+        // Полигоны ссылаются на отсутствующие вершины - упрощение падает в фоне
+        Model model = new Model();
+        model.vertices.add(new Vector3f(0, 0, 0));
+        for (int i = 0; i < 3_000; i++) {
+            Polygon polygon = new Polygon();
+            polygon.setVertexIndices(new ArrayList<>(List.of(0, i + 1, i + 2)));
+            model.polygons.add(polygon);
+        }
+
+        List<Throwable> errors = new ArrayList<>();
+        SceneModel sceneModel = new SceneModel("broken", model);
+        sceneModel.setLodErrorListener(errors::add);
+        sceneModel.enableLevelsOfDetail(Runnable::run, Runnable::run);
+        assertEquals(1, errors.size());
+        assertFalse(errors.get(0) instanceof CompletionException);
+        assertNull(sceneModel.getLevelsOfDetail());
+
+        Camera camera = new Camera(new Vector3f(0, 0, 10), new Vector3f(0, 0, 0), 1.0f, 1, 0.1f, 100);
+        assertSame(model, sceneModel.getRenderModel(camera, 100));
+        assertEquals(2, errors.size());
+    }
+}